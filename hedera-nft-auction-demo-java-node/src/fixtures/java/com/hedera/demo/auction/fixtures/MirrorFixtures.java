@@ -0,0 +1,185 @@
+package com.hedera.demo.auction.fixtures;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.Utils;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A store of mirror node records (transactions, topic messages and schedules) recorded from a mirror node
+ * so that they can be replayed offline by a MirrorStandIn
+ *
+ * Each kind of record is kept in its own gzipped file in the fixture directory, one record per line exactly as
+ * the mirror node returned it, without the pages and links it was returned in. Records are kept in consensus order
+ * (schedules in schedule id order) and a record added twice is only kept once.
+ */
+@Log4j2
+public class MirrorFixtures {
+
+    /**
+     * The kinds of record a fixture holds, with the file they are stored in and the field which identifies them
+     */
+    public enum Kind {
+        TRANSACTIONS("transactions.jsonl.gz", "consensus_timestamp"),
+        TOPIC_MESSAGES("topic-messages.jsonl.gz", "consensus_timestamp"),
+        SCHEDULES("schedules.jsonl.gz", "schedule_id");
+
+        private final String fileName;
+        private final String key;
+
+        Kind(String fileName, String key) {
+            this.fileName = fileName;
+            this.key = key;
+        }
+
+        public String fileName() {
+            return fileName;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        private Comparator<String> keyOrder() {
+            return this == SCHEDULES ? Comparator.naturalOrder() : Utils::compareTimestamps;
+        }
+    }
+
+    private final Path directory;
+    private final Map<Kind, TreeMap<String, JsonObject>> records = new EnumMap<>(Kind.class);
+
+    /**
+     * Constructor, for an empty fixture
+     *
+     * @param directory the directory the fixture is saved to
+     */
+    public MirrorFixtures(Path directory) {
+        this.directory = directory;
+        for (Kind kind : Kind.values()) {
+            records.put(kind, new TreeMap<>(kind.keyOrder()));
+        }
+    }
+
+    /**
+     * Loads a fixture from a directory, kinds of record without a file are empty
+     *
+     * @param directory the directory containing the fixture
+     * @return MirrorFixtures the fixture
+     * @throws IOException if a file can't be read or contains an invalid record
+     */
+    public static MirrorFixtures load(Path directory) throws IOException {
+        MirrorFixtures fixtures = new MirrorFixtures(directory);
+        for (Kind kind : Kind.values()) {
+            Path file = directory.resolve(kind.fileName());
+            if (! Files.exists(file)) {
+                continue;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                @Var String line;
+                while ((line = reader.readLine()) != null) {
+                    if (! line.isBlank()) {
+                        fixtures.add(kind, new JsonObject(line));
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("invalid record in " + file, e);
+            }
+        }
+        log.info("Loaded {} transactions, {} topic messages and {} schedules from {}", fixtures.size(Kind.TRANSACTIONS),
+                fixtures.size(Kind.TOPIC_MESSAGES), fixtures.size(Kind.SCHEDULES), directory);
+        return fixtures;
+    }
+
+    /**
+     * Saves the fixture to its directory, replacing any files already there
+     *
+     * @throws IOException if the files can't be written
+     */
+    public void save() throws IOException {
+        Files.createDirectories(directory);
+        for (Kind kind : Kind.values()) {
+            Path file = directory.resolve(kind.fileName());
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+                for (JsonObject record : records(kind)) {
+                    writer.write(record.encode());
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a record
+     *
+     * @param kind the kind of record
+     * @param record the record as returned by the mirror node
+     * @return true if the record wasn't already in the fixture
+     * @throws IllegalArgumentException if the record doesn't contain the field identifying it
+     */
+    public synchronized boolean add(Kind kind, JsonObject record) {
+        String key = record.getString(kind.key());
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException(kind + " record without " + kind.key());
+        }
+        return records.get(kind).put(key, record) == null;
+    }
+
+    /**
+     * Adds the records of a page returned by the mirror node
+     *
+     * @param kind the kind of record
+     * @param page the records
+     * @return int the number of records which weren't already in the fixture
+     */
+    public synchronized int addAll(Kind kind, JsonArray page) {
+        @Var int added = 0;
+        for (int i = 0; i < page.size(); i++) {
+            if (add(kind, page.getJsonObject(i))) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @param kind the kind of record
+     * @return {@code List<JsonObject>} the records of this kind in order
+     */
+    public synchronized List<JsonObject> records(Kind kind) {
+        return Collections.unmodifiableList(new ArrayList<>(records.get(kind).values()));
+    }
+
+    /**
+     * @param kind the kind of record
+     * @return int the number of records of this kind
+     */
+    public synchronized int size(Kind kind) {
+        return records.get(kind).size();
+    }
+
+    /**
+     * @return Path the directory the fixture is saved to
+     */
+    public Path directory() {
+        return directory;
+    }
+}
@@ -0,0 +1,180 @@
+package com.hedera.demo.auction.fixtures;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.Utils;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.log4j.Log4j2;
+import org.jooq.tools.StringUtils;
+
+import javax.annotation.Nullable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the responses of a mirror node over a window of consensus time into a MirrorFixtures store
+ *
+ * Run with ./gradlew recordMirror --args="directory from to [topic:id] [account:id] [schedule:id]..."
+ * where from and to are consensus timestamps (seconds.nanos). All transactions in the window are recorded unless
+ * accounts are given, in which case only the transactions of these accounts are. The schedules created by recorded
+ * transactions are recorded too. Records are added to the fixture already in the directory, if any.
+ */
+@Log4j2
+public class MirrorRecorder {
+    static final String PAGE_SIZE = "100";
+    private static final String TRANSACTIONS_URI = "/api/v1/transactions";
+
+    private final MirrorClient mirrorClient;
+    private final MirrorFixtures fixtures;
+
+    /**
+     * Constructor
+     *
+     * @param mirrorClient the client for the mirror node to record
+     * @param fixtures the store to record into
+     */
+    public MirrorRecorder(MirrorClient mirrorClient, MirrorFixtures fixtures) {
+        this.mirrorClient = mirrorClient;
+        this.fixtures = fixtures;
+    }
+
+    /**
+     * Records the transactions after a consensus timestamp and up to another
+     *
+     * @param from the consensus timestamp to record transactions after
+     * @param to the consensus timestamp to record transactions up to
+     * @param accountId only record the transactions involving this account, null to record all transactions
+     * @return int the number of transactions recorded
+     */
+    public int recordTransactions(String from, String to, @Nullable String accountId) {
+        Map<String, String> queryParameters = new HashMap<>();
+        if (accountId != null) {
+            queryParameters.put("account.id", accountId);
+        }
+        return recordPages(TRANSACTIONS_URI, queryParameters, "transactions", MirrorFixtures.Kind.TRANSACTIONS, from, to);
+    }
+
+    /**
+     * Records the messages of a topic after a consensus timestamp and up to another
+     *
+     * @param topicId the topic id
+     * @param from the consensus timestamp to record messages after
+     * @param to the consensus timestamp to record messages up to
+     * @return int the number of messages recorded
+     */
+    public int recordTopicMessages(String topicId, String from, String to) {
+        String uri = "/api/v1/topics/".concat(topicId).concat("/messages");
+        return recordPages(uri, new HashMap<>(), "messages", MirrorFixtures.Kind.TOPIC_MESSAGES, from, to);
+    }
+
+    /**
+     * Records a schedule
+     *
+     * @param scheduleId the schedule id
+     * @return true if the mirror node returned the schedule
+     */
+    public boolean recordSchedule(String scheduleId) {
+        JsonObject response = mirrorClient.query("/api/v1/schedules/".concat(scheduleId), new HashMap<>(), MirrorClient.Priority.LOW);
+        if (StringUtils.isEmpty(response.getString(MirrorFixtures.Kind.SCHEDULES.key()))) {
+            log.warn("schedule {} not found", scheduleId);
+            return false;
+        }
+        fixtures.add(MirrorFixtures.Kind.SCHEDULES, response);
+        return true;
+    }
+
+    /**
+     * Records the schedules created by the transactions recorded so far
+     *
+     * @return int the number of schedules recorded
+     */
+    public int recordSchedulesOfTransactions() {
+        @Var int recorded = 0;
+        for (JsonObject transaction : fixtures.records(MirrorFixtures.Kind.TRANSACTIONS)) {
+            String scheduleId = transaction.getString("entity_id");
+            if ("SCHEDULECREATE".equals(transaction.getString("name")) && ! StringUtils.isEmpty(scheduleId) && recordSchedule(scheduleId)) {
+                recorded++;
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * Follows the pages of a query in consensus order from one timestamp up to another
+     *
+     * @param uri the uri to query
+     * @param queryParameters the query parameters other than the order, page size and timestamp
+     * @param field the field of the response containing the records
+     * @param kind the kind of record
+     * @param from the consensus timestamp to record after
+     * @param to the consensus timestamp to record up to
+     * @return int the number of records added
+     */
+    private int recordPages(String uri, Map<String, String> queryParameters, String field, MirrorFixtures.Kind kind, String from, String to) {
+        @Var int recorded = 0;
+        @Var String after = from;
+        while (true) {
+            queryParameters.put("order", "asc");
+            queryParameters.put("limit", PAGE_SIZE);
+            queryParameters.put("timestamp", "gt:".concat(after));
+            JsonObject response = mirrorClient.query(uri, queryParameters, MirrorClient.Priority.LOW);
+
+            JsonArray records = response.getJsonArray(field, new JsonArray());
+            JsonArray inWindow = new JsonArray();
+            for (int i = 0; i < records.size(); i++) {
+                JsonObject record = records.getJsonObject(i);
+                if (Utils.compareTimestamps(record.getString("consensus_timestamp"), to) > 0) {
+                    break;
+                }
+                inWindow.add(record);
+            }
+            recorded += fixtures.addAll(kind, inWindow);
+            log.debug("Recorded {} {} after {}", inWindow.size(), field, after);
+
+            JsonObject links = response.getJsonObject("links", new JsonObject());
+            if (inWindow.size() < records.size() || inWindow.isEmpty() || StringUtils.isEmpty(links.getString("next"))) {
+                return recorded;
+            }
+            after = inWindow.getJsonObject(inWindow.size() - 1).getString("consensus_timestamp");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            log.error("Invalid number of arguments supplied - directory from to [topic:id] [account:id] [schedule:id]...");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        String from = args[1];
+        String to = args[2];
+        MirrorFixtures fixtures = Files.exists(directory) ? MirrorFixtures.load(directory) : new MirrorFixtures(directory);
+        HederaClient hederaClient = new HederaClient();
+        MirrorRecorder recorder = new MirrorRecorder(hederaClient.mirrorClient(), fixtures);
+
+        @Var boolean accounts = false;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].startsWith("topic:")) {
+                log.info("Recorded {} topic messages", recorder.recordTopicMessages(args[i].substring("topic:".length()), from, to));
+            } else if (args[i].startsWith("account:")) {
+                accounts = true;
+                log.info("Recorded {} transactions", recorder.recordTransactions(from, to, args[i].substring("account:".length())));
+            } else if (args[i].startsWith("schedule:")) {
+                recorder.recordSchedule(args[i].substring("schedule:".length()));
+            } else {
+                log.error("Unknown argument {}, expected topic:id, account:id or schedule:id", args[i]);
+                return;
+            }
+        }
+        if (! accounts) {
+            log.info("Recorded {} transactions", recorder.recordTransactions(from, to, null));
+        }
+        log.info("Recorded {} schedules", recorder.recordSchedulesOfTransactions());
+        fixtures.save();
+        log.info("Saved fixture to {}", directory);
+        hederaClient.mirrorClient().close();
+    }
+}
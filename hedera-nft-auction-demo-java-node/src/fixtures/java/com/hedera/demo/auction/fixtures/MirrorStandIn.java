@@ -0,0 +1,428 @@
+package com.hedera.demo.auction.fixtures;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.Utils;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import lombok.extern.log4j.Log4j2;
+import org.jooq.tools.StringUtils;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A local stand-in for the mirror node's REST api which replays the records of a MirrorFixtures store
+ *
+ * The queries the node makes are supported: transactions (filtered by account.id, transactiontype, result and
+ * timestamp), a transaction by id, a topic's messages (filtered by timestamp) and a schedule by id. Pages are
+ * returned in the requested order with a links.next link to the following page whenever a page is full, as the mirror
+ * node does. Responses can be delayed and a proportion of them replaced with 503 or 429 (with a Retry-After header)
+ * responses, chosen from a seeded random sequence so that a run can be repeated.
+ *
+ * Run with ./gradlew runMirrorStandIn --args="directory [port] [latencyMillis] [errorRate] [throttleRate]"
+ * and set the node's REST url for its mirror provider and network (e.g. REST_HEDERA_TESTNET) to localhost:port.
+ */
+@Log4j2
+public class MirrorStandIn {
+    public static final int DEFAULT_PORT = 5551;
+    static final int DEFAULT_LIMIT = 25;
+    static final int MAX_LIMIT = 100;
+    private static final List<String> PAGING_PARAMETERS = List.of("order", "limit", "timestamp");
+    private static final String NOT_FOUND = new JsonObject().put("_status", new JsonObject()
+            .put("messages", new JsonArray().add(new JsonObject().put("message", "Not found")))).encode();
+
+    private final Vertx vertx;
+    private final Timeline transactions;
+    private final Map<String, int[]> transactionsByAccount = new HashMap<>();
+    private final Map<String, List<JsonObject>> transactionsById = new HashMap<>();
+    private final Map<String, Timeline> messagesByTopic = new HashMap<>();
+    private final Map<String, JsonObject> schedules = new HashMap<>();
+
+    private final Random random;
+    private long latencyMillis = 0;
+    private long jitterMillis = 0;
+    private double errorRate = 0;
+    private double throttleRate = 0;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    @Nullable
+    private HttpServer server = null;
+
+    /**
+     * Constructor, indexes the fixture's records
+     *
+     * @param vertx the Vertx instance to run the server on
+     * @param fixtures the records to replay
+     * @param seed the seed of the random sequence choosing latency and injected errors
+     */
+    public MirrorStandIn(Vertx vertx, MirrorFixtures fixtures, long seed) {
+        this.vertx = vertx;
+        this.random = new Random(seed);
+
+        List<JsonObject> transactionRecords = fixtures.records(MirrorFixtures.Kind.TRANSACTIONS);
+        transactions = new Timeline(transactionRecords);
+        Map<String, List<Integer>> accountPositions = new HashMap<>();
+        for (int i = 0; i < transactionRecords.size(); i++) {
+            JsonObject transaction = transactionRecords.get(i);
+            for (String account : accounts(transaction)) {
+                List<Integer> positions = accountPositions.computeIfAbsent(account, key -> new ArrayList<>());
+                if (positions.isEmpty() || positions.get(positions.size() - 1) != i) {
+                    positions.add(i);
+                }
+            }
+            String transactionId = transaction.getString("transaction_id");
+            if (! StringUtils.isEmpty(transactionId)) {
+                transactionsById.computeIfAbsent(transactionId, key -> new ArrayList<>()).add(transaction);
+            }
+        }
+        accountPositions.forEach((account, positions) -> transactionsByAccount.put(account, positions.stream().mapToInt(Integer::intValue).toArray()));
+
+        Map<String, List<JsonObject>> topicMessages = new TreeMap<>();
+        for (JsonObject message : fixtures.records(MirrorFixtures.Kind.TOPIC_MESSAGES)) {
+            topicMessages.computeIfAbsent(message.getString("topic_id", ""), key -> new ArrayList<>()).add(message);
+        }
+        topicMessages.forEach((topicId, messages) -> messagesByTopic.put(topicId, new Timeline(messages)));
+
+        for (JsonObject schedule : fixtures.records(MirrorFixtures.Kind.SCHEDULES)) {
+            schedules.put(schedule.getString("schedule_id"), schedule);
+        }
+    }
+
+    /**
+     * Delays each response
+     *
+     * @param latencyMillis the minimum delay in milliseconds
+     * @param jitterMillis the maximum random delay in milliseconds added to the minimum
+     * @return MirrorStandIn this
+     */
+    public MirrorStandIn setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = Math.max(0, latencyMillis);
+        this.jitterMillis = Math.max(0, jitterMillis);
+        return this;
+    }
+
+    /**
+     * Replaces a proportion of responses with errors
+     *
+     * @param errorRate the proportion of responses replaced with a 503 response (0 to 1)
+     * @param throttleRate the proportion of responses replaced with a 429 response asking to retry after a second (0 to 1)
+     * @return MirrorStandIn this
+     */
+    public MirrorStandIn setErrors(double errorRate, double throttleRate) {
+        this.errorRate = Math.max(0, errorRate);
+        this.throttleRate = Math.max(0, throttleRate);
+        return this;
+    }
+
+    /**
+     * Starts the server
+     *
+     * @param port the port to listen on, 0 for any free port
+     * @return {@code Future<Integer>} the port the server listens on
+     */
+    public Future<Integer> listen(int port) {
+        Router router = Router.router(vertx);
+        router.get("/api/v1/transactions").handler(context -> respond(context, this::transactions));
+        router.get("/api/v1/transactions/:id").handler(context -> respond(context, this::transaction));
+        router.get("/api/v1/topics/:topicId/messages").handler(context -> respond(context, this::topicMessages));
+        router.get("/api/v1/schedules/:scheduleId").handler(context -> respond(context, this::schedule));
+        router.route().handler(context -> context.response().setStatusCode(404).putHeader("content-type", "application/json").end(NOT_FOUND));
+
+        HttpServer httpServer = vertx.createHttpServer().requestHandler(router);
+        server = httpServer;
+        return httpServer.listen(port).map(HttpServer::actualPort);
+    }
+
+    /**
+     * Stops the server
+     *
+     * @return {@code Future<Void>} completed once the server is closed
+     */
+    public Future<Void> close() {
+        return server == null ? Future.succeededFuture() : server.close();
+    }
+
+    /**
+     * @return long the number of requests received
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * @return long the number of responses replaced with errors
+     */
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * Answers a request after the configured latency, or with an injected error
+     *
+     * @param context the request's context
+     * @param handler produces the response body, null if the resource isn't found
+     */
+    private void respond(RoutingContext context, RequestHandler handler) {
+        requests.incrementAndGet();
+        double draw;
+        long delay;
+        synchronized (random) {
+            draw = random.nextDouble();
+            delay = latencyMillis + (jitterMillis > 0 ? (long) (random.nextDouble() * jitterMillis) : 0);
+        }
+        Runnable response = () -> {
+            if (draw < errorRate) {
+                injectedErrors.incrementAndGet();
+                context.response().setStatusCode(503).end();
+            } else if (draw < errorRate + throttleRate) {
+                injectedErrors.incrementAndGet();
+                context.response().setStatusCode(429).putHeader("Retry-After", "1").end();
+            } else {
+                @Nullable JsonObject body;
+                try {
+                    body = handler.handle(context);
+                } catch (IllegalArgumentException e) {
+                    context.response().setStatusCode(400).putHeader("content-type", "application/json").end(new JsonObject()
+                            .put("_status", new JsonObject().put("messages", new JsonArray().add(new JsonObject().put("message", e.getMessage())))).encode());
+                    return;
+                }
+                if (body == null) {
+                    context.response().setStatusCode(404).putHeader("content-type", "application/json").end(NOT_FOUND);
+                } else {
+                    context.response().putHeader("content-type", "application/json").end(body.encode());
+                }
+            }
+        };
+        if (delay > 0) {
+            vertx.setTimer(delay, id -> response.run());
+        } else {
+            response.run();
+        }
+    }
+
+    private JsonObject transactions(RoutingContext context) {
+        @Nullable String account = context.request().getParam("account.id");
+        @Nullable int[] positions = account == null ? null : transactionsByAccount.getOrDefault(account, new int[0]);
+        @Nullable String transactionType = context.request().getParam("transactiontype");
+        @Nullable String result = context.request().getParam("result");
+        Predicate<JsonObject> filter = transaction ->
+                (transactionType == null || transactionType.equalsIgnoreCase(transaction.getString("name")))
+                && (result == null || ("success".equalsIgnoreCase(result) == "SUCCESS".equals(transaction.getString("result"))));
+        return page(context, "transactions", transactions, positions, filter);
+    }
+
+    @Nullable
+    private JsonObject transaction(RoutingContext context) {
+        @Nullable List<JsonObject> matching = transactionsById.get(context.pathParam("id"));
+        return matching == null ? null : new JsonObject().put("transactions", new JsonArray(new ArrayList<>(matching)));
+    }
+
+    private JsonObject topicMessages(RoutingContext context) {
+        Timeline messages = messagesByTopic.getOrDefault(context.pathParam("topicId"), new Timeline(List.of()));
+        return page(context, "messages", messages, null, message -> true);
+    }
+
+    @Nullable
+    private JsonObject schedule(RoutingContext context) {
+        return schedules.get(context.pathParam("scheduleId"));
+    }
+
+    /**
+     * Builds a page of records matching the request's order, limit and timestamp parameters
+     *
+     * @param context the request's context
+     * @param field the field of the response holding the records
+     * @param timeline the records
+     * @param positions the positions of the candidate records in the timeline, null for all records
+     * @param filter further conditions the records must meet
+     * @return JsonObject the response body
+     * @throws IllegalArgumentException if a parameter is invalid
+     */
+    private static JsonObject page(RoutingContext context, String field, Timeline timeline, @Nullable int[] positions, Predicate<JsonObject> filter) {
+        boolean ascending = "asc".equalsIgnoreCase(context.request().getParam("order"));
+        int limit = limit(context.request().getParam("limit"));
+        @Var long lowerNanos = Long.MIN_VALUE;
+        @Var long upperNanos = Long.MAX_VALUE;
+        for (String timestamp : context.queryParam("timestamp")) {
+            int colon = timestamp.indexOf(':');
+            String operator = colon < 0 ? "eq" : timestamp.substring(0, colon);
+            long nanos = Utils.timestampToNanos(timestamp.substring(colon + 1));
+            switch (operator) {
+                case "gt": lowerNanos = Math.max(lowerNanos, nanos + 1); break;
+                case "gte": lowerNanos = Math.max(lowerNanos, nanos); break;
+                case "lt": upperNanos = Math.min(upperNanos, nanos - 1); break;
+                case "lte": upperNanos = Math.min(upperNanos, nanos); break;
+                case "eq": lowerNanos = Math.max(lowerNanos, nanos); upperNanos = Math.min(upperNanos, nanos); break;
+                default: throw new IllegalArgumentException("invalid timestamp operator " + operator);
+            }
+        }
+
+        List<JsonObject> records = timeline.page(positions, lowerNanos, upperNanos, ascending, limit, filter);
+        @Nullable String next = null;
+        if (records.size() == limit) {
+            String last = records.get(records.size() - 1).getString("consensus_timestamp");
+            next = nextLink(context, ascending, limit, last);
+        }
+        return new JsonObject()
+                .put(field, new JsonArray(records))
+                .put("links", new JsonObject().put("next", next));
+    }
+
+    /**
+     * Builds the link to the page following the last record, keeping the request's other parameters
+     * and the bound of the range the pages move towards
+     */
+    private static String nextLink(RoutingContext context, boolean ascending, int limit, String last) {
+        StringBuilder link = new StringBuilder(context.request().path())
+                .append("?order=").append(ascending ? "asc" : "desc")
+                .append("&limit=").append(limit);
+        Map<String, String> parameters = new TreeMap<>();
+        for (Map.Entry<String, String> parameter : context.queryParams()) {
+            if (! PAGING_PARAMETERS.contains(parameter.getKey())) {
+                parameters.putIfAbsent(parameter.getKey(), parameter.getValue());
+            }
+        }
+        parameters.forEach((key, value) -> link.append('&').append(key).append('=').append(value));
+        link.append("&timestamp=").append(ascending ? "gt:" : "lt:").append(last);
+        for (String timestamp : context.queryParam("timestamp")) {
+            if (ascending ? timestamp.startsWith("lt") : timestamp.startsWith("gt")) {
+                link.append("&timestamp=").append(timestamp);
+            }
+        }
+        return link.toString();
+    }
+
+    private static int limit(@Nullable String limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            return Math.min(MAX_LIMIT, Math.max(1, Integer.parseInt(limit)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid limit " + limit, e);
+        }
+    }
+
+    /**
+     * The accounts a transaction transfers hbar or tokens to or from
+     */
+    private static List<String> accounts(JsonObject transaction) {
+        List<String> accounts = new ArrayList<>();
+        for (String field : List.of("transfers", "token_transfers")) {
+            JsonArray transfers = transaction.getJsonArray(field, new JsonArray());
+            for (int i = 0; i < transfers.size(); i++) {
+                String account = transfers.getJsonObject(i).getString("account");
+                if (! StringUtils.isEmpty(account) && ! accounts.contains(account)) {
+                    accounts.add(account);
+                }
+            }
+        }
+        return accounts;
+    }
+
+    @FunctionalInterface
+    private interface RequestHandler {
+        @Nullable
+        JsonObject handle(RoutingContext context);
+    }
+
+    /**
+     * Records in consensus order with their timestamps, so that the start of a page can be found by binary search
+     */
+    private static final class Timeline {
+        private final List<JsonObject> records;
+        private final long[] nanos;
+
+        private Timeline(List<JsonObject> records) {
+            this.records = records;
+            this.nanos = new long[records.size()];
+            for (int i = 0; i < records.size(); i++) {
+                nanos[i] = Utils.timestampToNanos(records.get(i).getString("consensus_timestamp"));
+            }
+        }
+
+        /**
+         * @param positions the positions of the candidate records, in ascending order, null for all records
+         * @param lowerNanos the earliest timestamp, inclusive
+         * @param upperNanos the latest timestamp, inclusive
+         * @param ascending true to page forwards from the earliest timestamp, false backwards from the latest
+         * @param limit the maximum number of records
+         * @param filter further conditions the records must meet
+         * @return {@code List<JsonObject>} the page of records
+         */
+        private List<JsonObject> page(@Nullable int[] positions, long lowerNanos, long upperNanos, boolean ascending, int limit, Predicate<JsonObject> filter) {
+            List<JsonObject> page = new ArrayList<>();
+            int count = positions == null ? records.size() : positions.length;
+            if (ascending) {
+                for (int i = firstAtOrAfter(positions, count, lowerNanos); i < count && page.size() < limit; i++) {
+                    int position = positions == null ? i : positions[i];
+                    if (nanos[position] > upperNanos) {
+                        break;
+                    }
+                    if (filter.test(records.get(position))) {
+                        page.add(records.get(position));
+                    }
+                }
+            } else {
+                for (int i = firstAtOrAfter(positions, count, upperNanos == Long.MAX_VALUE ? upperNanos : upperNanos + 1) - 1; i >= 0 && page.size() < limit; i--) {
+                    int position = positions == null ? i : positions[i];
+                    if (nanos[position] < lowerNanos) {
+                        break;
+                    }
+                    if (filter.test(records.get(position))) {
+                        page.add(records.get(position));
+                    }
+                }
+            }
+            return page;
+        }
+
+        private int firstAtOrAfter(@Nullable int[] positions, int count, long timestampNanos) {
+            if (timestampNanos == Long.MAX_VALUE) {
+                return count;
+            }
+            @Var int low = 0;
+            @Var int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (nanos[positions == null ? middle : positions[middle]] < timestampNanos) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            log.error("Invalid number of arguments supplied - directory [port] [latencyMillis] [errorRate] [throttleRate]");
+            return;
+        }
+        MirrorFixtures fixtures = MirrorFixtures.load(Path.of(args[0]));
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+        double throttleRate = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+
+        MirrorStandIn standIn = new MirrorStandIn(Vertx.vertx(), fixtures, 0)
+                .setLatency(latencyMillis, latencyMillis / 2)
+                .setErrors(errorRate, throttleRate);
+        int actualPort = standIn.listen(port).toCompletionStage().toCompletableFuture().get();
+        log.info("Mirror stand-in listening on localhost:{}", actualPort);
+    }
+}
@@ -0,0 +1,106 @@
+package com.hedera.demo.auction.benchmark;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.bidrules.BidEvent;
+import com.hedera.demo.auction.app.bidrules.BidRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates synthetic bid storms against the BidRules, either as a single batch or in pages of
+ * mirror transactions the size BidsWatcher queries, carrying the winner from one page to the next
+ *
+ * A storm is generated from a fixed seed: most bids raise the winning bid, the others are too small an increase,
+ * under bids, bids below reserve, repeat bids from the winner or bids which arrive after the auction has ended.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BidRulesBenchmark {
+    private static final long START_NANOS = 1617786661000000000L;
+    private static final int PAGE_SIZE = 100;
+    private static final int BIDDERS = 1000;
+    private static final long MINIMUM_BID = 10;
+    private static final long RESERVE = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int transactions;
+
+    private BidRules bidRules = new BidRules("", "", false, 0, 0);
+    private final BidRules.Winner noWinner = new BidRules.Winner("", 0, "", "", "");
+    private List<BidEvent> storm = new ArrayList<>();
+    private List<List<BidEvent>> pages = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        // the auction ends 10 nanos before the last transaction so that the tail of the storm is too late
+        bidRules = new BidRules(Utils.nanosToTimestamp(START_NANOS), Utils.nanosToTimestamp(START_NANOS + transactions - 10), false, MINIMUM_BID, RESERVE);
+        Random random = new Random(42);
+        storm = new ArrayList<>(transactions);
+        @Var long winningBid = RESERVE;
+        @Var String winningPayer = "";
+        for (int i = 0; i < transactions; i++) {
+            String timestamp = Utils.nanosToTimestamp(START_NANOS + 1 + i);
+            int kind = random.nextInt(10);
+            String payer = (kind == 9 && ! winningPayer.isEmpty()) ? winningPayer : "0.0." + (1000 + random.nextInt(BIDDERS));
+            long amount;
+            if (kind < 6 && ! payer.equals(winningPayer)) {
+                amount = winningBid + MINIMUM_BID + random.nextInt(100);
+                winningBid = amount;
+                winningPayer = payer;
+            } else if (kind == 6) {
+                amount = winningBid + 1;
+            } else if (kind == 7) {
+                amount = winningBid - random.nextInt((int) MINIMUM_BID);
+            } else if (kind == 8) {
+                amount = RESERVE - 1;
+            } else {
+                // the winner bidding again, or a bidder repeating the winning bid
+                amount = winningBid + MINIMUM_BID;
+            }
+            storm.add(new BidEvent(timestamp, payer, amount, payer.concat("-").concat(timestamp), Long.toHexString(random.nextLong())));
+        }
+        pages = new ArrayList<>();
+        for (int i = 0; i < transactions; i += PAGE_SIZE) {
+            pages.add(storm.subList(i, Math.min(i + PAGE_SIZE, transactions)));
+        }
+    }
+
+    @Benchmark
+    public void singleBatch(Blackhole blackhole) {
+        BidRules.Outcome outcome = bidRules.evaluate(noWinner, storm);
+        blackhole.consume(outcome.decisions());
+        blackhole.consume(outcome.winner());
+    }
+
+    @Benchmark
+    public void pages(Blackhole blackhole) {
+        @Var BidRules.Winner winner = noWinner;
+        for (List<BidEvent> page : pages) {
+            BidRules.Outcome outcome = bidRules.evaluate(winner, page);
+            blackhole.consume(outcome.decisions());
+            blackhole.consume(outcome.priorBidTimestamps());
+            winner = outcome.winner();
+        }
+        blackhole.consume(winner);
+    }
+}
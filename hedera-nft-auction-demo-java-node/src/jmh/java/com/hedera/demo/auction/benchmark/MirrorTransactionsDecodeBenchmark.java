@@ -0,0 +1,101 @@
+package com.hedera.demo.auction.benchmark;
+
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionsDecoder;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a page of mirror transactions through a JsonObject tree and data binding with the
+ * streaming MirrorTransactionsDecoder
+ *
+ * Pages are built from the recorded mirror response used by the unit tests, repeated up to the page size.
+ * Each benchmark reads the fields a bid is checked with, including the memo twice. The data binding baseline
+ * decodes the memo and hash from base64 on every read as it did before they were cached on the transaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MirrorTransactionsDecodeBenchmark {
+    private static final String RECORDED_PAGE = "hedera-mirror/hedera-mirror-transactions.json";
+
+    @Param({"2", "25", "100"})
+    public int pageSize;
+
+    private Buffer page = Buffer.buffer();
+
+    @Setup
+    public void setup() throws IOException {
+        JsonObject recorded;
+        try (InputStream inputStream = Objects.requireNonNull(getClass().getClassLoader().getResourceAsStream(RECORDED_PAGE))) {
+            recorded = new JsonObject(Buffer.buffer(inputStream.readAllBytes()));
+        }
+        JsonArray recordedTransactions = recorded.getJsonArray("transactions");
+        JsonArray transactions = new JsonArray();
+        for (int i = 0; i < pageSize; i++) {
+            JsonObject transaction = recordedTransactions.getJsonObject(i % recordedTransactions.size()).copy();
+            transaction.put("consensus_timestamp", Utils.nanosToTimestamp(1617786661000000000L + i));
+            transactions.add(transaction);
+        }
+        page = recorded.copy().put("transactions", transactions).toBuffer();
+    }
+
+    @Benchmark
+    public void dataBinding(Blackhole blackhole) {
+        MirrorTransactions mirrorTransactions = new JsonObject(page).mapTo(MirrorTransactions.class);
+        consumeUncached(mirrorTransactions, blackhole);
+    }
+
+    @Benchmark
+    public void streamingDecoder(Blackhole blackhole) throws IOException {
+        MirrorTransactions mirrorTransactions = MirrorTransactionsDecoder.decode(page);
+        consume(mirrorTransactions, blackhole);
+    }
+
+    private static void consume(MirrorTransactions mirrorTransactions, Blackhole blackhole) {
+        for (MirrorTransaction transaction : mirrorTransactions.transactions) {
+            blackhole.consume(transaction.consensusTimestamp);
+            blackhole.consume(transaction.isSuccessful());
+            blackhole.consume(transaction.getMemoString());
+            blackhole.consume(transaction.getMemoString());
+            blackhole.consume(transaction.getTransactionHashString());
+            blackhole.consume(transaction.hbarTransfers.size());
+        }
+        blackhole.consume(mirrorTransactions.links.next);
+    }
+
+    private static void consumeUncached(MirrorTransactions mirrorTransactions, Blackhole blackhole) {
+        for (MirrorTransaction transaction : mirrorTransactions.transactions) {
+            blackhole.consume(transaction.consensusTimestamp);
+            blackhole.consume(transaction.isSuccessful());
+            blackhole.consume(Utils.base64toString(transaction.memo));
+            blackhole.consume(Utils.base64toString(transaction.memo));
+            blackhole.consume(Utils.base64toStringHex(transaction.transactionHash));
+            blackhole.consume(transaction.hbarTransfers.size());
+        }
+        blackhole.consume(mirrorTransactions.links.next);
+    }
+}
@@ -0,0 +1,173 @@
+package com.hedera.demo.auction;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.AccountFeed;
+import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.PollScheduler;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionClassifier;
+import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.BidsRepository;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
+import lombok.extern.log4j.Log4j2;
+
+import javax.annotation.Nullable;
+
+/**
+ * Follows the transactions of each auction account with a single AccountFeed, in place of the BidsWatcher,
+ * RefundChecker, AuctionReadinessWatcher and AuctionEndTransfer each querying the mirror node for the same account.
+ * Each page of an account's transactions is queried once and delivered to the consumers the auction currently needs.
+ *
+ * Rather than polling every account at a fixed frequency, accounts are polled when due according to a PollScheduler,
+ * an account's further pages are fetched immediately.
+ */
+@Log4j2
+public class AccountFeedsWatcher implements Runnable {
+
+    private final HederaClient hederaClient;
+    private final AuctionsRepository auctionsRepository;
+    private final MirrorCursorsRepository mirrorCursorsRepository;
+    private final RefundChecker refundChecker;
+    private final PollScheduler pollScheduler;
+    private final int mirrorQueryFrequency;
+    private final boolean runOnce;
+    protected boolean runThread = true;
+    @Nullable
+    private BidsIngester bidsIngester = null;
+    @Nullable
+    private AuctionStateEngine auctionStateEngine = null;
+
+    /**
+     * Constructor
+     *
+     * @param hederaClient the HederaClient to use to connect to Hedera
+     * @param auctionsRepository the auction repository for database access
+     * @param bidsRepository the bids repository for database access
+     * @param mirrorCursorsRepository the repository holding the consumers' checkpoints
+     * @param pollScheduler the scheduler deciding when each auction account is polled
+     * @param mirrorQueryFrequency the frequency at which to look for new auctions to poll
+     * @param runOnce polls each auction account only once
+     */
+    public AccountFeedsWatcher(HederaClient hederaClient, AuctionsRepository auctionsRepository, BidsRepository bidsRepository, MirrorCursorsRepository mirrorCursorsRepository, PollScheduler pollScheduler, int mirrorQueryFrequency, boolean runOnce) {
+        this.hederaClient = hederaClient;
+        this.auctionsRepository = auctionsRepository;
+        this.mirrorCursorsRepository = mirrorCursorsRepository;
+        this.refundChecker = new RefundChecker(hederaClient, auctionsRepository, bidsRepository, mirrorQueryFrequency, runOnce);
+        this.pollScheduler = pollScheduler;
+        this.mirrorQueryFrequency = mirrorQueryFrequency;
+        this.runOnce = runOnce;
+    }
+
+    /**
+     * Stops the thread cleanly
+     */
+    public void stop() {
+        runThread = false;
+    }
+
+    /**
+     * Sets the ingester routing bids to auctions when bids are ingested from a single global stream
+     * in which case bids are not consumed from the auction accounts' feeds
+     *
+     * @param bidsIngester the bids ingester, null if bids are consumed from the auction accounts' feeds
+     */
+    public void setBidsIngester(@Nullable BidsIngester bidsIngester) {
+        this.bidsIngester = bidsIngester;
+    }
+
+    /**
+     * Sets the engine holding the state of auctions in memory, the auctions' feeds evaluate bids against it
+     *
+     * @param auctionStateEngine the auction state engine, null to evaluate bids against the database
+     */
+    public void setAuctionStateEngine(@Nullable AuctionStateEngine auctionStateEngine) {
+        this.auctionStateEngine = auctionStateEngine;
+    }
+
+    /**
+     * Takes the next auction due off the scheduler, pages through the auction account's transactions
+     * until caught up and schedules the auction's next poll
+     * Auctions not yet scheduled are added to the scheduler every mirrorQueryFrequency
+     */
+    @Override
+    public void run() {
+        if (runOnce) {
+            try {
+                for (Auction auction : auctionsRepository.getAuctionsList()) {
+                    poll(auction);
+                }
+            } catch (Exception e) {
+                log.error(e, e);
+            }
+            return;
+        }
+
+        @Var long nextRefreshMillis = 0;
+        while (runThread) {
+            try {
+                long nowMillis = System.currentTimeMillis();
+                if (nowMillis >= nextRefreshMillis) {
+                    for (Auction auction : auctionsRepository.getAuctionsList()) {
+                        if (pollScheduler.add(auction.getId(), nowMillis)) {
+                            log.debug("Scheduled polling of account {}", auction.getAuctionaccountid());
+                        }
+                    }
+                    nextRefreshMillis = nowMillis + mirrorQueryFrequency;
+                }
+
+                @Nullable Integer auctionId = pollScheduler.takeDue(nowMillis);
+                if (auctionId == null) {
+                    long waitMillis = Math.min(pollScheduler.nextDueMillis(), nextRefreshMillis) - nowMillis;
+                    Utils.sleep((int) Math.max(1, waitMillis));
+                } else {
+                    // an auction which can't be read is scheduled again on the next refresh
+                    long transactionCount = poll(auctionsRepository.getAuction(auctionId));
+                    pollScheduler.reschedule(auctionsRepository.getAuction(auctionId), System.currentTimeMillis(), transactionCount);
+                }
+            } catch (Exception e) {
+                log.error(e, e);
+                Utils.sleep(mirrorQueryFrequency);
+            }
+        }
+    }
+
+    /**
+     * Pages through an auction account's transactions until caught up
+     *
+     * @param auction the auction
+     * @return long the number of transactions received
+     */
+    private long poll(Auction auction) {
+        AccountFeed accountFeed = feedFor(auction);
+        while (runThread && accountFeed.poll()) {
+            log.debug("Reading next page of transactions for account {}", accountFeed.accountId());
+        }
+        return accountFeed.transactionCount();
+    }
+
+    /**
+     * Builds the feed of an auction's account with the consumers the auction needs in its current state
+     *
+     * @param auction the auction
+     * @return AccountFeed the feed for the auction's account
+     */
+    private AccountFeed feedFor(Auction auction) {
+        AccountFeed accountFeed = new AccountFeed(hederaClient.mirrorClient(), new MirrorTransactionClassifier(auction.getAuctionaccountid(), auction.getTokenid()));
+        if (auction.isPending()) {
+            AuctionReadinessWatcher auctionReadinessWatcher = new AuctionReadinessWatcher(hederaClient, auctionsRepository, auction, mirrorQueryFrequency, /* runOnce= */ true);
+            auctionReadinessWatcher.setBidsIngester(bidsIngester);
+            auctionReadinessWatcher.setAuctionStateEngine(auctionStateEngine);
+            accountFeed.register(auctionReadinessWatcher.feedConsumer(mirrorCursorsRepository));
+        } else if (bidsIngester == null) {
+            BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auction.getId(), mirrorQueryFrequency, /* runOnce= */ true);
+            bidsWatcher.setAuctionStateEngine(auctionStateEngine);
+            accountFeed.register(bidsWatcher);
+        }
+        accountFeed.register(refundChecker.feedConsumer(auction, mirrorCursorsRepository));
+        if (auction.isTransferPending() || auction.isTransferInProgress()) {
+            accountFeed.register(AuctionEndTransfer.feedConsumer(auctionsRepository, auction, mirrorCursorsRepository));
+        }
+        return accountFeed;
+    }
+}
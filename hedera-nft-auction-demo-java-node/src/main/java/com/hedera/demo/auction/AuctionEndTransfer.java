@@ -1,13 +1,18 @@
 package com.hedera.demo.auction;
 
 import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.AccountFeedConsumer;
 import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.MirrorClient;
 import com.hedera.demo.auction.app.Utils;
 import com.hedera.demo.auction.app.domain.Auction;
-import com.hedera.demo.auction.app.mirrormapping.MirrorTokenTransfer;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionClassifier;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionEvent;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionKind;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
 import com.hedera.demo.auction.app.scheduledoperations.TransactionScheduler;
 import com.hedera.demo.auction.app.scheduledoperations.TransactionSchedulerResult;
 import com.hedera.hashgraph.sdk.AccountBalance;
@@ -19,18 +24,16 @@ import com.hedera.hashgraph.sdk.PrecheckStatusException;
 import com.hedera.hashgraph.sdk.TokenId;
 import com.hedera.hashgraph.sdk.TransactionId;
 import com.hedera.hashgraph.sdk.TransferTransaction;
-import io.vertx.core.json.JsonObject;
 import lombok.extern.log4j.Log4j2;
 import org.jooq.tools.StringUtils;
 
+import javax.annotation.Nullable;
 import java.sql.SQLException;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 @Log4j2
@@ -41,12 +44,17 @@ import java.util.concurrent.TimeoutException;
  */
 public class AuctionEndTransfer implements Runnable {
 
+    public static final String CURSOR_PREFIX = "transfer.";
+
     private final AuctionsRepository auctionsRepository;
     private final HederaClient hederaClient;
     private boolean runThread = true;
     private final String operatorKey;
     private final int mirrorQueryFrequency;
     private final AccountId operatorId;
+    private boolean transfersFromFeed = false;
+    @Nullable
+    private AuctionStateEngine auctionStateEngine = null;
 
     public enum TransferResult {
         SUCCESS,
@@ -69,6 +77,63 @@ public class AuctionEndTransfer implements Runnable {
         runThread = false;
     }
 
+    /**
+     * Transfers are confirmed by a consumer of the auction account's feed (see feedConsumer) rather than
+     * by querying the mirror node on each loop
+     */
+    public void setTransfersFromFeed() {
+        transfersFromFeed = true;
+    }
+
+    /**
+     * Sets the engine holding the state of auctions in memory, the bids it has yet to write for an auction
+     * are written before the auction's winner is read for the transfer
+     *
+     * @param auctionStateEngine the auction state engine, null if bids are written to the database as they're evaluated
+     */
+    public void setAuctionStateEngine(@Nullable AuctionStateEngine auctionStateEngine) {
+        this.auctionStateEngine = auctionStateEngine;
+    }
+
+    /**
+     * Gets a consumer of an auction account's feed which confirms the transfer of the auction's token
+     * The consumer's checkpoint is persisted so that the check resumes from it after a restart
+     *
+     * @param auctionsRepository the auction repository for database access
+     * @param auction the auction to confirm the transfer for
+     * @param mirrorCursorsRepository the repository holding the consumer's checkpoint
+     * @return AccountFeedConsumer the consumer, which needs transactions only while the transfer is pending or in progress
+     */
+    public static AccountFeedConsumer feedConsumer(AuctionsRepository auctionsRepository, Auction auction, MirrorCursorsRepository mirrorCursorsRepository) {
+        String cursorName = CURSOR_PREFIX + auction.getId();
+        return new AccountFeedConsumer() {
+            @Override
+            public String checkpoint() throws Exception {
+                Auction checkAuction = auctionsRepository.getAuction(auction.getId());
+                if ( ! (checkAuction.isTransferPending() || checkAuction.isTransferInProgress())) {
+                    return "";
+                }
+                // the transfer can't happen before the auction ends
+                String checkpoint = mirrorCursorsRepository.getCursor(cursorName);
+                if (StringUtils.isEmpty(checkpoint) || Utils.compareTimestamps(checkAuction.getEndtimestamp(), checkpoint) > 0) {
+                    return checkAuction.getEndtimestamp();
+                }
+                return checkpoint;
+            }
+
+            @Override
+            public Set<MirrorTransactionKind> kinds() {
+                return EnumSet.of(MirrorTransactionKind.END_TRANSFER);
+            }
+
+            @Override
+            public void handle(List<MirrorTransactionEvent> events, String upTo) throws Exception {
+                transferOccurredAlready(auctionsRepository, events, auction);
+                mirrorCursorsRepository.setCursor(cursorName, upTo);
+            }
+        };
+    }
+
     /**
      * For each of the auctions:
      *
@@ -79,15 +144,32 @@ public class AuctionEndTransfer implements Runnable {
      *
      * If the auction's status is TRANSFER_PENDING or TRANSFER_IN_PROGRESS, check if the transfer was successful.
      * if not successful or not found, attempt to transfer
+     *
+     * When auctions are held in memory, a closed auction's queued bids are written and the auction read again
+     * before its winner is looked at
      */
     @Override
     public void run() {
         while (runThread) {
             try {
                 List<Auction> auctionsList = auctionsRepository.getAuctionsList();
-                for (Auction auction: auctionsList) {
+                for (@Var Auction auction: auctionsList) {
                     if (auction.isClosed() && StringUtils.isEmpty(auction.getTransferstatus()) && auction.getProcessrefunds()) {
                         log.debug("auction closed {}", auction.getAuctionaccountid());
+                        if (auctionStateEngine != null) {
+                            try {
+                                auctionStateEngine.flush(auction.getId());
+                                auction = auctionsRepository.getAuction(auction.getId());
+                            } catch (InterruptedException e) {
+                                log.error(e, e);
+                                Thread.currentThread().interrupt();
+                                runThread = false;
+                                return;
+                            } catch (Exception e) {
+                                log.error("unable to read auction id {} after writing its bids", auction.getId(), e);
+                                continue;
+                            }
+                        }
                         // auction is closed, check association between token and winner
 
                         if (StringUtils.isEmpty(auction.getWinningaccount())) {
@@ -108,7 +190,8 @@ public class AuctionEndTransfer implements Runnable {
                     if (auction.isTransferPending() || auction.isTransferInProgress()) {
                         // has a scheduled TX completed already, if so, just update the DB with it
                         log.debug("calling auctionEndTransferInterface.checkTransferInProgress");
-                        TransferResult result = checkTransferInProgress(auction);
+                        // a transfer confirmed from the feed no longer shows as pending or in progress
+                        TransferResult result = transfersFromFeed ? TransferResult.NOT_FOUND : checkTransferInProgress(auction);
                         // transfer the token
                         // transfer already occurred and the checkTransferInProgress should have updated the auction
                         // status accordingly
@@ -230,27 +313,27 @@ public class AuctionEndTransfer implements Runnable {
     /**
      * Checks a mirror node for a token transfer, when a successful transfer is found, updates the auction
      * with the transfer transaction id and transaction hash
-     * @param mirrorTransactions a list of transactions from the mirror node
-     * @param tokenId the token id to look for a transaction for
+     * @param auctionsRepository the auction repository for database access
+     * @param events the auction's events from the transactions of the mirror node
+     * @param auction the auction whose token to look for a transfer of
      * @return a TransferResult indicating success, failure or not found.
      */
-    private  TransferResult transferOccurredAlready(MirrorTransactions mirrorTransactions, String tokenId) {
+    private static TransferResult transferOccurredAlready(AuctionsRepository auctionsRepository, List<MirrorTransactionEvent> events, Auction auction) {
         @Var TransferResult result = TransferResult.NOT_FOUND;
-        for (MirrorTransaction mirrorTransaction : mirrorTransactions.transactions) {
-            for (MirrorTokenTransfer mirrorTokenTransfer : mirrorTransaction.tokenTransfers) {
-                if (mirrorTokenTransfer.tokenId.equals(tokenId)) {
-                    if (mirrorTransaction.isSuccessful()) {
-                        // transaction complete
-                        try {
-                            auctionsRepository.setTransferTransactionByTokenId(tokenId, mirrorTransaction.transactionId, mirrorTransaction.getTransactionHashString());
-                            return AuctionEndTransfer.TransferResult.SUCCESS;
-                        } catch (Exception e) {
-                            log.error("unable to set transaction to transfer complete", e);
-                        }
-                    } else {
-                        // note: we keep going through the transactions just in case one is successful later
-                        result = AuctionEndTransfer.TransferResult.FAILED;
+        for (MirrorTransactionEvent event : events) {
+            MirrorTransaction mirrorTransaction = event.transaction();
+            if (event.is(MirrorTransactionKind.END_TRANSFER)) {
+                if (mirrorTransaction.isSuccessful()) {
+                    // transaction complete
+                    try {
+                        auctionsRepository.setTransferTransactionByTokenId(auction.getTokenid(), mirrorTransaction.transactionId, mirrorTransaction.getTransactionHashString());
+                        return AuctionEndTransfer.TransferResult.SUCCESS;
+                    } catch (Exception e) {
+                        log.error("unable to set transaction to transfer complete", e);
                     }
+                } else {
+                    // note: we keep going through the transactions just in case one is successful later
+                    result = AuctionEndTransfer.TransferResult.FAILED;
                 }
             }
         }
@@ -271,7 +354,7 @@ public class AuctionEndTransfer implements Runnable {
 
         @Var TransferResult result = TransferResult.NOT_FOUND;
         @Var String nextTimestamp = auction.getEndtimestamp();
-        ExecutorService executor = Executors.newFixedThreadPool(1);
+        MirrorTransactionClassifier classifier = new MirrorTransactionClassifier(auction.getAuctionaccountid(), auction.getTokenid());
         while (!StringUtils.isEmpty(nextTimestamp)) {
             Map<String, String> queryParameters = new HashMap<>();
             if (StringUtils.isEmpty(auction.getWinningaccount())) {
@@ -284,24 +367,12 @@ public class AuctionEndTransfer implements Runnable {
             queryParameters.put("timestamp", "gt:".concat(nextTimestamp));
 
             log.debug("querying mirror for successful transaction for account {} , timestamp:gt:{}", queryParameters.get("account.id"), nextTimestamp);
-            Future<JsonObject> future = executor.submit(Utils.queryMirror(hederaClient, uri, queryParameters));
-            try {
-                JsonObject response = future.get();
-                if (response != null) {
-                    MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
-                    result = transferOccurredAlready(mirrorTransactions, auction.getTokenid());
-                    log.info(result);
-                    nextTimestamp = Utils.getTimestampFromMirrorLink(mirrorTransactions.links.next);
-                }
-            } catch (InterruptedException e) {
-                log.error(e, e);
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException e) {
-                log.error(e, e);
-            }
+            MirrorTransactions mirrorTransactions = hederaClient.mirrorClient().queryTransactions(uri, queryParameters, MirrorClient.Priority.HIGH);
+            result = transferOccurredAlready(auctionsRepository, classifier.classify(mirrorTransactions.transactions), auction);
+            log.info(result);
+            nextTimestamp = Utils.getTimestampFromMirrorLink(mirrorTransactions.links.next);
 
         }
-        executor.shutdown();
         return result;
     }
 }
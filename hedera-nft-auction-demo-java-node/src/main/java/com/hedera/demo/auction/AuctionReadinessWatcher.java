@@ -1,24 +1,29 @@
 package com.hedera.demo.auction;
 
 import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.AccountFeedConsumer;
 import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.PollScheduler;
 import com.hedera.demo.auction.app.Utils;
 import com.hedera.demo.auction.app.domain.Auction;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTokenTransfer;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionClassifier;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionEvent;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionKind;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
-import io.vertx.core.json.JsonObject;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
 import lombok.extern.log4j.Log4j2;
 import org.jooq.tools.StringUtils;
 
 import javax.annotation.Nullable;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Set;
 
 @Log4j2
 /**
@@ -26,6 +31,8 @@ import java.util.concurrent.Future;
  */
 public class AuctionReadinessWatcher implements Runnable {
 
+    public static final String CURSOR_PREFIX = "readiness.";
+
     protected final Auction auction;
     protected final AuctionsRepository auctionsRepository;
     protected final int mirrorQueryFrequency;
@@ -35,8 +42,16 @@ public class AuctionReadinessWatcher implements Runnable {
     protected boolean runThread = true;
     @Nullable
     protected BidsWatcher bidsWatcher = null;
+    @Nullable
+    protected BidsIngester bidsIngester = null;
+    @Nullable
+    protected AuctionStateEngine auctionStateEngine = null;
+    @Nullable
+    protected PollScheduler pollScheduler = null;
     protected String nextTimestamp = "0.0";
     protected boolean runOnce;
+    // bids are consumed from the auction account's feed once the auction is active
+    protected boolean bidsFromFeed = false;
 
     /**
      * Constructor
@@ -66,6 +81,69 @@ public class AuctionReadinessWatcher implements Runnable {
         runThread = false;
     }
 
+    /**
+     * Sets the ingester routing bids to auctions when bids are ingested from a single global stream
+     * in which case the ingester is refreshed once the auction is active rather than starting a BidsWatcher
+     *
+     * @param bidsIngester the bids ingester, null if each auction has its own BidsWatcher
+     */
+    public void setBidsIngester(@Nullable BidsIngester bidsIngester) {
+        this.bidsIngester = bidsIngester;
+    }
+
+    /**
+     * Sets the engine holding the state of auctions in memory, the BidsWatchers started evaluate bids against it
+     *
+     * @param auctionStateEngine the auction state engine, null to evaluate bids against the database
+     */
+    public void setAuctionStateEngine(@Nullable AuctionStateEngine auctionStateEngine) {
+        this.auctionStateEngine = auctionStateEngine;
+    }
+
+    /**
+     * Sets the scheduler working out the interval between polls from the auction's phase and recent activity,
+     * the BidsWatchers started poll according to it too
+     *
+     * @param pollScheduler the poll scheduler, null to poll every mirrorQueryFrequency
+     */
+    public void setPollScheduler(@Nullable PollScheduler pollScheduler) {
+        this.pollScheduler = pollScheduler;
+    }
+
+    /**
+     * Gets a consumer of the auction account's feed which activates the auction once the token is transferred
+     * to the auction account. The consumer's checkpoint is persisted so that the check resumes from it after a restart.
+     * Bids for the auction are then expected to be consumed from the feed too, no BidsWatcher thread is started.
+     *
+     * @param mirrorCursorsRepository the repository holding the consumer's checkpoint
+     * @return AccountFeedConsumer the consumer, which needs transactions only while the auction is pending
+     */
+    public AccountFeedConsumer feedConsumer(MirrorCursorsRepository mirrorCursorsRepository) {
+        bidsFromFeed = true;
+        String cursorName = CURSOR_PREFIX + auction.getId();
+        return new AccountFeedConsumer() {
+            @Override
+            public String checkpoint() throws Exception {
+                if ( ! auctionsRepository.getAuction(auction.getId()).isPending()) {
+                    return "";
+                }
+                String checkpoint = mirrorCursorsRepository.getCursor(cursorName);
+                return StringUtils.isEmpty(checkpoint) ? "0.0" : checkpoint;
+            }
+
+            @Override
+            public Set<MirrorTransactionKind> kinds() {
+                return EnumSet.of(MirrorTransactionKind.READINESS_TRANSFER);
+            }
+
+            @Override
+            public void handle(List<MirrorTransactionEvent> events, String upTo) throws Exception {
+                handleEvents(events);
+                mirrorCursorsRepository.setCursor(cursorName, upTo);
+            }
+        };
+    }
+
     /**
      * check transaction history for token, if associated update auction status
      * start new bidding monitor thread
@@ -91,9 +169,9 @@ public class AuctionReadinessWatcher implements Runnable {
         }
 
 
-        ExecutorService executor = Executors.newFixedThreadPool(1);
         while (runThread) {
             @Var String queryFromTimeStamp = nextTimestamp;
+            @Var long recentTransactions = 0;
             while (!StringUtils.isEmpty(queryFromTimeStamp)) {
                 log.debug("Checking ownership of token {} for account {}", auction.getTokenid(), auction.getAuctionaccountid());
                 Map<String, String> queryParameters = new HashMap<>();
@@ -102,44 +180,35 @@ public class AuctionReadinessWatcher implements Runnable {
                 queryParameters.put("order", "asc");
                 queryParameters.put("timestamp", "gt:".concat(queryFromTimeStamp));
 
-                Future<JsonObject> future = executor.submit(Utils.queryMirror(hederaClient, uri, queryParameters));
-                try {
-                    JsonObject response = future.get();
-                    if (response != null) {
-                        MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
-
-                        if (handleResponse(mirrorTransactions)) {
-                            // token is owned by the auction account, exit this thread
-                            log.debug("Token owned by the account");
-                            runThread = false;
-                            break;
-                        }
-                        queryFromTimeStamp = Utils.getTimestampFromMirrorLink(mirrorTransactions.links.next);
-                        if (StringUtils.isEmpty(queryFromTimeStamp)) {
-                            int transactionCount = mirrorTransactions.transactions.size();
-                            if (transactionCount > 0) {
-                                queryFromTimeStamp = mirrorTransactions.transactions.get(transactionCount - 1).consensusTimestamp;
-                            }
-                        }
-                        if (! StringUtils.isEmpty(queryFromTimeStamp)) {
-                            nextTimestamp = queryFromTimeStamp;
-                        }
+                MirrorTransactions mirrorTransactions = hederaClient.mirrorClient().queryTransactions(uri, queryParameters, MirrorClient.Priority.LOW);
+                recentTransactions += mirrorTransactions.transactions.size();
+
+                if (handleResponse(mirrorTransactions)) {
+                    // token is owned by the auction account, exit this thread
+                    log.debug("Token owned by the account");
+                    runThread = false;
+                    break;
+                }
+                queryFromTimeStamp = Utils.getTimestampFromMirrorLink(mirrorTransactions.links.next);
+                if (StringUtils.isEmpty(queryFromTimeStamp)) {
+                    int transactionCount = mirrorTransactions.transactions.size();
+                    if (transactionCount > 0) {
+                        queryFromTimeStamp = mirrorTransactions.transactions.get(transactionCount - 1).consensusTimestamp;
                     }
-                } catch (InterruptedException e) {
-                    log.error(e, e);
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    log.error(e, e);
+                }
+                if (! StringUtils.isEmpty(queryFromTimeStamp)) {
+                    nextTimestamp = queryFromTimeStamp;
                 }
             }
 
             if (this.runOnce) {
                 this.runThread = false;
-            } else {
+            } else if (pollScheduler == null) {
                 Utils.sleep(this.mirrorQueryFrequency);
+            } else {
+                Utils.sleep((int) pollScheduler.interval(auction, System.currentTimeMillis(), recentTransactions));
             }
         }
-        executor.shutdown();
     }
 
     /**
@@ -154,44 +223,71 @@ public class AuctionReadinessWatcher implements Runnable {
      * @return boolean true if the token has been transferred successfully
      */
     public boolean handleResponse(MirrorTransactions mirrorTransactions) {
+        if (mirrorTransactions.transactions == null) {
+            return false;
+        }
+        MirrorTransactionClassifier classifier = new MirrorTransactionClassifier(auction.getAuctionaccountid(), auction.getTokenid());
+        return handleEvents(classifier.classify(mirrorTransactions.transactions));
+    }
+
+    /**
+     * Looks for a successful transfer of the token from its owner to the auction account among the auction's events
+     *
+     * @param events the auction's events, in consensus order
+     * @return boolean true if the token has been transferred successfully
+     */
+    private boolean handleEvents(List<MirrorTransactionEvent> events) {
         try {
-            if (mirrorTransactions.transactions != null) {
-                for (MirrorTransaction transaction : mirrorTransactions.transactions) {
-                    if (transaction.isSuccessful()) {
-                        @Var String tokenOwnerAccount = "";
-                        @Var boolean auctionAccountFound = false;
-                        for (MirrorTokenTransfer tokenTransfer : transaction.tokenTransfers) {
-                            if (tokenTransfer.tokenId.equals(this.auction.getTokenid())) {
-                                if (tokenTransfer.amount == -1) {
-                                    // token owner
-                                    tokenOwnerAccount = tokenTransfer.account;
-                                } else if (tokenTransfer.amount == 1 && tokenTransfer.account.equals(auction.getAuctionaccountid())) {
-                                    // auction account
-                                    auctionAccountFound = true;
-                                }
+            for (MirrorTransactionEvent event : events) {
+                MirrorTransaction transaction = event.transaction();
+                if (transaction.isSuccessful() && event.is(MirrorTransactionKind.READINESS_TRANSFER)) {
+                    @Var String tokenOwnerAccount = "";
+                    @Var boolean auctionAccountFound = false;
+                    for (MirrorTokenTransfer tokenTransfer : transaction.tokenTransfers) {
+                        if (tokenTransfer.tokenId.equals(this.auction.getTokenid())) {
+                            if (tokenTransfer.amount == -1) {
+                                // token owner
+                                tokenOwnerAccount = tokenTransfer.account;
+                            } else if (tokenTransfer.amount == 1 && tokenTransfer.account.equals(auction.getAuctionaccountid())) {
+                                // auction account
+                                auctionAccountFound = true;
                             }
                         }
+                    }
 
-                        if (auctionAccountFound && ! StringUtils.isEmpty(tokenOwnerAccount)) {
-                            // we have a transfer from the token owner to the auction account
-                            // token is associated
-                            log.info("Account {} owns token {}, starting auction",  auction.getAuctionaccountid(), auction.getTokenid());
-                            auctionsRepository.setActive(auction, tokenOwnerAccount, transaction.consensusTimestamp);
-                            // start the thread to monitor bids
-                            bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auction.getId(), mirrorQueryFrequency, runOnce);
-                            if (this.runOnce) {
-                                // do not run as a thread
-                                bidsWatcher.run();
-                            } else {
-                                Thread t = new Thread(bidsWatcher);
-                                t.start();
-                            }
+                    if (auctionAccountFound && ! StringUtils.isEmpty(tokenOwnerAccount)) {
+                        // we have a transfer from the token owner to the auction account
+                        // token is associated
+                        log.info("Account {} owns token {}, starting auction",  auction.getAuctionaccountid(), auction.getTokenid());
+                        auctionsRepository.setActive(auction, tokenOwnerAccount, transaction.consensusTimestamp);
+                        if (auctionStateEngine != null) {
+                            // the start timestamp held for the auction is now out of date
+                            auctionStateEngine.invalidate(auction.getId());
+                        }
+                        if (bidsIngester != null) {
+                            // bids for this auction now come from the global stream
+                            bidsIngester.refresh();
                             return true;
                         }
+                        if (bidsFromFeed) {
+                            return true;
+                        }
+                        // start the thread to monitor bids
+                        bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auction.getId(), mirrorQueryFrequency, runOnce);
+                        bidsWatcher.setAuctionStateEngine(auctionStateEngine);
+                        bidsWatcher.setPollScheduler(pollScheduler);
+                        if (this.runOnce) {
+                            // do not run as a thread
+                            bidsWatcher.run();
+                        } else {
+                            Thread t = new Thread(bidsWatcher);
+                            t.start();
+                        }
+                        return true;
                     }
                 }
-                return false;
             }
+            return false;
         } catch (Exception e) {
             log.error(e, e);
         }
@@ -0,0 +1,272 @@
+package com.hedera.demo.auction;
+
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.BidsCommit;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.log4j.Log4j2;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the state of the auctions being watched for bids in memory so that bids are evaluated without
+ * reading the auction from the database for every page of transactions
+ *
+ * An auction is loaded from the database the first time it's asked for and again only after it has been invalidated.
+ * The outcome of each page of transactions is queued and written to the database behind the bid evaluation by this
+ * runnable's thread, in the order the pages were processed and several pages to a database transaction. A batch which
+ * fails to be written is retried until it succeeds, pages queue up meanwhile and evaluation is held back once too many
+ * pages are waiting. Since an auction's last consensus timestamp is written with its bids, pages which were still
+ * queued when the node stopped are processed again after a restart.
+ */
+@Log4j2
+public class AuctionStateEngine implements Runnable {
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_MAX_PENDING = 10000;
+    static final int RETRY_MILLIS = 1000;
+
+    private final AuctionsRepository auctionsRepository;
+    private final int batchSize;
+    private final int maxPending;
+    private final Map<Integer, Auction> auctions = new HashMap<>();
+    private final ArrayDeque<BidsCommit> pending = new ArrayDeque<>();
+    private boolean runThread = true;
+    private boolean stopped = false;
+
+    private long loads = 0;
+    private long pagesWritten = 0;
+    private long batchesWritten = 0;
+    private long failedBatches = 0;
+
+    /**
+     * Constructor
+     *
+     * @param auctionsRepository the auction repository for database access
+     * @param batchSize the maximum number of pages written in one database transaction
+     * @param maxPending the number of pages waiting to be written beyond which evaluation is held back
+     */
+    public AuctionStateEngine(AuctionsRepository auctionsRepository, int batchSize, int maxPending) {
+        this.auctionsRepository = auctionsRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * Stops the thread once the pages waiting have been written
+     */
+    public synchronized void stop() {
+        runThread = false;
+        notifyAll();
+    }
+
+    /**
+     * Returns an auction's state, loading it from the database if it isn't held yet
+     * The state is updated in place as bids are evaluated, an auction must only be evaluated by one thread at a time
+     *
+     * @param auctionId the id of the auction
+     * @return Auction the auction's state
+     * @throws Exception in the event of a database error
+     */
+    public synchronized Auction auction(int auctionId) throws Exception {
+        @Nullable Auction auction = auctions.get(auctionId);
+        if (auction != null) {
+            return auction;
+        }
+        Auction loaded = auctionsRepository.getAuction(auctionId);
+        loads++;
+        auctions.put(auctionId, loaded);
+        return loaded;
+    }
+
+    /**
+     * Queues the outcome of a page of transactions to be written to the database
+     *
+     * @param commit the outcome of the page
+     * @throws InterruptedException if interrupted while waiting for the queue to drain
+     */
+    public synchronized void write(BidsCommit commit) throws InterruptedException {
+        while (pending.size() >= maxPending && runThread) {
+            wait();
+        }
+        pending.addLast(commit);
+        notifyAll();
+    }
+
+    /**
+     * Waits until the pages queued so far have been written, or the writer has stopped
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        while (! pending.isEmpty() && ! stopped) {
+            wait();
+        }
+    }
+
+    /**
+     * Waits until the pages queued so far for an auction have been written, or the writer has stopped, so that
+     * the auction's winner read from the database is up to date
+     *
+     * @param auctionId the id of the auction
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void flush(int auctionId) throws InterruptedException {
+        while (isPending(auctionId) && ! stopped) {
+            wait();
+        }
+    }
+
+    /**
+     * Determines whether pages of an auction are waiting to be written
+     *
+     * @param auctionId the id of the auction
+     * @return true if a page of the auction is queued
+     */
+    private boolean isPending(int auctionId) {
+        for (BidsCommit commit : pending) {
+            if (commit.auctionId() == auctionId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops an auction's state once its queued pages have been written, so that it's loaded from the
+     * database the next time it's asked for, for example after the auction was updated in the database
+     * by another component
+     *
+     * @param auctionId the id of the auction
+     * @throws InterruptedException if interrupted while waiting for the queued pages to be written
+     */
+    public synchronized void invalidate(int auctionId) throws InterruptedException {
+        flush();
+        auctions.remove(auctionId);
+    }
+
+    /**
+     * Writes queued pages to the database in batches until stopped
+     */
+    @Override
+    public void run() {
+        try {
+            writeBatches();
+        } finally {
+            synchronized (this) {
+                stopped = true;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes batches of pages off the queue and writes them, a batch stays queued until it's been written
+     */
+    private void writeBatches() {
+        while (true) {
+            List<BidsCommit> batch = new ArrayList<>();
+            synchronized (this) {
+                while (pending.isEmpty() && runThread) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                Iterator<BidsCommit> iterator = pending.iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                }
+            }
+            try {
+                auctionsRepository.commitBids(batch);
+                synchronized (this) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        pending.removeFirst();
+                    }
+                    pagesWritten += batch.size();
+                    batchesWritten++;
+                    notifyAll();
+                }
+            } catch (Exception e) {
+                log.error("Failed to write {} pages of bids, retrying", batch.size(), e);
+                synchronized (this) {
+                    failedBatches++;
+                    if (! runThread) {
+                        log.error("Stopped with {} pages of bids not written, they will be processed again on restart", pending.size());
+                        pending.clear();
+                        notifyAll();
+                        return;
+                    }
+                }
+                Utils.sleep(RETRY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * @return int the number of auctions held in memory
+     */
+    public synchronized int auctions() {
+        return auctions.size();
+    }
+
+    /**
+     * @return int the number of pages waiting to be written
+     */
+    public synchronized int pending() {
+        return pending.size();
+    }
+
+    /**
+     * @return long the number of times an auction was loaded from the database
+     */
+    public synchronized long loads() {
+        return loads;
+    }
+
+    /**
+     * @return long the number of pages written
+     */
+    public synchronized long pagesWritten() {
+        return pagesWritten;
+    }
+
+    /**
+     * @return long the number of database transactions the pages were written in
+     */
+    public synchronized long batchesWritten() {
+        return batchesWritten;
+    }
+
+    /**
+     * @return long the number of batches which failed to be written and were retried
+     */
+    public synchronized long failedBatches() {
+        return failedBatches;
+    }
+
+    /**
+     * @return JsonObject the engine's metrics in json format
+     */
+    public synchronized JsonObject toJson() {
+        return new JsonObject()
+                .put("auctions", auctions.size())
+                .put("pending", pending.size())
+                .put("loads", loads)
+                .put("pagesWritten", pagesWritten)
+                .put("batchesWritten", batchesWritten)
+                .put("failedBatches", failedBatches);
+    }
+}
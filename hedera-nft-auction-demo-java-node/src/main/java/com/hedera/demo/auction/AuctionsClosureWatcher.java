@@ -15,6 +15,7 @@ import com.hedera.hashgraph.sdk.TransactionResponse;
 import lombok.extern.log4j.Log4j2;
 import org.jooq.tools.StringUtils;
 
+import javax.annotation.Nullable;
 import java.sql.SQLException;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
@@ -31,13 +32,15 @@ public class AuctionsClosureWatcher implements Runnable {
     private final HederaClient hederaClient;
     private final String masterKey;
     protected boolean runThread = true;
+    @Nullable
+    private AuctionStateEngine auctionStateEngine = null;
 
     /**
      * Constructor
      *
      * @param hederaClient the HederaClient to use to connect to Hedera
      * @param auctionsRepository the auctions repository for database interactions
-     * @param mirrorQueryFrequency the frequency at which to query mirror node
+     * @param mirrorQueryFrequency the frequency at which to check auction end dates
      * @param transferOnWin boolean to indicate if the token should be transferred to the winner upon closure of the auction
      * @param masterKey the master key for the auction account
      */
@@ -50,7 +53,7 @@ public class AuctionsClosureWatcher implements Runnable {
     }
 
     /**
-     * Runs a thread that queries a mirror node for the last consensus timestamp and compares that with auction
+     * Runs a thread that reads consensus time from the shared consensus clock and compares that with auction
      * end dates
      */
     @Override
@@ -58,11 +61,11 @@ public class AuctionsClosureWatcher implements Runnable {
 
         while (runThread) {
 
-            String lastMirrorTimestamp = Utils.getLastConsensusTimeFromMirror(hederaClient);
-            if (! StringUtils.isEmpty(lastMirrorTimestamp)) {
-                closeAuctionIfPastEnd(lastMirrorTimestamp);
+            String consensusTimestamp = hederaClient.consensusClock().now();
+            if (! StringUtils.isEmpty(consensusTimestamp)) {
+                closeAuctionIfPastEnd(consensusTimestamp);
             } else {
-                log.warn("Unable to fetch last timestamp from mirror node");
+                log.warn("Consensus time not known yet");
             }
             Utils.sleep(this.mirrorQueryFrequency);
         }
@@ -75,6 +78,16 @@ public class AuctionsClosureWatcher implements Runnable {
         runThread = false;
     }
 
+    /**
+     * Sets the engine holding the state of auctions in memory, the bids it has yet to write for an auction
+     * are written before the auction is closed
+     *
+     * @param auctionStateEngine the auction state engine, null if bids are written to the database as they're evaluated
+     */
+    public void setAuctionStateEngine(@Nullable AuctionStateEngine auctionStateEngine) {
+        this.auctionStateEngine = auctionStateEngine;
+    }
+
     /**
      * Looks for auctions with a status of OPEN or PENDING
      * if the endTimestamp of an auction is prior to the last mirror reported consensus timestamp
@@ -84,6 +97,9 @@ public class AuctionsClosureWatcher implements Runnable {
      * In order to ensure no further bids can be placed against the auction account, the auction account's
      * receiver signature required flag is set to true if a master key is supplied.
      *
+     * When auctions are held in memory, the auction's queued bids are written first so that the winner
+     * recorded in the database when the auction closes is the latest one.
+     *
      * @param consensusTimestamp the timestamp to use to check auction end dates
      */
     private void closeAuctionIfPastEnd(String consensusTimestamp) {
@@ -92,10 +108,13 @@ public class AuctionsClosureWatcher implements Runnable {
                 String endTimestamp = auctions.getKey();
                 int auctionId = auctions.getValue();
 
-                if (consensusTimestamp.compareTo(endTimestamp) > 0) {
+                if (Utils.compareTimestamps(consensusTimestamp, endTimestamp) > 0) {
                     // latest transaction past auctions end, close it
                     log.info("Closing/ending auction id {}", auctionId);
                     try {
+                        if (auctionStateEngine != null) {
+                            auctionStateEngine.flush(auctionId);
+                        }
                         if ( transferOnWin) {
                             // if the auction transfers the token on winning, set the auction to closed (no more bids)
                             log.debug("transferOnWin, setting auction to CLOSED");
@@ -105,6 +124,10 @@ public class AuctionsClosureWatcher implements Runnable {
                             log.debug("transferOnWin false, setting auction to ENDED");
                             auctionsRepository.setEnded(auctionId);
                         }
+                        if (auctionStateEngine != null) {
+                            // the status held for the auction is now out of date
+                            auctionStateEngine.invalidate(auctionId);
+                        }
                         //TODO: Enable scheduled transaction here when the ACCOUNT_UPDATE transaction type is
                         // supported by scheduled transactions, in the mean time, only the master node is able to do this.
                         if ( !StringUtils.isEmpty(masterKey)) {
@@ -113,6 +136,11 @@ public class AuctionsClosureWatcher implements Runnable {
 
                     } catch (SQLException e) {
                         log.error("unable to set transfer transaction on auction", e);
+                    } catch (InterruptedException e) {
+                        log.error(e, e);
+                        Thread.currentThread().interrupt();
+                        runThread = false;
+                        return;
                     }
                 }
             }
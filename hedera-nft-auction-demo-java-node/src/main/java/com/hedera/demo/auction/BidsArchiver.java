@@ -0,0 +1,71 @@
+package com.hedera.demo.auction;
+
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.repository.BidsRepository;
+import lombok.extern.log4j.Log4j2;
+
+import java.sql.SQLException;
+
+/**
+ * Periodically moves the bids of settled auctions to the archive partitions of the bids table
+ * so that the live partition only holds bids which may still change
+ */
+@Log4j2
+public class BidsArchiver implements Runnable {
+
+    public static final int DEFAULT_ARCHIVE_FREQUENCY = 60000;
+
+    protected final BidsRepository bidsRepository;
+    protected final int archiveFrequency;
+    protected boolean runThread = true;
+
+    /**
+     * Constructor
+     *
+     * @param bidsRepository the repository to archive bids with
+     * @param archiveFrequency the number of milliseconds to pause between archive passes
+     */
+    public BidsArchiver(BidsRepository bidsRepository, int archiveFrequency) {
+        this.bidsRepository = bidsRepository;
+        this.archiveFrequency = archiveFrequency;
+    }
+
+    /**
+     * continuous loop except if runThread is false which archives settled auctions' bids
+     * Pauses between each loop
+     */
+    @Override
+    public void run() {
+        log.info("Archiving bids of settled auctions");
+        while (runThread) {
+            archiveBids();
+            Utils.sleep(this.archiveFrequency);
+        }
+    }
+
+    /**
+     * Stops the archiver, returns without waiting for an archive pass in progress
+     * A pass in progress runs to completion, the thread then exits at the end of its pause rather than starting another pass
+     */
+    public void stop() {
+        runThread = false;
+    }
+
+    /**
+     * Archives the bids of auctions which have ended and have no refunds outstanding
+     *
+     * @return int the number of bids archived
+     */
+    public int archiveBids() {
+        try {
+            int archived = bidsRepository.archiveSettledAuctions();
+            if (archived > 0) {
+                log.info("Archived {} bids", archived);
+            }
+            return archived;
+        } catch (SQLException e) {
+            log.error("Unable to archive bids", e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.hedera.demo.auction;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.log4j.Log4j2;
+import org.jooq.tools.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catches auctions up with the transactions on their accounts which haven't been processed yet
+ *
+ * Each auction's missing range of consensus time is split into slices which are fetched from the mirror node
+ * concurrently, by a bounded number of threads. The slices of an auction are applied strictly in consensus order:
+ * a slice fetched early is held until the slices before it have been applied. An auction is reported caught up
+ * as soon as its last slice is applied, regardless of the progress of other auctions.
+ *
+ * Progress and the estimated time remaining are logged while slices are being applied.
+ */
+@Log4j2
+public class BidsBackfill {
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final long DEFAULT_SLICE_SECONDS = 3600;
+    // a longer range is split into slices longer than the slice duration
+    static final int MAX_SLICES_PER_AUCTION = 48;
+    static final String PAGE_SIZE = "100";
+    private static final long PROGRESS_LOG_MILLIS = 5000;
+    private static final String URI = "/api/v1/transactions";
+
+    /**
+     * Applies a slice of transactions to an auction
+     */
+    @FunctionalInterface
+    public interface Applier {
+        /**
+         * @param auctionId the id of the auction
+         * @param transactions transactions involving the auction's account, in consensus order
+         * @throws Exception in the event of an error, the auction's backfill fails
+         */
+        void apply(int auctionId, List<MirrorTransaction> transactions) throws Exception;
+    }
+
+    private final MirrorClient mirrorClient;
+    private final Applier applier;
+    private final long sliceNanos;
+    private final ExecutorService executor;
+
+    private long auctionsSubmitted = 0;
+    private long auctionsCaughtUp = 0;
+    private long auctionsFailed = 0;
+    private long slicesPlanned = 0;
+    private long slicesApplied = 0;
+    private long firstSubmittedNanos = 0;
+    private long lastProgressLogNanos = 0;
+
+    /**
+     * Constructor
+     *
+     * @param mirrorClient the client to query the mirror node with
+     * @param applier applies slices of transactions to auctions
+     * @param parallelism the number of slices fetched concurrently
+     * @param sliceSeconds the duration of consensus time covered by a slice
+     */
+    public BidsBackfill(MirrorClient mirrorClient, Applier applier, int parallelism, long sliceSeconds) {
+        this.mirrorClient = mirrorClient;
+        this.applier = applier;
+        this.sliceNanos = TimeUnit.SECONDS.toNanos(Math.max(1, sliceSeconds));
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "bids-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops fetching slices
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Catches an auction up with the transactions on its account after a consensus timestamp and up to another
+     *
+     * @param auctionId the id of the auction
+     * @param accountId the auction's account id
+     * @param from the consensus timestamp the auction has been processed up to, empty if none has
+     * @param upTo the consensus timestamp to catch up to
+     * @return {@code CompletableFuture<String>} completed with upTo once the auction's transactions have been
+     * applied, failed if they couldn't be fetched or applied
+     */
+    public CompletableFuture<String> submit(int auctionId, String accountId, String from, String upTo) {
+        AuctionBackfill backfill = new AuctionBackfill(auctionId, accountId, StringUtils.isEmpty(from) ? "0.0" : from, upTo);
+        synchronized (this) {
+            if (auctionsSubmitted == auctionsCaughtUp + auctionsFailed) {
+                // a new round of backfill, progress is estimated from this point
+                firstSubmittedNanos = System.nanoTime();
+            }
+            auctionsSubmitted++;
+        }
+        executor.execute(() -> plan(backfill));
+        return backfill.future;
+    }
+
+    /**
+     * Finds the first transaction in the auction's missing range and splits the rest of the range into slices,
+     * the range before the first transaction needn't be fetched
+     *
+     * @param backfill the auction's backfill
+     */
+    private void plan(AuctionBackfill backfill) {
+        try {
+            List<MirrorTransaction> first = fetch(backfill.accountId, backfill.from, backfill.upTo, "1");
+            if (first.isEmpty()) {
+                backfill.slicesPlanned(0);
+                caughtUp(backfill);
+                return;
+            }
+            long startNanos = Utils.timestampToNanos(first.get(0).consensusTimestamp) - 1;
+            long endNanos = Utils.timestampToNanos(backfill.upTo);
+            long slices = Math.min(MAX_SLICES_PER_AUCTION, Math.max(1, (endNanos - startNanos + sliceNanos - 1) / sliceNanos));
+            long sliceLength = (endNanos - startNanos + slices - 1) / slices;
+            backfill.slicesPlanned((int) slices);
+            synchronized (this) {
+                slicesPlanned += slices;
+            }
+            log.debug("Backfilling auction {} from {} to {} in {} slices", backfill.auctionId, backfill.from, backfill.upTo, slices);
+            for (int i = 0; i < slices; i++) {
+                int index = i;
+                String sliceFrom = Utils.nanosToTimestamp(startNanos + i * sliceLength);
+                String sliceTo = i == slices - 1 ? backfill.upTo : Utils.nanosToTimestamp(startNanos + (i + 1) * sliceLength);
+                executor.execute(() -> fetchSlice(backfill, index, sliceFrom, sliceTo));
+            }
+        } catch (Exception e) {
+            backfill.fail(e);
+        }
+    }
+
+    private void fetchSlice(AuctionBackfill backfill, int index, String from, String to) {
+        if (backfill.future.isDone()) {
+            // an earlier slice failed
+            return;
+        }
+        try {
+            List<MirrorTransaction> transactions = fetch(backfill.accountId, from, to, PAGE_SIZE);
+            if (backfill.sliceFetched(index, transactions)) {
+                caughtUp(backfill);
+            }
+        } catch (Exception e) {
+            backfill.fail(e);
+        }
+    }
+
+    /**
+     * Fetches the CRYPTOTRANSFER transactions on an account after a consensus timestamp and up to another
+     *
+     * @param accountId the account id
+     * @param from the consensus timestamp to fetch transactions after
+     * @param to the consensus timestamp to fetch transactions up to
+     * @param limit the page size, a single page is fetched if it's 1
+     * @return {@code List<MirrorTransaction>} the transactions in consensus order
+     * @throws Exception if the mirror node couldn't be queried
+     */
+    private List<MirrorTransaction> fetch(String accountId, String from, String to, String limit) throws Exception {
+        List<MirrorTransaction> transactions = new ArrayList<>();
+        @Var String after = from;
+        while (true) {
+            Map<String, String> queryParameters = new HashMap<>();
+            queryParameters.put("account.id", accountId);
+            queryParameters.put("transactiontype", "CRYPTOTRANSFER");
+            queryParameters.put("order", "asc");
+            queryParameters.put("limit", limit);
+            queryParameters.put("timestamp", "gt:".concat(after));
+
+            MirrorTransactions mirrorTransactions;
+            try {
+                mirrorTransactions = mirrorClient.queryTransactionsAsync(URI, queryParameters, MirrorClient.Priority.HIGH).toCompletionStage().toCompletableFuture().get();
+            } catch (ExecutionException e) {
+                throw new Exception("No response from mirror backfilling account " + accountId, e.getCause());
+            }
+            for (MirrorTransaction transaction : mirrorTransactions.transactions) {
+                if (Utils.compareTimestamps(transaction.consensusTimestamp, to) > 0) {
+                    return transactions;
+                }
+                transactions.add(transaction);
+            }
+            if ("1".equals(limit) || mirrorTransactions.transactions.isEmpty() || StringUtils.isEmpty(mirrorTransactions.links.next)) {
+                return transactions;
+            }
+            after = transactions.get(transactions.size() - 1).consensusTimestamp;
+        }
+    }
+
+    private void caughtUp(AuctionBackfill backfill) {
+        synchronized (this) {
+            auctionsCaughtUp++;
+        }
+        log.info("Auction {} caught up to {}", backfill.auctionId, backfill.upTo);
+        backfill.future.complete(backfill.upTo);
+    }
+
+    private void sliceApplied() {
+        synchronized (this) {
+            slicesApplied++;
+            long nowNanos = System.nanoTime();
+            if (nowNanos - lastProgressLogNanos < TimeUnit.MILLISECONDS.toNanos(PROGRESS_LOG_MILLIS)) {
+                return;
+            }
+            lastProgressLogNanos = nowNanos;
+        }
+        log.info("Backfill applied {} of {} slices, {} of {} auctions caught up, about {}s remaining",
+                slicesApplied(), slicesPlanned(), auctionsCaughtUp(), auctionsSubmitted(),
+                TimeUnit.MILLISECONDS.toSeconds(estimatedRemainingMillis()));
+    }
+
+    /**
+     * @return long the number of auctions submitted for backfill
+     */
+    public synchronized long auctionsSubmitted() {
+        return auctionsSubmitted;
+    }
+
+    /**
+     * @return long the number of auctions caught up
+     */
+    public synchronized long auctionsCaughtUp() {
+        return auctionsCaughtUp;
+    }
+
+    /**
+     * @return long the number of auctions whose backfill failed
+     */
+    public synchronized long auctionsFailed() {
+        return auctionsFailed;
+    }
+
+    /**
+     * @return long the number of slices planned so far
+     */
+    public synchronized long slicesPlanned() {
+        return slicesPlanned;
+    }
+
+    /**
+     * @return long the number of slices applied
+     */
+    public synchronized long slicesApplied() {
+        return slicesApplied;
+    }
+
+    /**
+     * Estimates the time remaining to apply the slices planned so far from the rate at which slices have
+     * been applied since the current round of backfill started
+     *
+     * @return long the estimated time remaining in milliseconds, 0 if nothing remains or nothing has been applied yet
+     */
+    public synchronized long estimatedRemainingMillis() {
+        long remaining = slicesPlanned - slicesApplied;
+        if (remaining <= 0 || slicesApplied == 0) {
+            return 0;
+        }
+        long elapsedNanos = System.nanoTime() - firstSubmittedNanos;
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos / slicesApplied * remaining);
+    }
+
+    /**
+     * @return JsonObject the backfill's progress in json format
+     */
+    public synchronized JsonObject toJson() {
+        return new JsonObject()
+                .put("auctionsSubmitted", auctionsSubmitted)
+                .put("auctionsCaughtUp", auctionsCaughtUp)
+                .put("auctionsFailed", auctionsFailed)
+                .put("slicesPlanned", slicesPlanned)
+                .put("slicesApplied", slicesApplied)
+                .put("estimatedRemainingMillis", estimatedRemainingMillis());
+    }
+
+    /**
+     * The backfill of one auction, slices fetched out of order are held until they can be applied in order
+     */
+    private final class AuctionBackfill {
+        private final int auctionId;
+        private final String accountId;
+        private final String from;
+        private final String upTo;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private final Map<Integer, List<MirrorTransaction>> fetched = new HashMap<>();
+        private int slices = 0;
+        private int nextToApply = 0;
+        private boolean failed = false;
+
+        private AuctionBackfill(int auctionId, String accountId, String from, String upTo) {
+            this.auctionId = auctionId;
+            this.accountId = accountId;
+            this.from = from;
+            this.upTo = upTo;
+        }
+
+        private synchronized void slicesPlanned(int slices) {
+            this.slices = slices;
+        }
+
+        /**
+         * Holds a fetched slice and applies the slices which are next in order
+         *
+         * @param index the index of the slice
+         * @param transactions the slice's transactions
+         * @return true if the last slice has now been applied
+         * @throws Exception in the event of an error applying a slice
+         */
+        private synchronized boolean sliceFetched(int index, List<MirrorTransaction> transactions) throws Exception {
+            if (failed) {
+                return false;
+            }
+            fetched.put(index, transactions);
+            while (fetched.containsKey(nextToApply)) {
+                List<MirrorTransaction> slice = fetched.remove(nextToApply);
+                if (! slice.isEmpty()) {
+                    applier.apply(auctionId, slice);
+                }
+                nextToApply++;
+                sliceApplied();
+            }
+            return nextToApply == slices;
+        }
+
+        private void fail(Exception e) {
+            synchronized (this) {
+                if (failed) {
+                    // an earlier slice already failed
+                    return;
+                }
+                failed = true;
+                fetched.clear();
+            }
+            log.error("Backfill of auction {} failed", auctionId, e);
+            synchronized (BidsBackfill.this) {
+                auctionsFailed++;
+            }
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.hedera.demo.auction;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorHbarTransfer;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
+import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
+import lombok.extern.log4j.Log4j2;
+import org.jooq.tools.StringUtils;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Follows the mirror node's stream of CRYPTOTRANSFER transactions once for all auctions and routes each
+ * transaction to the auctions whose accounts it involves, so that the number of mirror queries doesn't grow
+ * with the number of auctions as it does with a BidsWatcher thread per auction.
+ *
+ * The consensus timestamp the stream has been processed up to is persisted so that ingestion resumes from
+ * it after a restart. Auctions which become active are caught up with their own history up to that
+ * timestamp before their transactions are taken from the global stream. An auction which fails to catch up
+ * isn't routed, and doesn't hold the stream or the other auctions back, it's caught up again later.
+ */
+@Log4j2
+public class BidsIngester implements Runnable {
+
+    public static final String CURSOR_NAME = "bids";
+    static final String PAGE_SIZE = "100";
+    private static final String URI = "/api/v1/transactions";
+
+    private final HederaClient hederaClient;
+    private final AuctionsRepository auctionsRepository;
+    private final MirrorCursorsRepository mirrorCursorsRepository;
+    private final int mirrorQueryFrequency;
+    private final boolean runOnce;
+    protected boolean runThread = true;
+
+    // auction account id to auction id, for auctions which are accepting or have accepted bids
+    private final Map<String, Integer> auctionsByAccount = new HashMap<>();
+    // auctions whose history has been processed up to the cursor
+    private final Set<Integer> caughtUpAuctions = new HashSet<>();
+    private volatile boolean refreshRequested = true;
+    // when to catch up again the auctions which failed to catch up, 0 if none did
+    private long catchUpRetryAt = 0;
+    private String cursor = "";
+    @Nullable
+    private BidsBackfill bidsBackfill = null;
+    @Nullable
+    private AuctionStateEngine auctionStateEngine = null;
+
+    /**
+     * Constructor
+     *
+     * @param hederaClient the HederaClient to use to connect to Hedera
+     * @param auctionsRepository the auction repository for database access
+     * @param mirrorCursorsRepository the repository holding the position reached in the stream
+     * @param mirrorQueryFrequency the frequency at which to query a mirror node once the stream is caught up
+     * @param runOnce runs until the stream is caught up only once
+     */
+    public BidsIngester(HederaClient hederaClient, AuctionsRepository auctionsRepository, MirrorCursorsRepository mirrorCursorsRepository, int mirrorQueryFrequency, boolean runOnce) {
+        this.hederaClient = hederaClient;
+        this.auctionsRepository = auctionsRepository;
+        this.mirrorCursorsRepository = mirrorCursorsRepository;
+        this.mirrorQueryFrequency = mirrorQueryFrequency;
+        this.runOnce = runOnce;
+    }
+
+    /**
+     * Catches auctions up in parallel time slices rather than one page at a time
+     *
+     * @param bidsBackfill the backfill to catch auctions up with
+     */
+    public void setBidsBackfill(@Nullable BidsBackfill bidsBackfill) {
+        this.bidsBackfill = bidsBackfill;
+    }
+
+    /**
+     * Sets the engine holding the state of auctions in memory, routed bids are evaluated bids against it
+     *
+     * @param auctionStateEngine the auction state engine, null to evaluate bids against the database
+     */
+    public void setAuctionStateEngine(@Nullable AuctionStateEngine auctionStateEngine) {
+        this.auctionStateEngine = auctionStateEngine;
+    }
+
+    /**
+     * Stops the thread cleanly
+     */
+    public void stop() {
+        runThread = false;
+    }
+
+    /**
+     * Requests the routing table to be rebuilt from the database before the next page of transactions
+     * is processed, for example when an auction is added or becomes active
+     */
+    public void refresh() {
+        refreshRequested = true;
+    }
+
+    /**
+     * Repeatedly queries the mirror node for CRYPTOTRANSFER transactions after the cursor
+     * and routes them to the auctions involved
+     */
+    @Override
+    public void run() {
+        while (runThread) {
+            @Var boolean morePages = false;
+            try {
+                if (StringUtils.isEmpty(cursor)) {
+                    cursor = startingCursor();
+                }
+                if (! StringUtils.isEmpty(cursor)) {
+                    if (refreshRequested || (catchUpRetryAt != 0 && System.currentTimeMillis() >= catchUpRetryAt)) {
+                        refreshAuctions();
+                    }
+                    morePages = ingestPage();
+                }
+            } catch (Exception e) {
+                log.error(e, e);
+            }
+            if (! morePages) {
+                // caught up with the mirror node
+                if (runOnce) {
+                    runThread = false;
+                } else {
+                    Utils.sleep(mirrorQueryFrequency);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines where to start the stream from, the persisted cursor if there is one, otherwise the
+     * mirror node's latest transaction since auctions' earlier history is processed when they are caught up
+     *
+     * @return String the consensus timestamp to start from, empty if the mirror node couldn't be queried
+     * @throws Exception in the event of a database error
+     */
+    private String startingCursor() throws Exception {
+        String persisted = mirrorCursorsRepository.getCursor(CURSOR_NAME);
+        if (! StringUtils.isEmpty(persisted)) {
+            return persisted;
+        }
+        String latest = hederaClient.consensusClock().lastRefreshed();
+        if (! StringUtils.isEmpty(latest)) {
+            mirrorCursorsRepository.setCursor(CURSOR_NAME, latest);
+        }
+        return latest;
+    }
+
+    /**
+     * Rebuilds the routing table from the database, catching up auctions not yet routed
+     * Only the auctions whose history has been processed up to the cursor are routed, the auctions which failed
+     * to catch up are caught up again once mirrorQueryFrequency has elapsed
+     *
+     * @throws Exception in the event of a database error, in which case a further refresh is requested
+     */
+    private void refreshAuctions() throws Exception {
+        refreshRequested = false;
+        catchUpRetryAt = 0;
+        Map<String, Integer> accounts = new HashMap<>();
+        List<Auction> auctionsToCatchUp = new ArrayList<>();
+        try {
+            auctionsRepository.forEachAuction(auction -> {
+                if (! auction.isPending()) {
+                    accounts.put(auction.getAuctionaccountid(), auction.getId());
+                    if (! caughtUpAuctions.contains(auction.getId())) {
+                        auctionsToCatchUp.add(auction);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            refreshRequested = true;
+            throw e;
+        }
+        if (bidsBackfill != null) {
+            backfill(bidsBackfill, auctionsToCatchUp);
+        } else {
+            for (Auction auction : auctionsToCatchUp) {
+                try {
+                    catchUp(auction);
+                    caughtUpAuctions.add(auction.getId());
+                } catch (Exception e) {
+                    log.error("Auction {} failed to catch up", auction.getId(), e);
+                }
+            }
+        }
+        auctionsByAccount.clear();
+        for (Map.Entry<String, Integer> account : accounts.entrySet()) {
+            if (caughtUpAuctions.contains(account.getValue())) {
+                auctionsByAccount.put(account.getKey(), account.getValue());
+            }
+        }
+        int behind = accounts.size() - auctionsByAccount.size();
+        if (behind > 0) {
+            log.warn("{} auctions failed to catch up, catching them up again in {}ms", behind, mirrorQueryFrequency);
+            catchUpRetryAt = System.currentTimeMillis() + mirrorQueryFrequency;
+        }
+        log.debug("Routing transactions for {} auction accounts", auctionsByAccount.size());
+    }
+
+    /**
+     * Catches auctions up to the cursor concurrently, the stream doesn't move on until they have all been
+     * caught up or have failed
+     *
+     * @param bidsBackfill the backfill to catch the auctions up with
+     * @param auctions the auctions to catch up
+     * @throws InterruptedException if interrupted while waiting for the auctions to catch up
+     */
+    private void backfill(BidsBackfill bidsBackfill, List<Auction> auctions) throws InterruptedException {
+        Map<Integer, CompletableFuture<String>> backfills = new LinkedHashMap<>();
+        for (Auction auction : auctions) {
+            backfills.put(auction.getId(), bidsBackfill.submit(auction.getId(), auction.getAuctionaccountid(), auction.getLastconsensustimestamp(), cursor));
+        }
+        for (Map.Entry<Integer, CompletableFuture<String>> backfill : backfills.entrySet()) {
+            try {
+                backfill.getValue().get();
+                caughtUpAuctions.add(backfill.getKey());
+            } catch (ExecutionException e) {
+                log.error("Auction {} failed to catch up", backfill.getKey(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Processes an auction's transactions from its last consensus timestamp up to the cursor
+     *
+     * @param auction the auction to catch up
+     * @throws Exception in the event of an error, the auction will be caught up again on the next refresh
+     */
+    private void catchUp(Auction auction) throws Exception {
+        BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auction.getId(), mirrorQueryFrequency, true);
+        bidsWatcher.setAuctionStateEngine(auctionStateEngine);
+        @Var String from = StringUtils.isEmpty(auction.getLastconsensustimestamp()) ? "0.0" : auction.getLastconsensustimestamp();
+
+        while (runThread && Utils.compareTimestamps(from, cursor) < 0) {
+            log.debug("Catching up auction {} from {}", auction.getId(), from);
+            Map<String, String> queryParameters = new HashMap<>();
+            queryParameters.put("account.id", auction.getAuctionaccountid());
+            queryParameters.put("transactiontype", "CRYPTOTRANSFER");
+            queryParameters.put("order", "asc");
+            queryParameters.put("timestamp", "gt:".concat(from));
+
+            MirrorTransactions mirrorTransactions;
+            try {
+                mirrorTransactions = hederaClient.mirrorClient().queryTransactionsAsync(URI, queryParameters, MirrorClient.Priority.HIGH).toCompletionStage().toCompletableFuture().get();
+            } catch (ExecutionException e) {
+                throw new Exception("No response from mirror catching up auction " + auction.getId(), e.getCause());
+            }
+
+            // transactions after the cursor will be routed from the global stream
+            List<MirrorTransaction> transactions = new ArrayList<>();
+            for (MirrorTransaction transaction : mirrorTransactions.transactions) {
+                if (Utils.compareTimestamps(transaction.consensusTimestamp, cursor) <= 0) {
+                    transactions.add(transaction);
+                }
+            }
+            bidsWatcher.handleTransactions(transactions);
+
+            String next = Utils.getTimestampFromMirrorLink(mirrorTransactions.links.next);
+            if (transactions.size() < mirrorTransactions.transactions.size() || StringUtils.isEmpty(next)) {
+                break;
+            }
+            from = next;
+        }
+    }
+
+    /**
+     * Processes the next page of transactions after the cursor, then moves the cursor to the last
+     * transaction of the page
+     *
+     * @return true if the mirror node has further pages
+     * @throws Exception in the event of an error, the page will be processed again
+     */
+    private boolean ingestPage() throws Exception {
+        Map<String, String> queryParameters = new HashMap<>();
+        queryParameters.put("transactiontype", "CRYPTOTRANSFER");
+        queryParameters.put("order", "asc");
+        queryParameters.put("limit", PAGE_SIZE);
+        queryParameters.put("timestamp", "gt:".concat(cursor));
+
+        MirrorTransactions mirrorTransactions = hederaClient.mirrorClient().queryTransactions(URI, queryParameters, MirrorClient.Priority.HIGH);
+        if (mirrorTransactions.transactions.isEmpty()) {
+            return false;
+        }
+
+        for (Map.Entry<Integer, List<MirrorTransaction>> routed : route(mirrorTransactions.transactions).entrySet()) {
+            BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, routed.getKey(), mirrorQueryFrequency, true);
+            bidsWatcher.setAuctionStateEngine(auctionStateEngine);
+            bidsWatcher.handleTransactions(routed.getValue());
+        }
+
+        String lastTimestamp = mirrorTransactions.transactions.get(mirrorTransactions.transactions.size() - 1).consensusTimestamp;
+        mirrorCursorsRepository.setCursor(CURSOR_NAME, lastTimestamp);
+        cursor = lastTimestamp;
+        return ! StringUtils.isEmpty(mirrorTransactions.links.next);
+    }
+
+    /**
+     * Groups transactions by the auctions whose accounts they transfer hbar to or from, keeping consensus order
+     *
+     * @param transactions the transactions to route
+     * @return {@code Map<Integer, List<MirrorTransaction>>} the transactions for each auction id
+     */
+    private Map<Integer, List<MirrorTransaction>> route(List<MirrorTransaction> transactions) {
+        Map<Integer, List<MirrorTransaction>> routed = new LinkedHashMap<>();
+        for (MirrorTransaction transaction : transactions) {
+            Set<Integer> auctionIds = new LinkedHashSet<>();
+            for (MirrorHbarTransfer transfer : transaction.hbarTransfers) {
+                @Nullable Integer auctionId = auctionsByAccount.get(transfer.account);
+                if (auctionId != null) {
+                    auctionIds.add(auctionId);
+                }
+            }
+            for (int auctionId : auctionIds) {
+                routed.computeIfAbsent(auctionId, id -> new ArrayList<>()).add(transaction);
+            }
+        }
+        return routed;
+    }
+}
@@ -1,32 +1,41 @@
 package com.hedera.demo.auction;
 
 import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.AccountFeedConsumer;
 import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.PollScheduler;
 import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.bidrules.BidDecision;
+import com.hedera.demo.auction.app.bidrules.BidEvent;
+import com.hedera.demo.auction.app.bidrules.BidRules;
 import com.hedera.demo.auction.app.domain.Auction;
 import com.hedera.demo.auction.app.domain.Bid;
 import com.hedera.demo.auction.app.mirrormapping.MirrorHbarTransfer;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionClassifier;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionEvent;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionKind;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
-import io.vertx.core.json.JsonObject;
+import com.hedera.demo.auction.app.repository.BidsCommit;
 import lombok.extern.log4j.Log4j2;
 import org.jooq.tools.StringUtils;
 
-import java.sql.SQLException;
-import java.util.Arrays;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Set;
 
 /**
  * Watches for bids against an auction
+ * either polling the mirror node on its own thread or as a consumer of the auction account's AccountFeed
  */
 @Log4j2
-public class BidsWatcher implements Runnable {
+public class BidsWatcher implements Runnable, AccountFeedConsumer {
 
     private final int auctionId;
     private final AuctionsRepository auctionsRepository;
@@ -35,6 +44,10 @@ public class BidsWatcher implements Runnable {
     protected boolean runThread = true;
     protected boolean runOnce;
     protected Auction watchedAuction = new Auction();
+    @Nullable
+    private AuctionStateEngine auctionStateEngine = null;
+    @Nullable
+    private PollScheduler pollScheduler = null;
 
     /**
      * Constructor
@@ -53,6 +66,25 @@ public class BidsWatcher implements Runnable {
         this.runOnce = runOnce;
     }
 
+    /**
+     * Evaluates bids against the auction's state held in memory and writes their outcome behind evaluation
+     * rather than reading and writing the auction for every page
+     *
+     * @param auctionStateEngine the engine holding the state of auctions
+     */
+    public void setAuctionStateEngine(@Nullable AuctionStateEngine auctionStateEngine) {
+        this.auctionStateEngine = auctionStateEngine;
+    }
+
+    /**
+     * Sets the scheduler working out the interval between polls from the auction's phase and recent activity
+     *
+     * @param pollScheduler the poll scheduler, null to poll every mirrorQueryFrequency
+     */
+    public void setPollScheduler(@Nullable PollScheduler pollScheduler) {
+        this.pollScheduler = pollScheduler;
+    }
+
     /**
      * Stops the thread cleanly
      */
@@ -67,13 +99,14 @@ public class BidsWatcher implements Runnable {
     @Override
     public void run() {
         @Var String nextLink = "";
+        // transactions received since the last pause between polls
+        @Var long recentTransactions = 0;
         String uri = "/api/v1/transactions";
 
-        ExecutorService executor = Executors.newFixedThreadPool(1);
         while (runThread) {
             try {
-                // reload auction from database
-                watchedAuction = auctionsRepository.getAuction(auctionId);
+                // reload auction from database, unless its state is held in memory
+                watchedAuction = loadAuction();
 
                 log.debug("Checking for bids on account {} and token {}", watchedAuction.getAuctionaccountid(), watchedAuction.getTokenid());
 
@@ -85,21 +118,13 @@ public class BidsWatcher implements Runnable {
                 queryParameters.put("order", "asc");
                 queryParameters.put("timestamp", "gt:".concat(consensusTimeStampFrom));
 
-                Future<JsonObject> future = executor.submit(Utils.queryMirror(hederaClient, uri, queryParameters));
-
-                try {
-                    JsonObject response = future.get();
-                    if (response != null) {
-                        MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
-                        nextLink = Utils.getTimestampFromMirrorLink(mirrorTransactions.links.next);
-                        handleResponse(mirrorTransactions);
-                    }
-                } catch (InterruptedException e) {
-                    log.error(e, e);
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    log.error(e, e);
-                }
+                MirrorTransactions mirrorTransactions = hederaClient.mirrorClient().queryTransactions(uri, queryParameters, MirrorClient.Priority.HIGH);
+                recentTransactions += mirrorTransactions.transactions.size();
+                String next = Utils.getTimestampFromMirrorLink(mirrorTransactions.links.next);
+                // only move on to the next page once this page has been committed
+                nextLink = "";
+                handleResponse(mirrorTransactions);
+                nextLink = next;
 
             } catch (Exception e) {
                 log.error(e, e);
@@ -109,171 +134,189 @@ public class BidsWatcher implements Runnable {
                 if (this.runOnce) {
                     this.runThread = false;
                 } else {
-                    Utils.sleep(this.mirrorQueryFrequency);
+                    Utils.sleep((int) pollInterval(recentTransactions));
+                    recentTransactions = 0;
                 }
             }
         }
-        executor.shutdown();
+    }
+
+    /**
+     * Works out the interval until the next poll
+     *
+     * @param recentTransactions the number of transactions received since the last pause between polls
+     * @return long the interval in milliseconds
+     */
+    private long pollInterval(long recentTransactions) {
+        if (pollScheduler == null) {
+            return this.mirrorQueryFrequency;
+        }
+        return pollScheduler.interval(watchedAuction, System.currentTimeMillis(), recentTransactions);
     }
 
     /**
      * For each of the transactions, if successful, handle the transaction details
-     * Record the timestamp of the transaction in the database so that future
-     * mirror queries are performed from this timestamp onwards
+     * The whole page is evaluated in memory by the BidRules, then the new bids, prior bids to refund, the auction's
+     * winner and the timestamp of the last transaction are committed to the database in a single
+     * transaction so that future mirror queries are performed from this timestamp onwards
+     * With an auction state engine, the commit is queued and written behind evaluation
      *
      * @param mirrorTransactions a list of transactions from mirror node
+     * @throws Exception in the event of an error committing the page
      */
     public void handleResponse(MirrorTransactions mirrorTransactions) throws Exception {
         if (this.watchedAuction.getId() == 0) {
-            watchedAuction = auctionsRepository.getAuction(auctionId);
+            watchedAuction = loadAuction();
         }
-        try {
-            for (MirrorTransaction transaction : mirrorTransactions.transactions) {
-                if (transaction.isSuccessful()) {
-                    handleTransaction(transaction);
-                }
-                auctionsRepository.setLastConsensusTimestamp(this.watchedAuction.getId(), transaction.consensusTimestamp);
-            }
-        } catch (Exception e) {
-            log.error(e, e);
+        List<MirrorTransaction> transactions = mirrorTransactions.transactions;
+        if (transactions.isEmpty()) {
+            return;
         }
+
+        MirrorTransactionClassifier classifier = new MirrorTransactionClassifier(this.watchedAuction.getAuctionaccountid(), this.watchedAuction.getTokenid());
+        handleEvents(classifier.classify(transactions), transactions.get(transactions.size() - 1).consensusTimestamp);
     }
 
     /**
-     * For a given transaction
-     * * If the payer of the transaction is the auction account, skip it
-     * * Pattern match the memo and return if memo matches
-     * * Check the transaction timestamp against the auction's end date, if the timestamp is greater
-     * than the auction end, reject the bid and set it to be refunded
-     * * If the transaction timestamp is less or equal to the auction's start timestamp, reject the bid and set it to be refunded
-     * * If the transaction payer is the current auction winner and the winner is not allowed to bid, reject the bid and set it to be refunded
-     * * Look for the paid amount in the transaction
-     * * If the delta between the paid amount and the current winning bid is lower than the minimum bid, reject the bid and set it to be refunded
-     * * If the bid is below reserve, reject and set it to be refunded
-     * * If the bid is below the current winning bid, reject and set it to be refunded
-     *
-     * If the bid has not been rejected and is not the first bid, set the prior winning bid to be refunded
-     * Update the auction with the new winning bid, winning account, transaction id and hash and bid timestamp
+     * Evaluates the bids among the auction's events and commits their outcome along with the timestamp the
+     * auction's transactions have been processed up to
      *
-     * Store the new bid in the database
-     *
-     * @param transaction the transaction to analyze
-     * @throws SQLException thrown in the event of a database connection error
+     * @param events the auction's events, in consensus order
+     * @param lastConsensusTimestamp the consensus timestamp of the last transaction processed
+     * @throws Exception in the event of an error committing the events
      */
-    private void handleTransaction(MirrorTransaction transaction) throws SQLException {
-        @Var String rejectReason = "";
-        @Var boolean refund = false;
-        String auctionAccountId = this.watchedAuction.getAuctionaccountid();
-        @Var long bidAmount = 0;
-
-        if (transaction.payer().equals(auctionAccountId)) {
-            log.debug("Skipping auction account refund transaction");
-            return;
+    private void handleEvents(List<MirrorTransactionEvent> events, String lastConsensusTimestamp) throws Exception {
+        List<BidEvent> bidEvents = new ArrayList<>(events.size());
+        for (MirrorTransactionEvent event : events) {
+            if (event.transaction().isSuccessful()) {
+                @Nullable BidEvent bidEvent = toBidEvent(event);
+                if (bidEvent != null) {
+                    bidEvents.add(bidEvent);
+                }
+            }
         }
 
-        if (transaction.isSuccessful()) {
-            //Handle memo on transfer and create to allow for transactions that aren't bids
-            if (checkMemos(transaction.getMemoString())) {
-                return;
+        BidRules.Outcome outcome = BidRules.evaluate(this.watchedAuction, bidEvents);
+        List<Bid> newBids = new ArrayList<>();
+        for (BidDecision decision : outcome.decisions()) {
+            if (decision.recorded()) {
+                newBids.add(decision.toBid(this.watchedAuction.getId()));
+            } else if (decision.event().amount() <= 0) {
+                log.info("Bid amount {} less than or equal to 0, not recording bid", decision.event().amount());
             }
+        }
+        if (outcome.winnerChanged()) {
+            outcome.winner().applyTo(this.watchedAuction);
+        }
 
-            // check the timestamp to verify if auction should end
-            if (transaction.consensusTimestamp.compareTo(this.watchedAuction.getEndtimestamp()) > 0) {
-                // find payment amount
-                refund = true;
-                rejectReason = Bid.AUCTION_CLOSED;
-            } else if (transaction.consensusTimestamp.compareTo(this.watchedAuction.getStarttimestamp()) <= 0) {
-                refund = true;
-                rejectReason = Bid.AUCTION_NOT_STARTED;
-            }
+        if (auctionStateEngine == null) {
+            auctionsRepository.commitBids(this.watchedAuction, newBids, outcome.priorBidTimestamps(), lastConsensusTimestamp);
+        } else {
+            auctionStateEngine.write(new BidsCommit(this.watchedAuction, newBids, outcome.priorBidTimestamps(), lastConsensusTimestamp));
+        }
+        this.watchedAuction.setLastconsensustimestamp(lastConsensusTimestamp);
+    }
 
-            if ( ! refund) {
-                // check if paying account is different to the current winner
-                if (transaction.payer().equals(this.watchedAuction.getWinningaccount())) {
-                    if (! this.watchedAuction.getWinnerCanBid()) {
-                        // same account as winner, not allowed
-                        rejectReason = Bid.WINNER_CANT_BID;
-                        refund = true;
-                    }
-                }
-            }
+    /**
+     * Loads the auction from the database, or from the auction state engine if there is one
+     *
+     * @return Auction the auction
+     * @throws Exception in the event of a database error
+     */
+    private Auction loadAuction() throws Exception {
+        return auctionStateEngine == null ? auctionsRepository.getAuction(auctionId) : auctionStateEngine.auction(auctionId);
+    }
 
-            // find payment amount
-            for (MirrorHbarTransfer transfer : transaction.hbarTransfers) {
-                if (transfer.account.equals(auctionAccountId)) {
-                    bidAmount = transfer.amount;
-                    log.debug("Bid amount is {}", bidAmount);
-                    break;
-                }
-            }
+    /**
+     * The auction's last consensus timestamp, bids are committed together with it
+     *
+     * @return String the auction's last consensus timestamp
+     * @throws Exception in the event of a database error
+     */
+    @Override
+    public String checkpoint() throws Exception {
+        watchedAuction = loadAuction();
+        return StringUtils.isEmpty(watchedAuction.getLastconsensustimestamp()) ? "0.0" : watchedAuction.getLastconsensustimestamp();
+    }
 
-            if ( ! refund) {
+    @Override
+    public Set<MirrorTransactionKind> kinds() {
+        return EnumSet.of(MirrorTransactionKind.BID);
+    }
 
-                long bidDelta = (bidAmount - this.watchedAuction.getWinningbid());
-                if ((bidDelta > 0) && (bidDelta < this.watchedAuction.getMinimumbid())) {
-                    rejectReason = Bid.INCREASE_TOO_SMALL;
-                    refund = true;
-                }
-                if (bidAmount != 0) { // if bid !=0, no refund is expected at this stage
-                    // we have a bid, check it against bidding rules
-                    if (bidAmount < this.watchedAuction.getReserve()) {
-                        rejectReason = Bid.BELOW_RESERVE;
-                        refund = true;
-                    } else if (bidAmount <= this.watchedAuction.getWinningbid()) {
-                        rejectReason = Bid.UNDER_BID;
-                        refund = true;
-                    }
-                }
+    /**
+     * Handles the auction's bids from its account's feed, events at or before the auction's last consensus
+     * timestamp have already been processed and are skipped
+     *
+     * @param events the bids after the checkpoint, in consensus order
+     * @param upTo the consensus timestamp of the last of the account's transactions after the checkpoint
+     * @throws Exception in the event of an error committing the bids
+     */
+    @Override
+    public void handle(List<MirrorTransactionEvent> events, String upTo) throws Exception {
+        watchedAuction = loadAuction();
+        String processedTo = watchedAuction.getLastconsensustimestamp();
+        if (! StringUtils.isEmpty(processedTo) && Utils.compareTimestamps(upTo, processedTo) <= 0) {
+            return;
+        }
+        List<MirrorTransactionEvent> unprocessed = new ArrayList<>(events.size());
+        for (MirrorTransactionEvent event : events) {
+            if (StringUtils.isEmpty(processedTo) || Utils.compareTimestamps(event.consensusTimestamp(), processedTo) > 0) {
+                unprocessed.add(event);
             }
+        }
+        handleEvents(unprocessed, upTo);
+    }
 
-            @Var boolean updatePriorBid = false;
-            Bid priorBid = new Bid();
-
-            if (StringUtils.isEmpty(rejectReason)) {
-                // we have a winner
-                // update prior winning bid
-                // setting the timestamp for refund to match the winning timestamp
-                // will accelerate the refund (avoids repeated EXPIRED_TRANSACTIONS when refunding)
-                if ( StringUtils.isEmpty(this.watchedAuction.getWinningaccount())) {
-                    // do not refund the very first bid !!!
-//                    priorBid.setRefundstatus("");
-                    refund = false;
-                } else {
-                    priorBid.setTimestamp(this.watchedAuction.getWinningtimestamp());
-                    priorBid.setStatus(Bid.HIGHER_BID);
-                    priorBid.setRefundstatus(Bid.REFUND_PENDING);
-                    updatePriorBid = true;
-                }
+    /**
+     * Handles transactions for this auction taken from a stream shared with other auctions (see BidsIngester)
+     * The auction is reloaded from the database and transactions at or before its last consensus timestamp
+     * are skipped, so that transactions already processed for this auction are not processed again
+     *
+     * @param transactions transactions involving the auction's account, in consensus order
+     * @throws Exception in the event of an error committing the transactions
+     */
+    public void handleTransactions(List<MirrorTransaction> transactions) throws Exception {
+        watchedAuction = loadAuction();
+        String processedTo = watchedAuction.getLastconsensustimestamp();
 
-                // update the auction
-                this.watchedAuction.setWinningtimestamp(transaction.consensusTimestamp);
-                this.watchedAuction.setWinningaccount(transaction.payer());
-                this.watchedAuction.setWinningbid(bidAmount);
-                this.watchedAuction.setWinningtxid(transaction.transactionId);
-                this.watchedAuction.setWinningtxhash(transaction.getTransactionHashString());
+        MirrorTransactions unprocessed = new MirrorTransactions();
+        for (MirrorTransaction transaction : transactions) {
+            if (StringUtils.isEmpty(processedTo) || Utils.compareTimestamps(transaction.consensusTimestamp, processedTo) > 0) {
+                unprocessed.transactions.add(transaction);
             }
+        }
+        handleResponse(unprocessed);
+    }
 
-            Bid newBid = new Bid();
-            if (bidAmount > 0) {
-                // store the bid
-                newBid.setBidamount(bidAmount);
-                newBid.setAuctionid(this.watchedAuction.getId());
-                newBid.setBidderaccountid(transaction.payer());
-                newBid.setTimestamp(transaction.consensusTimestamp);
-                newBid.setStatus(rejectReason);
-                newBid.setTransactionid(transaction.transactionId);
-                newBid.setTransactionhash(transaction.getTransactionHashString());
-                if (refund) {
-                    newBid.setRefundstatus(Bid.REFUND_PENDING);
-                }
-            } else {
-                log.info("Bid amount {} less than or equal to 0, not recording bid", bidAmount);
-            }
+    /**
+     * Reduces an event to the bid event the bidding rules are evaluated against
+     * * If the transaction isn't classified as a bid (paid by the auction account, one of the auction's
+     * own memos), skip it
+     * * Look for the amount paid to the auction account in the transaction
+     *
+     * @param event the auction's event to analyze
+     * @return BidEvent the bid event, null if the transaction isn't a bid
+     */
+    @Nullable
+    private BidEvent toBidEvent(MirrorTransactionEvent event) {
+        MirrorTransaction transaction = event.transaction();
+        if (! event.is(MirrorTransactionKind.BID)) {
+            log.debug("Skipping {} transaction {}", event.kinds(), transaction.transactionId);
+            return null;
+        }
+        String auctionAccountId = this.watchedAuction.getAuctionaccountid();
 
-            auctionsRepository.commitBidAndAuction(updatePriorBid, bidAmount, priorBid, watchedAuction, newBid);
-        } else {
-            log.debug("Transaction Id {} status not SUCCESS.", transaction.transactionId);
+        // find payment amount
+        @Var long bidAmount = 0;
+        for (MirrorHbarTransfer transfer : transaction.hbarTransfers) {
+            if (transfer.account.equals(auctionAccountId)) {
+                bidAmount = transfer.amount;
+                log.debug("Bid amount is {}", bidAmount);
+                break;
+            }
         }
+        return new BidEvent(transaction.consensusTimestamp, transaction.payer(), bidAmount, transaction.transactionId, transaction.getTransactionHashString());
     }
 
     /**
@@ -283,10 +326,6 @@ public class BidsWatcher implements Runnable {
      * @return true if the transaction's memo matches one of the defined memos
      */
     public boolean checkMemos(String memo) {
-        if (StringUtils.isEmpty(memo)) {
-            return false;
-        }
-        String[] memos = new String[]{"CREATEAUCTION", "FUNDACCOUNT", "TRANSFERTOAUCTION", "ASSOCIATE", "AUCTION REFUND", "TOKEN TRANSFER FROM AUCTION", "SCHEDULED REFUND", "MANAGE VALIDATORS"};
-        return Arrays.stream(memos).anyMatch(memo.toUpperCase()::startsWith);
+        return MirrorTransactionClassifier.memoKind(memo) != null;
     }
 }
@@ -1,26 +1,29 @@
 package com.hedera.demo.auction;
 
 import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.AccountFeedConsumer;
 import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.MirrorClient;
 import com.hedera.demo.auction.app.Utils;
 import com.hedera.demo.auction.app.domain.Auction;
 import com.hedera.demo.auction.app.domain.Bid;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionClassifier;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionEvent;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionKind;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
 import com.hedera.demo.auction.app.repository.BidsRepository;
-import io.vertx.core.json.JsonObject;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
 import lombok.extern.log4j.Log4j2;
 import org.jooq.tools.StringUtils;
 
 import java.sql.SQLException;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Set;
 
 /**
  * Checks if bids that are due a refund have been refunded successfully
@@ -28,6 +31,8 @@ import java.util.concurrent.Future;
 @Log4j2
 public class RefundChecker implements Runnable {
 
+    public static final String CURSOR_PREFIX = "refunds.";
+
     protected final AuctionsRepository auctionsRepository;
     protected final BidsRepository bidsRepository;
     protected final int mirrorQueryFrequency;
@@ -81,7 +86,6 @@ public class RefundChecker implements Runnable {
     private boolean watchRefunds() {
         String uri = "/api/v1/transactions";
 
-        ExecutorService executor = Executors.newFixedThreadPool(1);
         @Var boolean foundRefundsToCheck = false;
         try {
             List<Auction> auctions = auctionsRepository.getAuctionsList();
@@ -101,10 +105,7 @@ public class RefundChecker implements Runnable {
                         queryParameters.put("transactiontype", "CRYPTOTRANSFER");
                         queryParameters.put("order", "asc");
                         queryParameters.put("timestamp", "gt:".concat(queryFromTimestamp));
-                        Future<JsonObject> future = executor.submit(Utils.queryMirror(hederaClient, uri, queryParameters));
-
-                        JsonObject body = future.get();
-                        MirrorTransactions mirrorTransactions = body.mapTo(MirrorTransactions.class);
+                        MirrorTransactions mirrorTransactions = hederaClient.mirrorClient().queryTransactions(uri, queryParameters, MirrorClient.Priority.LOW);
                         if (handleResponse(mirrorTransactions)) {
                             foundRefundsToCheck = true;
                         }
@@ -121,23 +122,59 @@ public class RefundChecker implements Runnable {
                     }
                 } catch (SQLException e) {
                     log.error("unable to fetch first bid to refund", e);
-                } catch (InterruptedException e) {
-                    log.error("error occurred getting future", e);
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    log.error("error occurred getting future", e);
                 }
             }
         } catch (SQLException e) {
             log.error("Unable to fetch auctions list", e);
         }
-        executor.shutdown();
         return foundRefundsToCheck;
     }
 
+    /**
+     * Gets a consumer of an auction account's feed which confirms the auction's refunds
+     * The consumer's checkpoint is persisted so that refund confirmation resumes from it after a restart
+     *
+     * @param auction the auction to confirm refunds for
+     * @param mirrorCursorsRepository the repository holding the consumer's checkpoint
+     * @return AccountFeedConsumer the consumer, which needs transactions only while refunds are outstanding
+     */
+    public AccountFeedConsumer feedConsumer(Auction auction, MirrorCursorsRepository mirrorCursorsRepository) {
+        String cursorName = CURSOR_PREFIX + auction.getId();
+        return new AccountFeedConsumer() {
+            @Override
+            public String checkpoint() throws Exception {
+                String firstBidTimestamp = bidsRepository.getFirstBidToRefund(auction.getId());
+                if (StringUtils.isEmpty(firstBidTimestamp)) {
+                    return "";
+                }
+                // a refund is always after the bid it refunds
+                String checkpoint = mirrorCursorsRepository.getCursor(cursorName);
+                if (StringUtils.isEmpty(checkpoint) || Utils.compareTimestamps(firstBidTimestamp, checkpoint) > 0) {
+                    return firstBidTimestamp;
+                }
+                return checkpoint;
+            }
+
+            @Override
+            public Set<MirrorTransactionKind> kinds() {
+                return EnumSet.of(MirrorTransactionKind.REFUND);
+            }
+
+            @Override
+            public void handle(List<MirrorTransactionEvent> events, String upTo) throws Exception {
+                MirrorTransactions mirrorTransactions = new MirrorTransactions();
+                for (MirrorTransactionEvent event : events) {
+                    mirrorTransactions.transactions.add(event.transaction());
+                }
+                handleResponse(mirrorTransactions);
+                mirrorCursorsRepository.setCursor(cursorName, upTo);
+            }
+        };
+    }
+
     /**
      * Handles the response from a mirror node containing transactions to check
-     * For each of the transactions in mirrorTransactions, check if the transaction has a memo matching
+     * For each of the transactions in mirrorTransactions, check if the transaction has a memo starting with
      * the refund transaction memo prefix.
      * If memo is matching and the transaction is successful, extract the bid transaction id from the memo and set the memo to refunded.
      * If memo is matching and the transaction failed, set the corresponding bid status to pending so the refund can be attempted again
@@ -150,8 +187,8 @@ public class RefundChecker implements Runnable {
         for (MirrorTransaction transaction : mirrorTransactions.transactions) {
             String transactionMemo = transaction.getMemoString();
             log.debug("Memo {}", transactionMemo);
-            if (transactionMemo.contains(Bid.REFUND_MEMO_PREFIX)) {
-                String bidTransactionId = transaction.getMemoString().replace(Bid.REFUND_MEMO_PREFIX,"");
+            if (MirrorTransactionClassifier.memoKind(transactionMemo) == MirrorTransactionKind.REFUND) {
+                String bidTransactionId = transactionMemo.substring(Bid.REFUND_MEMO_PREFIX.length());
                 if (transaction.isSuccessful()) {
                     // set bid refund complete
                     log.debug("Found successful refund transaction on {} for bid transaction id {}", transaction.consensusTimestamp, bidTransactionId);
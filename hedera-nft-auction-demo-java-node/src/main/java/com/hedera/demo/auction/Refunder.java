@@ -1,6 +1,7 @@
 package com.hedera.demo.auction;
 
 import com.google.common.base.Splitter;
+import com.google.errorprone.annotations.Var;
 import com.hedera.demo.auction.app.HederaClient;
 import com.hedera.demo.auction.app.Utils;
 import com.hedera.demo.auction.app.Utils.ScheduledStatus;
@@ -13,18 +14,29 @@ import com.hedera.hashgraph.sdk.AccountId;
 import lombok.extern.log4j.Log4j2;
 import org.jooq.tools.StringUtils;
 
+import javax.annotation.Nullable;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class is responsible for identifying bids to refund and submitting the refund scheduled transaction
+ * Bids to refund are claimed from a queue in the database, claimed bids are leased to this refunder for a period
+ * of time such that several refunders (on one or more nodes) may share the refund work without duplicating it.
+ * Should a refunder stop before issuing a refund, the bid is claimed again by any refunder once the lease expires.
+ * The leases of refunds in flight are extended periodically so that a slow refund isn't claimed again meanwhile.
+ *
  * It is also checking for outstanding refunds that have been processed but failed to refund
  * by resetting the bid's refund status to pending if appropriate once an hour (when the hour changes).
  * The time is determined by querying a mirror node for its latest consensus timestamp
@@ -35,13 +47,21 @@ import java.util.concurrent.Executors;
  */
 @Log4j2
 public class Refunder implements Runnable {
+    private static final int BUSY_SLEEP_MILLIS = 250;
+
     private final BidsRepository bidsRepository;
     private final AuctionsRepository auctionsRepository;
     private final HederaClient hederaClient;
     private final int mirrorQueryFrequency;
+    private final int refundThreads;
+    private final int refundLeaseSeconds;
+    private final String leaseOwner = "refunder-".concat(UUID.randomUUID().toString());
     private boolean runThread = true;
     private final ExecutorService executor;
-    private final Map<String, String> refundsInProgress = new HashMap();
+    private final AtomicInteger refundsInProgress = new AtomicInteger();
+    private final Set<String> refundsInFlight = ConcurrentHashMap.newKeySet();
+    private long lastLeaseRenewal = 0;
+    private final Map<Integer, String> auctionAccounts = new HashMap<>();
     private int lastErrorCheckHour = -1;
 
     /**
@@ -50,13 +70,29 @@ public class Refunder implements Runnable {
      * @param auctionsRepository the auction repository
      * @param bidsRepository the bids repository
      * @param mirrorQueryFrequency the time to sleep in seconds between mirror queries
+     * @param refundThreads the number of refunds to issue in parallel
      */
     public Refunder(HederaClient hederaClient, AuctionsRepository auctionsRepository, BidsRepository bidsRepository, int mirrorQueryFrequency, int refundThreads) {
+        this(hederaClient, auctionsRepository, bidsRepository, mirrorQueryFrequency, refundThreads, BidsRepository.DEFAULT_REFUND_LEASE_SECONDS);
+    }
+
+    /**
+     * Constructor
+     * @param hederaClient the hedera client to use for communicating with Hedera
+     * @param auctionsRepository the auction repository
+     * @param bidsRepository the bids repository
+     * @param mirrorQueryFrequency the time to sleep in seconds between mirror queries
+     * @param refundThreads the number of refunds to issue in parallel
+     * @param refundLeaseSeconds the time in seconds after which a claimed refund may be claimed by another refunder
+     */
+    public Refunder(HederaClient hederaClient, AuctionsRepository auctionsRepository, BidsRepository bidsRepository, int mirrorQueryFrequency, int refundThreads, int refundLeaseSeconds) {
         this.auctionsRepository = auctionsRepository;
         this.bidsRepository = bidsRepository;
         this.hederaClient = hederaClient;
         this.mirrorQueryFrequency = mirrorQueryFrequency;
-        this.executor = Executors.newFixedThreadPool(refundThreads);
+        this.refundThreads = Math.max(1, refundThreads);
+        this.refundLeaseSeconds = refundLeaseSeconds;
+        this.executor = Executors.newFixedThreadPool(this.refundThreads);
     }
 
     /**
@@ -67,9 +103,9 @@ public class Refunder implements Runnable {
     }
 
     /**
-     * Get the current list of auctions
-     * For each auction, if we're processing refunds, identify bids to refund and issue a scheduled transaction for the refund
-     * Once all bids and all auctions have been checked, see if any outstanding refunds have to be reprocessed
+     * Claim as many bids to refund as there are idle refund threads and issue a scheduled transaction for each refund
+     * While the queue has more bids than threads, keep claiming as soon as threads are available
+     * Once the queue is drained, see if any outstanding refunds have to be reprocessed and wait for more bids
      */
     @Override
     public void run() {
@@ -83,41 +119,71 @@ public class Refunder implements Runnable {
         }));
 
         while (runThread) {
+            int capacity = refundThreads - refundsInProgress.get();
+            @Var int claimed = 0;
             try {
-                List<Auction> auctions = auctionsRepository.getAuctionsList();
-                for (Auction auction : auctions) {
-                    if (auction.getProcessrefunds()) {
-                        try {
-                            List<Bid> bidsToRefund = bidsRepository.getBidsToRefund(auction.getId());
-                            if (bidsToRefund != null) {
-                                for (Bid bid : bidsToRefund) {
-                                    issueRefund(auction.getAuctionaccountid(), bid);
-                                }
-                            }
-                        } catch (SQLException e) {
-                            log.error("unable to fetch bids to refund", e);
-                        } catch (RuntimeException e) {
-                            log.error("error issuing refund", e);
-                        }
-                    }
+                List<Bid> bidsToRefund = bidsRepository.claimRefunds(leaseOwner, capacity, refundLeaseSeconds);
+                claimed = bidsToRefund.size();
+                for (Bid bid : bidsToRefund) {
+                    issueRefund(auctionAccount(bid.getAuctionid()), bid);
                 }
             } catch (SQLException e) {
-                log.error("unable to fetch auctions list", e);
+                log.error("unable to claim bids to refund", e);
+            } catch (Exception e) {
+                log.error("error issuing refund", e);
             }
+            renewLeases();
 
-            checkOutstandingRefunds();
-
-            Utils.sleep(this.mirrorQueryFrequency);
+            if (capacity == 0) {
+                // all threads are busy and there may be more to refund
+                Utils.sleep(BUSY_SLEEP_MILLIS);
+            } else if (claimed < capacity) {
+                // queue is drained
+                checkOutstandingRefunds();
+                Utils.sleep(this.mirrorQueryFrequency);
+            }
         }
         executor.shutdownNow();
     }
 
     /**
-     * Issues a refund via a scheduled transaction unless the testing flag is enabled in which
-     * case, the bid refund is set to "ISSUED"
-     * Changes the status of the bid to "ISSUING" and submits a scheduled transaction to effect the refund
+     * Gets the account id of an auction, caching the result since it never changes
+     *
+     * @param auctionId the id of the auction
+     * @return String the auction's account id
+     * @throws Exception in the event of an error
+     */
+    private String auctionAccount(int auctionId) throws Exception {
+        @Nullable String auctionAccount = auctionAccounts.get(auctionId);
+        if (auctionAccount == null) {
+            auctionAccount = auctionsRepository.getAuction(auctionId).getAuctionaccountid();
+            auctionAccounts.put(auctionId, auctionAccount);
+        }
+        return auctionAccount;
+    }
+
+    /**
+     * Extends the leases of the refunds in flight once half of the lease duration has elapsed since they were last extended
+     */
+    private void renewLeases() {
+        long now = System.currentTimeMillis();
+        if (refundsInFlight.isEmpty() || now - lastLeaseRenewal < refundLeaseSeconds * 500L) {
+            return;
+        }
+        lastLeaseRenewal = now;
+        List<String> timestamps = new ArrayList<>(refundsInFlight);
+        try {
+            int renewed = bidsRepository.extendRefundLeases(leaseOwner, timestamps, refundLeaseSeconds);
+            log.debug("Extended the refund lease of {} of {} refunds in flight", renewed, timestamps.size());
+        } catch (SQLException e) {
+            log.error("unable to extend refund leases", e);
+        }
+    }
+
+    /**
+     * Submits a scheduled transaction to effect the refund of a bid that has been claimed (and set to ISSUING)
      * via a multi-thread executor to speed up issuing refunds in the event of high demand
-     * Also maintains a map of refunds that are in the executor queue
+     * Also maintains a count of refunds that are in the executor so as not to claim more than can be processed
      *
      * @param auctionAccount the auction account to use for the refund
      * @param bid the bid to refund
@@ -128,46 +194,37 @@ public class Refunder implements Runnable {
         log.info("Refunding {} from {} to {}", bid.getBidamount(), auctionAccount, bid.getBidderaccountid());
         String memo = Bid.REFUND_MEMO_PREFIX.concat(bid.getTransactionid());
         // issue refund
-        try {
-            if (bidsRepository.setRefundIssuing(bid.getTimestamp())) {
-                refundsInProgress.put(bid.getTimestamp(), "");
-                CompletableFuture.supplyAsync(() -> {
-                    try {
-                        TransactionScheduler transactionScheduler = new TransactionScheduler(auctionAccountId);
-                        transactionScheduler.issueScheduledTransactionForRefund(bid, bidsRepository, memo);
-                        return bid.getTimestamp();
-                    } catch (Throwable e) {
-                        log.error(e, e);
-                        return "";
-                    }
-                }, executor)
-                .thenAccept(refundingBid -> {
-                    if (!StringUtils.isEmpty(refundingBid)) {
-                        refundsInProgress.remove(refundingBid);
-                    }
-                })
-                .exceptionally(exception -> {
-                    log.error(exception, exception);
-                    return null;
-                });
+        refundsInProgress.incrementAndGet();
+        refundsInFlight.add(bid.getTimestamp());
+        CompletableFuture.runAsync(() -> {
+            try {
+                TransactionScheduler transactionScheduler = new TransactionScheduler(auctionAccountId);
+                transactionScheduler.issueScheduledTransactionForRefund(bid, bidsRepository, memo, leaseOwner);
+            } catch (Throwable e) {
+                log.error(e, e);
             }
-        } catch (SQLException e) {
-            log.error("Unable to set bid to refund issuing", e);
-        }
+        }, executor)
+        .whenComplete((result, exception) -> {
+            refundsInFlight.remove(bid.getTimestamp());
+            refundsInProgress.decrementAndGet();
+            if (exception != null) {
+                log.error(exception, exception);
+            }
+        });
     }
 
     /**
-     * Queries a mirror node for the latest consensus timestamp on a transaction
+     * Reads the latest consensus timestamp from the shared consensus clock
      * if the resulting consensus timestamp is a new hour (e.g. last was 14:10, new is 15:01)
      * looks for bids that should have refunded and have not.
-     * If the bid is still in the queue, do nothing
-     * If the bid is no longer in the queue and there's no schedule id on the bid, reset to "PENDING"
-     * If the bid is no longer in the queue and the schedule on mirror has not executed, reset to "PENDING"
+     * Bids being issued by a refunder whose lease hasn't expired are not considered
+     * If there's no schedule id on the bid, reset to "PENDING"
+     * If the schedule on mirror has not executed, reset to "PENDING"
      */
 
     private void checkOutstandingRefunds() {
-        // get last mirror timestamp
-        String lastMirrorTimeStamp = Utils.getLastConsensusTimeFromMirror(hederaClient);
+        // get consensus time
+        String lastMirrorTimeStamp = hederaClient.consensusClock().now();
         if (! StringUtils.isEmpty(lastMirrorTimeStamp)) {
             // we have a consensus time in seconds.nanos, strip the nanos
             List<String> timeStampParts = Splitter.on('.').splitToList(lastMirrorTimeStamp);
@@ -184,30 +241,26 @@ public class Refunder implements Runnable {
                     // we've jumped into a different hour, check outstanding refunds
                     lastErrorCheckHour = currentHour;
                     log.debug("Checking for outstanding refunds to re-process");
-                    // use the map of refunds in queue to check refunds are not being attempted already
-                    // and running late
                     try {
                         List<Auction> auctions = auctionsRepository.getAuctionsList();
                         for (Auction auction : auctions) {
                             if (auction.getProcessrefunds()) {
                                 try {
-                                    // get list of ISSUING, ISSUED or ERROR bids
+                                    // get list of ISSUED or ERROR bids and ISSUING bids no longer leased
                                     List<Bid> outstandingRefunds = bidsRepository.getOustandingRefunds();
                                     for (Bid bid : outstandingRefunds) {
-                                        if (!refundsInProgress.containsKey(bid.getTimestamp())) {
-                                            // not currently queued, attempt retry
-                                            // is the schedule complete ?
-                                            if (!StringUtils.isEmpty(bid.getScheduleId())) {
-                                                // check status of schedule on mirror node
-                                                // if it has executed, the refund checker will pick it up
-                                                // else, reset to pending
-                                                // note, unknown could also be returned in the event of an error, don't reschedule in that event
-                                                if (Utils.scheduleHasExecuted(hederaClient, bid.getScheduleId(), seconds) == ScheduledStatus.NOT_EXECUTED) {
-                                                    bidsRepository.setRefundPending(bid.getTransactionid());
-                                                }
-                                            } else {
+                                        // attempt retry
+                                        // is the schedule complete ?
+                                        if (!StringUtils.isEmpty(bid.getScheduleId())) {
+                                            // check status of schedule on mirror node
+                                            // if it has executed, the refund checker will pick it up
+                                            // else, reset to pending
+                                            // note, unknown could also be returned in the event of an error, don't reschedule in that event
+                                            if (Utils.scheduleHasExecuted(hederaClient, bid.getScheduleId(), seconds) == ScheduledStatus.NOT_EXECUTED) {
                                                 bidsRepository.setRefundPending(bid.getTransactionid());
                                             }
+                                        } else {
+                                            bidsRepository.setRefundPending(bid.getTransactionid());
                                         }
                                     }
                                 } catch(SQLException e){
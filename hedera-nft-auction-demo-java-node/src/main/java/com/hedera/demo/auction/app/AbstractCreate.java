@@ -50,14 +50,8 @@ public abstract class AbstractCreate {
         String newPassword = Objects.requireNonNull(env.get("POSTGRES_PASSWORD"), "missing environment variable POSTGRES_PASSWORD");
 
         if (connectionManager != null) {
-            String newConnection = newUrl.concat(newDatabase).concat(newUsername).concat(newPassword);
-            String oldConnection = url.concat(database).concat(username).concat(password);
-
-            if (! newConnection.equals(oldConnection)) {
-                // close the connection if it's not null
-                connectionManager.getConnection().close();
-            }
-
+            // close the pool of the connection manager being replaced
+            connectionManager.close();
         }
 
         url = newUrl;
@@ -77,9 +71,9 @@ public abstract class AbstractCreate {
 
     //For testing to override connection manager
     public void setConnectionManager(SqlConnectionManager sqlConnectionManager) throws Exception {
-        if (connectionManager != null) {
-            // close the connection if it's not null
-            connectionManager.getConnection().close();
+        if (connectionManager != null && connectionManager != sqlConnectionManager) {
+            // close the pool of the connection manager being replaced
+            connectionManager.close();
         }
         connectionManager = sqlConnectionManager;
         auctionsRepository = new AuctionsRepository(connectionManager);
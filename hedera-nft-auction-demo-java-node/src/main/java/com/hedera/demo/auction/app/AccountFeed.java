@@ -0,0 +1,127 @@
+package com.hedera.demo.auction.app;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionClassifier;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionEvent;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
+import lombok.extern.log4j.Log4j2;
+import org.jooq.tools.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pages through an auction account's CRYPTOTRANSFER transactions once on behalf of several consumers
+ *
+ * Each consumer keeps its own checkpoint, a page is queried from the earliest of the consumers' checkpoints.
+ * The page's transactions are classified once into events for the auction and each consumer is given the
+ * events of the kinds it subscribes to which are after its own checkpoint.
+ */
+@Log4j2
+public class AccountFeed {
+    private static final String URI = "/api/v1/transactions";
+
+    private final MirrorClient mirrorClient;
+    private final MirrorTransactionClassifier classifier;
+    private final String accountId;
+    private final List<AccountFeedConsumer> consumers = new ArrayList<>();
+    private long transactionCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param mirrorClient the client to query the mirror node with
+     * @param classifier the classifier of the auction's transactions, for the account to follow the transactions of
+     */
+    public AccountFeed(MirrorClient mirrorClient, MirrorTransactionClassifier classifier) {
+        this.mirrorClient = mirrorClient;
+        this.classifier = classifier;
+        this.accountId = classifier.auctionAccountId();
+    }
+
+    public String accountId() {
+        return accountId;
+    }
+
+    /**
+     * Gets the number of transactions received by the feed
+     *
+     * @return long the number of transactions received from the mirror node so far
+     */
+    public long transactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Registers a consumer of the account's transactions
+     *
+     * @param consumer the consumer
+     */
+    public void register(AccountFeedConsumer consumer) {
+        consumers.add(consumer);
+    }
+
+    /**
+     * Queries the next page of transactions and delivers its events to the consumers
+     *
+     * @return true if the page was delivered to all consumers and the mirror node has further transactions
+     */
+    public boolean poll() {
+        Map<AccountFeedConsumer, String> checkpoints = new LinkedHashMap<>();
+        @Var String from = "";
+        for (AccountFeedConsumer consumer : consumers) {
+            try {
+                String checkpoint = consumer.checkpoint();
+                if (! StringUtils.isEmpty(checkpoint)) {
+                    checkpoints.put(consumer, checkpoint);
+                    if (StringUtils.isEmpty(from) || Utils.compareTimestamps(checkpoint, from) < 0) {
+                        from = checkpoint;
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Unable to get checkpoint for account {}", accountId, e);
+            }
+        }
+        if (checkpoints.isEmpty()) {
+            return false;
+        }
+
+        Map<String, String> queryParameters = new HashMap<>();
+        queryParameters.put("account.id", accountId);
+        queryParameters.put("transactiontype", "CRYPTOTRANSFER");
+        queryParameters.put("order", "asc");
+        queryParameters.put("timestamp", "gt:".concat(from));
+
+        MirrorTransactions mirrorTransactions = mirrorClient.queryTransactions(URI, queryParameters, MirrorClient.Priority.HIGH);
+        transactionCount += mirrorTransactions.transactions.size();
+        List<MirrorTransactionEvent> events = classifier.classify(mirrorTransactions.transactions);
+
+        @Var boolean delivered = true;
+        for (Map.Entry<AccountFeedConsumer, String> checkpoint : checkpoints.entrySet()) {
+            AccountFeedConsumer consumer = checkpoint.getKey();
+            @Var String upTo = "";
+            List<MirrorTransactionEvent> subscribed = new ArrayList<>();
+            for (MirrorTransactionEvent event : events) {
+                if (Utils.compareTimestamps(event.consensusTimestamp(), checkpoint.getValue()) > 0) {
+                    upTo = event.consensusTimestamp();
+                    if (event.isAny(consumer.kinds())) {
+                        subscribed.add(event);
+                    }
+                }
+            }
+            if (! StringUtils.isEmpty(upTo)) {
+                try {
+                    consumer.handle(subscribed, upTo);
+                } catch (Exception e) {
+                    // the consumer's checkpoint hasn't moved, the page will be queried again
+                    log.error("Unable to handle transactions for account {}", accountId, e);
+                    delivered = false;
+                }
+            }
+        }
+        return delivered && ! StringUtils.isEmpty(mirrorTransactions.links.next);
+    }
+}
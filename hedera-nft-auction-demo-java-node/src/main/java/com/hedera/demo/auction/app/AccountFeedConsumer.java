@@ -0,0 +1,37 @@
+package com.hedera.demo.auction.app;
+
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionEvent;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionKind;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consumer of the events on an auction's account, registered with an AccountFeed
+ */
+public interface AccountFeedConsumer {
+
+    /**
+     * Gets the kinds of event this consumer subscribes to
+     *
+     * @return {@code Set<MirrorTransactionKind>} the kinds of event the consumer is given
+     */
+    Set<MirrorTransactionKind> kinds();
+
+    /**
+     * Gets the consensus timestamp this consumer has processed the account's transactions up to
+     *
+     * @return String the consensus timestamp, empty if the consumer doesn't currently need transactions
+     * @throws Exception in the event of an error, the consumer is skipped for this page
+     */
+    String checkpoint() throws Exception;
+
+    /**
+     * Handles the events subscribed to after the consumer's checkpoint and moves the checkpoint on to upTo
+     *
+     * @param events the events of the kinds subscribed to after the checkpoint, in consensus order, may be empty
+     * @param upTo the consensus timestamp of the last of the account's transactions after the checkpoint
+     * @throws Exception in the event of an error, the events will be delivered again
+     */
+    void handle(List<MirrorTransactionEvent> events, String upTo) throws Exception;
+}
@@ -1,17 +1,23 @@
 package com.hedera.demo.auction.app;
 
+import com.hedera.demo.auction.AccountFeedsWatcher;
 import com.hedera.demo.auction.AuctionEndTransfer;
 import com.hedera.demo.auction.AuctionReadinessWatcher;
+import com.hedera.demo.auction.AuctionStateEngine;
 import com.hedera.demo.auction.AuctionsClosureWatcher;
+import com.hedera.demo.auction.BidsArchiver;
+import com.hedera.demo.auction.BidsBackfill;
+import com.hedera.demo.auction.BidsIngester;
 import com.hedera.demo.auction.BidsWatcher;
 import com.hedera.demo.auction.RefundChecker;
 import com.hedera.demo.auction.Refunder;
 import com.hedera.demo.auction.app.api.AdminApiVerticle;
 import com.hedera.demo.auction.app.api.ApiVerticle;
-import com.hedera.demo.auction.app.domain.Auction;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
 import com.hedera.demo.auction.app.repository.BidsRepository;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
 import com.hedera.demo.auction.app.repository.ValidatorsRepository;
+import com.hedera.demo.auction.app.subscriber.HederaTopicMessageStream;
 import com.hedera.demo.auction.app.subscriber.TopicSubscriber;
 import com.hedera.hashgraph.sdk.TopicId;
 import io.github.cdimascio.dotenv.Dotenv;
@@ -59,18 +65,47 @@ public final class App {
     @SuppressWarnings("FieldMissingNullable")
     private String postgresPassword = env.get("POSTGRES_PASSWORD");
     @SuppressWarnings("FieldMissingNullable")
+    private final int databasePoolSize = Optional.ofNullable(env.get("DATABASE_POOL_SIZE")).map(Integer::parseInt).orElse(SqlConnectionManager.DEFAULT_POOL_SIZE);
+    @SuppressWarnings("FieldMissingNullable")
     private boolean transferOnWin = Optional.ofNullable(env.get("TRANSFER_ON_WIN")).map(Boolean::parseBoolean).orElse(true);
     @SuppressWarnings("FieldMissingNullable")
     private String masterKey = Optional.ofNullable(env.get("MASTER_KEY")).orElse("");
     @SuppressWarnings("FieldMissingNullable")
     private final int refundThreads = Optional.ofNullable(env.get("REFUND_THREADS")).map(Integer::parseInt).orElse(20);
     @SuppressWarnings("FieldMissingNullable")
+    private final int refundLeaseSeconds = Optional.ofNullable(env.get("REFUND_LEASE_SECONDS")).map(Integer::parseInt).orElse(BidsRepository.DEFAULT_REFUND_LEASE_SECONDS);
+    @SuppressWarnings("FieldMissingNullable")
+    private final int bidsArchiveFrequency = Optional.ofNullable(env.get("BIDS_ARCHIVE_FREQUENCY")).map(Integer::parseInt).orElse(BidsArchiver.DEFAULT_ARCHIVE_FREQUENCY);
+    @SuppressWarnings("FieldMissingNullable")
+    private final boolean globalBidsIngestion = Optional.ofNullable(env.get("GLOBAL_BIDS_INGESTION")).map(Boolean::parseBoolean).orElse(false);
+    @SuppressWarnings("FieldMissingNullable")
+    private final int backfillParallelism = Optional.ofNullable(env.get("BACKFILL_PARALLELISM")).map(Integer::parseInt).orElse(BidsBackfill.DEFAULT_PARALLELISM);
+    @SuppressWarnings("FieldMissingNullable")
+    private final long backfillSliceSeconds = Optional.ofNullable(env.get("BACKFILL_SLICE_SECONDS")).map(Long::parseLong).orElse(BidsBackfill.DEFAULT_SLICE_SECONDS);
+    @SuppressWarnings("FieldMissingNullable")
+    private final boolean inMemoryAuctionState = Optional.ofNullable(env.get("IN_MEMORY_AUCTION_STATE")).map(Boolean::parseBoolean).orElse(false);
+    @SuppressWarnings("FieldMissingNullable")
+    private final int auctionStateBatchSize = Optional.ofNullable(env.get("AUCTION_STATE_BATCH_SIZE")).map(Integer::parseInt).orElse(AuctionStateEngine.DEFAULT_BATCH_SIZE);
+    @SuppressWarnings("FieldMissingNullable")
+    private final boolean accountFeeds = Optional.ofNullable(env.get("ACCOUNT_FEEDS")).map(Boolean::parseBoolean).orElse(false);
+    @SuppressWarnings("FieldMissingNullable")
+    private final int mirrorPollFloor = Optional.ofNullable(env.get("MIRROR_POLL_FLOOR")).map(Integer::parseInt).orElse(PollScheduler.DEFAULT_FLOOR_MILLIS);
+    @SuppressWarnings("FieldMissingNullable")
+    private final int mirrorPollCeiling = Optional.ofNullable(env.get("MIRROR_POLL_CEILING")).map(Integer::parseInt).orElse(PollScheduler.DEFAULT_CEILING_MILLIS);
+    @SuppressWarnings("FieldMissingNullable")
+    private final boolean topicStreaming = Optional.ofNullable(env.get("TOPIC_STREAMING")).map(Boolean::parseBoolean).orElse(false);
+    @SuppressWarnings("FieldMissingNullable")
+    private final int metricsLogFrequency = Optional.ofNullable(env.get("METRICS_LOG_FREQUENCY")).map(Integer::parseInt).orElse(MetricsReporter.DEFAULT_REPORT_FREQUENCY);
+    @SuppressWarnings("FieldMissingNullable")
     private final String operatorKey = env.get("OPERATOR_KEY");
     @SuppressWarnings("FieldMissingNullable")
     private final String filesPath = Optional.ofNullable(env.get("FILES_LOCATION")).orElse("./sample-files");
 
     private HederaClient hederaClient;
+    private final PollScheduler pollScheduler = new PollScheduler(mirrorPollFloor, mirrorPollCeiling);
 
+    @Nullable
+    private SqlConnectionManager connectionManager = null;
     @Nullable
     private TopicSubscriber topicSubscriber = null;
     @Nullable
@@ -83,6 +118,20 @@ public final class App {
     private AuctionEndTransfer auctionEndTransfer = null;
     @Nullable
     private Refunder refunder = null;
+    @Nullable
+    private BidsArchiver bidsArchiver = null;
+    @Nullable
+    private MetricsReporter metricsReporter = null;
+    @Nullable
+    private BidsIngester bidsIngester = null;
+    @Nullable
+    private BidsBackfill bidsBackfill = null;
+    @Nullable
+    private AuctionStateEngine auctionStateEngine = null;
+    @Nullable
+    private AccountFeedsWatcher accountFeedsWatcher = null;
+    @Nullable
+    private DatabaseChangeFeed changeFeed = null;
 
     /**
      * Constructor
@@ -146,7 +195,7 @@ public final class App {
      * Starts the various components of the application depending on environment variables
      *
      * Applies migrations to the database for seamless upgrades
-     * If the client REST API is required, it is started
+     * If the client REST API is required, it is started along with the feed of database changes
      * If the admin REST API is required, it is started
      *
      * If this is an auction node, open a connection to the database and initialise the necessary repositories
@@ -248,6 +297,7 @@ public final class App {
         }
 
         if (restAPI) {
+            startDatabaseChangeFeed();
             log.info("starting client REST api");
             config.put("topicId", this.topicId);
             DeploymentOptions options = new DeploymentOptions().setConfig(config).setInstances(restApiVerticleCount);
@@ -271,31 +321,82 @@ public final class App {
         }
 
         if (auctionNode) {
-            SqlConnectionManager connectionManager = new SqlConnectionManager(this.postgresUrl.concat(this.postgresDatabase), this.postgresUser, this.postgresPassword);
+            SqlConnectionManager connectionManager = new SqlConnectionManager(this.postgresUrl.concat(this.postgresDatabase), this.postgresUser, this.postgresPassword, databasePoolSize);
+            this.connectionManager = connectionManager;
             AuctionsRepository auctionsRepository = new AuctionsRepository(connectionManager);
             BidsRepository bidsRepository = new BidsRepository(connectionManager);
             ValidatorsRepository validatorsRepository = new ValidatorsRepository(connectionManager);
+            MirrorCursorsRepository mirrorCursorsRepository = new MirrorCursorsRepository(connectionManager);
+
+            if (inMemoryAuctionState) {
+                // bids are evaluated against auctions held in memory and written to the database behind
+                auctionStateEngine = new AuctionStateEngine(auctionsRepository, auctionStateBatchSize, AuctionStateEngine.DEFAULT_MAX_PENDING);
+                Thread auctionStateEngineThread = new Thread(auctionStateEngine);
+                auctionStateEngineThread.start();
+            }
+
+            // auctions which are behind are caught up in parallel time slices
+            bidsBackfill = new BidsBackfill(hederaClient.mirrorClient(), (auctionId, transactions) -> {
+                BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auctionId, mirrorQueryFrequency, /* runOnce= */ true);
+                bidsWatcher.setAuctionStateEngine(auctionStateEngine);
+                bidsWatcher.handleTransactions(transactions);
+            }, backfillParallelism, backfillSliceSeconds);
+
+            if (globalBidsIngestion) {
+                // bids for all auctions are taken from a single stream rather than a BidsWatcher per auction
+                bidsIngester = new BidsIngester(hederaClient, auctionsRepository, mirrorCursorsRepository, mirrorQueryFrequency, /* runOnce= */ false);
+                bidsIngester.setBidsBackfill(bidsBackfill);
+                bidsIngester.setAuctionStateEngine(auctionStateEngine);
+            }
 
             // perform a one off check for new auctions and bids
-            startSubscription(auctionsRepository, validatorsRepository, /* runOnce= */ true);
-            // check for completed refunds (one off)
-            startRefundChecker(auctionsRepository, bidsRepository, /* runOnce= */ true);
+            startSubscription(auctionsRepository, validatorsRepository, mirrorCursorsRepository, /* runOnce= */ true);
+            if (! accountFeeds) {
+                // check for completed refunds (one off)
+                startRefundChecker(auctionsRepository, bidsRepository, /* runOnce= */ true);
+            }
 
             // now subscribe for new events
             // subscribe to topic to get new auction notifications
-            startSubscription(auctionsRepository, validatorsRepository, /* runOnce= */ false);
+            startSubscription(auctionsRepository, validatorsRepository, mirrorCursorsRepository, /* runOnce= */ false);
 
-            startAuctionReadinessWatchers(auctionsRepository);
             startAuctionsClosureWatcher(auctionsRepository);
-            startBidWatchers(auctionsRepository, /* runOnce= */ false);
+            if (bidsIngester != null) {
+                startBidsIngester(bidsIngester);
+            }
+            if (accountFeeds) {
+                // a single feed per auction account replaces the readiness, bids and refund watchers
+                startAccountFeedsWatcher(auctionsRepository, bidsRepository, mirrorCursorsRepository);
+            } else {
+                startAuctionReadinessWatchers(auctionsRepository);
+                if (bidsIngester == null) {
+                    startBidWatchers(auctionsRepository, /* runOnce= */ false);
+                }
+                startRefundChecker(auctionsRepository, bidsRepository, /* runOnce= */ false);
+            }
             startRefunder(auctionsRepository, bidsRepository, refundThreads);
-            startRefundChecker(auctionsRepository, bidsRepository, /* runOnce= */ false);
+            startBidsArchiver(bidsRepository);
             if (transferOnWin) {
                 startAuctionEndTransfers(auctionsRepository);
             }
+            startMetricsReporter(connectionManager);
         }
     }
 
+    /**
+     * Starts republishing database changes on the event bus, once for all the REST api verticles
+     * the api remains available if the listener can't connect
+     */
+    private void startDatabaseChangeFeed() {
+        // the feed holds its own connection, it doesn't open the manager's pools
+        SqlConnectionManager feedConnectionManager = new SqlConnectionManager(this.postgresUrl.concat(this.postgresDatabase), this.postgresUser, this.postgresPassword);
+        DatabaseChangeFeed changeFeed = new DatabaseChangeFeed(vertx, feedConnectionManager);
+        changeFeed.start()
+                .onSuccess(v -> log.info("Listening for database changes on channel {}", DatabaseChangeFeed.CHANNEL))
+                .onFailure(e -> log.error("Unable to listen for database changes", e));
+        this.changeFeed = changeFeed;
+    }
+
     /**
      * Starts the thread to watch for auction closures
      *
@@ -304,6 +405,7 @@ public final class App {
     private void startAuctionsClosureWatcher(AuctionsRepository auctionsRepository) {
         // start a thread to monitor auction closures
         auctionsClosureWatcher = new AuctionsClosureWatcher(hederaClient, auctionsRepository, mirrorQueryFrequency, transferOnWin, masterKey);
+        auctionsClosureWatcher.setAuctionStateEngine(auctionStateEngine);
         Thread auctionsClosureWatcherThread = new Thread(auctionsClosureWatcher);
         auctionsClosureWatcherThread.start();
     }
@@ -313,13 +415,27 @@ public final class App {
      *
      * @param auctionsRepository the repository for auctions on the database
      * @param validatorsRepository the repository for validators on the database
+     * @param mirrorCursorsRepository the repository of checkpoints on the database
      * @param runOnce true to run the subscription once and not loop
      */
-    private void startSubscription(AuctionsRepository auctionsRepository, ValidatorsRepository validatorsRepository, boolean runOnce) {
+    private void startSubscription(AuctionsRepository auctionsRepository, ValidatorsRepository validatorsRepository, MirrorCursorsRepository mirrorCursorsRepository, boolean runOnce) {
         if (StringUtils.isEmpty(topicId)) {
             log.warn("No topic Id found in environment variables, not subscribing");
         } else {
             topicSubscriber = new TopicSubscriber(hederaClient, auctionsRepository, validatorsRepository, TopicId.fromString(topicId), mirrorQueryFrequency, masterKey, runOnce);
+            topicSubscriber.setBidsIngester(bidsIngester);
+            topicSubscriber.setAuctionStateEngine(auctionStateEngine);
+            topicSubscriber.setPollScheduler(pollScheduler);
+            if (accountFeeds) {
+                // new auctions are picked up by the account feeds
+                topicSubscriber.setSkipReadinessWatcher();
+            }
+            // resume after the last message processed rather than replaying the whole topic
+            topicSubscriber.setMirrorCursorsRepository(mirrorCursorsRepository);
+            if (topicStreaming) {
+                // stream new messages from the mirror node
+                topicSubscriber.setTopicMessageStream(new HederaTopicMessageStream(hederaClient.client()));
+            }
             if (runOnce) {
                 // don't run as a thread
                 topicSubscriber.run();
@@ -333,29 +449,74 @@ public final class App {
 
     /**
      * Starts a thread for each open auction to watch for bids
+     * Unless running once, auctions are first caught up with the mirror node's latest transaction by the backfill
+     * and each auction's thread is started as soon as that auction is caught up
      *
      * @param auctionsRepository the repository of auctions on the database
      * @param runOnce true to check for new bids only once
      * @throws SQLException in the event of a database error
      */
     private void startBidWatchers(AuctionsRepository auctionsRepository, boolean runOnce) throws SQLException {
-        for (Auction auction : auctionsRepository.getAuctionsList()) {
+        String upTo = (runOnce || bidsBackfill == null) ? "" : hederaClient.consensusClock().lastRefreshed();
+        auctionsRepository.forEachAuction(auction -> {
             if (! auction.isPending()) {
                 // auction is not pending
                 // start the thread to monitor bids
                 BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository,  auction.getId(), mirrorQueryFrequency, runOnce);
+                bidsWatcher.setAuctionStateEngine(auctionStateEngine);
+                bidsWatcher.setPollScheduler(pollScheduler);
                 if (runOnce) {
                     // do not run as a thread
                     bidsWatcher.run();
+                } else if (bidsBackfill != null && ! StringUtils.isEmpty(upTo)) {
+                    bidsBackfill.submit(auction.getId(), auction.getAuctionaccountid(), auction.getLastconsensustimestamp(), upTo)
+                            // if the backfill failed, the watcher resumes from wherever the auction got to
+                            .whenComplete((caughtUpTo, error) -> startBidWatcher(bidsWatcher));
                 } else {
-                    Thread t = new Thread(bidsWatcher);
-                    t.start();
-                    bidsWatchers.add(bidsWatcher);
+                    startBidWatcher(bidsWatcher);
                 }
             }
+        });
+    }
+
+    /**
+     * Starts a thread to watch for bids on an auction
+     *
+     * @param bidsWatcher the watcher to start
+     */
+    private void startBidWatcher(BidsWatcher bidsWatcher) {
+        synchronized (bidsWatchers) {
+            Thread t = new Thread(bidsWatcher);
+            t.start();
+            bidsWatchers.add(bidsWatcher);
         }
     }
 
+    /**
+     * Starts a single thread to watch for bids on all open auctions
+     *
+     * @param bidsIngester the ingester routing bids to auctions
+     */
+    private static void startBidsIngester(BidsIngester bidsIngester) {
+        Thread bidsIngesterThread = new Thread(bidsIngester);
+        bidsIngesterThread.start();
+    }
+
+    /**
+     * Starts a thread to follow the transactions of each auction account
+     *
+     * @param auctionsRepository the repository of auctions on the database
+     * @param bidsRepository the repository of bids on the database
+     * @param mirrorCursorsRepository the repository of checkpoints on the database
+     */
+    private void startAccountFeedsWatcher(AuctionsRepository auctionsRepository, BidsRepository bidsRepository, MirrorCursorsRepository mirrorCursorsRepository) {
+        accountFeedsWatcher = new AccountFeedsWatcher(hederaClient, auctionsRepository, bidsRepository, mirrorCursorsRepository, pollScheduler, mirrorQueryFrequency, /* runOnce= */ false);
+        accountFeedsWatcher.setBidsIngester(bidsIngester);
+        accountFeedsWatcher.setAuctionStateEngine(auctionStateEngine);
+        Thread accountFeedsWatcherThread = new Thread(accountFeedsWatcher);
+        accountFeedsWatcherThread.start();
+    }
+
     /**
      * Starts a thread to check for refund completion
      *
@@ -375,6 +536,35 @@ public final class App {
         }
     }
 
+    /**
+     * Starts a thread to archive the bids of settled auctions
+     *
+     * @param bidsRepository the repository of bids on the database
+     */
+    private void startBidsArchiver(BidsRepository bidsRepository) {
+        bidsArchiver = new BidsArchiver(bidsRepository, bidsArchiveFrequency);
+        Thread bidsArchiverThread = new Thread(bidsArchiver);
+        bidsArchiverThread.start();
+    }
+
+    /**
+     * Starts a thread to log the node's metrics periodically, those of the database connection pool, of
+     * each mirror node queried and of the budget queueing requests to the mirror nodes
+     *
+     * @param connectionManager the database connection manager
+     */
+    private void startMetricsReporter(SqlConnectionManager connectionManager) {
+        if (metricsLogFrequency <= 0) {
+            return;
+        }
+        metricsReporter = new MetricsReporter(metricsLogFrequency);
+        metricsReporter.add("databasePool", connectionManager.metrics()::toJson);
+        metricsReporter.add("mirrorEndpoints", hederaClient.mirrorClient()::endpointStats);
+        metricsReporter.add("mirrorRequestBudget", hederaClient.mirrorClient().budget()::toJson);
+        Thread metricsReporterThread = new Thread(metricsReporter);
+        metricsReporterThread.start();
+    }
+
     /**
      * Starts threads to watch for auction readiness if an auction is pending
      *
@@ -382,15 +572,18 @@ public final class App {
      * @throws SQLException in the event of a database error
      */
     private void startAuctionReadinessWatchers(AuctionsRepository auctionsRepository) throws SQLException {
-        for (Auction auction : auctionsRepository.getAuctionsList()) {
+        auctionsRepository.forEachAuction(auction -> {
             if (auction.isPending()) {
                 // start the thread to monitor token transfers to the auction account
                 AuctionReadinessWatcher auctionReadinessWatcher = new AuctionReadinessWatcher(hederaClient, auctionsRepository, auction, mirrorQueryFrequency, /*runOnce= */ false);
+                auctionReadinessWatcher.setBidsIngester(bidsIngester);
+                auctionReadinessWatcher.setAuctionStateEngine(auctionStateEngine);
+                auctionReadinessWatcher.setPollScheduler(pollScheduler);
                 Thread t = new Thread(auctionReadinessWatcher);
                 t.start();
                 auctionReadinessWatchers.add(auctionReadinessWatcher);
             }
-        }
+        });
     }
 
     /**
@@ -400,6 +593,10 @@ public final class App {
      */
     private void startAuctionEndTransfers(AuctionsRepository auctionsRepository) {
         auctionEndTransfer = new AuctionEndTransfer(hederaClient, auctionsRepository, operatorKey, mirrorQueryFrequency);
+        auctionEndTransfer.setAuctionStateEngine(auctionStateEngine);
+        if (accountFeeds) {
+            auctionEndTransfer.setTransfersFromFeed();
+        }
         Thread auctionEndTransferThread = new Thread(auctionEndTransfer);
         auctionEndTransferThread.start();
     }
@@ -412,7 +609,7 @@ public final class App {
      * @param refundThreads the number of threads to run in parallel
      */
     private void startRefunder(AuctionsRepository auctionsRepository, BidsRepository bidsRepository, int refundThreads) {
-        refunder = new Refunder(hederaClient, auctionsRepository, bidsRepository, mirrorQueryFrequency, refundThreads);
+        refunder = new Refunder(hederaClient, auctionsRepository, bidsRepository, mirrorQueryFrequency, refundThreads, refundLeaseSeconds);
         Thread refunderThread = new Thread(refunder);
         refunderThread.start();
     }
@@ -424,6 +621,9 @@ public final class App {
         for (String verticle : vertx.deploymentIDs()) {
             vertx.undeploy(verticle);
         }
+        if (changeFeed != null) {
+            changeFeed.close();
+        }
 
         if (topicSubscriber != null) {
             topicSubscriber.stop();
@@ -434,13 +634,31 @@ public final class App {
         if (refundChecker != null) {
             refundChecker.stop();
         }
+        if (bidsArchiver != null) {
+            bidsArchiver.stop();
+        }
+        if (metricsReporter != null) {
+            metricsReporter.stop();
+        }
+        if (bidsIngester != null) {
+            bidsIngester.stop();
+        }
+        if (accountFeedsWatcher != null) {
+            accountFeedsWatcher.stop();
+        }
 
         if (auctionEndTransfer != null) {
             auctionEndTransfer.stop();
         }
 
-        for (BidsWatcher bidsWatcher : bidsWatchers) {
-            bidsWatcher.stop();
+        if (bidsBackfill != null) {
+            bidsBackfill.stop();
+        }
+
+        synchronized (bidsWatchers) {
+            for (BidsWatcher bidsWatcher : bidsWatchers) {
+                bidsWatcher.stop();
+            }
         }
 
         for (AuctionReadinessWatcher auctionReadinessWatcher : auctionReadinessWatchers) {
@@ -450,5 +668,20 @@ public final class App {
         if (refunder != null) {
             refunder.stop();
         }
+
+        if (auctionStateEngine != null) {
+            // writes the bids still pending before the database connections are closed
+            auctionStateEngine.stop();
+            try {
+                auctionStateEngine.flush();
+            } catch (InterruptedException e) {
+                log.error(e, e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (connectionManager != null) {
+            connectionManager.close();
+        }
     }
 }
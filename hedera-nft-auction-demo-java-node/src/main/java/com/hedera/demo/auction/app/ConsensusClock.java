@@ -0,0 +1,210 @@
+package com.hedera.demo.auction.app;
+
+import com.google.errorprone.annotations.Var;
+import lombok.extern.log4j.Log4j2;
+import org.jooq.tools.StringUtils;
+
+import javax.annotation.Nullable;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Tracks consensus time as seen by the mirror node, shared by the components which compare consensus time
+ * with auction end dates or schedule expiries.
+ *
+ * The mirror node's latest consensus timestamp is queried every refresh period, between refreshes consensus time
+ * is interpolated from the local monotonic clock. Interpolation stops two refresh periods after the last
+ * successful refresh so that consensus time doesn't run ahead of a mirror node which can't be reached.
+ * Consensus time never goes backwards.
+ *
+ * Tasks may be scheduled to run once consensus time passes a given timestamp, they run on the clock's thread
+ * and should be short.
+ */
+@Log4j2
+public class ConsensusClock implements Runnable {
+    public static final long DEFAULT_REFRESH_MILLIS = 5000;
+
+    private final Supplier<String> latestConsensusTimestamp;
+    private final long refreshNanos;
+    private final LongSupplier nanoTime;
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    private volatile boolean runThread = true;
+
+    // consensus time at the last successful refresh and the local time it was fetched at
+    private long anchorConsensusNanos = -1;
+    private long anchorLocalNanos = 0;
+    private long lastReportedNanos = -1;
+    private long lastRefreshLocalNanos = 0;
+
+    /**
+     * Constructor
+     *
+     * @param hederaClient the HederaClient to query the mirror node with
+     * @param refreshMillis how often to query the mirror node for its latest consensus timestamp
+     */
+    public ConsensusClock(HederaClient hederaClient, long refreshMillis) {
+        this(() -> Utils.getLastConsensusTimeFromMirror(hederaClient), refreshMillis, System::nanoTime);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param latestConsensusTimestamp supplies the latest consensus timestamp, empty if it isn't available
+     * @param refreshMillis how often to query for the latest consensus timestamp
+     * @param nanoTime the local monotonic clock
+     */
+    public ConsensusClock(Supplier<String> latestConsensusTimestamp, long refreshMillis, LongSupplier nanoTime) {
+        this.latestConsensusTimestamp = latestConsensusTimestamp;
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, refreshMillis));
+        this.nanoTime = nanoTime;
+        this.lastRefreshLocalNanos = nanoTime.getAsLong() - refreshNanos;
+    }
+
+    /**
+     * Stops the thread cleanly
+     */
+    public void stop() {
+        runThread = false;
+    }
+
+    /**
+     * Refreshes consensus time and runs tasks which are due until stopped
+     */
+    @Override
+    public void run() {
+        while (runThread) {
+            if (refreshDue()) {
+                refresh();
+            }
+            runDueTimers();
+            Utils.sleep((int) TimeUnit.NANOSECONDS.toMillis(sleepNanos()));
+        }
+    }
+
+    private synchronized boolean refreshDue() {
+        return nanoTime.getAsLong() - lastRefreshLocalNanos >= refreshNanos;
+    }
+
+    /**
+     * Queries for the latest consensus timestamp
+     *
+     * @return true if consensus time was refreshed
+     */
+    public boolean refresh() {
+        String latest = latestConsensusTimestamp.get();
+        long localNanos = nanoTime.getAsLong();
+        synchronized (this) {
+            lastRefreshLocalNanos = localNanos;
+            if (StringUtils.isEmpty(latest)) {
+                log.warn("Unable to fetch last timestamp from mirror node");
+                return false;
+            }
+            try {
+                anchorConsensusNanos = Utils.timestampToNanos(latest);
+                anchorLocalNanos = localNanos;
+                return true;
+            } catch (NumberFormatException e) {
+                log.error("Invalid consensus timestamp {} from mirror node", latest);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Gets the current consensus time
+     *
+     * @return String the consensus timestamp (seconds.nanos), empty if consensus time isn't known yet
+     */
+    public String now() {
+        long nanos = nowNanos();
+        return nanos < 0 ? "" : Utils.nanosToTimestamp(nanos);
+    }
+
+    /**
+     * Gets the mirror node's latest consensus timestamp as of the last successful refresh, without interpolation,
+     * for starting points which must not be ahead of the transactions the mirror node holds
+     *
+     * @return String the consensus timestamp (seconds.nanos), empty if consensus time isn't known yet
+     */
+    public synchronized String lastRefreshed() {
+        return anchorConsensusNanos < 0 ? "" : Utils.nanosToTimestamp(anchorConsensusNanos);
+    }
+
+    /**
+     * Gets the current consensus time
+     *
+     * @return long the consensus time in nanoseconds since epoch, -1 if consensus time isn't known yet
+     */
+    public synchronized long nowNanos() {
+        if (anchorConsensusNanos < 0) {
+            return -1;
+        }
+        long elapsedNanos = Math.min(nanoTime.getAsLong() - anchorLocalNanos, 2 * refreshNanos);
+        lastReportedNanos = Math.max(lastReportedNanos, anchorConsensusNanos + Math.max(0, elapsedNanos));
+        return lastReportedNanos;
+    }
+
+    /**
+     * Schedules a task to run once consensus time is past a timestamp
+     *
+     * @param consensusTimestamp the consensus timestamp (seconds.nanos)
+     * @param task the task to run on the clock's thread
+     */
+    public synchronized void runAfter(String consensusTimestamp, Runnable task) {
+        timers.add(new Timer(Utils.timestampToNanos(consensusTimestamp), task));
+    }
+
+    /**
+     * Runs the tasks scheduled for consensus times now past
+     */
+    public void runDueTimers() {
+        while (true) {
+            Timer due;
+            synchronized (this) {
+                long nowNanos = nowNanos();
+                @Nullable Timer next = timers.peek();
+                if (next == null || nowNanos < 0 || next.consensusNanos >= nowNanos) {
+                    return;
+                }
+                due = timers.poll();
+            }
+            try {
+                due.task.run();
+            } catch (RuntimeException e) {
+                log.error(e, e);
+            }
+        }
+    }
+
+    /**
+     * Works out how long to sleep before the next refresh or the next task is due
+     *
+     * @return long the time to sleep in nanoseconds
+     */
+    private synchronized long sleepNanos() {
+        @Var long sleepNanos = Math.max(0, refreshNanos - (nanoTime.getAsLong() - lastRefreshLocalNanos));
+        @Nullable Timer next = timers.peek();
+        long nowNanos = nowNanos();
+        if (next != null && nowNanos >= 0) {
+            sleepNanos = Math.min(sleepNanos, Math.max(0, next.consensusNanos - nowNanos));
+        }
+        return Math.max(TimeUnit.MILLISECONDS.toNanos(1), sleepNanos);
+    }
+
+    private static final class Timer implements Comparable<Timer> {
+        private final long consensusNanos;
+        private final Runnable task;
+
+        private Timer(long consensusNanos, Runnable task) {
+            this.consensusNanos = consensusNanos;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            return Long.compare(consensusNanos, other.consensusNanos);
+        }
+    }
+}
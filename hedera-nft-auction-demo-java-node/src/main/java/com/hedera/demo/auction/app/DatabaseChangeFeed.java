@@ -0,0 +1,77 @@
+package com.hedera.demo.auction.app;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.pgclient.pubsub.PgSubscriber;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Listens for change notifications from the database and republishes them on the Vertx event bus
+ *
+ * The database emits a compact json event on the {@link #CHANNEL} channel when a transaction writing to
+ * auctions, bids or validators commits, e.g.
+ * {"table":"bids","op":"INSERT","auctionid":1,"timestamp":"1628000000.000000001","refundstatus":""}
+ * {"table":"auctions","op":"UPDATE","auctionid":1,"status":"CLOSED"}
+ * {"table":"validators","op":"INSERT"}
+ *
+ * Events are published as JsonObject to {@link #EVENT_BUS_ADDRESS}. The listener reconnects automatically
+ * if its connection is lost, changes committed while disconnected are not replayed.
+ * A single feed is started per node, every consumer on the event bus receives each change once.
+ */
+@Log4j2
+public class DatabaseChangeFeed {
+    public static final String CHANNEL = "auction_changes";
+    public static final String EVENT_BUS_ADDRESS = "auction.changes";
+
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final Vertx vertx;
+    private final PgSubscriber subscriber;
+
+    /**
+     * Constructor
+     *
+     * @param vertx the Vertx instance whose event bus to publish to
+     * @param connectionManager the connection manager to the database
+     */
+    public DatabaseChangeFeed(Vertx vertx, SqlConnectionManager connectionManager) {
+        this.vertx = vertx;
+        this.subscriber = connectionManager.subscriber(vertx);
+    }
+
+    /**
+     * Starts listening for changes
+     *
+     * @return {@code Future<Void>} completed once the listener is connected
+     */
+    public Future<Void> start() {
+        subscriber.channel(CHANNEL).handler(this::publish);
+        subscriber.reconnectPolicy(retries -> {
+            log.warn("Database change feed disconnected, reconnecting (attempt {})", retries + 1);
+            return RECONNECT_DELAY_MILLIS;
+        });
+        return subscriber.connect();
+    }
+
+    /**
+     * Stops listening for changes
+     */
+    public void close() {
+        subscriber.close();
+    }
+
+    /**
+     * Publishes a notification's payload on the event bus
+     *
+     * @param payload the notification's json payload
+     */
+    void publish(String payload) {
+        try {
+            vertx.eventBus().publish(EVENT_BUS_ADDRESS, new JsonObject(payload));
+        } catch (DecodeException e) {
+            log.error("Invalid database change notification {}", payload, e);
+        }
+    }
+}
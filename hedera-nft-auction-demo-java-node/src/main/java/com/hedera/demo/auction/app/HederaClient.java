@@ -9,6 +9,9 @@ import io.github.cdimascio.dotenv.Dotenv;
 import lombok.extern.log4j.Log4j2;
 import org.jooq.tools.StringUtils;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -20,8 +23,18 @@ public class HederaClient {
     private final PrivateKey operatorKey;
     private String mirrorProvider;
     private String mirrorUrl = "";
+    private List<String> mirrorUrls = List.of();
     private final Client client;
     private final String network;
+    private boolean mirrorHttp2 = false;
+    private int mirrorHedgePercentile = 0;
+    private double mirrorRequestsPerSecond = MirrorRequestBudget.DEFAULT_REQUESTS_PER_SECOND;
+    private int mirrorRequestBurst = MirrorRequestBudget.DEFAULT_BURST;
+    private int mirrorMaxConcurrent = MirrorRequestBudget.DEFAULT_MAX_CONCURRENT;
+    @Nullable
+    private MirrorClient mirrorClient = null;
+    @Nullable
+    private ConsensusClock consensusClock = null;
 
     /** Constructor
      *
@@ -29,7 +42,7 @@ public class HederaClient {
      * @param operatorKey the private key of the operator
      * @param network the network to use
      * @param mirrorProvider the mirror provider to use
-     * @param mirrorUrl the base url to the mirror node to use
+     * @param mirrorUrl the base url to the mirror node to use, or a comma separated list of urls
      * @throws Exception in the event of an error
      */
     public HederaClient(AccountId operatorId, PrivateKey operatorKey, String network, String mirrorProvider, String mirrorUrl) throws Exception {
@@ -37,7 +50,8 @@ public class HederaClient {
         this.operatorKey = operatorKey;
         this.mirrorProvider = mirrorProvider.toUpperCase();
         this.client = clientForNetwork(network);
-        this.mirrorUrl = mirrorUrl;
+        this.mirrorUrls = splitMirrorUrls(mirrorUrl);
+        this.mirrorUrl = this.mirrorUrls.isEmpty() ? "" : this.mirrorUrls.get(0);
         this.network = network;
     }
 
@@ -71,11 +85,33 @@ public class HederaClient {
         if (StringUtils.isEmpty(env.get(envVariable))) {
             throw new Exception(envVariable + " environment variable not set");
         } else {
-            this.mirrorUrl = env.get(envVariable, "");
+            this.mirrorUrls = splitMirrorUrls(env.get(envVariable, ""));
+            this.mirrorUrl = this.mirrorUrls.isEmpty() ? "" : this.mirrorUrls.get(0);
         }
         if (StringUtils.isBlank(this.mirrorUrl)) {
             throw new Exception("NETWORK and/or MIRROR_PROVIDER environment variables not set");
         }
+        this.mirrorHttp2 = Boolean.parseBoolean(env.get("MIRROR_HTTP2", "false"));
+        this.mirrorHedgePercentile = Integer.parseInt(env.get("MIRROR_HEDGE_PERCENTILE", "0"));
+        this.mirrorRequestsPerSecond = Double.parseDouble(env.get("MIRROR_REQUESTS_PER_SECOND", String.valueOf(MirrorRequestBudget.DEFAULT_REQUESTS_PER_SECOND)));
+        this.mirrorRequestBurst = Integer.parseInt(env.get("MIRROR_REQUEST_BURST", String.valueOf(MirrorRequestBudget.DEFAULT_BURST)));
+        this.mirrorMaxConcurrent = Integer.parseInt(env.get("MIRROR_MAX_CONCURRENT", String.valueOf(MirrorRequestBudget.DEFAULT_MAX_CONCURRENT)));
+    }
+
+    /**
+     * Splits a comma separated list of mirror urls
+     *
+     * @param mirrorUrls the list of urls
+     * @return {@code List<String>} the urls, blank entries are ignored
+     */
+    private static List<String> splitMirrorUrls(String mirrorUrls) {
+        List<String> urls = new ArrayList<>();
+        for (String url : mirrorUrls.split(",")) {
+            if (! StringUtils.isBlank(url)) {
+                urls.add(url.trim());
+            }
+        }
+        return urls;
     }
 
     /**
@@ -114,6 +150,38 @@ public class HederaClient {
         this.mirrorProvider = mirrorProvider.toUpperCase();
     }
     public String mirrorUrl() {return this.mirrorUrl;}
+    public List<String> mirrorUrls() {return this.mirrorUrls;}
+
+    /**
+     * Returns the client to the mirror nodes' REST api, the client is created on first use and
+     * shared by all users of this HederaClient
+     *
+     * @return MirrorClient the mirror node client
+     */
+    public synchronized MirrorClient mirrorClient() {
+        if (this.mirrorClient == null) {
+            this.mirrorClient = new MirrorClient(this.mirrorUrls, this.mirrorHttp2, this.mirrorHedgePercentile,
+                    this.mirrorRequestsPerSecond, this.mirrorRequestBurst, this.mirrorMaxConcurrent);
+        }
+        return this.mirrorClient;
+    }
+
+    /**
+     * Returns the consensus clock, the clock is created and started on first use and
+     * shared by all users of this HederaClient
+     *
+     * @return ConsensusClock the consensus clock
+     */
+    public synchronized ConsensusClock consensusClock() {
+        if (this.consensusClock == null) {
+            this.consensusClock = new ConsensusClock(this, ConsensusClock.DEFAULT_REFRESH_MILLIS);
+            this.consensusClock.refresh();
+            Thread consensusClockThread = new Thread(this.consensusClock);
+            consensusClockThread.setDaemon(true);
+            consensusClockThread.start();
+        }
+        return this.consensusClock;
+    }
     public Client client() {return this.client;}
 
     /**
@@ -0,0 +1,68 @@
+package com.hedera.demo.auction.app;
+
+import io.vertx.core.json.JsonObject;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Periodically logs the metrics of the node's components as a single line of json
+ */
+@Log4j2
+public class MetricsReporter implements Runnable {
+
+    public static final int DEFAULT_REPORT_FREQUENCY = 60000;
+
+    private final int reportFrequency;
+    private final Map<String, Supplier<Object>> sources = new LinkedHashMap<>();
+    protected boolean runThread = true;
+
+    public MetricsReporter(int reportFrequency) {
+        this.reportFrequency = reportFrequency;
+    }
+
+    /**
+     * Adds a source of metrics to the report
+     *
+     * @param name the name the metrics are reported under
+     * @param metrics supplies the current metrics, a JsonObject or JsonArray
+     */
+    public synchronized void add(String name, Supplier<Object> metrics) {
+        sources.put(name, metrics);
+    }
+
+    /**
+     * continuous loop except if runThread is false which logs the metrics
+     * Pauses between each loop
+     */
+    @Override
+    public void run() {
+        while (runThread) {
+            Utils.sleep(this.reportFrequency);
+            log.info("metrics {}", report().encode());
+        }
+    }
+
+    public void stop() {
+        runThread = false;
+    }
+
+    /**
+     * Collects the current metrics of every source
+     *
+     * @return JsonObject the metrics of each source under its name
+     */
+    public synchronized JsonObject report() {
+        JsonObject report = new JsonObject();
+        for (Map.Entry<String, Supplier<Object>> source : sources.entrySet()) {
+            try {
+                report.put(source.getKey(), source.getValue().get());
+            } catch (RuntimeException e) {
+                log.error("Unable to collect metrics for {}", source.getKey(), e);
+            }
+        }
+        return report;
+    }
+}
@@ -0,0 +1,610 @@
+package com.hedera.demo.auction.app;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionsDecoder;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.ext.web.codec.BodyCodec;
+import lombok.extern.log4j.Log4j2;
+import org.jooq.tools.StringUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client for the REST api of one or more mirror nodes
+ *
+ * A single client is shared by all the components querying the mirror nodes, connections are pooled and kept
+ * alive between queries. Queries don't block.
+ *
+ * Each query is sent to the healthy mirror node with the lowest average latency, a mirror node which fails is
+ * ejected for a while and its queries fail over to the next mirror node. When hedging is enabled and a query
+ * takes longer than the given percentile of the mirror node's recent latency, the query is also sent to the next
+ * fastest mirror node and the first response wins. Queries which fail on every mirror node are retried with an
+ * exponential backoff.
+ *
+ * Every request is admitted by the client's MirrorRequestBudget, which limits the rate and concurrency of requests
+ * and serves higher priority queries first.
+ *
+ * Mirror urls may be a host name (port 80), host:port or a http:// or https:// url.
+ */
+@Log4j2
+public class MirrorClient {
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final int DEFAULT_POOL_SIZE = 20;
+    static final long INITIAL_BACKOFF_MILLIS = 250;
+    static final long MAX_BACKOFF_MILLIS = 4000;
+    static final long MIN_HEDGE_DELAY_MILLIS = 20;
+    // a Retry-After header asking for a longer delay than this is capped
+    static final long MAX_RETRY_AFTER_MILLIS = 60000;
+    private static final int KEEP_ALIVE_TIMEOUT_SECONDS = 60;
+
+    /**
+     * Vertx instance for clients which aren't given one
+     */
+    private static final Vertx defaultVertx = Vertx.vertx();
+
+    private final Vertx vertx;
+    private final WebClient webClient;
+    private final List<MirrorEndpoint> endpoints;
+    private final int maxAttempts;
+    private final int hedgePercentile;
+    private final MirrorRequestBudget budget;
+
+    /**
+     * The priority of a query when requests are queued by the client's MirrorRequestBudget
+     */
+    public enum Priority {
+        /** bid ingestion and auction closure */
+        HIGH,
+        NORMAL,
+        /** refund confirmation and readiness checks */
+        LOW
+    }
+
+    /**
+     * Constructor
+     *
+     * @param mirrorUrl the url of the mirror node
+     * @param http2 true to use HTTP/2, negotiated with ALPN over TLS or upgraded over clear text
+     */
+    public MirrorClient(String mirrorUrl, boolean http2) {
+        this(defaultVertx, mirrorUrl, http2, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param mirrorUrls the urls of the mirror nodes, in order of preference until their latency is known
+     * @param http2 true to use HTTP/2, negotiated with ALPN over TLS or upgraded over clear text
+     * @param hedgePercentile the percentile of a mirror node's latency after which a query is also sent to
+     *                        another mirror node, 0 to never hedge
+     * @param requestsPerSecond the sustained rate of requests to the mirror nodes, 0 for no limit
+     * @param burst the number of requests which may be sent at once after a quiet period
+     * @param maxConcurrent the maximum number of requests in flight, 0 for no limit
+     */
+    public MirrorClient(List<String> mirrorUrls, boolean http2, int hedgePercentile, double requestsPerSecond, int burst, int maxConcurrent) {
+        this(defaultVertx, mirrorUrls, http2, DEFAULT_MAX_ATTEMPTS, hedgePercentile,
+                new MirrorRequestBudget(defaultVertx, requestsPerSecond, burst, maxConcurrent));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param vertx the Vertx instance to run the client on
+     * @param mirrorUrl the url of the mirror node
+     * @param http2 true to use HTTP/2, negotiated with ALPN over TLS or upgraded over clear text
+     * @param maxAttempts the maximum number of attempts for a query before giving up
+     */
+    public MirrorClient(Vertx vertx, String mirrorUrl, boolean http2, int maxAttempts) {
+        this(vertx, List.of(mirrorUrl), http2, maxAttempts, 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param vertx the Vertx instance to run the client on
+     * @param mirrorUrls the urls of the mirror nodes, in order of preference until their latency is known
+     * @param http2 true to use HTTP/2, negotiated with ALPN over TLS or upgraded over clear text
+     * @param maxAttempts the maximum number of attempts for a query before giving up
+     * @param hedgePercentile the percentile of a mirror node's latency after which a query is also sent to
+     *                        another mirror node, 0 to never hedge
+     */
+    public MirrorClient(Vertx vertx, List<String> mirrorUrls, boolean http2, int maxAttempts, int hedgePercentile) {
+        this(vertx, mirrorUrls, http2, maxAttempts, hedgePercentile, new MirrorRequestBudget(vertx,
+                MirrorRequestBudget.DEFAULT_REQUESTS_PER_SECOND, MirrorRequestBudget.DEFAULT_BURST, MirrorRequestBudget.DEFAULT_MAX_CONCURRENT));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param vertx the Vertx instance to run the client on
+     * @param mirrorUrls the urls of the mirror nodes, in order of preference until their latency is known
+     * @param http2 true to use HTTP/2, negotiated with ALPN over TLS or upgraded over clear text
+     * @param maxAttempts the maximum number of attempts for a query before giving up
+     * @param hedgePercentile the percentile of a mirror node's latency after which a query is also sent to
+     *                        another mirror node, 0 to never hedge
+     * @param budget the budget which admits requests to the mirror nodes
+     * @throws IllegalArgumentException if no urls are provided or a url doesn't contain a host
+     */
+    public MirrorClient(Vertx vertx, List<String> mirrorUrls, boolean http2, int maxAttempts, int hedgePercentile, MirrorRequestBudget budget) {
+        if (mirrorUrls.isEmpty()) {
+            throw new IllegalArgumentException("no mirror urls provided");
+        }
+        List<MirrorEndpoint> mirrorEndpoints = new ArrayList<>();
+        for (String mirrorUrl : mirrorUrls) {
+            mirrorEndpoints.add(new MirrorEndpoint(mirrorUrl));
+        }
+        this.endpoints = List.copyOf(mirrorEndpoints);
+        this.vertx = vertx;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.hedgePercentile = Math.min(100, Math.max(0, hedgePercentile));
+        this.budget = budget;
+
+        MirrorEndpoint first = endpoints.get(0);
+        boolean anySsl = endpoints.stream().anyMatch(MirrorEndpoint::ssl);
+        WebClientOptions options = new WebClientOptions()
+                .setUserAgent("HederaAuction/1.0")
+                .setDefaultHost(first.host())
+                .setDefaultPort(first.port())
+                .setSsl(first.ssl())
+                .setKeepAlive(true)
+                .setKeepAliveTimeout(KEEP_ALIVE_TIMEOUT_SECONDS)
+                .setMaxPoolSize(DEFAULT_POOL_SIZE)
+                .setTryUseCompression(true);
+        if (http2) {
+            options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(anySsl)
+                    .setHttp2KeepAliveTimeout(KEEP_ALIVE_TIMEOUT_SECONDS);
+        }
+        this.webClient = WebClient.create(vertx, options);
+    }
+
+    /**
+     * Parses a mirror url, a url without a scheme is assumed to be http
+     *
+     * @param mirrorUrl the url to parse
+     * @return URI the parsed url
+     * @throws IllegalArgumentException if the url doesn't contain a host
+     */
+    static URI parseUrl(String mirrorUrl) {
+        String url = mirrorUrl.contains("://") ? mirrorUrl : "http://".concat(mirrorUrl);
+        URI uri = URI.create(url);
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("invalid mirror url " + mirrorUrl);
+        }
+        return uri;
+    }
+
+    public String host() {
+        return endpoints.get(0).host();
+    }
+
+    public int port() {
+        return endpoints.get(0).port();
+    }
+
+    public boolean ssl() {
+        return endpoints.get(0).ssl();
+    }
+
+    /**
+     * @return {@code List<MirrorEndpoint>} the mirror nodes queried by this client and their statistics
+     */
+    public List<MirrorEndpoint> endpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return JsonArray the statistics of each mirror node in json format
+     */
+    public JsonArray endpointStats() {
+        JsonArray stats = new JsonArray();
+        for (MirrorEndpoint endpoint : endpoints) {
+            stats.add(endpoint.toJson());
+        }
+        return stats;
+    }
+
+    /**
+     * @return MirrorRequestBudget the budget which admits requests to the mirror nodes, with its queueing metrics
+     */
+    public MirrorRequestBudget budget() {
+        return budget;
+    }
+
+    /**
+     * Queries the mirror node REST api
+     *
+     * A query which fails or receives a server error response is retried up to the client's maximum number
+     * of attempts, immediately on another mirror node if one is healthy, otherwise after a delay which doubles
+     * after each attempt.
+     *
+     * @param path the path of the api to query (e.g. /api/v1/transactions)
+     * @param queryParameters the map of parameters to supply to the query
+     * @return {@code Future<JsonObject>} the response from the mirror node, failed if no response was received
+     */
+    public Future<JsonObject> queryAsync(String path, Map<String, String> queryParameters) {
+        return queryAsync(path, queryParameters, Priority.NORMAL);
+    }
+
+    /**
+     * Queries the mirror node REST api
+     *
+     * @param path the path of the api to query (e.g. /api/v1/transactions)
+     * @param queryParameters the map of parameters to supply to the query
+     * @param priority the priority of the query when requests are queued
+     * @return {@code Future<JsonObject>} the response from the mirror node, failed if no response was received
+     */
+    public Future<JsonObject> queryAsync(String path, Map<String, String> queryParameters, Priority priority) {
+        return queryAsync(path, queryParameters, priority, BodyCodec.jsonObject(), new JsonObject());
+    }
+
+    /**
+     * Queries the mirror node REST api for a page of transactions, the response is decoded straight
+     * from the bytes received with a MirrorTransactionsDecoder
+     *
+     * @param path the path of the api to query (e.g. /api/v1/transactions)
+     * @param queryParameters the map of parameters to supply to the query
+     * @return {@code Future<MirrorTransactions>} the page of transactions, failed if no response was received
+     * or the response couldn't be decoded
+     */
+    public Future<MirrorTransactions> queryTransactionsAsync(String path, Map<String, String> queryParameters) {
+        return queryTransactionsAsync(path, queryParameters, Priority.NORMAL);
+    }
+
+    /**
+     * Queries the mirror node REST api for a page of transactions
+     *
+     * @param path the path of the api to query (e.g. /api/v1/transactions)
+     * @param queryParameters the map of parameters to supply to the query
+     * @param priority the priority of the query when requests are queued
+     * @return {@code Future<MirrorTransactions>} the page of transactions, failed if no response was received
+     * or the response couldn't be decoded
+     */
+    public Future<MirrorTransactions> queryTransactionsAsync(String path, Map<String, String> queryParameters, Priority priority) {
+        return queryAsync(path, queryParameters, priority, BodyCodec.buffer(), Buffer.buffer())
+                .compose(buffer -> {
+                    try {
+                        return Future.succeededFuture(MirrorTransactionsDecoder.decode(buffer));
+                    } catch (IOException e) {
+                        return Future.failedFuture(e);
+                    }
+                });
+    }
+
+    private <T> Future<T> queryAsync(String path, Map<String, String> queryParameters, Priority priority, BodyCodec<T> bodyCodec, T emptyBody) {
+        Query<T> query = new Query<>(path, queryParameters, priority, bodyCodec, emptyBody);
+        attempt(query, 1, INITIAL_BACKOFF_MILLIS);
+        return query.promise.future();
+    }
+
+    /**
+     * Queries the mirror node REST api, blocking the calling thread until a response is received.
+     * For use from worker threads only, never from an event loop.
+     *
+     * @param path the path of the api to query (e.g. /api/v1/transactions)
+     * @param queryParameters the map of parameters to supply to the query
+     * @return JsonObject containing the response from the mirror node, empty if no response was received
+     */
+    public JsonObject query(String path, Map<String, String> queryParameters) {
+        return query(path, queryParameters, Priority.NORMAL);
+    }
+
+    /**
+     * Queries the mirror node REST api, blocking the calling thread until a response is received.
+     * For use from worker threads only, never from an event loop.
+     *
+     * @param path the path of the api to query (e.g. /api/v1/transactions)
+     * @param queryParameters the map of parameters to supply to the query
+     * @param priority the priority of the query when requests are queued
+     * @return JsonObject containing the response from the mirror node, empty if no response was received
+     */
+    public JsonObject query(String path, Map<String, String> queryParameters, Priority priority) {
+        return await(queryAsync(path, queryParameters, priority), new JsonObject());
+    }
+
+    /**
+     * Queries the mirror node REST api for a page of transactions, blocking the calling thread until a
+     * response is received. For use from worker threads only, never from an event loop.
+     *
+     * @param path the path of the api to query (e.g. /api/v1/transactions)
+     * @param queryParameters the map of parameters to supply to the query
+     * @return MirrorTransactions the page of transactions, empty if no response was received
+     */
+    public MirrorTransactions queryTransactions(String path, Map<String, String> queryParameters) {
+        return queryTransactions(path, queryParameters, Priority.NORMAL);
+    }
+
+    /**
+     * Queries the mirror node REST api for a page of transactions, blocking the calling thread until a
+     * response is received. For use from worker threads only, never from an event loop.
+     *
+     * @param path the path of the api to query (e.g. /api/v1/transactions)
+     * @param queryParameters the map of parameters to supply to the query
+     * @param priority the priority of the query when requests are queued
+     * @return MirrorTransactions the page of transactions, empty if no response was received
+     */
+    public MirrorTransactions queryTransactions(String path, Map<String, String> queryParameters, Priority priority) {
+        return await(queryTransactionsAsync(path, queryParameters, priority), new MirrorTransactions());
+    }
+
+    private static <T> T await(Future<T> future, T noResponse) {
+        try {
+            return future.toCompletionStage().toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            log.error(e, e);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn(e.getCause().getMessage());
+        }
+        return noResponse;
+    }
+
+    /**
+     * Closes the client and its connections
+     */
+    public void close() {
+        webClient.close();
+    }
+
+    /**
+     * Sends a query to the best mirror node
+     *
+     * @param query the query
+     * @param attempt the number of this attempt
+     * @param backoffMillis the delay before the next attempt if this one fails on every mirror node
+     */
+    private <T> void attempt(Query<T> query, int attempt, long backoffMillis) {
+        @Nullable MirrorEndpoint best = select(System.nanoTime(), null);
+        MirrorEndpoint primary = best != null ? best : leastRecentlyEjected();
+        send(query, primary, false, new Attempt(), attempt, backoffMillis);
+    }
+
+    /**
+     * Arms a timer to hedge a query with another mirror node if the primary request is slow to respond
+     */
+    private <T> void hedgeIfSlow(Query<T> query, MirrorEndpoint primary, Attempt state, int attempt, long backoffMillis) {
+        if (hedgePercentile == 0 || endpoints.size() < 2) {
+            return;
+        }
+        long hedgeAfterNanos = primary.latencyPercentileNanos(hedgePercentile);
+        if (hedgeAfterNanos < 0) {
+            return;
+        }
+        long hedgeAfterMillis = Math.max(MIN_HEDGE_DELAY_MILLIS, TimeUnit.NANOSECONDS.toMillis(hedgeAfterNanos));
+        vertx.setTimer(hedgeAfterMillis, id -> {
+            @Nullable MirrorEndpoint secondary = select(System.nanoTime(), primary);
+            if (secondary != null && ! state.settled()) {
+                log.debug("Mirror {} slower than {}ms on {}, hedging with {}", primary.url(), hedgeAfterMillis, query.path, secondary.url());
+                send(query, secondary, true, state, attempt, backoffMillis);
+            }
+        });
+    }
+
+    /**
+     * Sends a request for a query to a mirror node once the budget admits it
+     */
+    private <T> void send(Query<T> query, MirrorEndpoint endpoint, boolean hedge, Attempt state, int attempt, long backoffMillis) {
+        budget.submit(query.priority, () -> {
+            if (! state.addRequest()) {
+                // the attempt was settled while this request was queued
+                budget.release();
+                return;
+            }
+            endpoint.recordRequest(hedge);
+            HttpRequest<T> request = webClient.get(endpoint.port(), endpoint.host(), query.path)
+                    .ssl(endpoint.ssl())
+                    .as(query.bodyCodec);
+            for (Map.Entry<String, String> entry : query.queryParameters.entrySet()) {
+                request.addQueryParam(entry.getKey(), entry.getValue());
+            }
+            if (! hedge) {
+                hedgeIfSlow(query, endpoint, state, attempt, backoffMillis);
+            }
+
+            long startNanos = System.nanoTime();
+            request.send()
+                    .onComplete(result -> budget.release())
+                    .onSuccess(response -> {
+                        if (retryable(response)) {
+                            failed(query, endpoint, state, attempt, backoffMillis, "status " + response.statusCode(), retryAfterMillis(response));
+                        } else {
+                            long nowNanos = System.nanoTime();
+                            if (endpoint.recordResponse(nowNanos, nowNanos - startNanos)) {
+                                log.info("Mirror {} is responding again", endpoint.url());
+                            }
+                            if (state.complete()) {
+                                log.debug("returning mirror response for {} from {}", query.path, endpoint.url());
+                                query.promise.complete(response.body() == null ? query.emptyBody : response.body());
+                            }
+                        }
+                    })
+                    .onFailure(err -> failed(query, endpoint, state, attempt, backoffMillis, err.getMessage(), 0));
+        });
+    }
+
+    private <T> void failed(Query<T> query, MirrorEndpoint endpoint, Attempt state, int attempt, long backoffMillis, String reason, long retryAfterMillis) {
+        long nowNanos = System.nanoTime();
+        long ejectMillis = endpoint.recordError(nowNanos, retryAfterMillis);
+        if (endpoints.size() > 1) {
+            log.warn("Mirror {} failed on {} ({}), ejecting it for {}ms", endpoint.url(), query.path, reason, ejectMillis);
+        }
+        if (retryAfterMillis > 0 && select(nowNanos, null) == null) {
+            // no other mirror node to turn to, hold back all requests as asked
+            budget.pause(retryAfterMillis);
+        }
+        if (state.failed()) {
+            retry(query, attempt, backoffMillis, reason);
+        }
+    }
+
+    private <T> void retry(Query<T> query, int attempt, long backoffMillis, String reason) {
+        if (attempt >= maxAttempts) {
+            query.promise.fail(new Exception("No response from mirror on " + query.path + " after " + attempt + " attempts (" + reason + ")"));
+            return;
+        }
+        if (select(System.nanoTime(), null) != null) {
+            log.warn("No response from mirror on {} ({}), failing over, trying again {} of {}", query.path, reason, attempt, maxAttempts);
+            attempt(query, attempt + 1, backoffMillis);
+            return;
+        }
+        log.warn("No response from mirror on {} ({}), trying again {} of {}", query.path, reason, attempt, maxAttempts);
+        vertx.setTimer(backoffMillis, id -> attempt(query, attempt + 1, Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS)));
+    }
+
+    /**
+     * Selects the healthy mirror node with the lowest average latency, a mirror node whose latency hasn't
+     * been measured recently is tried first
+     *
+     * @param nowNanos the current time
+     * @param excluded a mirror node not to select, null to consider them all
+     * @return MirrorEndpoint the selected mirror node, null if none is healthy
+     */
+    @Nullable
+    private MirrorEndpoint select(long nowNanos, @Nullable MirrorEndpoint excluded) {
+        @Var @Nullable MirrorEndpoint best = null;
+        @Var double bestLatency = Double.MAX_VALUE;
+        for (MirrorEndpoint endpoint : endpoints) {
+            if (endpoint != excluded && endpoint.healthy(nowNanos)) {
+                double latency = endpoint.selectionLatencyNanos(nowNanos);
+                if (latency < bestLatency) {
+                    best = endpoint;
+                    bestLatency = latency;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return MirrorEndpoint the mirror node whose ejection ends soonest, for use when none is healthy
+     */
+    private MirrorEndpoint leastRecentlyEjected() {
+        @Var MirrorEndpoint least = endpoints.get(0);
+        for (MirrorEndpoint endpoint : endpoints) {
+            if (endpoint.ejectedUntilNanos() - least.ejectedUntilNanos() < 0) {
+                least = endpoint;
+            }
+        }
+        return least;
+    }
+
+    /**
+     * Reads the delay a mirror node asks for before it's sent more requests
+     *
+     * @param response the response from the mirror node
+     * @return long the delay in milliseconds from the Retry-After header (seconds or a date), 0 if there isn't one
+     */
+    private static long retryAfterMillis(HttpResponse<?> response) {
+        @Nullable String retryAfter = response.getHeader("Retry-After");
+        if (StringUtils.isBlank(retryAfter)) {
+            return 0;
+        }
+        @Var long millis = 0;
+        try {
+            millis = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                millis = Duration.between(Instant.now(), retryAt.toInstant()).toMillis();
+            } catch (DateTimeParseException dateTimeParseException) {
+                log.warn("Invalid Retry-After header {} from mirror", retryAfter);
+            }
+        }
+        return Math.min(Math.max(0, millis), MAX_RETRY_AFTER_MILLIS);
+    }
+
+    /**
+     * A response is worth retrying if the mirror node is overloaded or failed to process the query
+     *
+     * @param response the response from the mirror node
+     * @return true if the query should be attempted again
+     */
+    private static boolean retryable(HttpResponse<?> response) {
+        int status = response.statusCode();
+        return status == 429 || status >= 500 || (status == 200 && response.body() == null);
+    }
+
+    private static final class Query<T> {
+        private final String path;
+        private final Map<String, String> queryParameters;
+        private final Priority priority;
+        private final BodyCodec<T> bodyCodec;
+        private final T emptyBody;
+        private final Promise<T> promise = Promise.promise();
+
+        private Query(String path, Map<String, String> queryParameters, Priority priority, BodyCodec<T> bodyCodec, T emptyBody) {
+            this.path = path;
+            this.queryParameters = queryParameters;
+            this.priority = priority;
+            this.bodyCodec = bodyCodec;
+            this.emptyBody = emptyBody;
+        }
+    }
+
+    /**
+     * The requests sent for one attempt of a query, the primary request and possibly a hedged request.
+     * The attempt succeeds with the first response and fails once every request has failed.
+     */
+    private static final class Attempt {
+        private int outstanding = 0;
+        private boolean settled = false;
+
+        synchronized boolean addRequest() {
+            if (settled) {
+                return false;
+            }
+            outstanding++;
+            return true;
+        }
+
+        synchronized boolean settled() {
+            return settled;
+        }
+
+        /**
+         * @return true if this is the first response for the attempt
+         */
+        synchronized boolean complete() {
+            if (settled) {
+                return false;
+            }
+            settled = true;
+            return true;
+        }
+
+        /**
+         * @return true if every request for the attempt has now failed
+         */
+        synchronized boolean failed() {
+            outstanding--;
+            if (settled || outstanding > 0) {
+                return false;
+            }
+            settled = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.hedera.demo.auction.app;
+
+import io.vertx.core.json.JsonObject;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One of the mirror nodes a MirrorClient queries, with its latency and error statistics
+ *
+ * Latency is tracked as an exponentially weighted moving average and a window of recent samples from which
+ * percentiles are calculated. Latency which hasn't been measured for a while is considered stale so that an
+ * endpoint which was once slow is given another chance. An endpoint which fails is ejected for a period which
+ * doubles with each consecutive failure, a successful response restores it immediately.
+ */
+public class MirrorEndpoint {
+    static final int LATENCY_WINDOW = 100;
+    // fewer samples than this are too few to estimate a percentile from
+    static final int MIN_PERCENTILE_SAMPLES = 10;
+    static final long EJECT_BASE_MILLIS = 1000;
+    static final long EJECT_MAX_MILLIS = 30000;
+    static final long STALE_LATENCY_MILLIS = 30000;
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final String host;
+    private final int port;
+    private final boolean ssl;
+
+    private final long[] latencyWindow = new long[LATENCY_WINDOW];
+    private int latencySamples = 0;
+    private double averageLatencyNanos = 0;
+    private long lastResponseNanos = 0;
+    private long requests = 0;
+    private long errors = 0;
+    private long hedges = 0;
+    private int consecutiveErrors = 0;
+    private long ejectedUntilNanos = 0;
+
+    /**
+     * Constructor
+     *
+     * @param mirrorUrl the url of the mirror node, a host name (port 80), host:port or a http:// or https:// url
+     * @throws IllegalArgumentException if the url doesn't contain a host
+     */
+    public MirrorEndpoint(String mirrorUrl) {
+        URI uri = MirrorClient.parseUrl(mirrorUrl);
+        this.host = uri.getHost();
+        this.ssl = "https".equalsIgnoreCase(uri.getScheme());
+        this.port = uri.getPort() == -1 ? (ssl ? 443 : 80) : uri.getPort();
+    }
+
+    public String host() {
+        return host;
+    }
+
+    public int port() {
+        return port;
+    }
+
+    public boolean ssl() {
+        return ssl;
+    }
+
+    /**
+     * @return String the endpoint's url
+     */
+    public String url() {
+        return (ssl ? "https://" : "http://") + host + ":" + port;
+    }
+
+    /**
+     * Records a request sent to the endpoint
+     *
+     * @param hedge true if the request duplicates a slow request to another endpoint
+     */
+    synchronized void recordRequest(boolean hedge) {
+        requests++;
+        if (hedge) {
+            hedges++;
+        }
+    }
+
+    /**
+     * Records a response from the endpoint
+     *
+     * @param nowNanos the current time
+     * @param latencyNanos the time taken to receive the response
+     * @return true if the endpoint was ejected until now
+     */
+    synchronized boolean recordResponse(long nowNanos, long latencyNanos) {
+        latencyWindow[latencySamples % LATENCY_WINDOW] = latencyNanos;
+        averageLatencyNanos = latencySamples == 0 ? latencyNanos : averageLatencyNanos + LATENCY_WEIGHT * (latencyNanos - averageLatencyNanos);
+        latencySamples++;
+        lastResponseNanos = nowNanos;
+        boolean recovered = consecutiveErrors > 0;
+        consecutiveErrors = 0;
+        ejectedUntilNanos = 0;
+        return recovered;
+    }
+
+    /**
+     * Records a failed request or error response and ejects the endpoint
+     *
+     * @param nowNanos the current time
+     * @param minEjectMillis the shortest time to eject the endpoint for, e.g. as asked by a Retry-After header
+     * @return long the number of milliseconds the endpoint is ejected for
+     */
+    synchronized long recordError(long nowNanos, long minEjectMillis) {
+        errors++;
+        long ejectMillis = Math.max(minEjectMillis, Math.min(EJECT_BASE_MILLIS << Math.min(consecutiveErrors, 16), EJECT_MAX_MILLIS));
+        consecutiveErrors++;
+        ejectedUntilNanos = nowNanos + TimeUnit.MILLISECONDS.toNanos(ejectMillis);
+        return ejectMillis;
+    }
+
+    /**
+     * @param nowNanos the current time
+     * @return true if the endpoint isn't ejected
+     */
+    synchronized boolean healthy(long nowNanos) {
+        return ejectedUntilNanos - nowNanos <= 0;
+    }
+
+    /**
+     * The latency by which endpoints are compared
+     *
+     * @param nowNanos the current time
+     * @return double the average latency in nanoseconds, 0 if it hasn't been measured or is stale
+     */
+    synchronized double selectionLatencyNanos(long nowNanos) {
+        if (latencySamples == 0 || nowNanos - lastResponseNanos > TimeUnit.MILLISECONDS.toNanos(STALE_LATENCY_MILLIS)) {
+            return 0;
+        }
+        return averageLatencyNanos;
+    }
+
+    /**
+     * @return long the time until which the endpoint is ejected
+     */
+    synchronized long ejectedUntilNanos() {
+        return ejectedUntilNanos;
+    }
+
+    /**
+     * @return long the number of requests sent to the endpoint
+     */
+    public synchronized long requests() {
+        return requests;
+    }
+
+    /**
+     * @return long the number of requests to the endpoint which failed or received an error response
+     */
+    public synchronized long errors() {
+        return errors;
+    }
+
+    /**
+     * @return long the number of hedged requests sent to the endpoint
+     */
+    public synchronized long hedges() {
+        return hedges;
+    }
+
+    /**
+     * @return true if the endpoint isn't ejected
+     */
+    public boolean healthy() {
+        return healthy(System.nanoTime());
+    }
+
+    /**
+     * @return double the moving average of the endpoint's latency in milliseconds, 0 if it hasn't responded yet
+     */
+    public synchronized double averageLatencyMillis() {
+        return averageLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Calculates a percentile of the endpoint's recent latency
+     *
+     * @param percentile the percentile (1 to 100)
+     * @return long the latency in nanoseconds, -1 if the endpoint hasn't responded often enough yet
+     */
+    public synchronized long latencyPercentileNanos(int percentile) {
+        int samples = Math.min(latencySamples, LATENCY_WINDOW);
+        if (samples < MIN_PERCENTILE_SAMPLES) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencyWindow, samples);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(Math.min(100, Math.max(1, percentile)) / 100.0 * samples) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * @return JsonObject the endpoint's statistics in json format
+     */
+    public JsonObject toJson() {
+        long p50 = latencyPercentileNanos(50);
+        long p95 = latencyPercentileNanos(95);
+        return new JsonObject()
+                .put("url", url())
+                .put("healthy", healthy())
+                .put("requests", requests())
+                .put("errors", errors())
+                .put("hedges", hedges())
+                .put("averageLatencyMillis", averageLatencyMillis())
+                .put("p50LatencyMillis", p50 < 0 ? p50 : TimeUnit.NANOSECONDS.toMillis(p50))
+                .put("p95LatencyMillis", p95 < 0 ? p95 : TimeUnit.NANOSECONDS.toMillis(p95));
+    }
+}
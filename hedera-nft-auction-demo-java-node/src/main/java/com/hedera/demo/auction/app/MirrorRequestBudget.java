@@ -0,0 +1,232 @@
+package com.hedera.demo.auction.app;
+
+import com.google.errorprone.annotations.Var;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the requests a MirrorClient sends to the mirror nodes
+ *
+ * Requests are admitted by a token bucket which refills at the given rate up to the burst size, and no more than
+ * the given number of requests may be in flight at once. Requests which can't be admitted are queued, the highest
+ * priority first and in order of arrival within a priority. When a mirror node asks for requests to stop with a
+ * Retry-After header, no request is admitted until the time it gives has passed.
+ */
+@Log4j2
+public class MirrorRequestBudget {
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 50;
+    public static final int DEFAULT_BURST = 50;
+    public static final int DEFAULT_MAX_CONCURRENT = MirrorClient.DEFAULT_POOL_SIZE;
+
+    private final Vertx vertx;
+    private final double requestsPerNano;
+    private final double burst;
+    private final int maxConcurrent;
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+
+    private double tokens;
+    private long lastRefillNanos;
+    private int inFlight = 0;
+    private long pausedUntilNanos = 0;
+    private boolean timerArmed = false;
+    private long sequence = 0;
+
+    private long admitted = 0;
+    private long queueNanos = 0;
+    private long maxQueueNanos = 0;
+    private long throttled = 0;
+
+    /**
+     * Constructor
+     *
+     * @param vertx the Vertx instance to schedule queued requests on
+     * @param requestsPerSecond the sustained rate of requests, 0 for no limit
+     * @param burst the number of requests which may be sent at once after a quiet period
+     * @param maxConcurrent the maximum number of requests in flight, 0 for no limit
+     */
+    public MirrorRequestBudget(Vertx vertx, double requestsPerSecond, int burst, int maxConcurrent) {
+        this.vertx = vertx;
+        this.requestsPerNano = Math.max(0, requestsPerSecond) / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.maxConcurrent = Math.max(0, maxConcurrent);
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Submits a request, the request is started once it's admitted and must call release() when it completes
+     *
+     * @param priority the priority of the request
+     * @param request starts the request
+     */
+    public void submit(MirrorClient.Priority priority, Runnable request) {
+        synchronized (this) {
+            queue.add(new Pending(priority, sequence++, System.nanoTime(), request));
+        }
+        dispatch();
+    }
+
+    /**
+     * Releases a request's slot once it has completed
+     */
+    public void release() {
+        synchronized (this) {
+            inFlight = Math.max(0, inFlight - 1);
+        }
+        dispatch();
+    }
+
+    /**
+     * Stops admitting requests for a while at a mirror node's request
+     *
+     * @param millis the number of milliseconds to wait before admitting more requests
+     */
+    public synchronized void pause(long millis) {
+        throttled++;
+        long untilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        if (untilNanos - pausedUntilNanos > 0) {
+            log.warn("Mirror requests paused for {}ms", millis);
+            pausedUntilNanos = untilNanos;
+        }
+    }
+
+    /**
+     * Starts the queued requests which can be admitted and, if requests remain queued, arms a timer
+     * to try again once the next token is available or the pause is over
+     */
+    private void dispatch() {
+        List<Runnable> admittedRequests = new ArrayList<>();
+        synchronized (this) {
+            long nowNanos = System.nanoTime();
+            refill(nowNanos);
+            @Var long waitNanos = 0;
+            while (! queue.isEmpty()) {
+                if (maxConcurrent > 0 && inFlight >= maxConcurrent) {
+                    // released requests dispatch the queue
+                    break;
+                }
+                if (pausedUntilNanos - nowNanos > 0) {
+                    waitNanos = pausedUntilNanos - nowNanos;
+                    break;
+                }
+                if (requestsPerNano > 0 && tokens < 1) {
+                    waitNanos = (long) Math.ceil((1 - tokens) / requestsPerNano);
+                    break;
+                }
+                Pending pending = queue.poll();
+                if (requestsPerNano > 0) {
+                    tokens -= 1;
+                }
+                inFlight++;
+                admitted++;
+                long waitedNanos = Math.max(0, nowNanos - pending.submittedNanos);
+                queueNanos += waitedNanos;
+                maxQueueNanos = Math.max(maxQueueNanos, waitedNanos);
+                admittedRequests.add(pending.request);
+            }
+            if (waitNanos > 0 && ! timerArmed) {
+                timerArmed = true;
+                vertx.setTimer(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos)), id -> {
+                    synchronized (this) {
+                        timerArmed = false;
+                    }
+                    dispatch();
+                });
+            }
+        }
+        for (Runnable request : admittedRequests) {
+            request.run();
+        }
+    }
+
+    private void refill(long nowNanos) {
+        if (requestsPerNano > 0) {
+            tokens = Math.min(burst, tokens + (nowNanos - lastRefillNanos) * requestsPerNano);
+        }
+        lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * @return int the number of requests waiting to be admitted
+     */
+    public synchronized int waiting() {
+        return queue.size();
+    }
+
+    /**
+     * @return int the number of requests in flight
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return long the number of requests admitted
+     */
+    public synchronized long admitted() {
+        return admitted;
+    }
+
+    /**
+     * @return long the number of times requests were paused at a mirror node's request
+     */
+    public synchronized long throttled() {
+        return throttled;
+    }
+
+    /**
+     * @return double the average time in milliseconds admitted requests spent queued
+     */
+    public synchronized double averageQueueMillis() {
+        if (admitted == 0) {
+            return 0;
+        }
+        return (double) queueNanos / admitted / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return double the longest time in milliseconds a request spent queued
+     */
+    public synchronized double maxQueueMillis() {
+        return (double) maxQueueNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return JsonObject the budget's metrics in json format
+     */
+    public synchronized JsonObject toJson() {
+        return new JsonObject()
+                .put("waiting", waiting())
+                .put("inFlight", inFlight())
+                .put("admitted", admitted())
+                .put("averageQueueMillis", averageQueueMillis())
+                .put("maxQueueMillis", maxQueueMillis())
+                .put("throttled", throttled());
+    }
+
+    private static final class Pending implements Comparable<Pending> {
+        private final MirrorClient.Priority priority;
+        private final long sequence;
+        private final long submittedNanos;
+        private final Runnable request;
+
+        private Pending(MirrorClient.Priority priority, long sequence, long submittedNanos, Runnable request) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.submittedNanos = submittedNanos;
+            this.request = request;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.hedera.demo.auction.app;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.domain.Auction;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules polling of the mirror node for each auction
+ *
+ * Auctions are kept in a queue ordered by the time they're next due to be polled. The interval until an auction's
+ * next poll depends on its phase and recent activity: it shortens as an active auction nears its end and when
+ * transactions are arriving, and is longest for pending auctions and auctions which have finished.
+ * Intervals are always between the scheduler's floor and ceiling.
+ */
+public class PollScheduler {
+    public static final int DEFAULT_FLOOR_MILLIS = 500;
+    public static final int DEFAULT_CEILING_MILLIS = 30000;
+    // an active auction is polled this many times over the time it has left to run
+    static final long POLLS_BEFORE_END = 60;
+
+    private final long floorMillis;
+    private final long ceilingMillis;
+    private final PriorityQueue<ScheduledPoll> queue = new PriorityQueue<>();
+    private final Map<Integer, ScheduledPoll> scheduled = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param floorMillis the shortest interval between two polls for an auction
+     * @param ceilingMillis the longest interval between two polls for an auction
+     */
+    public PollScheduler(long floorMillis, long ceilingMillis) {
+        this.floorMillis = Math.max(0, floorMillis);
+        this.ceilingMillis = Math.max(this.floorMillis, ceilingMillis);
+    }
+
+    /**
+     * Schedules a poll for an auction which isn't scheduled yet
+     *
+     * @param auctionId the id of the auction
+     * @param atMillis the time at which the auction is due to be polled
+     * @return true if the auction wasn't already scheduled
+     */
+    public boolean add(int auctionId, long atMillis) {
+        if (scheduled.containsKey(auctionId)) {
+            return false;
+        }
+        ScheduledPoll scheduledPoll = new ScheduledPoll(auctionId, atMillis);
+        scheduled.put(auctionId, scheduledPoll);
+        queue.add(scheduledPoll);
+        return true;
+    }
+
+    /**
+     * Gets the time at which the next auction is due to be polled
+     *
+     * @return long the time in milliseconds, Long.MAX_VALUE if no auction is scheduled
+     */
+    public long nextDueMillis() {
+        @Nullable ScheduledPoll next = queue.peek();
+        return next == null ? Long.MAX_VALUE : next.atMillis;
+    }
+
+    /**
+     * Takes the next auction due to be polled off the queue, it should be scheduled again once polled
+     *
+     * @param nowMillis the current time in milliseconds
+     * @return Integer the id of the auction, null if no auction is due
+     */
+    @Nullable
+    public Integer takeDue(long nowMillis) {
+        @Nullable ScheduledPoll next = queue.peek();
+        if (next == null || next.atMillis > nowMillis) {
+            return null;
+        }
+        queue.poll();
+        scheduled.remove(next.auctionId);
+        return next.auctionId;
+    }
+
+    /**
+     * Schedules the next poll for an auction which has just been polled
+     *
+     * @param auction the auction
+     * @param nowMillis the current time in milliseconds
+     * @param recentTransactions the number of transactions received for the auction by the last poll
+     */
+    public void reschedule(Auction auction, long nowMillis, long recentTransactions) {
+        add(auction.getId(), nowMillis + interval(auction, nowMillis, recentTransactions));
+    }
+
+    /**
+     * Works out the interval until an auction's next poll
+     *
+     * @param auction the auction
+     * @param nowMillis the current time in milliseconds
+     * @param recentTransactions the number of transactions received for the auction by the last poll
+     * @return long the interval in milliseconds, between the floor and ceiling
+     */
+    public long interval(Auction auction, long nowMillis, long recentTransactions) {
+        if (auction.isPending()) {
+            return ceilingMillis;
+        }
+        @Var long interval = ceilingMillis;
+        if (auction.isActive()) {
+            long timeToEndMillis = endMillis(auction) - nowMillis;
+            // bids received after the end are still to be processed and refunded promptly
+            interval = timeToEndMillis <= 0 ? floorMillis : timeToEndMillis / POLLS_BEFORE_END;
+        }
+        if (recentTransactions > 0) {
+            interval = interval / (1 + recentTransactions);
+        }
+        return Math.min(ceilingMillis, Math.max(floorMillis, interval));
+    }
+
+    public int size() {
+        return scheduled.size();
+    }
+
+    private static long endMillis(Auction auction) {
+        try {
+            return Utils.timestampToNanos(auction.getEndtimestamp()) / 1_000_000;
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static final class ScheduledPoll implements Comparable<ScheduledPoll> {
+        private final int auctionId;
+        private final long atMillis;
+
+        private ScheduledPoll(int auctionId, long atMillis) {
+            this.auctionId = auctionId;
+            this.atMillis = atMillis;
+        }
+
+        @Override
+        public int compareTo(ScheduledPoll other) {
+            return Long.compare(atMillis, other.atMillis);
+        }
+    }
+}
@@ -1,23 +1,54 @@
 package com.hedera.demo.auction.app;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.jklingsporn.vertx.jooq.classic.reactivepg.ReactiveClassicGenericQueryExecutor;
+import io.vertx.core.Vertx;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.pgclient.PgPool;
+import io.vertx.pgclient.pubsub.PgSubscriber;
+import io.vertx.sqlclient.PoolOptions;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
 
 import javax.annotation.Nullable;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Connection manager for the database
+ *
+ * Connections are held in a pool, each database operation (or transaction) borrows a connection
+ * for its duration and returns it to the pool when done. Idle connections are validated periodically
+ * and broken connections are evicted and replaced transparently.
+ *
+ * A non blocking pool may also be opened on a Vertx instance for use from event loop threads,
+ * see {@link #openReactivePool(Vertx)}.
  */
 public class SqlConnectionManager {
+    public static final int DEFAULT_POOL_SIZE = 10;
+    /** number of rows fetched from the database at a time when streaming query results */
+    public static final int CURSOR_FETCH_SIZE = 100;
+
+    private static final long CONNECTION_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long VALIDATION_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final long KEEPALIVE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private static final long MAX_LIFETIME_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
     private final String url;
     private final String username;
     private final String password;
+    private final int poolSize;
+    private final SqlConnectionPoolMetrics metrics = new SqlConnectionPoolMetrics();
+    @Nullable
+    private volatile HikariDataSource dataSource;
     @Nullable
-    private Connection connection;
+    private PgPool pgPool;
+    @Nullable
+    private ReactiveClassicGenericQueryExecutor queryExecutor;
 
     /**
      * Constructor
@@ -27,30 +58,151 @@ public class SqlConnectionManager {
      * @param password the password
      */
     public SqlConnectionManager(String url, String username, String password) {
+        this(url, username, password, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param url the url to the database
+     * @param username the username
+     * @param password the password
+     * @param poolSize the maximum number of connections in the pool
+     */
+    public SqlConnectionManager(String url, String username, String password, int poolSize) {
         this.url = url.replaceAll("jdbc:", "");
         this.username = username;
         this.password = password;
+        this.poolSize = Math.max(1, poolSize);
     }
 
     /**
-     * Returns a context to the database
+     * Returns a context to the database, each query run against the context borrows a connection
+     * from the pool and releases it on completion
      * @return DSLContext a database context
      * @throws SQLException in the event of a database error
      */
     public DSLContext dsl() throws SQLException {
-        return DSL.using(getConnection(), SQLDialect.POSTGRES);
+        return DSL.using(dataSource(), SQLDialect.POSTGRES);
     }
 
     /**
-     * Gets a connection to the database if not already established, else returns the current connection
+     * Borrows a connection from the pool, the caller is responsible for closing the connection
+     * which returns it to the pool
      * @return Connection a connection to the database
      * @throws SQLException in the event of an error
      */
-    public synchronized Connection getConnection() throws SQLException {
-        if (connection == null) {
-            connection = DriverManager.getConnection("jdbc:" + url, username, password);
+    public Connection getConnection() throws SQLException {
+        return dataSource().getConnection();
+    }
+
+    /**
+     * Opens a non blocking connection pool to the database on the supplied Vertx instance.
+     * Required before any of the repositories' Future returning methods are used
+     *
+     * @param vertx the Vertx instance to run the pool on
+     */
+    public synchronized void openReactivePool(Vertx vertx) {
+        if (pgPool != null) {
+            return;
+        }
+        PoolOptions poolOptions = new PoolOptions().setMaxSize(poolSize);
+        PgPool pool = PgPool.pool(vertx, pgConnectOptions(), poolOptions);
+        pgPool = pool;
+        queryExecutor = new ReactiveClassicGenericQueryExecutor(new DefaultConfiguration().set(SQLDialect.POSTGRES), pool);
+    }
+
+    /**
+     * Creates a subscriber to database notifications on the supplied Vertx instance,
+     * the subscriber holds its own connection to the database and is not connected until
+     * {@link PgSubscriber#connect()} is called
+     *
+     * @param vertx the Vertx instance to run the subscriber on
+     * @return PgSubscriber the subscriber
+     */
+    public PgSubscriber subscriber(Vertx vertx) {
+        return PgSubscriber.subscriber(vertx, pgConnectOptions());
+    }
+
+    /**
+     * Returns an executor for non blocking queries
+     * @return ReactiveClassicGenericQueryExecutor the query executor
+     * @throws IllegalStateException if the reactive pool hasn't been opened
+     */
+    public synchronized ReactiveClassicGenericQueryExecutor queryExecutor() {
+        if (queryExecutor == null) {
+            throw new IllegalStateException("reactive pool is not open");
+        }
+        return queryExecutor;
+    }
+
+    /**
+     * Returns the metrics for the connection pool
+     * @return SqlConnectionPoolMetrics the pool's metrics
+     */
+    public SqlConnectionPoolMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Closes the connection pools and all their connections
+     */
+    public synchronized void close() {
+        HikariDataSource current = dataSource;
+        if (current != null) {
+            current.close();
+            dataSource = null;
+        }
+        if (pgPool != null) {
+            pgPool.close();
+            pgPool = null;
+            queryExecutor = null;
         }
+    }
+
+    /**
+     * Connection options for the non blocking clients
+     * @return PgConnectOptions the connection options
+     */
+    private PgConnectOptions pgConnectOptions() {
+        return PgConnectOptions.fromUri(url)
+                .setUser(username)
+                .setPassword(password);
+    }
 
-        return connection;
+    /**
+     * Creates the connection pool if not already created, else returns the current pool
+     * @return HikariDataSource the connection pool
+     * @throws SQLException in the event of an error
+     */
+    private HikariDataSource dataSource() throws SQLException {
+        HikariDataSource current = dataSource;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            HikariDataSource existing = dataSource;
+            if (existing != null) {
+                return existing;
+            }
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("auction-db");
+            config.setJdbcUrl("jdbc:" + url);
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(CONNECTION_TIMEOUT_MILLIS);
+            config.setValidationTimeout(VALIDATION_TIMEOUT_MILLIS);
+            config.setKeepaliveTime(KEEPALIVE_MILLIS);
+            config.setMaxLifetime(MAX_LIFETIME_MILLIS);
+            config.setMetricsTrackerFactory(metrics);
+            try {
+                HikariDataSource created = new HikariDataSource(config);
+                dataSource = created;
+                return created;
+            } catch (RuntimeException e) {
+                throw new SQLException("unable to create database connection pool", e);
+            }
+        }
     }
 }
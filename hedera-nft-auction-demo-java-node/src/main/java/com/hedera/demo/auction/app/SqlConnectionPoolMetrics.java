@@ -0,0 +1,129 @@
+package com.hedera.demo.auction.app;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.vertx.core.json.JsonObject;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects metrics from the database connection pool
+ * (active, idle and total connections, threads waiting for a connection and time spent waiting for a connection)
+ */
+public class SqlConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    @Nullable
+    private volatile PoolStats poolStats;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Called by the connection pool on creation
+     *
+     * @param poolName the name of the pool
+     * @param poolStats the pool's statistics
+     * @return IMetricsTracker a tracker for connection related events
+     */
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * @return int the number of connections currently in use
+     */
+    public int activeConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getActiveConnections();
+    }
+
+    /**
+     * @return int the number of connections currently idle in the pool
+     */
+    public int idleConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getIdleConnections();
+    }
+
+    /**
+     * @return int the total number of connections in the pool
+     */
+    public int totalConnections() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getTotalConnections();
+    }
+
+    /**
+     * @return int the number of threads waiting for a connection
+     */
+    public int pendingThreads() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getPendingThreads();
+    }
+
+    /**
+     * @return long the number of connections borrowed from the pool
+     */
+    public long acquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * @return double the average time in milliseconds spent waiting for a connection
+     */
+    public double averageWaitMillis() {
+        long count = acquisitions.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) acquireNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return double the longest time in milliseconds spent waiting for a connection
+     */
+    public double maxWaitMillis() {
+        return (double) maxAcquireNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return long the number of times a connection could not be obtained within the timeout
+     */
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return JsonObject the metrics in json format
+     */
+    public JsonObject toJson() {
+        return new JsonObject()
+                .put("active", activeConnections())
+                .put("idle", idleConnections())
+                .put("total", totalConnections())
+                .put("pending", pendingThreads())
+                .put("acquisitions", acquisitions())
+                .put("averageWaitMillis", averageWaitMillis())
+                .put("maxWaitMillis", maxWaitMillis())
+                .put("timeouts", timeouts());
+    }
+}
@@ -1,18 +1,16 @@
 package com.hedera.demo.auction.app;
 
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
 import com.google.errorprone.annotations.Var;
 import com.hedera.demo.auction.app.mirrormapping.MirrorSchedule;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
-import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.JksOptions;
 import io.vertx.core.net.PemKeyCertOptions;
 import io.vertx.core.net.PfxOptions;
-import io.vertx.ext.web.client.WebClient;
-import io.vertx.ext.web.client.WebClientOptions;
-import io.vertx.ext.web.codec.BodyCodec;
 import io.vertx.json.schema.common.dsl.NumberSchemaBuilder;
 import io.vertx.json.schema.common.dsl.StringSchemaBuilder;
 import lombok.extern.log4j.Log4j2;
@@ -29,14 +27,10 @@ import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 import static io.vertx.json.schema.common.dsl.Keywords.maxLength;
+import static io.vertx.json.schema.common.dsl.Keywords.pattern;
 import static io.vertx.json.schema.common.dsl.Schemas.numberSchema;
 import static io.vertx.json.schema.common.dsl.Schemas.stringSchema;
 import static io.vertx.json.schema.draft7.dsl.Keywords.maximum;
@@ -50,19 +44,14 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 @Log4j2
 public class Utils {
 
-    /**
-     * Web client for use to make REST API calls
-     */
-    private static final WebClientOptions webClientOptions = new WebClientOptions()
-            .setUserAgent("HederaAuction/1.0")
-            .setKeepAlive(false);
-    private static final WebClient webClient = WebClient.create(Vertx.vertx(), webClientOptions);
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
 
     public static final StringSchemaBuilder LONG_STRING_MAX_SCHEMA = stringSchema().with(maxLength(65535));
     public static final StringSchemaBuilder KEY_STRING_MAX_SCHEMA = stringSchema().with(maxLength(88));
     public static final StringSchemaBuilder HEDERA_STRING_MAX_SCHEMA = stringSchema().with(maxLength(100));
     public static final StringSchemaBuilder OPERATION_STRING_SCHEMA = stringSchema().with(maxLength(6));
     public static final StringSchemaBuilder SHORT_STRING_SCHEMA = stringSchema().with(maxLength(20));
+    public static final StringSchemaBuilder CONSENSUS_TIMESTAMP_SCHEMA = stringSchema().with(pattern(Pattern.compile("^[0-9]{1,10}(\\.[0-9]{1,9})?$")));
     public static final NumberSchemaBuilder LONG_NUMBER_SCHEMA = numberSchema().with(minimum(0)).with(maximum(Long.MAX_VALUE));
 
     public enum ScheduledStatus {
@@ -163,6 +152,64 @@ public class Utils {
         return instant;
     }
 
+    /**
+     * Converts a consensus timestamp (seconds.nanos) to nanoseconds since epoch
+     *
+     * @param timestamp the timestamp to convert
+     * @return long the number of nanoseconds since epoch
+     * @throws NumberFormatException if the timestamp isn't a valid consensus timestamp
+     */
+    public static long timestampToNanos(String timestamp) {
+        List<String> timeStampParts = Splitter.on('.').splitToList(timestamp);
+        if (timeStampParts.size() > 2 || ! isDigits(timeStampParts.get(0))) {
+            throw new NumberFormatException("invalid consensus timestamp " + timestamp);
+        }
+        long seconds = Long.parseLong(timeStampParts.get(0));
+        @Var long nanos = 0;
+        if (timeStampParts.size() > 1) {
+            String fraction = timeStampParts.get(1);
+            if (fraction.length() > 9 || ! isDigits(fraction)) {
+                throw new NumberFormatException("invalid consensus timestamp " + timestamp);
+            }
+            nanos = Long.parseLong(Strings.padEnd(fraction, 9, '0'));
+        }
+        try {
+            return Math.addExact(Math.multiplyExact(seconds, NANOS_PER_SECOND), nanos);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("invalid consensus timestamp " + timestamp);
+        }
+    }
+
+    /**
+     * Converts nanoseconds since epoch to a consensus timestamp (seconds.nanos)
+     *
+     * @param nanos the number of nanoseconds since epoch
+     * @return String the consensus timestamp
+     */
+    public static String nanosToTimestamp(long nanos) {
+        return String.format("%d.%09d", nanos / NANOS_PER_SECOND, nanos % NANOS_PER_SECOND);
+    }
+
+    /**
+     * Compares two consensus timestamps numerically, values which aren't valid consensus
+     * timestamps (e.g. empty) are compared as strings
+     *
+     * @param timestamp1 the first timestamp
+     * @param timestamp2 the second timestamp
+     * @return int negative, zero or positive if timestamp1 is before, equal to or after timestamp2
+     */
+    public static int compareTimestamps(String timestamp1, String timestamp2) {
+        try {
+            return Long.compare(timestampToNanos(timestamp1), timestampToNanos(timestamp2));
+        } catch (NumberFormatException e) {
+            return timestamp1.compareTo(timestamp2);
+        }
+    }
+
+    private static boolean isDigits(String value) {
+        return ! value.isEmpty() && CharMatcher.inRange('0', '9').matchesAllOf(value);
+    }
+
     /**
      * Given a link from a mirror node response, return the timestamp part of the link
      *
@@ -200,57 +247,6 @@ public class Utils {
         }
     }
 
-    /**
-     * Generic method for calling a mirror node REST api
-     *
-     * @param hederaClient the HederaClient
-     * @param url the url of the mirror node to query
-     * @param queryParameters the map of parameters to supply to the query
-     * @return JsonObject containing the response from the mirror node
-     */
-    public static Callable<JsonObject> queryMirror(HederaClient hederaClient, String url, Map<String, String> queryParameters) {
-        String mirrorURL = hederaClient.mirrorUrl();
-
-        return () -> {
-            var webQuery = webClient
-                    .get(80, mirrorURL, url);
-
-            for (Map.Entry<String, String> entry : queryParameters.entrySet()) {
-                webQuery.addQueryParam(entry.getKey(), entry.getValue());
-            }
-
-            @Var var attempts = 0;
-            while (attempts < 5) {
-                CompletableFuture<JsonObject> future = new CompletableFuture<>();
-                webQuery.as(BodyCodec.jsonObject())
-                        .send()
-                        .onSuccess(response -> {
-                            try {
-                                future.complete(response.body());
-                            } catch (RuntimeException e) {
-                                log.error(e, e);
-                                future.complete(null);
-                            }
-                        })
-                        .onFailure(err -> {
-                            log.error(err.getMessage());
-                            future.complete(null);
-                        });
-                JsonObject response = future.get();
-                if (response != null) {
-                    log.debug("returning mirror response for {}", url);
-                    return response;
-                } else {
-                    attempts += 1;
-                    Utils.sleep(1000);
-                    log.warn("No response from mirror on {}, trying again {} of 5", url, attempts);
-                }
-            }
-            log.warn("No response from mirror on {} after 5 attempts", url);
-            return new JsonObject();
-        };
-    }
-
     /**
      * Method to query a mirror node for the latest consensus timestamp
      *
@@ -260,27 +256,13 @@ public class Utils {
     public static String getLastConsensusTimeFromMirror(HederaClient hederaClient) {
         @Var String lastTimestamp = "";
         String uri = "/api/v1/transactions";
-        ExecutorService executor = Executors.newFixedThreadPool(1);
         Map<String, String> queryParameters = new HashMap<>();
         queryParameters.put("limit", "1");
-        Future<JsonObject> future = executor.submit(Utils.queryMirror(hederaClient, uri, queryParameters));
-        try {
-            JsonObject response = future.get();
-            if (response != null) {
-                MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
-                if (mirrorTransactions.transactions != null) {
-                    if (mirrorTransactions.transactions.size() > 0) {
-                        lastTimestamp = mirrorTransactions.transactions.get(0).consensusTimestamp;
-                    }
-                }
+        MirrorTransactions mirrorTransactions = hederaClient.mirrorClient().queryTransactions(uri, queryParameters, MirrorClient.Priority.HIGH);
+        if (mirrorTransactions.transactions != null) {
+            if (mirrorTransactions.transactions.size() > 0) {
+                lastTimestamp = mirrorTransactions.transactions.get(0).consensusTimestamp;
             }
-        } catch (InterruptedException e) {
-            log.error(e, e);
-            Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-            log.error(e, e);
-        } finally {
-            executor.shutdown();
         }
         return lastTimestamp;
     }
@@ -299,39 +281,28 @@ public class Utils {
         long FOURTY_MINUTES = 40 * 60;
         @Var ScheduledStatus scheduledStatus = ScheduledStatus.UNKNOWN;
         String uri = "/api/v1/schedules/".concat(scheduleId);
-        ExecutorService executor = Executors.newFixedThreadPool(1);
         Map<String, String> queryParameters = new HashMap<>();
-        Future<JsonObject> future = executor.submit(Utils.queryMirror(hederaClient, uri, queryParameters));
-        try {
-            JsonObject response = future.get();
-            if ((response != null) && (! response.isEmpty())) {
-                MirrorSchedule mirrorSchedule = response.mapTo(MirrorSchedule.class);
+        JsonObject response = hederaClient.mirrorClient().query(uri, queryParameters, MirrorClient.Priority.LOW);
+        if (! response.isEmpty()) {
+            MirrorSchedule mirrorSchedule = response.mapTo(MirrorSchedule.class);
 
-                List<String> timeStampParts = Splitter.on('.').splitToList(mirrorSchedule.consensusTimestamp);
-                if ((timeStampParts.size() > 0) && (!StringUtils.isEmpty(mirrorSchedule.consensusTimestamp))) {
-                    // get seconds since epoch
-                    long scheduleStart = Long.parseLong(timeStampParts.get(0));
-                    if (lastMirrorTimeStamp - scheduleStart > FOURTY_MINUTES) {
-                        if (StringUtils.isEmpty(mirrorSchedule.executedTimestamp)) {
-                            scheduledStatus = ScheduledStatus.NOT_EXECUTED;
-                        } else {
-                            scheduledStatus = ScheduledStatus.EXECUTED;
-                        }
+            List<String> timeStampParts = Splitter.on('.').splitToList(mirrorSchedule.consensusTimestamp);
+            if ((timeStampParts.size() > 0) && (!StringUtils.isEmpty(mirrorSchedule.consensusTimestamp))) {
+                // get seconds since epoch
+                long scheduleStart = Long.parseLong(timeStampParts.get(0));
+                if (lastMirrorTimeStamp - scheduleStart > FOURTY_MINUTES) {
+                    if (StringUtils.isEmpty(mirrorSchedule.executedTimestamp)) {
+                        scheduledStatus = ScheduledStatus.NOT_EXECUTED;
+                    } else {
+                        scheduledStatus = ScheduledStatus.EXECUTED;
                     }
-                    log.debug("schedule {} contains {} signatures", scheduleId, mirrorSchedule.getSignatureCount());
-                } else {
-                    log.error("schedule consensus timestamp {} cannot be decoded to seconds.nanos", mirrorSchedule.consensusTimestamp);
                 }
+                log.debug("schedule {} contains {} signatures", scheduleId, mirrorSchedule.getSignatureCount());
             } else {
-                log.warn("unable to determine schedule consensus timestamp {}", scheduleId);
+                log.error("schedule consensus timestamp {} cannot be decoded to seconds.nanos", mirrorSchedule.consensusTimestamp);
             }
-        } catch (InterruptedException e) {
-            log.error(e, e);
-            Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-            log.error(e, e);
-        } finally {
-            executor.shutdown();
+        } else {
+            log.warn("unable to determine schedule consensus timestamp {}", scheduleId);
         }
         log.debug("schedule {} has executed is {}", scheduleId, scheduledStatus);
         return scheduledStatus;
@@ -23,12 +23,14 @@ import io.vertx.json.schema.SchemaRouterOptions;
 import lombok.extern.log4j.Log4j2;
 import org.jooq.tools.StringUtils;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
 
 import static io.vertx.json.schema.common.dsl.Schemas.intSchema;
+import static io.vertx.json.schema.draft7.dsl.Keywords.maximum;
 import static io.vertx.json.schema.draft7.dsl.Keywords.minimum;
 
 /**
@@ -37,6 +39,9 @@ import static io.vertx.json.schema.draft7.dsl.Keywords.minimum;
 @Log4j2
 public class ApiVerticle extends AbstractVerticle {
 
+    @Nullable
+    private SqlConnectionManager connectionManager;
+
     /**
      * Starts the verticle and sets up the necessary handlers for each available endpoint
      * @param startPromise the Promise to callback when complete
@@ -55,6 +60,7 @@ public class ApiVerticle extends AbstractVerticle {
         String database = Optional.ofNullable(config().getString("POSTGRES_DB")).orElse(Optional.ofNullable(env.get("POSTGRES_DB")).orElse(""));
         String username = Optional.ofNullable(config().getString("POSTGRES_USER")).orElse(Optional.ofNullable(env.get("POSTGRES_USER")).orElse(""));
         String password = Optional.ofNullable(config().getString("POSTGRES_PASSWORD")).orElse(Optional.ofNullable(env.get("POSTGRES_PASSWORD")).orElse(""));
+        int poolSize = Integer.parseInt(Optional.ofNullable(config().getString("DATABASE_POOL_SIZE")).orElse(Optional.ofNullable(env.get("DATABASE_POOL_SIZE")).orElse(String.valueOf(SqlConnectionManager.DEFAULT_POOL_SIZE))));
         int httpPort = Integer.parseInt(Optional.ofNullable(config().getString("API_PORT")).orElse(Optional.ofNullable(env.get("API_PORT")).orElse("9005")));
 
         if (StringUtils.isEmpty(url)) {
@@ -70,7 +76,10 @@ public class ApiVerticle extends AbstractVerticle {
             throw new Exception("missing environment variable POSTGRES_PASSWORD");
         }
 
-        SqlConnectionManager connectionManager = new SqlConnectionManager(url.concat(database), username, password);
+        SqlConnectionManager connectionManager = new SqlConnectionManager(url.concat(database), username, password, poolSize);
+        // handlers run on the event loop, use the non blocking pool for their queries
+        connectionManager.openReactivePool(vertx);
+        this.connectionManager = connectionManager;
 
         HttpServerOptions options = Utils.httpServerOptions(config());
         var server = vertx.createHttpServer(options);
@@ -82,6 +91,7 @@ public class ApiVerticle extends AbstractVerticle {
 
         GetAuctionsHandler getAuctionsHandler = new GetAuctionsHandler(auctionsRepository);
         GetAuctionHandler getAuctionHandler = new GetAuctionHandler(auctionsRepository);
+        GetAuctionStatsHandler getAuctionStatsHandler = new GetAuctionStatsHandler(auctionsRepository);
         GetLastBidderBidHandler getLastBidderBidHandler = new GetLastBidderBidHandler(bidsRepository);
         GetBidsHandler getBidsHandler = new GetBidsHandler(bidsRepository, 50);
         GetAuctionsReserveNotMetHandler getAuctionsReserveNotMetHandler = new GetAuctionsReserveNotMetHandler(auctionsRepository);
@@ -125,6 +135,13 @@ public class ApiVerticle extends AbstractVerticle {
 
         router.get("/v1/auctions").handler(getAuctionsHandler);
 
+        router.get("/v1/auctionstats/:auctionid")
+                .handler(ValidationHandler
+                        .builder(schemaParser)
+                        .pathParameter(Parameters.param("auctionid", intSchema().with(minimum(1))))
+                        .build())
+                .handler(getAuctionStatsHandler);
+
         router.get("/v1/lastbid/:auctionid/:bidderaccountid")
                 .handler(ValidationHandler
                         .builder(schemaParser)
@@ -137,6 +154,9 @@ public class ApiVerticle extends AbstractVerticle {
                 .handler(ValidationHandler
                         .builder(schemaParser)
                         .pathParameter(Parameters.param("auctionid", intSchema().with(minimum(1))))
+                        .queryParameter(Parameters.optionalParam("before", Utils.CONSENSUS_TIMESTAMP_SCHEMA))
+                        .queryParameter(Parameters.optionalParam("after", Utils.CONSENSUS_TIMESTAMP_SCHEMA))
+                        .queryParameter(Parameters.optionalParam("limit", intSchema().with(minimum(1), maximum(GetBidsHandler.MAX_BIDS_TO_RETURN))))
                         .build())
                 .handler(getBidsHandler);
 
@@ -159,6 +179,16 @@ public class ApiVerticle extends AbstractVerticle {
 ;
     }
 
+    /**
+     * Closes the database connections when the verticle is undeployed
+     */
+    @Override
+    public void stop() {
+        if (connectionManager != null) {
+            connectionManager.close();
+        }
+    }
+
     /**
      * Generic failure handler for REST API calls
      *
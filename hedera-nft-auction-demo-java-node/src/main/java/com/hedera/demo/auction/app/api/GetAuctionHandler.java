@@ -1,6 +1,5 @@
 package com.hedera.demo.auction.app.api;
 
-import com.hedera.demo.auction.app.domain.Auction;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
 import io.vertx.core.Handler;
 import io.vertx.core.json.Json;
@@ -25,19 +24,18 @@ public class GetAuctionHandler implements Handler<RoutingContext>  {
     @Override
     public void handle(RoutingContext routingContext) {
         int id = Integer.parseInt(routingContext.pathParam("id"));
-        try {
-            Auction auction = auctionsRepository.getAuction(id);
-            routingContext.response()
-                    .putHeader("content-type", "application/json")
-                    .end(Json.encodeToBuffer(auction));
-        } catch (Exception e) {
-            if (e.getMessage() != null) {
-                if (e.getMessage().contains("No auction id")) {
-                    routingContext.fail(404);
-                    return;
-                }
-            }
-            routingContext.fail(500, e);
-        }
+        auctionsRepository.getAuctionAsync(id)
+                .onSuccess(auction -> routingContext.response()
+                        .putHeader("content-type", "application/json")
+                        .end(Json.encodeToBuffer(auction)))
+                .onFailure(e -> {
+                    if (e.getMessage() != null) {
+                        if (e.getMessage().contains("No auction id")) {
+                            routingContext.fail(404);
+                            return;
+                        }
+                    }
+                    routingContext.fail(500, e);
+                });
     }
 }
@@ -0,0 +1,41 @@
+package com.hedera.demo.auction.app.api;
+
+import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import io.vertx.core.Handler;
+import io.vertx.core.json.Json;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Gets the bid statistics of a particular auction
+ */
+public class GetAuctionStatsHandler implements Handler<RoutingContext>  {
+
+    private final AuctionsRepository auctionsRepository;
+
+    GetAuctionStatsHandler(AuctionsRepository auctionsRepository) {
+        this.auctionsRepository = auctionsRepository;
+    }
+
+    /**
+     * Given an auction id, query the database for its bid statistics
+     *
+     * @param routingContext the RoutingContext
+     */
+    @Override
+    public void handle(RoutingContext routingContext) {
+        int auctionId = Integer.parseInt(routingContext.pathParam("auctionid"));
+        auctionsRepository.getAuctionStatsAsync(auctionId)
+                .onSuccess(auctionStats -> routingContext.response()
+                        .putHeader("content-type", "application/json")
+                        .end(Json.encodeToBuffer(auctionStats)))
+                .onFailure(e -> {
+                    if (e.getMessage() != null) {
+                        if (e.getMessage().contains("No auction id")) {
+                            routingContext.fail(404);
+                            return;
+                        }
+                    }
+                    routingContext.fail(500, e);
+                });
+    }
+}
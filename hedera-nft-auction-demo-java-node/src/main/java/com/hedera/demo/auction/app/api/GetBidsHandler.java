@@ -1,21 +1,21 @@
 package com.hedera.demo.auction.app.api;
 
-import com.hedera.demo.auction.app.domain.Bid;
 import com.hedera.demo.auction.app.repository.BidsRepository;
 import io.vertx.core.Handler;
 import io.vertx.core.json.Json;
 import io.vertx.ext.web.RoutingContext;
 import lombok.extern.log4j.Log4j2;
 
-import java.sql.SQLException;
-import java.util.List;
+import java.util.Optional;
 
 /**
- * Gets all the bids for a given auction id
+ * Gets the bids for a given auction id, one page at a time
  */
 @Log4j2
 public class GetBidsHandler implements Handler<RoutingContext> {
 
+    static final int MAX_BIDS_TO_RETURN = 500;
+
     private final BidsRepository bidsRepository;
     private final int bidsToReturn;
 
@@ -25,7 +25,14 @@ public class GetBidsHandler implements Handler<RoutingContext> {
     }
 
     /**
-     * Given an auction id, get the last 50 bids from the database
+     * Given an auction id, get a page of bids from the database, most recent first
+     *
+     * Optional query parameters
+     * before: only return bids prior to this consensus timestamp
+     * after: only return bids following this consensus timestamp
+     * limit: the maximum number of bids to return (defaults to the handler's page size)
+     *
+     * To page through the bid history, set before to the timestamp of the last bid of the previous page
      *
      * @param routingContext the RoutingContext
      */
@@ -33,14 +40,17 @@ public class GetBidsHandler implements Handler<RoutingContext> {
     public void handle(RoutingContext routingContext) {
 
         int auctionId = Integer.parseInt(routingContext.pathParam("auctionid"));
-        try {
-            List<Bid> bids = bidsRepository.getLastBids(auctionId, bidsToReturn);
-            routingContext.response()
-                    .putHeader("content-type", "application/json")
-                    .end(Json.encodeToBuffer(bids));
-        } catch (SQLException e) {
-            log.error(e, e);
-            routingContext.fail(500, e);
-        }
+        String before = Optional.ofNullable(routingContext.queryParams().get("before")).orElse("");
+        String after = Optional.ofNullable(routingContext.queryParams().get("after")).orElse("");
+        int limit = Optional.ofNullable(routingContext.queryParams().get("limit")).map(Integer::parseInt).orElse(bidsToReturn);
+
+        bidsRepository.getBidsPageAsync(auctionId, before, after, limit)
+                .onSuccess(bids -> routingContext.response()
+                        .putHeader("content-type", "application/json")
+                        .end(Json.encodeToBuffer(bids)))
+                .onFailure(e -> {
+                    log.error(e, e);
+                    routingContext.fail(500, e);
+                });
     }
 }
@@ -1,7 +1,5 @@
 package com.hedera.demo.auction.app.api;
 
-import com.google.errorprone.annotations.Var;
-import com.hedera.demo.auction.app.domain.Validator;
 import com.hedera.demo.auction.app.repository.ValidatorsRepository;
 import io.vertx.core.Handler;
 import io.vertx.core.json.Json;
@@ -9,10 +7,6 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import lombok.extern.log4j.Log4j2;
 
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Returns environment variables for use by the UI
  */
@@ -53,20 +47,19 @@ public class GetEnvironmentHandler implements Handler<RoutingContext>  {
         response.put("nodeOperator", this.nodeOperator);
 
         log.debug("getting validators");
-        @Var List<Validator> validatorList = new ArrayList<>();
-        log.debug("got validators");
-        try {
-            log.debug("preparing response");
-            validatorList = validatorsRepository.getValidatorsList();
-            response.put("validators", validatorList);
+        validatorsRepository.getValidatorsListAsync()
+                .onSuccess(validatorList -> {
+                    log.debug("got validators");
+                    response.put("validators", validatorList);
 
-            log.debug("responding");
-            routingContext.response()
-                    .putHeader("content-type", "application/json")
-                    .end(Json.encodeToBuffer(response));
-        } catch (SQLException e) {
-            log.error(e, e);
-            routingContext.fail(500, e);
-        }
+                    log.debug("responding");
+                    routingContext.response()
+                            .putHeader("content-type", "application/json")
+                            .end(Json.encodeToBuffer(response));
+                })
+                .onFailure(e -> {
+                    log.error(e, e);
+                    routingContext.fail(500, e);
+                });
     }
 }
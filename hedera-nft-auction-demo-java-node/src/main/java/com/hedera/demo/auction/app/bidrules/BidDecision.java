@@ -0,0 +1,70 @@
+package com.hedera.demo.auction.app.bidrules;
+
+import com.hedera.demo.auction.app.domain.Bid;
+
+/**
+ * The outcome of the bidding rules for a single event
+ *
+ * The status is one of the Bid status strings, empty if the bid is the winning bid. A bid which won and was
+ * outbid later in the same batch has the status Bid.HIGHER_BID and is refunded.
+ */
+public final class BidDecision {
+    private final BidEvent event;
+    private final String status;
+    private final boolean refund;
+    private final boolean recorded;
+
+    BidDecision(BidEvent event, String status, boolean refund, boolean recorded) {
+        this.event = event;
+        this.status = status;
+        this.refund = refund;
+        this.recorded = recorded;
+    }
+
+    /**
+     * @return BidDecision this decision for a winning bid which has since been outbid
+     */
+    BidDecision outbid() {
+        return new BidDecision(event, Bid.HIGHER_BID, /* refund= */ true, recorded);
+    }
+
+    public BidEvent event() {
+        return event;
+    }
+
+    public String status() {
+        return status;
+    }
+
+    public boolean refund() {
+        return refund;
+    }
+
+    /**
+     * @return true if the bid is to be stored, that is it has an amount and is the first event at its timestamp
+     */
+    public boolean recorded() {
+        return recorded;
+    }
+
+    /**
+     * Creates the bid to store for this decision
+     *
+     * @param auctionId the id of the auction
+     * @return Bid the bid
+     */
+    public Bid toBid(int auctionId) {
+        Bid bid = new Bid();
+        bid.setBidamount(event.amount());
+        bid.setAuctionid(auctionId);
+        bid.setBidderaccountid(event.payer());
+        bid.setTimestamp(event.consensusTimestamp());
+        bid.setStatus(status);
+        bid.setTransactionid(event.transactionId());
+        bid.setTransactionhash(event.transactionHash());
+        if (refund) {
+            bid.setRefundstatus(Bid.REFUND_PENDING);
+        }
+        return bid;
+    }
+}
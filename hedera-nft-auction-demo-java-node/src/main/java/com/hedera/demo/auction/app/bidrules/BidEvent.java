@@ -0,0 +1,52 @@
+package com.hedera.demo.auction.app.bidrules;
+
+/**
+ * A transfer to an auction account, reduced to the fields the bidding rules need
+ *
+ * Transactions which aren't bids (paid by the auction account itself or carrying one of the
+ * auction's own memos) are filtered out before events are created.
+ */
+public final class BidEvent {
+    private final String consensusTimestamp;
+    private final String payer;
+    private final long amount;
+    private final String transactionId;
+    private final String transactionHash;
+
+    /**
+     * Constructor
+     *
+     * @param consensusTimestamp the consensus timestamp of the transaction
+     * @param payer the account which paid for the transaction
+     * @param amount the amount transferred to the auction account, 0 if none
+     * @param transactionId the transaction id
+     * @param transactionHash the transaction hash, in hex
+     */
+    public BidEvent(String consensusTimestamp, String payer, long amount, String transactionId, String transactionHash) {
+        this.consensusTimestamp = consensusTimestamp;
+        this.payer = payer;
+        this.amount = amount;
+        this.transactionId = transactionId;
+        this.transactionHash = transactionHash;
+    }
+
+    public String consensusTimestamp() {
+        return consensusTimestamp;
+    }
+
+    public String payer() {
+        return payer;
+    }
+
+    public long amount() {
+        return amount;
+    }
+
+    public String transactionId() {
+        return transactionId;
+    }
+
+    public String transactionHash() {
+        return transactionHash;
+    }
+}
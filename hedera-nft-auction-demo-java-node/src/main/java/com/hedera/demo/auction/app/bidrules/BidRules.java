@@ -0,0 +1,263 @@
+package com.hedera.demo.auction.app.bidrules;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.domain.Bid;
+import org.jooq.tools.StringUtils;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The bidding rules of an auction, evaluated against a batch of bid events without any side effect
+ *
+ * For each event, in order
+ * * If the event's timestamp is after the auction's end, the bid is rejected and refunded
+ * * If the event's timestamp is not after the auction's start, the bid is rejected and refunded
+ * * If the payer is the current winner and the winner is not allowed to bid, the bid is rejected and refunded
+ * * If the delta between the amount and the current winning bid is positive but lower than the minimum bid, the bid is rejected and refunded
+ * * If the bid is below reserve, the bid is rejected and refunded
+ * * If the bid is not above the current winning bid, the bid is rejected and refunded
+ *
+ * Otherwise the bid becomes the winning bid and the prior winning bid, if any, is refunded. The very first bid
+ * never causes a refund. A prior winning bid from the same batch is marked as outbid in the decisions returned,
+ * a prior winning bid from an earlier batch is returned in the timestamps of bids to refund.
+ */
+public final class BidRules {
+    private final String startTimestamp;
+    private final String endTimestamp;
+    private final boolean winnerCanBid;
+    private final long minimumBid;
+    private final long reserve;
+
+    /**
+     * Constructor
+     *
+     * @param startTimestamp the auction's start timestamp
+     * @param endTimestamp the auction's end timestamp
+     * @param winnerCanBid true if the current winner may bid again
+     * @param minimumBid the minimum increase over the current winning bid
+     * @param reserve the auction's reserve
+     */
+    public BidRules(String startTimestamp, String endTimestamp, boolean winnerCanBid, long minimumBid, long reserve) {
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.winnerCanBid = winnerCanBid;
+        this.minimumBid = minimumBid;
+        this.reserve = reserve;
+    }
+
+    /**
+     * Constructor, with the rules of an auction
+     *
+     * @param auction the auction
+     */
+    public BidRules(Auction auction) {
+        this(auction.getStarttimestamp(), auction.getEndtimestamp(), auction.getWinnerCanBid(), auction.getMinimumbid(), auction.getReserve());
+    }
+
+    /**
+     * Evaluates a batch of events against an auction, the auction isn't changed
+     *
+     * @param auction the auction
+     * @param events the events in consensus order
+     * @return Outcome the decisions and the winner after the batch
+     */
+    public static Outcome evaluate(Auction auction, List<BidEvent> events) {
+        return new BidRules(auction).evaluate(Winner.of(auction), events);
+    }
+
+    /**
+     * Evaluates a batch of events
+     *
+     * @param winner the winner before the batch
+     * @param events the events in consensus order
+     * @return Outcome the decisions and the winner after the batch
+     */
+    public Outcome evaluate(Winner winner, List<BidEvent> events) {
+        List<BidDecision> decisions = new ArrayList<>(events.size());
+        Map<String, Integer> recordedDecisions = new HashMap<>();
+        Set<String> priorBidTimestamps = new LinkedHashSet<>();
+        @Var Winner current = winner;
+
+        for (BidEvent event : events) {
+            String status = evaluate(current, event);
+            boolean refund = ! status.isEmpty();
+
+            if (! refund) {
+                // we have a winner, refund the prior winning bid unless this is the very first bid
+                if (! StringUtils.isEmpty(current.account())) {
+                    @Nullable Integer priorDecision = recordedDecisions.get(current.timestamp());
+                    if (priorDecision == null) {
+                        priorBidTimestamps.add(current.timestamp());
+                    } else if (! decisions.get(priorDecision).refund()) {
+                        // prior bid was found earlier in this batch
+                        decisions.set(priorDecision, decisions.get(priorDecision).outbid());
+                    }
+                }
+                current = new Winner(event.payer(), event.amount(), event.consensusTimestamp(), event.transactionId(), event.transactionHash());
+            }
+
+            boolean recorded = event.amount() > 0 && ! recordedDecisions.containsKey(event.consensusTimestamp());
+            if (recorded) {
+                recordedDecisions.put(event.consensusTimestamp(), decisions.size());
+            }
+            decisions.add(new BidDecision(event, status, refund, recorded));
+        }
+        return new Outcome(decisions, new ArrayList<>(priorBidTimestamps), current, current != winner);
+    }
+
+    /**
+     * Evaluates a single event against the current winner
+     *
+     * @param winner the current winner
+     * @param event the event
+     * @return String the reason the bid is rejected, empty if it's the winning bid
+     */
+    private String evaluate(Winner winner, BidEvent event) {
+        if (Utils.compareTimestamps(event.consensusTimestamp(), endTimestamp) > 0) {
+            return Bid.AUCTION_CLOSED;
+        }
+        if (Utils.compareTimestamps(event.consensusTimestamp(), startTimestamp) <= 0) {
+            return Bid.AUCTION_NOT_STARTED;
+        }
+        if (event.payer().equals(winner.account()) && ! winnerCanBid) {
+            return Bid.WINNER_CANT_BID;
+        }
+
+        long amount = event.amount();
+        String increaseTooSmall = (amount - winner.bid() > 0 && amount - winner.bid() < minimumBid) ? Bid.INCREASE_TOO_SMALL : "";
+        if (amount == 0) {
+            // a transaction without a transfer to the auction isn't checked against the amounts
+            return increaseTooSmall;
+        }
+        if (amount < reserve) {
+            return Bid.BELOW_RESERVE;
+        }
+        if (amount <= winner.bid()) {
+            return Bid.UNDER_BID;
+        }
+        return increaseTooSmall;
+    }
+
+    /**
+     * The winner of an auction
+     */
+    public static final class Winner {
+        private final String account;
+        private final long bid;
+        private final String timestamp;
+        private final String transactionId;
+        private final String transactionHash;
+
+        /**
+         * Constructor
+         *
+         * @param account the winning account, empty if there is no winner yet
+         * @param bid the winning bid
+         * @param timestamp the consensus timestamp of the winning bid
+         * @param transactionId the transaction id of the winning bid
+         * @param transactionHash the transaction hash of the winning bid
+         */
+        public Winner(String account, long bid, String timestamp, String transactionId, String transactionHash) {
+            this.account = account;
+            this.bid = bid;
+            this.timestamp = timestamp;
+            this.transactionId = transactionId;
+            this.transactionHash = transactionHash;
+        }
+
+        /**
+         * @param auction the auction
+         * @return Winner the auction's current winner
+         */
+        public static Winner of(Auction auction) {
+            return new Winner(auction.getWinningaccount(), auction.getWinningbid(), auction.getWinningtimestamp(), auction.getWinningtxid(), auction.getWinningtxhash());
+        }
+
+        /**
+         * Sets this winner on an auction
+         *
+         * @param auction the auction to update
+         */
+        public void applyTo(Auction auction) {
+            auction.setWinningtimestamp(timestamp);
+            auction.setWinningaccount(account);
+            auction.setWinningbid(bid);
+            auction.setWinningtxid(transactionId);
+            auction.setWinningtxhash(transactionHash);
+        }
+
+        public String account() {
+            return account;
+        }
+
+        public long bid() {
+            return bid;
+        }
+
+        public String timestamp() {
+            return timestamp;
+        }
+
+        public String transactionId() {
+            return transactionId;
+        }
+
+        public String transactionHash() {
+            return transactionHash;
+        }
+    }
+
+    /**
+     * The outcome of a batch of events
+     */
+    public static final class Outcome {
+        private final List<BidDecision> decisions;
+        private final List<String> priorBidTimestamps;
+        private final Winner winner;
+        private final boolean winnerChanged;
+
+        Outcome(List<BidDecision> decisions, List<String> priorBidTimestamps, Winner winner, boolean winnerChanged) {
+            this.decisions = Collections.unmodifiableList(decisions);
+            this.priorBidTimestamps = Collections.unmodifiableList(priorBidTimestamps);
+            this.winner = winner;
+            this.winnerChanged = winnerChanged;
+        }
+
+        /**
+         * @return {@code List<BidDecision>} a decision for each event, in order
+         */
+        public List<BidDecision> decisions() {
+            return decisions;
+        }
+
+        /**
+         * @return {@code List<String>} the timestamps of winning bids from earlier batches to refund
+         */
+        public List<String> priorBidTimestamps() {
+            return priorBidTimestamps;
+        }
+
+        /**
+         * @return Winner the winner after the batch
+         */
+        public Winner winner() {
+            return winner;
+        }
+
+        /**
+         * @return true if a bid in the batch won
+         */
+        public boolean winnerChanged() {
+            return winnerChanged;
+        }
+    }
+}
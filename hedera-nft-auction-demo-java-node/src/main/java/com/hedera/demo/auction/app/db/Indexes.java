@@ -4,6 +4,8 @@
 package com.hedera.demo.auction.app.db;
 
 
+import com.hedera.demo.auction.app.db.tables.AuctionStats;
+import com.hedera.demo.auction.app.db.tables.Auctions;
 import com.hedera.demo.auction.app.db.tables.Bids;
 import com.hedera.demo.auction.app.db.tables.FlywaySchemaHistory;
 
@@ -23,7 +25,12 @@ public class Indexes {
     // INDEX definitions
     // -------------------------------------------------------------------------
 
+    public static final Index AUCTION_STATS_BELOWRESERVE_INDEX = Internal.createIndex(DSL.name("auction_stats_belowreserve_index"), AuctionStats.AUCTION_STATS, new OrderField[] { AuctionStats.AUCTION_STATS.AUCTIONID }, false);
+    public static final Index AUCTIONS_STATUS_ENDTIMESTAMPNANOS_INDEX = Internal.createIndex(DSL.name("auctions_status_endtimestampnanos_index"), Auctions.AUCTIONS, new OrderField[] { Auctions.AUCTIONS.STATUS, Auctions.AUCTIONS.ENDTIMESTAMPNANOS }, false);
+    public static final Index BIDS_AUCTIONID_BIDDERACCOUNTID_TIMESTAMP_INDEX = Internal.createIndex(DSL.name("bids_auctionid_bidderaccountid_timestamp_index"), Bids.BIDS, new OrderField[] { Bids.BIDS.AUCTIONID, Bids.BIDS.BIDDERACCOUNTID, Bids.BIDS.TIMESTAMPNANOS }, false);
     public static final Index BIDS_REFUNDSTATUS_INDEX = Internal.createIndex(DSL.name("bids_refundstatus_index"), Bids.BIDS, new OrderField[] { Bids.BIDS.REFUNDSTATUS }, false);
+    public static final Index BIDS_REFUND_QUEUE_INDEX = Internal.createIndex(DSL.name("bids_refund_queue_index"), Bids.BIDS, new OrderField[] { Bids.BIDS.TIMESTAMPNANOS }, false);
+    public static final Index BIDS_TIMESTAMPNANOS_INDEX = Internal.createIndex(DSL.name("bids_timestampnanos_index"), Bids.BIDS, new OrderField[] { Bids.BIDS.TIMESTAMPNANOS }, false);
     public static final Index BIDS_TRANSACTIONID_INDEX = Internal.createIndex(DSL.name("bids_transactionid_index"), Bids.BIDS, new OrderField[] { Bids.BIDS.TRANSACTIONID }, false);
     public static final Index FLYWAY_SCHEMA_HISTORY_S_IDX = Internal.createIndex(DSL.name("flyway_schema_history_s_idx"), FlywaySchemaHistory.FLYWAY_SCHEMA_HISTORY, new OrderField[] { FlywaySchemaHistory.FLYWAY_SCHEMA_HISTORY.SUCCESS }, false);
 }
@@ -4,9 +4,11 @@
 package com.hedera.demo.auction.app.db;
 
 
+import com.hedera.demo.auction.app.db.tables.AuctionStats;
 import com.hedera.demo.auction.app.db.tables.Auctions;
 import com.hedera.demo.auction.app.db.tables.Bids;
 import com.hedera.demo.auction.app.db.tables.FlywaySchemaHistory;
+import com.hedera.demo.auction.app.db.tables.MirrorCursors;
 import com.hedera.demo.auction.app.db.tables.Validators;
 
 import org.jooq.ForeignKey;
@@ -28,16 +30,19 @@ public class Keys {
     // UNIQUE and PRIMARY KEY definitions
     // -------------------------------------------------------------------------
 
+    public static final UniqueKey<Record> AUCTION_STATS_PKEY = Internal.createUniqueKey(AuctionStats.AUCTION_STATS, DSL.name("auction_stats_pkey"), new TableField[] { AuctionStats.AUCTION_STATS.AUCTIONID }, true);
     public static final UniqueKey<Record> AUCTIONS_AUCTIONACCOUNTID_KEY = Internal.createUniqueKey(Auctions.AUCTIONS, DSL.name("auctions_auctionaccountid_key"), new TableField[] { Auctions.AUCTIONS.AUCTIONACCOUNTID }, true);
     public static final UniqueKey<Record> AUCTIONS_PKEY = Internal.createUniqueKey(Auctions.AUCTIONS, DSL.name("auctions_pkey"), new TableField[] { Auctions.AUCTIONS.ID }, true);
     public static final UniqueKey<Record> AUCTIONS_TOKENID_KEY = Internal.createUniqueKey(Auctions.AUCTIONS, DSL.name("auctions_tokenid_key"), new TableField[] { Auctions.AUCTIONS.TOKENID }, true);
-    public static final UniqueKey<Record> BIDS_PKEY = Internal.createUniqueKey(Bids.BIDS, DSL.name("bids_pkey"), new TableField[] { Bids.BIDS.TIMESTAMP }, true);
+    public static final UniqueKey<Record> BIDS_PKEY = Internal.createUniqueKey(Bids.BIDS, DSL.name("bids_pkey"), new TableField[] { Bids.BIDS.AUCTIONID, Bids.BIDS.TIMESTAMPNANOS, Bids.BIDS.ARCHIVED }, true);
     public static final UniqueKey<Record> FLYWAY_SCHEMA_HISTORY_PK = Internal.createUniqueKey(FlywaySchemaHistory.FLYWAY_SCHEMA_HISTORY, DSL.name("flyway_schema_history_pk"), new TableField[] { FlywaySchemaHistory.FLYWAY_SCHEMA_HISTORY.INSTALLED_RANK }, true);
+    public static final UniqueKey<Record> MIRROR_CURSORS_PKEY = Internal.createUniqueKey(MirrorCursors.MIRROR_CURSORS, DSL.name("mirror_cursors_pkey"), new TableField[] { MirrorCursors.MIRROR_CURSORS.NAME }, true);
     public static final UniqueKey<Record> VALIDATORS_NAME_KEY = Internal.createUniqueKey(Validators.VALIDATORS, DSL.name("validators_name_key"), new TableField[] { Validators.VALIDATORS.NAME }, true);
 
     // -------------------------------------------------------------------------
     // FOREIGN KEY definitions
     // -------------------------------------------------------------------------
 
+    public static final ForeignKey<Record, Record> AUCTION_STATS__AUCTION_STATS_AUCTIONID_FKEY = Internal.createForeignKey(AuctionStats.AUCTION_STATS, DSL.name("auction_stats_auctionid_fkey"), new TableField[] { AuctionStats.AUCTION_STATS.AUCTIONID }, Keys.AUCTIONS_PKEY, new TableField[] { Auctions.AUCTIONS.ID }, true);
     public static final ForeignKey<Record, Record> BIDS__BIDS_AUCTIONID_FKEY = Internal.createForeignKey(Bids.BIDS, DSL.name("bids_auctionid_fkey"), new TableField[] { Bids.BIDS.AUCTIONID }, Keys.AUCTIONS_PKEY, new TableField[] { Auctions.AUCTIONS.ID }, true);
 }
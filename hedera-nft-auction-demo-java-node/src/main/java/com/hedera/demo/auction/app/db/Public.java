@@ -4,9 +4,11 @@
 package com.hedera.demo.auction.app.db;
 
 
+import com.hedera.demo.auction.app.db.tables.AuctionStats;
 import com.hedera.demo.auction.app.db.tables.Auctions;
 import com.hedera.demo.auction.app.db.tables.Bids;
 import com.hedera.demo.auction.app.db.tables.FlywaySchemaHistory;
+import com.hedera.demo.auction.app.db.tables.MirrorCursors;
 import com.hedera.demo.auction.app.db.tables.Validators;
 
 import java.util.Arrays;
@@ -31,6 +33,11 @@ public class Public extends SchemaImpl {
      */
     public static final Public PUBLIC = new Public();
 
+    /**
+     * The table <code>public.auction_stats</code>.
+     */
+    public final AuctionStats AUCTION_STATS = AuctionStats.AUCTION_STATS;
+
     /**
      * The table <code>public.auctions</code>.
      */
@@ -46,6 +53,11 @@ public class Public extends SchemaImpl {
      */
     public final FlywaySchemaHistory FLYWAY_SCHEMA_HISTORY = FlywaySchemaHistory.FLYWAY_SCHEMA_HISTORY;
 
+    /**
+     * The table <code>public.mirror_cursors</code>.
+     */
+    public final MirrorCursors MIRROR_CURSORS = MirrorCursors.MIRROR_CURSORS;
+
     /**
      * The table <code>public.validators</code>.
      */
@@ -73,9 +85,11 @@ public class Public extends SchemaImpl {
     @Override
     public final List<Table<?>> getTables() {
         return Arrays.<Table<?>>asList(
+            AuctionStats.AUCTION_STATS,
             Auctions.AUCTIONS,
             Bids.BIDS,
             FlywaySchemaHistory.FLYWAY_SCHEMA_HISTORY,
+            MirrorCursors.MIRROR_CURSORS,
             Validators.VALIDATORS);
     }
 }
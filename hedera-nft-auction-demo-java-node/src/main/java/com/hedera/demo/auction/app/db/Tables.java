@@ -4,9 +4,11 @@
 package com.hedera.demo.auction.app.db;
 
 
+import com.hedera.demo.auction.app.db.tables.AuctionStats;
 import com.hedera.demo.auction.app.db.tables.Auctions;
 import com.hedera.demo.auction.app.db.tables.Bids;
 import com.hedera.demo.auction.app.db.tables.FlywaySchemaHistory;
+import com.hedera.demo.auction.app.db.tables.MirrorCursors;
 import com.hedera.demo.auction.app.db.tables.Validators;
 
 
@@ -16,6 +18,11 @@ import com.hedera.demo.auction.app.db.tables.Validators;
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
 public class Tables {
 
+    /**
+     * The table <code>public.auction_stats</code>.
+     */
+    public static final AuctionStats AUCTION_STATS = AuctionStats.AUCTION_STATS;
+
     /**
      * The table <code>public.auctions</code>.
      */
@@ -31,6 +38,11 @@ public class Tables {
      */
     public static final FlywaySchemaHistory FLYWAY_SCHEMA_HISTORY = FlywaySchemaHistory.FLYWAY_SCHEMA_HISTORY;
 
+    /**
+     * The table <code>public.mirror_cursors</code>.
+     */
+    public static final MirrorCursors MIRROR_CURSORS = MirrorCursors.MIRROR_CURSORS;
+
     /**
      * The table <code>public.validators</code>.
      */
@@ -4,6 +4,7 @@
 package com.hedera.demo.auction.app.db.tables;
 
 
+import com.hedera.demo.auction.app.db.Indexes;
 import com.hedera.demo.auction.app.db.Keys;
 import com.hedera.demo.auction.app.db.Public;
 
@@ -13,6 +14,7 @@ import java.util.List;
 import org.jooq.Field;
 import org.jooq.ForeignKey;
 import org.jooq.Identity;
+import org.jooq.Index;
 import org.jooq.Name;
 import org.jooq.Record;
 import org.jooq.Schema;
@@ -166,6 +168,26 @@ public class Auctions extends TableImpl<Record> {
      */
     public final TableField<Record, String> CREATEAUCTIONTXID = createField(DSL.name("createauctiontxid"), SQLDataType.CLOB.defaultValue(DSL.field("''::text", SQLDataType.CLOB)), this, "");
 
+    /**
+     * The column <code>public.auctions.lastconsensustimestampnanos</code>.
+     */
+    public final TableField<Record, Long> LASTCONSENSUSTIMESTAMPNANOS = createField(DSL.name("lastconsensustimestampnanos"), SQLDataType.BIGINT, this, "");
+
+    /**
+     * The column <code>public.auctions.winningtimestampnanos</code>.
+     */
+    public final TableField<Record, Long> WINNINGTIMESTAMPNANOS = createField(DSL.name("winningtimestampnanos"), SQLDataType.BIGINT, this, "");
+
+    /**
+     * The column <code>public.auctions.endtimestampnanos</code>.
+     */
+    public final TableField<Record, Long> ENDTIMESTAMPNANOS = createField(DSL.name("endtimestampnanos"), SQLDataType.BIGINT, this, "");
+
+    /**
+     * The column <code>public.auctions.starttimestampnanos</code>.
+     */
+    public final TableField<Record, Long> STARTTIMESTAMPNANOS = createField(DSL.name("starttimestampnanos"), SQLDataType.BIGINT, this, "");
+
     private Auctions(Name alias, Table<Record> aliased) {
         this(alias, aliased, null);
     }
@@ -204,6 +226,11 @@ public class Auctions extends TableImpl<Record> {
         return Public.PUBLIC;
     }
 
+    @Override
+    public List<Index> getIndexes() {
+        return Arrays.<Index>asList(Indexes.AUCTIONS_STATUS_ENDTIMESTAMPNANOS_INDEX);
+    }
+
     @Override
     public Identity<Record, Integer> getIdentity() {
         return (Identity<Record, Integer>) super.getIdentity();
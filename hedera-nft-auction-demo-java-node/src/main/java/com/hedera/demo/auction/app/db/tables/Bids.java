@@ -8,6 +8,7 @@ import com.hedera.demo.auction.app.db.Indexes;
 import com.hedera.demo.auction.app.db.Keys;
 import com.hedera.demo.auction.app.db.Public;
 
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -55,7 +56,7 @@ public class Bids extends TableImpl<Record> {
     /**
      * The column <code>public.bids.auctionid</code>.
      */
-    public final TableField<Record, Integer> AUCTIONID = createField(DSL.name("auctionid"), SQLDataType.INTEGER, this, "");
+    public final TableField<Record, Integer> AUCTIONID = createField(DSL.name("auctionid"), SQLDataType.INTEGER.nullable(false), this, "");
 
     /**
      * The column <code>public.bids.bidderaccountid</code>.
@@ -102,6 +103,26 @@ public class Bids extends TableImpl<Record> {
      */
     public final TableField<Record, String> SCHEDULEID = createField(DSL.name("scheduleid"), SQLDataType.CLOB.defaultValue(DSL.field("''::text", SQLDataType.CLOB)), this, "");
 
+    /**
+     * The column <code>public.bids.timestampnanos</code>.
+     */
+    public final TableField<Record, Long> TIMESTAMPNANOS = createField(DSL.name("timestampnanos"), SQLDataType.BIGINT.nullable(false), this, "");
+
+    /**
+     * The column <code>public.bids.refundleaseowner</code>.
+     */
+    public final TableField<Record, String> REFUNDLEASEOWNER = createField(DSL.name("refundleaseowner"), SQLDataType.CLOB.defaultValue(DSL.field("''::text", SQLDataType.CLOB)), this, "");
+
+    /**
+     * The column <code>public.bids.refundleaseexpiry</code>.
+     */
+    public final TableField<Record, OffsetDateTime> REFUNDLEASEEXPIRY = createField(DSL.name("refundleaseexpiry"), SQLDataType.TIMESTAMPWITHTIMEZONE(6), this, "");
+
+    /**
+     * The column <code>public.bids.archived</code>.
+     */
+    public final TableField<Record, Boolean> ARCHIVED = createField(DSL.name("archived"), SQLDataType.BOOLEAN.nullable(false).defaultValue(DSL.field("false", SQLDataType.BOOLEAN)), this, "");
+
     private Bids(Name alias, Table<Record> aliased) {
         this(alias, aliased, null);
     }
@@ -142,7 +163,7 @@ public class Bids extends TableImpl<Record> {
 
     @Override
     public List<Index> getIndexes() {
-        return Arrays.<Index>asList(Indexes.BIDS_REFUNDSTATUS_INDEX, Indexes.BIDS_TRANSACTIONID_INDEX);
+        return Arrays.<Index>asList(Indexes.BIDS_AUCTIONID_BIDDERACCOUNTID_TIMESTAMP_INDEX, Indexes.BIDS_REFUNDSTATUS_INDEX, Indexes.BIDS_REFUND_QUEUE_INDEX, Indexes.BIDS_TIMESTAMPNANOS_INDEX, Indexes.BIDS_TRANSACTIONID_INDEX);
     }
 
     @Override
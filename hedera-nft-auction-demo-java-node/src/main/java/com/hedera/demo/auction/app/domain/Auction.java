@@ -7,6 +7,7 @@ package com.hedera.demo.auction.app.domain;
  * Domain definition for database interactions in the context of auctions
  */
 
+import com.hedera.demo.auction.app.Utils;
 import io.github.jklingsporn.vertx.jooq.shared.internal.VertxPojo;
 import io.vertx.core.json.JsonObject;
 import io.vertx.sqlclient.Row;
@@ -148,6 +149,12 @@ public class Auction implements VertxPojo, Serializable {
     public boolean isClosed() {
         return this.status.equals(Auction.CLOSED);
     }
+    public boolean endedBefore(String consensusTimestamp) {
+        return Utils.compareTimestamps(consensusTimestamp, this.endtimestamp) > 0;
+    }
+    public boolean startedBefore(String consensusTimestamp) {
+        return Utils.compareTimestamps(consensusTimestamp, this.starttimestamp) > 0;
+    }
 
     public Integer getId() {
         return this.id;
@@ -0,0 +1,176 @@
+package com.hedera.demo.auction.app.domain;
+
+
+import com.hedera.demo.auction.app.db.Tables;
+import io.github.jklingsporn.vertx.jooq.shared.internal.VertxPojo;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+import org.jooq.Record;
+
+import java.io.Serializable;
+
+/**
+ * Domain definition for database interactions in the context of auction statistics
+ */
+public class AuctionStats implements VertxPojo, Serializable {
+
+    private static final long serialVersionUID = 1945318761;
+
+    private Integer auctionid = 0;
+    private Long bidcount = 0L;
+    private Long biddercount = 0L;
+    private Long belowreservecount = 0L;
+    private Long refundspending = 0L;
+    private Long refundsissued = 0L;
+    private Long refundsrefunded = 0L;
+    private String lastbidtimestamp = "";
+
+    public AuctionStats() {}
+
+    /**
+     * Constructor for an auction with no statistics yet
+     * @param auctionid the id of the auction
+     */
+    public AuctionStats(int auctionid) {
+        this.auctionid = auctionid;
+    }
+
+    /**
+     * Constructor from a database Row
+     * @param row Row from the database
+     */
+    public AuctionStats(Row row) {
+        this.auctionid = row.getInteger(Tables.AUCTION_STATS.AUCTIONID.getName());
+        this.bidcount = row.getLong(Tables.AUCTION_STATS.BIDCOUNT.getName());
+        this.biddercount = row.getLong(Tables.AUCTION_STATS.BIDDERCOUNT.getName());
+        this.belowreservecount = row.getLong(Tables.AUCTION_STATS.BELOWRESERVECOUNT.getName());
+        this.refundspending = row.getLong(Tables.AUCTION_STATS.REFUNDSPENDING.getName());
+        this.refundsissued = row.getLong(Tables.AUCTION_STATS.REFUNDSISSUED.getName());
+        this.refundsrefunded = row.getLong(Tables.AUCTION_STATS.REFUNDSREFUNDED.getName());
+        this.lastbidtimestamp = row.getString(Tables.AUCTION_STATS.LASTBIDTIMESTAMP.getName());
+    }
+
+    /**
+     * Constructor from a Record
+     * @param record Record from the database
+     */
+    public AuctionStats(Record record) {
+        this.auctionid = record.get(Tables.AUCTION_STATS.AUCTIONID);
+        this.bidcount = record.get(Tables.AUCTION_STATS.BIDCOUNT);
+        this.biddercount = record.get(Tables.AUCTION_STATS.BIDDERCOUNT);
+        this.belowreservecount = record.get(Tables.AUCTION_STATS.BELOWRESERVECOUNT);
+        this.refundspending = record.get(Tables.AUCTION_STATS.REFUNDSPENDING);
+        this.refundsissued = record.get(Tables.AUCTION_STATS.REFUNDSISSUED);
+        this.refundsrefunded = record.get(Tables.AUCTION_STATS.REFUNDSREFUNDED);
+        this.lastbidtimestamp = record.get(Tables.AUCTION_STATS.LASTBIDTIMESTAMP);
+    }
+
+    /**
+     * Constructor from json
+     * @param json the json to construct from
+     */
+    public AuctionStats(JsonObject json) {
+        this();
+        fromJson(json);
+    }
+
+    public Integer getAuctionid() {
+        return this.auctionid;
+    }
+
+    public void setAuctionid(Integer auctionid) {
+        this.auctionid = auctionid;
+    }
+
+    public Long getBidcount() {
+        return this.bidcount;
+    }
+
+    public void setBidcount(Long bidcount) {
+        this.bidcount = bidcount;
+    }
+
+    public Long getBiddercount() {
+        return this.biddercount;
+    }
+
+    public void setBiddercount(Long biddercount) {
+        this.biddercount = biddercount;
+    }
+
+    public Long getBelowreservecount() {
+        return this.belowreservecount;
+    }
+
+    public void setBelowreservecount(Long belowreservecount) {
+        this.belowreservecount = belowreservecount;
+    }
+
+    public Long getRefundspending() {
+        return this.refundspending;
+    }
+
+    public void setRefundspending(Long refundspending) {
+        this.refundspending = refundspending;
+    }
+
+    public Long getRefundsissued() {
+        return this.refundsissued;
+    }
+
+    public void setRefundsissued(Long refundsissued) {
+        this.refundsissued = refundsissued;
+    }
+
+    public Long getRefundsrefunded() {
+        return this.refundsrefunded;
+    }
+
+    public void setRefundsrefunded(Long refundsrefunded) {
+        this.refundsrefunded = refundsrefunded;
+    }
+
+    public String getLastbidtimestamp() {
+        return this.lastbidtimestamp;
+    }
+
+    public void setLastbidtimestamp(String lastbidtimestamp) {
+        this.lastbidtimestamp = lastbidtimestamp;
+    }
+
+    /**
+     * Populates this object from json
+     * @param json the json to read from
+     * @return AuctionStats this object
+     */
+    @Override
+    public AuctionStats fromJson(JsonObject json) {
+        this.setAuctionid(json.getInteger("auctionid"));
+        this.setBidcount(json.getLong("bidcount"));
+        this.setBiddercount(json.getLong("biddercount"));
+        this.setBelowreservecount(json.getLong("belowreservecount"));
+        this.setRefundspending(json.getLong("refundspending"));
+        this.setRefundsissued(json.getLong("refundsissued"));
+        this.setRefundsrefunded(json.getLong("refundsrefunded"));
+        this.setLastbidtimestamp(json.getString("lastbidtimestamp"));
+        return this;
+    }
+
+    /**
+     * Converts this object to a json representation
+     * @return JsonObject representation of this AuctionStats object
+     */
+    @Override
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.put("auctionid", getAuctionid());
+        json.put("bidcount", getBidcount());
+        json.put("biddercount", getBiddercount());
+        json.put("belowreservecount", getBelowreservecount());
+        json.put("refundspending", getRefundspending());
+        json.put("refundsissued", getRefundsissued());
+        json.put("refundsrefunded", getRefundsrefunded());
+        json.put("lastbidtimestamp", getLastbidtimestamp());
+        return json;
+    }
+}
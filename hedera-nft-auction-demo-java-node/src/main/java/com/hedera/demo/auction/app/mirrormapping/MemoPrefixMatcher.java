@@ -0,0 +1,87 @@
+package com.hedera.demo.auction.app.mirrormapping;
+
+import com.google.errorprone.annotations.Var;
+
+import javax.annotation.Nullable;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Matches memos against a fixed set of prefixes, ignoring case
+ *
+ * The prefixes are compiled once into a tree of their (ASCII) characters so that a memo is matched by walking
+ * its characters once, without upper casing or copying it. When several prefixes match, the value of the
+ * longest one is returned.
+ *
+ * @param <V> the type of value associated with each prefix
+ */
+public final class MemoPrefixMatcher<V> {
+    private static final int ASCII = 128;
+
+    private static final class Node<V> {
+        private final Node<V>[] children = newChildren();
+        @Nullable
+        private V value = null;
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] newChildren() {
+            return (Node<V>[]) new Node<?>[ASCII];
+        }
+    }
+
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Constructor
+     *
+     * @param prefixes the prefixes to match and the value returned for each
+     * @throws IllegalArgumentException if a prefix is empty or isn't ASCII
+     */
+    public MemoPrefixMatcher(Map<String, V> prefixes) {
+        for (Map.Entry<String, V> prefix : prefixes.entrySet()) {
+            String upperCase = prefix.getKey().toUpperCase(Locale.ROOT);
+            if (upperCase.isEmpty()) {
+                throw new IllegalArgumentException("empty memo prefix");
+            }
+            @Var Node<V> node = root;
+            for (int i = 0; i < upperCase.length(); i++) {
+                char c = upperCase.charAt(i);
+                if (c >= ASCII) {
+                    throw new IllegalArgumentException("memo prefix " + prefix.getKey() + " isn't ASCII");
+                }
+                if (node.children[c] == null) {
+                    node.children[c] = new Node<>();
+                }
+                node = node.children[c];
+            }
+            node.value = prefix.getValue();
+        }
+    }
+
+    /**
+     * Matches a memo
+     *
+     * @param memo the memo
+     * @return V the value of the longest prefix the memo starts with, null if none
+     */
+    @Nullable
+    public V match(String memo) {
+        @Var Node<V> node = root;
+        @Var V matched = null;
+        for (int i = 0; i < memo.length(); i++) {
+            char c = Character.toUpperCase(memo.charAt(i));
+            if (c >= ASCII) {
+                break;
+            }
+            @Nullable Node<V> child = node.children[c];
+            if (child == null) {
+                break;
+            }
+            node = child;
+            if (node.value != null) {
+                matched = node.value;
+            }
+        }
+        return matched;
+    }
+}
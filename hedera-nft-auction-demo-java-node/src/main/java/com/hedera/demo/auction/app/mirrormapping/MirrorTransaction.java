@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.hedera.demo.auction.app.Utils;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,12 +20,25 @@ public class MirrorTransaction {
     @JsonProperty("memo_base64")
     public String memo = "";
 
+    // decoded memo and hash, kept along with the value they were decoded from
+    @Nullable
+    private String decodedMemoFrom = null;
+    private String decodedMemo = "";
+    @Nullable
+    private String decodedHashFrom = null;
+    private String decodedHash = "";
+
     /**
-     * Gets the memo as a string from base64
+     * Gets the memo as a string from base64, the memo is only decoded once
      * @return String representation of a base64 memo
      */
+    @SuppressWarnings("ReferenceEquality")
     public String getMemoString() {
-        return Utils.base64toString(memo);
+        if (memo != decodedMemoFrom) {
+            decodedMemo = Utils.base64toString(memo);
+            decodedMemoFrom = memo;
+        }
+        return decodedMemo;
     }
 
     @JsonProperty("name")
@@ -37,11 +51,16 @@ public class MirrorTransaction {
     public String transactionHash = "";
 
     /**
-     * Gets the transaction hash as a string from base64
+     * Gets the transaction hash as a string from base64, the hash is only decoded once
      * @return String representation of a base64 transaction hash
      */
+    @SuppressWarnings("ReferenceEquality")
     public String getTransactionHashString() {
-        return Utils.base64toStringHex(transactionHash);
+        if (transactionHash != decodedHashFrom) {
+            decodedHash = Utils.base64toStringHex(transactionHash);
+            decodedHashFrom = transactionHash;
+        }
+        return decodedHash;
     }
 
     @JsonProperty("transaction_id")
@@ -0,0 +1,117 @@
+package com.hedera.demo.auction.app.mirrormapping;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.domain.Bid;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classifies the transactions of an auction's account into the kinds of event the auction's consumers act upon
+ *
+ * A transaction is
+ * * a readiness transfer if the auction's token is transferred to the auction account
+ * * an end transfer if the auction's token is otherwise transferred
+ * * a refund if its memo starts with the refund memo prefix
+ * * ignored if its memo starts with one of the memos of the auction's own transactions, or if it's paid by the auction account
+ * * a bid otherwise, whether or not it also transfers the auction's token
+ *
+ * Memos are matched ignoring case against prefixes compiled once. The kinds are returned as a MirrorTransactionEvent
+ * rather than kept on the transaction, an AccountFeed classifies each transaction once for the consumers of its
+ * auction's events.
+ */
+public final class MirrorTransactionClassifier {
+    private static final MemoPrefixMatcher<MirrorTransactionKind> MEMOS = new MemoPrefixMatcher<>(memoPrefixes());
+
+    private final String auctionAccountId;
+    private final String tokenId;
+
+    /**
+     * Constructor
+     *
+     * @param auctionAccountId the auction's account id
+     * @param tokenId the auction's token id
+     */
+    public MirrorTransactionClassifier(String auctionAccountId, String tokenId) {
+        this.auctionAccountId = auctionAccountId;
+        this.tokenId = tokenId;
+    }
+
+    public String auctionAccountId() {
+        return auctionAccountId;
+    }
+
+    private static Map<String, MirrorTransactionKind> memoPrefixes() {
+        Map<String, MirrorTransactionKind> prefixes = new LinkedHashMap<>();
+        for (String memo : new String[]{"CREATEAUCTION", "FUNDACCOUNT", "TRANSFERTOAUCTION", "ASSOCIATE", "AUCTION REFUND", "TOKEN TRANSFER FROM AUCTION", "SCHEDULED REFUND", "MANAGE VALIDATORS"}) {
+            prefixes.put(memo, MirrorTransactionKind.IGNORED);
+        }
+        // longer than "AUCTION REFUND", so it wins over it
+        prefixes.put(Bid.REFUND_MEMO_PREFIX, MirrorTransactionKind.REFUND);
+        return prefixes;
+    }
+
+    /**
+     * Classifies a memo on its own
+     *
+     * @param memo the memo, decoded
+     * @return MirrorTransactionKind REFUND or IGNORED if the memo is one of the auction's own, null otherwise
+     */
+    @Nullable
+    public static MirrorTransactionKind memoKind(String memo) {
+        return MEMOS.match(memo);
+    }
+
+    /**
+     * Classifies a transaction
+     *
+     * @param transaction the transaction
+     * @return MirrorTransactionEvent the transaction typed with the kinds of event it is for the auction
+     */
+    public MirrorTransactionEvent classify(MirrorTransaction transaction) {
+        EnumSet<MirrorTransactionKind> kinds = EnumSet.noneOf(MirrorTransactionKind.class);
+        @Var boolean tokenTransferred = false;
+        @Var boolean readiness = false;
+        for (MirrorTokenTransfer tokenTransfer : transaction.tokenTransfers) {
+            if (tokenTransfer.tokenId.equals(tokenId)) {
+                tokenTransferred = true;
+                if (tokenTransfer.amount == 1 && tokenTransfer.account.equals(auctionAccountId)) {
+                    readiness = true;
+                }
+            }
+        }
+        if (readiness) {
+            kinds.add(MirrorTransactionKind.READINESS_TRANSFER);
+        } else if (tokenTransferred) {
+            kinds.add(MirrorTransactionKind.END_TRANSFER);
+        }
+
+        @Nullable MirrorTransactionKind memoKind = memoKind(transaction.getMemoString());
+        if (memoKind != null) {
+            kinds.add(memoKind);
+        } else if (transaction.payer().equals(auctionAccountId)) {
+            kinds.add(MirrorTransactionKind.IGNORED);
+        } else {
+            kinds.add(MirrorTransactionKind.BID);
+        }
+        return new MirrorTransactionEvent(transaction, kinds);
+    }
+
+    /**
+     * Classifies transactions
+     *
+     * @param transactions the transactions, in consensus order
+     * @return {@code List<MirrorTransactionEvent>} the transactions typed with the kinds of event they are, in the same order
+     */
+    public List<MirrorTransactionEvent> classify(List<MirrorTransaction> transactions) {
+        List<MirrorTransactionEvent> events = new ArrayList<>(transactions.size());
+        for (MirrorTransaction transaction : transactions) {
+            events.add(classify(transaction));
+        }
+        return events;
+    }
+}
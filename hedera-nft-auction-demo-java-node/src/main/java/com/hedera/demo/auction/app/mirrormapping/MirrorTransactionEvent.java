@@ -0,0 +1,61 @@
+package com.hedera.demo.auction.app.mirrormapping;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A transaction on an auction account typed with the kinds of event it is for the auction, as classified by the
+ * auction's MirrorTransactionClassifier
+ *
+ * A transaction may be several kinds of event at once, a bid which also transfers the auction's token for example.
+ * The event is immutable, the transaction it wraps is left as it was decoded.
+ */
+public final class MirrorTransactionEvent {
+    private final MirrorTransaction transaction;
+    private final Set<MirrorTransactionKind> kinds;
+
+    /**
+     * Constructor
+     *
+     * @param transaction the transaction
+     * @param kinds the kinds of event the transaction is for the auction
+     */
+    public MirrorTransactionEvent(MirrorTransaction transaction, Set<MirrorTransactionKind> kinds) {
+        this.transaction = transaction;
+        this.kinds = Collections.unmodifiableSet(kinds.isEmpty() ? EnumSet.noneOf(MirrorTransactionKind.class) : EnumSet.copyOf(kinds));
+    }
+
+    public MirrorTransaction transaction() {
+        return transaction;
+    }
+
+    public String consensusTimestamp() {
+        return transaction.consensusTimestamp;
+    }
+
+    public Set<MirrorTransactionKind> kinds() {
+        return kinds;
+    }
+
+    /**
+     * @param kind the kind of event
+     * @return true if the transaction is this kind of event for the auction
+     */
+    public boolean is(MirrorTransactionKind kind) {
+        return kinds.contains(kind);
+    }
+
+    /**
+     * @param subscribed the kinds of event subscribed to
+     * @return true if the transaction is any of the kinds of event subscribed to
+     */
+    public boolean isAny(Set<MirrorTransactionKind> subscribed) {
+        for (MirrorTransactionKind kind : kinds) {
+            if (subscribed.contains(kind)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package com.hedera.demo.auction.app.mirrormapping;
+
+/**
+ * What a transaction on an auction account is, as far as the auction is concerned
+ */
+public enum MirrorTransactionKind {
+    /** a transfer to the auction account which is evaluated as a bid */
+    BID,
+    /** a refund of a bid, identified by its memo */
+    REFUND,
+    /** the transfer of the auction's token to the auction account, which starts the auction */
+    READINESS_TRANSFER,
+    /** the transfer of the auction's token out of the auction account once it has ended */
+    END_TRANSFER,
+    /** an administrative transaction (set up, association, validators...) or one paid by the auction account */
+    IGNORED
+}
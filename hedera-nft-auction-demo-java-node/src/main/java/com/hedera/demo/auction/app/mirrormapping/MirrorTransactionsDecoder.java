@@ -0,0 +1,210 @@
+package com.hedera.demo.auction.app.mirrormapping;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes a page of transactions from the mirror node's REST api
+ *
+ * The response is read with a streaming parser directly from the bytes received rather than building a
+ * JsonObject tree and mapping it through data binding. Only the fields read by the auction are decoded,
+ * everything else is skipped.
+ */
+public final class MirrorTransactionsDecoder {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private MirrorTransactionsDecoder() {
+    }
+
+    /**
+     * Decodes a page of transactions
+     *
+     * @param buffer the body of the mirror node's response
+     * @return MirrorTransactions the transactions and links of the page
+     * @throws IOException if the response isn't a valid page of transactions
+     */
+    public static MirrorTransactions decode(Buffer buffer) throws IOException {
+        try (JsonParser parser = createParser(buffer.getByteBuf())) {
+            MirrorTransactions mirrorTransactions = new MirrorTransactions();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "mirror response is not an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("transactions".equals(field) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (parser.currentToken() == JsonToken.START_OBJECT) {
+                            mirrorTransactions.transactions.add(transaction(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("links".equals(field) && token == JsonToken.START_OBJECT) {
+                    mirrorTransactions.links = links(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return mirrorTransactions;
+        }
+    }
+
+    /**
+     * Parses from the buffer's backing array if it has one, otherwise streams from the buffer
+     *
+     * @param byteBuf the bytes to parse
+     * @return JsonParser the parser
+     * @throws IOException in the event of an error
+     */
+    private static JsonParser createParser(ByteBuf byteBuf) throws IOException {
+        if (byteBuf.hasArray()) {
+            return JSON_FACTORY.createParser(byteBuf.array(), byteBuf.arrayOffset() + byteBuf.readerIndex(), byteBuf.readableBytes());
+        }
+        InputStream inputStream = new ByteBufInputStream(byteBuf);
+        return JSON_FACTORY.createParser(inputStream);
+    }
+
+    private static MirrorTransaction transaction(JsonParser parser) throws IOException {
+        MirrorTransaction transaction = new MirrorTransaction();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "consensus_timestamp":
+                    transaction.consensusTimestamp = text(parser);
+                    break;
+                case "memo_base64":
+                    transaction.memo = text(parser);
+                    break;
+                case "name":
+                    transaction.name = text(parser);
+                    break;
+                case "result":
+                    transaction.result = text(parser);
+                    break;
+                case "transaction_hash":
+                    transaction.transactionHash = text(parser);
+                    break;
+                case "transaction_id":
+                    transaction.transactionId = text(parser);
+                    break;
+                case "transfers":
+                    hbarTransfers(parser, transaction);
+                    break;
+                case "token_transfers":
+                    tokenTransfers(parser, transaction);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return transaction;
+    }
+
+    private static void hbarTransfers(JsonParser parser, MirrorTransaction transaction) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            MirrorHbarTransfer transfer = new MirrorHbarTransfer();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("account".equals(field)) {
+                    transfer.account = text(parser);
+                } else if ("amount".equals(field)) {
+                    transfer.amount = number(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            transaction.hbarTransfers.add(transfer);
+        }
+    }
+
+    private static void tokenTransfers(JsonParser parser, MirrorTransaction transaction) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            MirrorTokenTransfer transfer = new MirrorTokenTransfer();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("account".equals(field)) {
+                    transfer.account = text(parser);
+                } else if ("token_id".equals(field)) {
+                    transfer.tokenId = text(parser);
+                } else if ("amount".equals(field)) {
+                    transfer.amount = number(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            transaction.tokenTransfers.add(transfer);
+        }
+    }
+
+    private static MirrorLinks links(JsonParser parser) throws IOException {
+        MirrorLinks links = new MirrorLinks();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("next".equals(field)) {
+                links.next = text(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Reads the current value as a string
+     *
+     * @param parser the parser positioned on the value
+     * @return String the value, empty if it's null or not a scalar
+     * @throws IOException in the event of an error
+     */
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getValueAsString("");
+    }
+
+    /**
+     * Reads the current value as a long
+     *
+     * @param parser the parser positioned on the value
+     * @return long the value, 0 if it's null or not a number
+     * @throws IOException in the event of an error
+     */
+    private static long number(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return 0L;
+        }
+        return parser.getValueAsLong(0L);
+    }
+}
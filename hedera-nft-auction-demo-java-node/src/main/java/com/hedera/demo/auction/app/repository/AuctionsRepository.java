@@ -3,11 +3,16 @@ package com.hedera.demo.auction.app.repository;
 import com.google.errorprone.annotations.Var;
 import com.hedera.demo.auction.app.SqlConnectionManager;
 import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.domain.AuctionStats;
 import com.hedera.demo.auction.app.domain.Bid;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
 import lombok.extern.log4j.Log4j2;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
+import org.jooq.InsertValuesStep8;
 import org.jooq.Record;
 import org.jooq.Record1;
 import org.jooq.Record2;
@@ -21,8 +26,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static com.hedera.demo.auction.app.db.Tables.AUCTIONS;
+import static com.hedera.demo.auction.app.db.Tables.AUCTION_STATS;
 import static com.hedera.demo.auction.app.db.Tables.BIDS;
 
 /**
@@ -40,17 +48,6 @@ public class AuctionsRepository {
         this.connectionManager = connectionManager;
     }
 
-    /**
-     * Returns all auctions ordered by auction id
-     *
-     * @return {@code Result<Record>} records of auctions
-     * @throws SQLException in the event of an error
-     */
-    private Result<Record> getAuctions() throws SQLException {
-        DSLContext cx = connectionManager.dsl();
-        return cx.selectFrom(AUCTIONS).orderBy(AUCTIONS.ID).fetch();
-    }
-
     /**
      * Returns a complete auction given an auction id
      *
@@ -101,14 +98,44 @@ public class AuctionsRepository {
      */
     public List<Auction> getAuctionsList() throws SQLException {
         List<Auction> auctions = new ArrayList<>();
-        Result<Record> auctionsData = getAuctions();
-        for (Record record : auctionsData) {
-            Auction auction = new Auction(record);
-            auctions.add(auction);
-        }
+        forEachAuction(auctions::add);
         return auctions;
     }
 
+    /**
+     * Streams all the auctions ordered by auction id to a consumer, one auction at a time.
+     * Rows are read from a server side cursor a few at a time so memory use doesn't grow with the
+     * number of auctions. A connection is held for the duration, the consumer should not block for long.
+     *
+     * @param consumer the consumer to pass each Auction object to
+     * @throws SQLException in the event of an error
+     */
+    public void forEachAuction(Consumer<Auction> consumer) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        // postgres only honours the fetch size inside a transaction
+        cx.transaction(configuration -> {
+            try (Cursor<Record> cursor = DSL.using(configuration).selectFrom(AUCTIONS)
+                    .orderBy(AUCTIONS.ID)
+                    .fetchSize(SqlConnectionManager.CURSOR_FETCH_SIZE)
+                    .fetchLazy()) {
+                for (Record record : cursor) {
+                    consumer.accept(new Auction(record));
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets all the auctions in a List without blocking the calling thread
+     *
+     * @return {@code Future<List<Auction>>} list of Auction objects
+     */
+    public Future<List<Auction>> getAuctionsListAsync() {
+        return connectionManager.queryExecutor()
+                .findManyRow(dsl -> dsl.selectFrom(AUCTIONS).orderBy(AUCTIONS.ID))
+                .map(AuctionsRepository::toAuctions);
+    }
+
     /**
      * Gets an Auction for a given auction id
      *
@@ -126,6 +153,23 @@ public class AuctionsRepository {
         }
     }
 
+    /**
+     * Gets an Auction for a given auction id without blocking the calling thread
+     *
+     * @param auctionId the id of the auction to get
+     * @return {@code Future<Auction>} Auction object matching the auction id, failed if the auction doesn't exist
+     */
+    public Future<Auction> getAuctionAsync(int auctionId) {
+        return connectionManager.queryExecutor()
+                .findOneRow(dsl -> dsl.selectFrom(AUCTIONS).where(AUCTIONS.ID.eq(auctionId)))
+                .compose(row -> {
+                    if (row == null) {
+                        return Future.failedFuture(new Exception("No auction id " + auctionId));
+                    }
+                    return Future.succeededFuture(new Auction(row));
+                });
+    }
+
     /**
      * Gets an auction given an auction account id as a string
      *
@@ -154,29 +198,77 @@ public class AuctionsRepository {
     @Nullable
     public List<Auction> getAuctionsBelowReserve() throws SQLException {
         DSLContext cx = connectionManager.dsl();
-        // get auctions with no winning bid
-        Result<Record> auctionRecords = cx.selectFrom(AUCTIONS)
-                .where(AUCTIONS.WINNINGBID.eq(0L))
+        // get auctions with no winning bid and at least one bid below reserve
+        Result<Record> auctionRecords = cx.select(AUCTIONS.asterisk())
+                .from(AUCTIONS)
+                .join(AUCTION_STATS).on(AUCTION_STATS.AUCTIONID.eq(AUCTIONS.ID))
+                .where(AUCTION_STATS.BELOWRESERVECOUNT.gt(0L))
+                .and(AUCTIONS.WINNINGBID.eq(0L))
                 .orderBy(AUCTIONS.ID)
                 .fetch();
 
         List<Auction> auctions = new ArrayList<>();
         for (Record record : auctionRecords) {
-            // look for bids against the auction that are below reserve
-            int count = cx.select(DSL.count())
-                    .from(BIDS)
-                    .where(BIDS.AUCTIONID.eq(record.get(AUCTIONS.ID)))
-                    .and(BIDS.STATUS.eq("Bid below reserve"))
-                    .fetchOne(0, int.class);
-
-            if (count > 0) {
-                Auction auction = new Auction(record);
-                auctions.add(auction);
-            }
+            auctions.add(new Auction(record));
         }
         return auctions;
     }
 
+    /**
+     * Gets auctions below reserve without blocking the calling thread
+     *
+     * @return {@code Future<List<Auction>>} auctions below reserve
+     */
+    public Future<List<Auction>> getAuctionsBelowReserveAsync() {
+        return connectionManager.queryExecutor()
+                .findManyRow(dsl -> dsl.select(AUCTIONS.asterisk())
+                        .from(AUCTIONS)
+                        .join(AUCTION_STATS).on(AUCTION_STATS.AUCTIONID.eq(AUCTIONS.ID))
+                        .where(AUCTION_STATS.BELOWRESERVECOUNT.gt(0L))
+                        .and(AUCTIONS.WINNINGBID.eq(0L))
+                        .orderBy(AUCTIONS.ID))
+                .map(AuctionsRepository::toAuctions);
+    }
+
+    /**
+     * Gets the bid statistics for an auction
+     *
+     * @param auctionId the id of the auction
+     * @return AuctionStats the statistics for the auction, all zero if the auction has no bids yet
+     * @throws SQLException in the event of an error
+     */
+    public AuctionStats getAuctionStats(int auctionId) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        @Nullable Record record = cx.selectFrom(AUCTION_STATS)
+                .where(AUCTION_STATS.AUCTIONID.eq(auctionId))
+                .fetchOne();
+        return record == null ? new AuctionStats(auctionId) : new AuctionStats(record);
+    }
+
+    /**
+     * Gets the bid statistics for an auction without blocking the calling thread
+     *
+     * @param auctionId the id of the auction
+     * @return {@code Future<AuctionStats>} the statistics for the auction, all zero if the auction has no bids yet,
+     * fails if the auction doesn't exist
+     */
+    public Future<AuctionStats> getAuctionStatsAsync(int auctionId) {
+        return connectionManager.queryExecutor()
+                .findOneRow(dsl -> dsl.select(AUCTIONS.ID, AUCTION_STATS.asterisk())
+                        .from(AUCTIONS)
+                        .leftJoin(AUCTION_STATS).on(AUCTION_STATS.AUCTIONID.eq(AUCTIONS.ID))
+                        .where(AUCTIONS.ID.eq(auctionId)))
+                .compose(row -> {
+                    if (row == null) {
+                        return Future.failedFuture(new Exception("No auction id " + auctionId));
+                    }
+                    if (row.getInteger(AUCTION_STATS.AUCTIONID.getName()) == null) {
+                        return Future.succeededFuture(new AuctionStats(auctionId));
+                    }
+                    return Future.succeededFuture(new AuctionStats(row));
+                });
+    }
+
     /**
      * Gets ENDED auctions with a bid above reserve
      *
@@ -201,6 +293,21 @@ public class AuctionsRepository {
         return auctions;
     }
 
+    /**
+     * Gets ENDED auctions with a bid above reserve without blocking the calling thread
+     *
+     * @return {@code Future<List<Auction>>} ENDED auctions with a bid above reserve and winning bid > 0
+     */
+    public Future<List<Auction>> getAuctionsSoldAsync() {
+        return connectionManager.queryExecutor()
+                .findManyRow(dsl -> dsl.selectFrom(AUCTIONS)
+                        .where(AUCTIONS.WINNINGBID.ge(AUCTIONS.RESERVE))
+                        .and(AUCTIONS.WINNINGBID.ne(0L))
+                        .and(AUCTIONS.STATUS.eq(Auction.ENDED))
+                        .orderBy(AUCTIONS.ID))
+                .map(AuctionsRepository::toAuctions);
+    }
+
     /**
      * Gets auctions for a given status
      *
@@ -224,6 +331,30 @@ public class AuctionsRepository {
         return auctions;
     }
 
+    /**
+     * Gets auctions for a given status without blocking the calling thread
+     *
+     * @param status the status to search on
+     * @return {@code Future<List<Auction>>} auctions that match the provided status
+     */
+    public Future<List<Auction>> getByStatusAsync(String status) {
+        return connectionManager.queryExecutor()
+                .findManyRow(dsl -> dsl.selectFrom(AUCTIONS)
+                        .where(AUCTIONS.STATUS.eq(status))
+                        .orderBy(AUCTIONS.ID))
+                .map(AuctionsRepository::toAuctions);
+    }
+
+    /**
+     * Converts database rows to a list of auctions
+     *
+     * @param rows the rows to convert
+     * @return {@code List<Auction>} list of Auction objects
+     */
+    private static List<Auction> toAuctions(List<Row> rows) {
+        return rows.stream().map(Auction::new).collect(Collectors.toList());
+    }
+
     /**
      * Sets an auction's status to ACTIVE if it's PENDING and
      * updates the tokenOwner and startTimestamp
@@ -443,36 +574,7 @@ public class AuctionsRepository {
     public Auction add(Auction auction) throws SQLException {
         try {
             DSLContext cx = connectionManager.dsl();
-            cx.insertInto(AUCTIONS,
-                    AUCTIONS.TOKENID,
-                    AUCTIONS.AUCTIONACCOUNTID,
-                    AUCTIONS.ENDTIMESTAMP,
-                    AUCTIONS.RESERVE,
-                    AUCTIONS.LASTCONSENSUSTIMESTAMP,
-                    AUCTIONS.WINNERCANBID,
-                    AUCTIONS.TOKENMETADATA,
-                    AUCTIONS.WINNINGBID,
-                    AUCTIONS.MINIMUMBID,
-                    AUCTIONS.TITLE,
-                    AUCTIONS.DESCRIPTION,
-                    AUCTIONS.PROCESSREFUNDS,
-                    AUCTIONS.CREATEAUCTIONTXID
-            ).values(auction.getTokenid(),
-                    auction.getAuctionaccountid(),
-                    auction.getEndtimestamp(),
-                    auction.getReserve(),
-                    "0.0",
-                    auction.getWinnerCanBid(),
-                    auction.getTokenmetadata(),
-                    auction.getWinningbid(),
-                    auction.getMinimumbid(),
-                    auction.getTitle(),
-                    auction.getDescription(),
-                    auction.getProcessrefunds(),
-                    auction.getCreateauctiontxid()
-            ).returning(AUCTIONS.ID).execute();
-            int id = cx.lastID().intValue();
-            auction.setId(id);
+            insert(cx, auction);
         } catch (DataAccessException e) {
             log.info("Auction already in database");
             auction.setId(0);
@@ -480,6 +582,62 @@ public class AuctionsRepository {
         return auction;
     }
 
+    /**
+     * Adds a partial auction to the database and records the position reached in the stream the
+     * auction was read from in the same transaction
+     *
+     * @param auction the auction object to add to the database
+     * @param cursorName the name of the stream
+     * @param cursorTimestamp the consensus timestamp of the message holding the auction
+     * @return Auction object including the newly created auction's unique identifier, 0 if the auction
+     * was already in the database
+     * @throws SQLException in the event of an error
+     */
+    public Auction add(Auction auction, String cursorName, String cursorTimestamp) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        cx.transaction(configuration -> {
+            DSLContext tx = DSL.using(configuration);
+            insert(tx, auction);
+            MirrorCursorsRepository.setCursor(tx, cursorName, cursorTimestamp);
+        });
+        return auction;
+    }
+
+    private static void insert(DSLContext cx, Auction auction) {
+        @Nullable Record inserted = cx.insertInto(AUCTIONS,
+                AUCTIONS.TOKENID,
+                AUCTIONS.AUCTIONACCOUNTID,
+                AUCTIONS.ENDTIMESTAMP,
+                AUCTIONS.RESERVE,
+                AUCTIONS.LASTCONSENSUSTIMESTAMP,
+                AUCTIONS.WINNERCANBID,
+                AUCTIONS.TOKENMETADATA,
+                AUCTIONS.WINNINGBID,
+                AUCTIONS.MINIMUMBID,
+                AUCTIONS.TITLE,
+                AUCTIONS.DESCRIPTION,
+                AUCTIONS.PROCESSREFUNDS,
+                AUCTIONS.CREATEAUCTIONTXID
+        ).values(auction.getTokenid(),
+                auction.getAuctionaccountid(),
+                auction.getEndtimestamp(),
+                auction.getReserve(),
+                "0.0",
+                auction.getWinnerCanBid(),
+                auction.getTokenmetadata(),
+                auction.getWinningbid(),
+                auction.getMinimumbid(),
+                auction.getTitle(),
+                auction.getDescription(),
+                auction.getProcessrefunds(),
+                auction.getCreateauctiontxid()
+        ).onConflictDoNothing().returning(AUCTIONS.ID).fetchOne();
+        if (inserted == null) {
+            log.info("Auction already in database");
+        }
+        auction.setId(inserted == null ? 0 : inserted.get(AUCTIONS.ID));
+    }
+
     /**
      * Gets all open and pending auctions from the database
      *
@@ -513,7 +671,7 @@ public class AuctionsRepository {
     public Auction createComplete(Auction auction) throws SQLException{
         try {
             DSLContext cx = connectionManager.dsl();
-            cx.insertInto(AUCTIONS,
+            @Nullable Record inserted = cx.insertInto(AUCTIONS,
                     AUCTIONS.TOKENID,
                     AUCTIONS.AUCTIONACCOUNTID,
                     AUCTIONS.ENDTIMESTAMP,
@@ -560,9 +718,10 @@ public class AuctionsRepository {
                     auction.getTransferstatus(),
                     auction.getProcessrefunds(),
                     auction.getCreateauctiontxid()
-            ).returning(AUCTIONS.ID).execute();
-            int id = cx.lastID().intValue();
-            auction.setId(id);
+            ).returning(AUCTIONS.ID).fetchOne();
+            if (inserted != null) {
+                auction.setId(inserted.get(AUCTIONS.ID));
+            }
         } catch (DataAccessException e) {
             log.debug("Auction already in database");
         }
@@ -583,7 +742,7 @@ public class AuctionsRepository {
         DSLContext cx = connectionManager.dsl();
 
         @NotNull
-        Result<Record1<String>> rows = cx.select(BIDS.TIMESTAMP).from(BIDS).where(BIDS.TIMESTAMP.eq(priorBid.getTimestamp())).and(BIDS.REFUNDSTATUS.ne("")).fetch();
+        Result<Record1<String>> rows = cx.select(BIDS.TIMESTAMP).from(BIDS).where(BidsRepository.timestampIs(priorBid.getTimestamp())).and(BIDS.REFUNDSTATUS.ne("")).fetch();
 
         @Var boolean shouldUpdate = true;
         if ((rows != null) && (rows.size() != 0)) {
@@ -597,7 +756,7 @@ public class AuctionsRepository {
                 int updatedRows = DSL.using(configuration).update(BIDS)
                         .set(BIDS.STATUS, priorBid.getStatus())
                         .set(BIDS.REFUNDSTATUS, priorBid.getRefundstatus())
-                        .where(BIDS.TIMESTAMP.eq(priorBid.getTimestamp()))
+                        .where(BidsRepository.timestampIs(priorBid.getTimestamp()))
                         .and(BIDS.REFUNDSTATUS.eq("")) // don't overwrite refund status if already set
                         .execute();
                 log.debug("Updated {} bids", updatedRows);
@@ -616,7 +775,7 @@ public class AuctionsRepository {
             if (bidAmount > 0) {
                 // does the bid already exist ?
                 @NotNull
-                Result<Record1<String>> bid = DSL.using(configuration).select(BIDS.TIMESTAMP).from(BIDS).where(BIDS.TIMESTAMP.eq(newBid.getTimestamp())).fetch();
+                Result<Record1<String>> bid = DSL.using(configuration).select(BIDS.TIMESTAMP).from(BIDS).where(BIDS.AUCTIONID.eq(newBid.getAuctionid())).and(BidsRepository.timestampIs(newBid.getTimestamp())).fetch();
 
                 if ((bid == null) || (bid.size() == 0)) {
                     // this bid is definitely new, add it
@@ -645,4 +804,90 @@ public class AuctionsRepository {
             }
         });
     }
+
+    /**
+     * Commits the outcome of a page of mirror node transactions in a single database transaction
+     * * inserts all the new bids in one statement, ignoring bids that are already in the database
+     * * flags prior winning bids for refund unless their refund status is already set
+     * * updates the auction's winner and last consensus timestamp
+     *
+     * @param auction the auction in its final state after the page was processed
+     * @param newBids the new bids to insert
+     * @param priorBidTimestamps the timestamps of prior winning bids, already in the database, to refund
+     * @param lastConsensusTimestamp the consensus timestamp of the last transaction in the page
+     * @throws SQLException in the event of an error
+     */
+    public void commitBids(Auction auction, List<Bid> newBids, List<String> priorBidTimestamps, String lastConsensusTimestamp) throws SQLException {
+        commitBids(List.of(new BidsCommit(auction, newBids, priorBidTimestamps, lastConsensusTimestamp)));
+    }
+
+    /**
+     * Commits the outcomes of several pages of mirror node transactions, possibly for different auctions,
+     * in a single database transaction and in the order given, so that a page's prior winning bids are
+     * inserted before a later page flags them for refund
+     *
+     * @param commits the outcomes of the pages in the order they were processed
+     * @throws SQLException in the event of an error, none of the pages are committed
+     */
+    public void commitBids(List<BidsCommit> commits) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+
+        cx.transaction(configuration -> {
+            DSLContext tx = DSL.using(configuration);
+            for (BidsCommit commit : commits) {
+                commitBids(tx, commit);
+            }
+        });
+    }
+
+    private static void commitBids(DSLContext tx, BidsCommit commit) {
+        List<Bid> newBids = commit.newBids();
+        if (! newBids.isEmpty()) {
+            @Var InsertValuesStep8<Record, Integer, String, String, Long, String, String, String, String> insert = tx.insertInto(BIDS,
+                    BIDS.AUCTIONID,
+                    BIDS.STATUS,
+                    BIDS.TIMESTAMP,
+                    BIDS.BIDAMOUNT,
+                    BIDS.BIDDERACCOUNTID,
+                    BIDS.TRANSACTIONID,
+                    BIDS.TRANSACTIONHASH,
+                    BIDS.REFUNDSTATUS
+            );
+            for (Bid newBid : newBids) {
+                insert = insert.values(
+                        newBid.getAuctionid(),
+                        newBid.getStatus(),
+                        newBid.getTimestamp(),
+                        newBid.getBidamount(),
+                        newBid.getBidderaccountid(),
+                        newBid.getTransactionid(),
+                        newBid.getTransactionhash(),
+                        newBid.getRefundstatus()
+                );
+            }
+            int insertedRows = insert.onConflictDoNothing().execute();
+            log.debug("Inserted {} of {} bids", insertedRows, newBids.size());
+        }
+
+        if (! commit.priorBidTimestamps().isEmpty()) {
+            int updatedRows = tx.update(BIDS)
+                    .set(BIDS.STATUS, Bid.HIGHER_BID)
+                    .set(BIDS.REFUNDSTATUS, Bid.REFUND_PENDING)
+                    .where(BIDS.AUCTIONID.eq(commit.auctionId()))
+                    .and(BidsRepository.timestampIn(commit.priorBidTimestamps()))
+                    .and(BIDS.REFUNDSTATUS.eq("")) // don't overwrite refund status if already set
+                    .execute();
+            log.debug("Updated {} bids", updatedRows);
+        }
+
+        tx.update(AUCTIONS)
+                .set(AUCTIONS.LASTCONSENSUSTIMESTAMP, commit.lastConsensusTimestamp())
+                .set(AUCTIONS.WINNINGACCOUNT, commit.winningAccount())
+                .set(AUCTIONS.WINNINGBID, commit.winningBid())
+                .set(AUCTIONS.WINNINGTIMESTAMP, commit.winningTimestamp())
+                .set(AUCTIONS.WINNINGTXID, commit.winningTxId())
+                .set(AUCTIONS.WINNINGTXHASH, commit.winningTxHash())
+                .where(AUCTIONS.ID.eq(commit.auctionId()))
+                .execute();
+    }
 }
@@ -0,0 +1,80 @@
+package com.hedera.demo.auction.app.repository;
+
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.domain.Bid;
+
+import java.util.List;
+
+/**
+ * The outcome of a page of mirror node transactions for an auction, to be committed to the database
+ *
+ * The auction's winner is copied when the commit is created so that the auction may go on changing
+ * while the commit waits to be written.
+ */
+public final class BidsCommit {
+    private final int auctionId;
+    private final String winningAccount;
+    private final long winningBid;
+    private final String winningTimestamp;
+    private final String winningTxId;
+    private final String winningTxHash;
+    private final List<Bid> newBids;
+    private final List<String> priorBidTimestamps;
+    private final String lastConsensusTimestamp;
+
+    /**
+     * Constructor
+     *
+     * @param auction the auction in its state after the page was processed
+     * @param newBids the new bids to insert
+     * @param priorBidTimestamps the timestamps of prior winning bids, already in the database, to refund
+     * @param lastConsensusTimestamp the consensus timestamp of the last transaction in the page
+     */
+    public BidsCommit(Auction auction, List<Bid> newBids, List<String> priorBidTimestamps, String lastConsensusTimestamp) {
+        this.auctionId = auction.getId();
+        this.winningAccount = auction.getWinningaccount();
+        this.winningBid = auction.getWinningbid();
+        this.winningTimestamp = auction.getWinningtimestamp();
+        this.winningTxId = auction.getWinningtxid();
+        this.winningTxHash = auction.getWinningtxhash();
+        this.newBids = List.copyOf(newBids);
+        this.priorBidTimestamps = List.copyOf(priorBidTimestamps);
+        this.lastConsensusTimestamp = lastConsensusTimestamp;
+    }
+
+    public int auctionId() {
+        return auctionId;
+    }
+
+    public String winningAccount() {
+        return winningAccount;
+    }
+
+    public long winningBid() {
+        return winningBid;
+    }
+
+    public String winningTimestamp() {
+        return winningTimestamp;
+    }
+
+    public String winningTxId() {
+        return winningTxId;
+    }
+
+    public String winningTxHash() {
+        return winningTxHash;
+    }
+
+    public List<Bid> newBids() {
+        return newBids;
+    }
+
+    public List<String> priorBidTimestamps() {
+        return priorBidTimestamps;
+    }
+
+    public String lastConsensusTimestamp() {
+        return lastConsensusTimestamp;
+    }
+}
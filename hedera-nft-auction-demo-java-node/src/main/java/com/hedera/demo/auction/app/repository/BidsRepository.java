@@ -1,28 +1,47 @@
 package com.hedera.demo.auction.app.repository;
 
+import com.google.errorprone.annotations.Var;
 import com.hedera.demo.auction.app.SqlConnectionManager;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.db.tables.Bids;
+import com.hedera.demo.auction.app.domain.Auction;
 import com.hedera.demo.auction.app.domain.Bid;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
 import lombok.extern.log4j.Log4j2;
+import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Record1;
 import org.jooq.Result;
+import org.jooq.Row2;
 import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
 import org.jooq.tools.StringUtils;
 
 import javax.annotation.Nullable;
 import java.sql.SQLException;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import static com.hedera.demo.auction.app.db.Tables.AUCTIONS;
 import static com.hedera.demo.auction.app.db.Tables.BIDS;
-import static org.jooq.impl.DSL.min;
 
 /**
  * Repository to manage bids in the database
  */
 @Log4j2
 public class BidsRepository {
+    public static final int DEFAULT_REFUND_LEASE_SECONDS = 300;
+
     private final SqlConnectionManager connectionManager;
 
     /**
@@ -34,22 +53,6 @@ public class BidsRepository {
         this.connectionManager = connectionManager;
     }
 
-    /**
-     * Gets all the bids from the database ordered by timestamp
-     *
-     * @return {@code Result<Record>} resultset containing bid records
-     * @throws SQLException in the event of an error
-     */
-    @Nullable
-    private Result<Record> getBids () throws SQLException {
-        DSLContext cx = connectionManager.dsl();
-
-        Result<Record> rows = cx.selectFrom(BIDS)
-                .orderBy(BIDS.TIMESTAMP)
-                .fetch();
-        return rows;
-    }
-
     /**
      * Gets a bid from the database (used for testing)
      * Note: Technically this would fail to return bids if several bids for the same amount, bidding account and auction exist.
@@ -90,7 +93,7 @@ public class BidsRepository {
         DSLContext cx = connectionManager.dsl();
 
         Result<Record> result = cx.selectFrom(BIDS)
-                .where(BIDS.TIMESTAMP.eq(timestamp))
+                .where(timestampIs(timestamp))
                 .fetch();
         if (result.size() != 1) {
             return null;
@@ -109,12 +112,15 @@ public class BidsRepository {
      */
     public String getFirstBidToRefund(int auctionId) throws SQLException {
         DSLContext cx = connectionManager.dsl();
-        Result<Record1<String>> result = cx.select(min(BIDS.TIMESTAMP))
+        Result<Record1<String>> result = cx.select(BIDS.TIMESTAMP)
                 .from(BIDS)
-                .where(BIDS.AUCTIONID.eq(auctionId))
+                .where(BIDS.ARCHIVED.isFalse())
+                .and(BIDS.AUCTIONID.eq(auctionId))
                 .and(BIDS.REFUNDSTATUS.ne(""))
                 .and(BIDS.REFUNDSTATUS.ne(Bid.REFUND_REFUNDED))
                 .and(BIDS.REFUNDSTATUS.ne(Bid.REFUND_ERROR))
+                .orderBy(BIDS.TIMESTAMPNANOS)
+                .limit(1)
                 .fetch();
         if (result.size() != 1) {
             return "";
@@ -135,16 +141,33 @@ public class BidsRepository {
      */
     public List<Bid> getBidsList() throws SQLException {
         List<Bid> bids = new ArrayList<>();
-        Result<Record> bidsData = getBids();
-        if (bidsData != null) {
-            for (Record record : bidsData) {
-                Bid bid = new Bid(record);
-                bids.add(bid);
-            }
-        }
+        forEachBid(bids::add);
         return bids;
     }
 
+    /**
+     * Streams all the bids ordered by timestamp to a consumer, one bid at a time.
+     * Rows are read from a server side cursor a few at a time so memory use doesn't grow with the
+     * number of bids. A connection is held for the duration, the consumer should not block for long.
+     *
+     * @param consumer the consumer to pass each Bid object to
+     * @throws SQLException in the event of an error
+     */
+    public void forEachBid(Consumer<Bid> consumer) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        // postgres only honours the fetch size inside a transaction
+        cx.transaction(configuration -> {
+            try (Cursor<Record> cursor = DSL.using(configuration).selectFrom(BIDS)
+                    .orderBy(BIDS.TIMESTAMPNANOS)
+                    .fetchSize(SqlConnectionManager.CURSOR_FETCH_SIZE)
+                    .fetchLazy()) {
+                for (Record record : cursor) {
+                    consumer.accept(new Bid(record));
+                }
+            }
+        });
+    }
+
     /**
      * Deletes all bids from the database
      *
@@ -157,7 +180,7 @@ public class BidsRepository {
     }
 
     /**
-     * Sets the refund status of a bid to REFUND ISSUED
+     * Sets the refund status of a bid set to ISSUING by setRefundIssuing to REFUND ISSUED
      *
      * @param consensusTimestamp the timestamp of the bid to update
      * @param transactionId the refund transaction id
@@ -165,24 +188,42 @@ public class BidsRepository {
      * @throws SQLException in the event of an error
      */
     public void setRefundIssued(String consensusTimestamp, String transactionId, String scheduleId) throws SQLException {
+        setRefundIssued(consensusTimestamp, transactionId, scheduleId, "");
+    }
+
+    /**
+     * Sets the refund status of a bid to REFUND ISSUED provided the refunder still holds the bid's refund lease
+     *
+     * @param consensusTimestamp the timestamp of the bid to update
+     * @param transactionId the refund transaction id
+     * @param scheduleId the refund schedule id
+     * @param leaseOwner the refunder which claimed the bid
+     * @return boolean false if the bid is no longer ISSUING under this refunder's lease
+     * @throws SQLException in the event of an error
+     */
+    public boolean setRefundIssued(String consensusTimestamp, String transactionId, String scheduleId, String leaseOwner) throws SQLException {
         DSLContext cx = connectionManager.dsl();
 
+        int rows;
         if (StringUtils.isEmpty(transactionId)) {
-            cx.update(BIDS)
+            rows = cx.update(BIDS)
                     .set(BIDS.REFUNDSTATUS, Bid.REFUND_ISSUED)
                     .set(BIDS.SCHEDULEID, scheduleId)
-                    .where(BIDS.TIMESTAMP.eq(consensusTimestamp))
+                    .where(timestampIs(consensusTimestamp))
                     .and(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUING))
+                    .and(BIDS.REFUNDLEASEOWNER.eq(leaseOwner))
                     .execute();
         } else {
-            cx.update(BIDS)
+            rows = cx.update(BIDS)
                     .set(BIDS.REFUNDSTATUS, Bid.REFUND_ISSUED)
                     .set(BIDS.SCHEDULEID, scheduleId)
                     .set(BIDS.REFUNDTXID, transactionId)
-                    .where(BIDS.TIMESTAMP.eq(consensusTimestamp))
+                    .where(timestampIs(consensusTimestamp))
                     .and(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUING))
+                    .and(BIDS.REFUNDLEASEOWNER.eq(leaseOwner))
                     .execute();
         }
+        return (rows == 1);
     }
 
     /**
@@ -200,7 +241,7 @@ public class BidsRepository {
         Result<Record> bid = cx.selectFrom(BIDS)
                 .where(BIDS.AUCTIONID.eq(auctionId))
                 .and(BIDS.BIDDERACCOUNTID.eq(bidderAccountId))
-                .orderBy(BIDS.TIMESTAMP.desc())
+                .orderBy(BIDS.TIMESTAMPNANOS.desc())
                 .limit(1)
                 .fetch();
         if (bid.size() == 0) {
@@ -210,6 +251,23 @@ public class BidsRepository {
         }
     }
 
+    /**
+     * Gets the last bid for a given auction id and bidder account id without blocking the calling thread
+     *
+     * @param auctionId the auction id
+     * @param bidderAccountId the bidder account id
+     * @return {@code Future<Bid>} the last bid, null if no bid was found
+     */
+    public Future<Bid> getBidderLastBidAsync(int auctionId, String bidderAccountId) {
+        return connectionManager.queryExecutor()
+                .findOneRow(dsl -> dsl.selectFrom(BIDS)
+                        .where(BIDS.AUCTIONID.eq(auctionId))
+                        .and(BIDS.BIDDERACCOUNTID.eq(bidderAccountId))
+                        .orderBy(BIDS.TIMESTAMPNANOS.desc())
+                        .limit(1))
+                .map(row -> row == null ? null : new Bid(row));
+    }
+
     /**
      * Sets the bid's refund status to ISSUING
      *
@@ -223,12 +281,146 @@ public class BidsRepository {
         int rows = cx.update(BIDS)
                 .set(BIDS.REFUNDSTATUS, Bid.REFUND_ISSUING)
                 .set(BIDS.SCHEDULEID, "")
-                .where(BIDS.TIMESTAMP.eq(consensusTimestamp))
+                .set(BIDS.REFUNDLEASEOWNER, "")
+                .set(BIDS.REFUNDLEASEEXPIRY, leaseExpiry(DEFAULT_REFUND_LEASE_SECONDS))
+                .where(timestampIs(consensusTimestamp))
                 .and(BIDS.REFUNDSTATUS.eq(Bid.REFUND_PENDING))
                 .execute();
         return (rows == 1);
     }
 
+    /**
+     * Claims a batch of bids to refund for a refunder, oldest bids first, setting them to ISSUING
+     * and leasing them to the refunder for the given duration.
+     *
+     * Bids that are PENDING refund and bids that are ISSUING whose lease has expired (e.g. the refunder
+     * holding the lease stopped before issuing the refund) can be claimed. Rows locked by a concurrent
+     * claim are skipped so that any number of refunders can share the queue without claiming the same bid.
+     * Only bids for auctions that process refunds are claimed.
+     *
+     * @param leaseOwner an identifier for the refunder claiming the bids
+     * @param batchSize the maximum number of bids to claim
+     * @param leaseSeconds the duration of the lease in seconds
+     * @return {@code List<Bid>} the claimed bids
+     * @throws SQLException in the event of an error
+     */
+    public List<Bid> claimRefunds(String leaseOwner, int batchSize, int leaseSeconds) throws SQLException {
+        if (batchSize <= 0) {
+            return Collections.emptyList();
+        }
+        DSLContext cx = connectionManager.dsl();
+
+        return cx.transactionResult(configuration -> {
+            DSLContext tx = DSL.using(configuration);
+            Result<Record> records = tx.select(BIDS.fields())
+                    .from(BIDS)
+                    .join(AUCTIONS).on(AUCTIONS.ID.eq(BIDS.AUCTIONID))
+                    .where(BIDS.ARCHIVED.isFalse())
+                    .and(AUCTIONS.PROCESSREFUNDS.isTrue())
+                    .and(BIDS.REFUNDSTATUS.eq(Bid.REFUND_PENDING)
+                            .or(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUING).and(leaseExpired())))
+                    .orderBy(BIDS.TIMESTAMPNANOS)
+                    .limit(batchSize)
+                    .forUpdate().of(BIDS)
+                    .skipLocked()
+                    .fetch();
+
+            List<Bid> bids = new ArrayList<>();
+            List<Row2<Integer, Long>> keys = new ArrayList<>();
+            for (Record record : records) {
+                Bid bid = new Bid(record);
+                bid.setRefundstatus(Bid.REFUND_ISSUING);
+                bid.setScheduleId("");
+                bids.add(bid);
+                keys.add(DSL.row(record.get(BIDS.AUCTIONID), record.get(BIDS.TIMESTAMPNANOS)));
+            }
+
+            if (! keys.isEmpty()) {
+                tx.update(BIDS)
+                        .set(BIDS.REFUNDSTATUS, Bid.REFUND_ISSUING)
+                        .set(BIDS.SCHEDULEID, "")
+                        .set(BIDS.REFUNDLEASEOWNER, leaseOwner)
+                        .set(BIDS.REFUNDLEASEEXPIRY, leaseExpiry(leaseSeconds))
+                        .where(BIDS.ARCHIVED.isFalse())
+                        .and(DSL.row(BIDS.AUCTIONID, BIDS.TIMESTAMPNANOS).in(keys))
+                        .execute();
+            }
+            return bids;
+        });
+    }
+
+    /**
+     * Extends the refund leases a refunder holds on bids it is issuing refunds for, so that the bids can't be
+     * claimed by another refunder while their refunds are in flight
+     *
+     * @param leaseOwner the refunder which claimed the bids
+     * @param consensusTimestamps the timestamps of the bids
+     * @param leaseSeconds the duration of the lease from now in seconds
+     * @return int the number of leases extended, bids which are no longer ISSUING under this refunder's lease aren't
+     * @throws SQLException in the event of an error
+     */
+    public int extendRefundLeases(String leaseOwner, Collection<String> consensusTimestamps, int leaseSeconds) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        return cx.update(BIDS)
+                .set(BIDS.REFUNDLEASEEXPIRY, leaseExpiry(leaseSeconds))
+                .where(timestampIn(consensusTimestamps))
+                .and(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUING))
+                .and(BIDS.REFUNDLEASEOWNER.eq(leaseOwner))
+                .execute();
+    }
+
+    /**
+     * Condition for a bid to have a given consensus timestamp, bids are keyed by the numeric form of their timestamp
+     *
+     * @param timestamp the consensus timestamp of the bid
+     * @return Condition the condition, always false if the timestamp isn't a valid consensus timestamp
+     */
+    static Condition timestampIs(String timestamp) {
+        try {
+            return BIDS.TIMESTAMPNANOS.eq(Utils.timestampToNanos(timestamp));
+        } catch (NumberFormatException e) {
+            // no bid can have this timestamp
+            return DSL.falseCondition();
+        }
+    }
+
+    /**
+     * Condition for a bid to have one of the given consensus timestamps
+     *
+     * @param timestamps the consensus timestamps of the bids
+     * @return Condition the condition, timestamps which aren't valid consensus timestamps are ignored
+     */
+    static Condition timestampIn(Collection<String> timestamps) {
+        List<Long> nanos = new ArrayList<>(timestamps.size());
+        for (String timestamp : timestamps) {
+            try {
+                nanos.add(Utils.timestampToNanos(timestamp));
+            } catch (NumberFormatException e) {
+                // no bid can have this timestamp
+            }
+        }
+        return BIDS.TIMESTAMPNANOS.in(nanos);
+    }
+
+    /**
+     * Expiry time for a lease starting now, computed by the database so that all refunders share the same clock
+     *
+     * @param leaseSeconds the duration of the lease in seconds
+     * @return {@code Field<OffsetDateTime>} the expiry of the lease
+     */
+    private static Field<OffsetDateTime> leaseExpiry(int leaseSeconds) {
+        return DSL.field("now() + {0} * interval '1 second'", SQLDataType.TIMESTAMPWITHTIMEZONE, DSL.inline(leaseSeconds));
+    }
+
+    /**
+     * Condition for a bid's refund lease to have expired (or never been set)
+     *
+     * @return Condition lease expired condition
+     */
+    private static Condition leaseExpired() {
+        return BIDS.REFUNDLEASEEXPIRY.isNull().or(BIDS.REFUNDLEASEEXPIRY.lt(DSL.currentOffsetDateTime()));
+    }
+
     /**
      * Sets the bid's refund status to REFUND PENDING
      *
@@ -267,6 +459,28 @@ public class BidsRepository {
         return (rowsUpdated != 0);
     }
 
+    /**
+     * Sets the bid's refund status to REFUND ERROR provided the refunder still holds the bid's refund lease
+     *
+     * @param bidTransactionId the transaction id of the bid to update
+     * @param leaseOwner the refunder which claimed the bid
+     * @return boolean false if the bid is no longer ISSUING under this refunder's lease
+     * @throws SQLException in the event of an error
+     */
+    public boolean setRefundError(String bidTransactionId, String leaseOwner) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        int rowsUpdated = cx.update(BIDS)
+                .set(BIDS.REFUNDSTATUS, Bid.REFUND_ERROR)
+                .set(BIDS.SCHEDULEID, "")
+                .set(BIDS.REFUNDTXHASH, "")
+                .set(BIDS.REFUNDTXID, "")
+                .where(BIDS.TRANSACTIONID.eq(bidTransactionId))
+                .and(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUING))
+                .and(BIDS.REFUNDLEASEOWNER.eq(leaseOwner))
+                .execute();
+        return (rowsUpdated != 0);
+    }
+
     /**
      * Sets the bid's refund status to REFUNDED, along with the refund transaction id and hash
      *
@@ -338,7 +552,8 @@ public class BidsRepository {
         DSLContext cx = connectionManager.dsl();
 
         Result<Record> result = cx.selectFrom(BIDS)
-                .where(BIDS.AUCTIONID.eq(auctionId))
+                .where(BIDS.ARCHIVED.isFalse())
+                .and(BIDS.AUCTIONID.eq(auctionId))
                 .and(BIDS.REFUNDSTATUS.eq(Bid.REFUND_PENDING))
                 .fetch();
 
@@ -365,7 +580,7 @@ public class BidsRepository {
 
         Result<Record> result = cx.selectFrom(BIDS)
                 .where(BIDS.AUCTIONID.eq(auctionId))
-                .orderBy(BIDS.TIMESTAMP.desc())
+                .orderBy(BIDS.TIMESTAMPNANOS.desc())
                 .limit(numBids)
                 .fetch();
 
@@ -379,7 +594,77 @@ public class BidsRepository {
     }
 
     /**
-     * Gets the list of bids that are either refund ISSUING, ISSUED or ERROR
+     * Gets the last n bids for an auction without blocking the calling thread
+     *
+     * @param auctionId the auction id to get the bids for
+     * @param numBids the number of bids to return
+     * @return {@code Future<List<Bid>>} the bids, most recent first
+     */
+    public Future<List<Bid>> getLastBidsAsync(int auctionId, int numBids) {
+        return getBidsPageAsync(auctionId, "", "", numBids);
+    }
+
+    /**
+     * Gets a page of bids for an auction without blocking the calling thread.
+     * Pages are located by consensus timestamp (keyset pagination) rather than offset so that the cost of
+     * fetching a page doesn't depend on how deep into the auction's bid history the page is.
+     *
+     * If only after is supplied, the page holds the bids immediately following the after timestamp,
+     * otherwise the page holds the most recent bids prior to the before timestamp (if supplied).
+     *
+     * @param auctionId the auction id to get the bids for
+     * @param before only return bids with a consensus timestamp before this timestamp, ignored if empty
+     * @param after only return bids with a consensus timestamp after this timestamp, ignored if empty
+     * @param numBids the maximum number of bids to return
+     * @return {@code Future<List<Bid>>} the bids, most recent first
+     */
+    public Future<List<Bid>> getBidsPageAsync(int auctionId, String before, String after, int numBids) {
+        @Var Condition condition = BIDS.AUCTIONID.eq(auctionId);
+        try {
+            if (! StringUtils.isEmpty(before)) {
+                condition = condition.and(BIDS.TIMESTAMPNANOS.lt(Utils.timestampToNanos(before)));
+            }
+            if (! StringUtils.isEmpty(after)) {
+                condition = condition.and(BIDS.TIMESTAMPNANOS.gt(Utils.timestampToNanos(after)));
+            }
+        } catch (NumberFormatException e) {
+            return Future.failedFuture(e);
+        }
+        Condition pageCondition = condition;
+
+        if (StringUtils.isEmpty(before) && ! StringUtils.isEmpty(after)) {
+            // paging forwards, fetch the bids closest to the cursor then restore most recent first order
+            return connectionManager.queryExecutor()
+                    .findManyRow(dsl -> dsl.selectFrom(BIDS)
+                            .where(pageCondition)
+                            .orderBy(BIDS.TIMESTAMPNANOS)
+                            .limit(numBids))
+                    .map(rows -> {
+                        List<Bid> bids = toBids(rows);
+                        Collections.reverse(bids);
+                        return bids;
+                    });
+        }
+        return connectionManager.queryExecutor()
+                .findManyRow(dsl -> dsl.selectFrom(BIDS)
+                        .where(pageCondition)
+                        .orderBy(BIDS.TIMESTAMPNANOS.desc())
+                        .limit(numBids))
+                .map(BidsRepository::toBids);
+    }
+
+    /**
+     * Converts database rows to a list of bids
+     *
+     * @param rows the rows to convert
+     * @return {@code List<Bid>} list of Bid objects
+     */
+    private static List<Bid> toBids(List<Row> rows) {
+        return rows.stream().map(Bid::new).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the list of bids that are either refund ISSUED or ERROR, or ISSUING and no longer leased to a refunder
      *
      * @return List of Bid objects
      * @throws SQLException in the event of an error
@@ -389,9 +674,10 @@ public class BidsRepository {
         DSLContext cx = connectionManager.dsl();
 
         Result<Record> result = cx.selectFrom(BIDS)
-                .where(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUED))
-                .or(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUING))
-                .or(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ERROR))
+                .where(BIDS.ARCHIVED.isFalse())
+                .and(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUED)
+                        .or(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ISSUING).and(leaseExpired()))
+                        .or(BIDS.REFUNDSTATUS.eq(Bid.REFUND_ERROR)))
                 .fetch();
 
         if (result != null) {
@@ -402,4 +688,61 @@ public class BidsRepository {
         }
         return bids;
     }
+
+    /**
+     * Moves the bids of settled auctions from the live partition of the bids table to the archive partition of
+     * their range of auction ids, the archive partitions the move needs are created first if they don't exist yet.
+     * An auction is settled once it has ended and none of its bids are still awaiting a refund, its bids are
+     * not written to again after that.
+     *
+     * @return int the number of bids archived
+     * @throws SQLException in the event of an error
+     */
+    public int archiveSettledAuctions() throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        Bids live = BIDS.as("live");
+        Bids unsettled = BIDS.as("unsettled");
+        Condition settled = AUCTIONS.STATUS.eq(Auction.ENDED)
+                .andNotExists(
+                        DSL.selectOne()
+                                .from(unsettled)
+                                .where(unsettled.AUCTIONID.eq(AUCTIONS.ID))
+                                .and(unsettled.ARCHIVED.isFalse())
+                                .and(unsettled.REFUNDSTATUS.notIn("", Bid.REFUND_REFUNDED))
+                );
+
+        List<Integer> auctionIds = cx.select(AUCTIONS.ID)
+                .from(AUCTIONS)
+                .where(settled)
+                .andExists(
+                        DSL.selectOne()
+                                .from(live)
+                                .where(live.AUCTIONID.eq(AUCTIONS.ID))
+                                .and(live.ARCHIVED.isFalse())
+                )
+                .fetch(AUCTIONS.ID);
+        if (auctionIds.isEmpty()) {
+            return 0;
+        }
+
+        for (int auctionId : auctionIds) {
+            Boolean created = cx.select(DSL.field("bids_archive_create_partition({0})", SQLDataType.BOOLEAN, DSL.val(auctionId)))
+                    .fetchOne(0, Boolean.class);
+            if (Boolean.TRUE.equals(created)) {
+                log.info("Created the bids archive partition for auction {}", auctionId);
+            }
+        }
+
+        // an auction which took a bid since it was found settled is left live
+        return cx.update(BIDS)
+                .set(BIDS.ARCHIVED, true)
+                .where(BIDS.ARCHIVED.isFalse())
+                .and(BIDS.AUCTIONID.in(auctionIds))
+                .and(BIDS.AUCTIONID.in(
+                        DSL.select(AUCTIONS.ID)
+                                .from(AUCTIONS)
+                                .where(settled)
+                ))
+                .execute();
+    }
 }
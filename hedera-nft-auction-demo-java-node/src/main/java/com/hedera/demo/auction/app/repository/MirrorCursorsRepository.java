@@ -0,0 +1,84 @@
+package com.hedera.demo.auction.app.repository;
+
+import com.hedera.demo.auction.app.SqlConnectionManager;
+import lombok.extern.log4j.Log4j2;
+import org.jooq.DSLContext;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+
+import static com.hedera.demo.auction.app.db.Tables.MIRROR_CURSORS;
+
+/**
+ * Repository to manage the positions reached in mirror node streams
+ */
+@Log4j2
+public class MirrorCursorsRepository {
+    private final SqlConnectionManager connectionManager;
+
+    /**
+     * Constructor
+     *
+     * @param connectionManager the SqlConnectionManager to the database
+     */
+    public MirrorCursorsRepository(SqlConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * Gets the consensus timestamp a stream was last processed up to
+     *
+     * @param name the name of the stream
+     * @return String the consensus timestamp, empty if the stream hasn't been processed yet
+     * @throws SQLException in the event of an error
+     */
+    public String getCursor(String name) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        @Nullable String timestamp = cx.select(MIRROR_CURSORS.TIMESTAMP)
+                .from(MIRROR_CURSORS)
+                .where(MIRROR_CURSORS.NAME.eq(name))
+                .fetchOne(MIRROR_CURSORS.TIMESTAMP);
+        return timestamp == null ? "" : timestamp;
+    }
+
+    /**
+     * Records the consensus timestamp a stream has been processed up to
+     *
+     * @param name the name of the stream
+     * @param timestamp the consensus timestamp
+     * @throws SQLException in the event of an error
+     */
+    public void setCursor(String name, String timestamp) throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        setCursor(cx, name, timestamp);
+    }
+
+    /**
+     * Records the consensus timestamp a stream has been processed up to, as part of the caller's
+     * transaction so that the position is committed together with the effects of the processing
+     *
+     * @param cx the context of the transaction
+     * @param name the name of the stream
+     * @param timestamp the consensus timestamp
+     */
+    static void setCursor(DSLContext cx, String name, String timestamp) {
+        cx.insertInto(MIRROR_CURSORS)
+                .set(MIRROR_CURSORS.NAME, name)
+                .set(MIRROR_CURSORS.TIMESTAMP, timestamp)
+                .onConflict(MIRROR_CURSORS.NAME)
+                .doUpdate()
+                .set(MIRROR_CURSORS.TIMESTAMP, timestamp)
+                .execute();
+    }
+
+    /**
+     * Deletes all cursors from the database
+     *
+     * @throws SQLException in the event of an error
+     */
+    public void deleteAllCursors() throws SQLException {
+        DSLContext cx = connectionManager.dsl();
+        cx.deleteFrom(MIRROR_CURSORS)
+                .execute();
+    }
+}
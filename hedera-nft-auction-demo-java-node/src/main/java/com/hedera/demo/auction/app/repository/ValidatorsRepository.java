@@ -3,6 +3,7 @@ package com.hedera.demo.auction.app.repository;
 import com.hedera.demo.auction.app.SqlConnectionManager;
 import com.hedera.demo.auction.app.api.RequestPostValidator;
 import com.hedera.demo.auction.app.domain.Validator;
+import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import lombok.extern.log4j.Log4j2;
@@ -16,6 +17,7 @@ import javax.annotation.Nullable;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.hedera.demo.auction.app.db.Tables.VALIDATORS;
 
@@ -53,12 +55,40 @@ public class ValidatorsRepository {
         return validators;
     }
 
+    /**
+     * Gets all the validators in a List ordered by name without blocking the calling thread
+     *
+     * @return {@code Future<List<Validator>>} list of Validator objects, failed in the event of a database error
+     */
+    public Future<List<Validator>> getValidatorsListAsync() {
+        return connectionManager.queryExecutor()
+                .findManyRow(dsl -> dsl.selectFrom(VALIDATORS).orderBy(VALIDATORS.NAME))
+                .map(rows -> rows.stream().map(Validator::new).collect(Collectors.toList()));
+    }
+
     public void manage(JsonArray validators) throws Exception {
+        manage(validators, "", "");
+    }
+
+    /**
+     * Adds, deletes or updates validators and records the position reached in the stream the
+     * operations were read from in the same transaction
+     *
+     * @param validators a json array of validator operations
+     * @param cursorName the name of the stream, empty not to record a position
+     * @param cursorTimestamp the consensus timestamp of the message holding the operations
+     * @throws IllegalArgumentException in the event of an invalid operation, nothing is committed
+     * @throws Exception in the event of a database error, nothing is committed
+     */
+    public void manage(JsonArray validators, String cursorName, String cursorTimestamp) throws Exception {
         DSLContext cx = connectionManager.dsl();
         cx.transaction(configuration -> {
             for (Object validatorObject : validators.getList()) {
                 JsonObject validator = JsonObject.mapFrom(validatorObject);
                 RequestPostValidator postValidator = validator.mapTo(RequestPostValidator.class);
+                if (postValidator.operation == null) {
+                    throw new IllegalArgumentException("invalid validator definition - no operation");
+                }
                 if (StringUtils.isEmpty(postValidator.isValid())) {
                     switch (postValidator.operation) {
                         case "add":
@@ -71,13 +101,13 @@ public class ValidatorsRepository {
                             break;
                         case "delete":
                             log.debug("deleting validator");
-                            cx.delete(VALIDATORS)
+                            DSL.using(configuration).delete(VALIDATORS)
                                     .where(VALIDATORS.NAME.eq(postValidator.getName()))
                                     .execute();
                             break;
                         case "update":
                             log.debug("updating validator");
-                            cx.update(VALIDATORS)
+                            DSL.using(configuration).update(VALIDATORS)
                                     .set(VALIDATORS.NAME, postValidator.getName())
                                     .set(VALIDATORS.URL, postValidator.url)
                                     .set(VALIDATORS.PUBLICKEY, postValidator.publicKey)
@@ -85,12 +115,15 @@ public class ValidatorsRepository {
                                     .execute();
                             break;
                         default:
-                            throw new Exception("invalid consensus message contents - validator object has invalid value combinations");
+                            throw new IllegalArgumentException("invalid consensus message contents - validator object has invalid value combinations");
                     }
                 } else {
-                    throw new Exception("invalid validator definition");
+                    throw new IllegalArgumentException("invalid validator definition");
                 }
             }
+            if (! StringUtils.isEmpty(cursorName)) {
+                MirrorCursorsRepository.setCursor(DSL.using(configuration), cursorName, cursorTimestamp);
+            }
 
             // Implicit commit executed here
         });
@@ -69,12 +69,15 @@ public class TransactionScheduler {
      * If the creation of the scheduled transaction is successful, has no new valid signatures or is a duplicate, sets the Bid's refund status to REFUND ISSUED if a scheduled id is known
      * Otherwise, the bid's refund status is set to ERROR
      * If the creation of the scheduled transaction fails, the bid's refund status is set to ERROR
+     * The bid's refund status is only updated while the refunder still holds the bid's refund lease, if the lease
+     * was lost the bid is left to the refunder which claimed it since
      *
      * @param bid the Bid object to refund
      * @param bidsRepository the repository for bids on the database
      * @param memo the memo to associate with the scheduled transaction
+     * @param leaseOwner the refunder which claimed the bid
      */
-    public void issueScheduledTransactionForRefund(Bid bid, BidsRepository bidsRepository, String memo) {
+    public void issueScheduledTransactionForRefund(Bid bid, BidsRepository bidsRepository, String memo, String leaseOwner) {
         // Create a transfer transaction for the refund
         // check the status of the bid isn't already refunded, issued or in error
         try {
@@ -100,18 +103,24 @@ public class TransactionScheduler {
                         log.info("Refund transaction successfully scheduled (scheduleId {}, transactionId {})", transactionSchedulerResult.getScheduleId(), shortTransactionId);
                         log.info("setting bid to refund issued (timestamp = {})", bid.getTimestamp());
                         try {
+                            boolean updated;
                             if (StringUtils.isEmpty(transactionSchedulerResult.getScheduleId())) {
                                 log.error("empty schedule id for bid transaction id {}", bid.getTransactionid());
-                                bidsRepository.setRefundError(bid.getTransactionid());
+                                updated = bidsRepository.setRefundError(bid.getTransactionid(), leaseOwner);
                             } else {
-                                bidsRepository.setRefundIssued(bid.getTimestamp(), shortTransactionId, transactionSchedulerResult.getScheduleId());
+                                updated = bidsRepository.setRefundIssued(bid.getTimestamp(), shortTransactionId, transactionSchedulerResult.getScheduleId(), leaseOwner);
+                            }
+                            if (! updated) {
+                                log.warn("Lost the refund lease of bid (timestamp = {}) to another refunder", bid.getTimestamp());
                             }
                         } catch (SQLException e) {
                             log.error("Failed to set bid refund issued (bid timestamp {})",bid.getTimestamp(), e);
                         }
                     } else {
                         log.error("Error issuing refund to bid - timestamp = {} status {}", bid.getTimestamp(), transactionSchedulerResult.status);
-                        bidsRepository.setRefundError(bid.getTransactionid());
+                        if (! bidsRepository.setRefundError(bid.getTransactionid(), leaseOwner)) {
+                            log.warn("Lost the refund lease of bid (timestamp = {}) to another refunder", bid.getTimestamp());
+                        }
                     }
                 } catch (Exception e) {
                     log.error(e, e);
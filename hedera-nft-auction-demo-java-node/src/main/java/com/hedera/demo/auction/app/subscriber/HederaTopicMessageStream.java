@@ -0,0 +1,57 @@
+package com.hedera.demo.auction.app.subscriber;
+
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTopicMessage;
+import com.hedera.hashgraph.sdk.Client;
+import com.hedera.hashgraph.sdk.SubscriptionHandle;
+import com.hedera.hashgraph.sdk.TopicId;
+import com.hedera.hashgraph.sdk.TopicMessage;
+import com.hedera.hashgraph.sdk.TopicMessageQuery;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Consumer;
+
+/**
+ * Streams topic messages from the mirror node's gRPC api using the SDK's TopicMessageQuery
+ *
+ * The SDK retries dropped connections itself, resuming after the last message received, an error is only
+ * reported once its retries are exhausted.
+ */
+public class HederaTopicMessageStream implements TopicMessageStream {
+    private final Client client;
+
+    /**
+     * Constructor
+     *
+     * @param client the client whose mirror network to subscribe to
+     */
+    public HederaTopicMessageStream(Client client) {
+        this.client = client;
+    }
+
+    @Override
+    public Subscription subscribe(TopicId topicId, String afterTimestamp, Consumer<MirrorTopicMessage> onMessage, Consumer<Throwable> onError) {
+        // the query's start time is inclusive
+        Instant startTime = Utils.timestampToInstant(afterTimestamp).plusNanos(1);
+        SubscriptionHandle subscriptionHandle = new TopicMessageQuery()
+                .setTopicId(topicId)
+                .setStartTime(startTime)
+                .setErrorHandler((error, topicMessage) -> onError.accept(error))
+                .subscribe(client, topicMessage -> onMessage.accept(toMirrorTopicMessage(topicMessage)));
+        return subscriptionHandle::unsubscribe;
+    }
+
+    /**
+     * Maps a message received from the gRPC api to the representation used by the REST api
+     *
+     * @param topicMessage the message received
+     * @return MirrorTopicMessage the equivalent mirror REST message
+     */
+    static MirrorTopicMessage toMirrorTopicMessage(TopicMessage topicMessage) {
+        MirrorTopicMessage mirrorTopicMessage = new MirrorTopicMessage();
+        mirrorTopicMessage.consensusTimestamp = String.format("%d.%09d", topicMessage.consensusTimestamp.getEpochSecond(), topicMessage.consensusTimestamp.getNano());
+        mirrorTopicMessage.messageBase64 = Base64.getEncoder().encodeToString(topicMessage.contents);
+        return mirrorTopicMessage;
+    }
+}
@@ -0,0 +1,36 @@
+package com.hedera.demo.auction.app.subscriber;
+
+import com.hedera.demo.auction.app.mirrormapping.MirrorTopicMessage;
+import com.hedera.hashgraph.sdk.TopicId;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport delivering the messages posted to a topic as they reach consensus
+ */
+public interface TopicMessageStream {
+
+    /**
+     * Subscribes to the messages on a topic
+     *
+     * Messages are delivered in consensus order, possibly on a different thread. The subscription ends when
+     * cancelled or once an error has been reported, after which no further messages are delivered.
+     *
+     * @param topicId the topic to subscribe to
+     * @param afterTimestamp the consensus timestamp (seconds.nanos) messages are delivered after
+     * @param onMessage receives each message
+     * @param onError receives the error ending the subscription
+     * @return Subscription the subscription
+     */
+    Subscription subscribe(TopicId topicId, String afterTimestamp, Consumer<MirrorTopicMessage> onMessage, Consumer<Throwable> onError);
+
+    /**
+     * A subscription to a topic
+     */
+    interface Subscription {
+        /**
+         * Cancels the subscription
+         */
+        void cancel();
+    }
+}
@@ -2,12 +2,16 @@ package com.hedera.demo.auction.app.subscriber;
 
 import com.google.errorprone.annotations.Var;
 import com.hedera.demo.auction.AuctionReadinessWatcher;
+import com.hedera.demo.auction.AuctionStateEngine;
+import com.hedera.demo.auction.BidsIngester;
 import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.PollScheduler;
 import com.hedera.demo.auction.app.Utils;
 import com.hedera.demo.auction.app.domain.Auction;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTopicMessage;
 import com.hedera.demo.auction.app.mirrormapping.MirrorTopicMessages;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
 import com.hedera.demo.auction.app.repository.ValidatorsRepository;
 import com.hedera.hashgraph.sdk.AccountBalance;
 import com.hedera.hashgraph.sdk.AccountBalanceQuery;
@@ -18,6 +22,7 @@ import com.hedera.hashgraph.sdk.Client;
 import com.hedera.hashgraph.sdk.Hbar;
 import com.hedera.hashgraph.sdk.PrecheckStatusException;
 import com.hedera.hashgraph.sdk.PrivateKey;
+import com.hedera.hashgraph.sdk.ReceiptStatusException;
 import com.hedera.hashgraph.sdk.Status;
 import com.hedera.hashgraph.sdk.TokenAssociateTransaction;
 import com.hedera.hashgraph.sdk.TokenId;
@@ -26,12 +31,15 @@ import com.hedera.hashgraph.sdk.TokenInfoQuery;
 import com.hedera.hashgraph.sdk.TopicId;
 import com.hedera.hashgraph.sdk.TransactionReceipt;
 import com.hedera.hashgraph.sdk.TransactionResponse;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import lombok.extern.log4j.Log4j2;
+import org.jooq.exception.DataAccessException;
 import org.jooq.tools.StringUtils;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -39,16 +47,25 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
- * Periodically queries mirror node for messages on a topic Id
+ * Periodically queries mirror node for messages on a topic Id, or streams them as they reach consensus
  */
 @Log4j2
 public class TopicSubscriber implements Runnable{
+    public static final String CURSOR_PREFIX = "topic.";
+    // consecutive subscriptions failing without a message before falling back to the REST api
+    static final int STREAM_ATTEMPTS_BEFORE_FALLBACK = 3;
+    // a message which can't be processed is retried after mirrorQueryFrequency, doubling up to this delay
+    static final int MAX_RETRY_DELAY_MILLIS = 60000;
+    // a message failing with a transient error this many times in a row is skipped
+    static final int MAX_ATTEMPTS = 10;
+
     private final AuctionsRepository auctionsRepository;
     private final ValidatorsRepository validatorsRepository;
     @Nullable
@@ -56,9 +73,22 @@ public class TopicSubscriber implements Runnable{
     private final int mirrorQueryFrequency;
     private final HederaClient hederaClient;
     private boolean skipReadinessWatcher = false;
-    private boolean runThread = true;
+    private volatile boolean runThread = true;
     @Nullable
     private AuctionReadinessWatcher auctionReadinessWatcher = null;
+    @Nullable
+    private BidsIngester bidsIngester = null;
+    @Nullable
+    private AuctionStateEngine auctionStateEngine = null;
+    @Nullable
+    private PollScheduler pollScheduler = null;
+    @Nullable
+    private TopicMessageStream topicMessageStream = null;
+    @Nullable
+    private MirrorCursorsRepository mirrorCursorsRepository = null;
+    private String nextTimestamp = "0.0";
+    // consecutive attempts at processing the message after nextTimestamp which failed
+    private int failedAttempts = 0;
     private final String masterKey;
     private final boolean runOnce;
 
@@ -95,17 +125,64 @@ public class TopicSubscriber implements Runnable{
 
     /**
      * Detrmines if the readiness watcher startup should be skipped for unit and integration testing purposes
+     * or when auctions' readiness is checked from the auction accounts' feeds
      */
     public void setSkipReadinessWatcher() {
         skipReadinessWatcher = true;
     }
 
     /**
-     * Queries the mirror node for messages on topic
-     * if messages are available, process them
-     * keep querying until no new messages are available
-     * pause
-     * loop
+     * Sets the ingester routing bids to auctions when bids are ingested from a single global stream
+     * the ingester is refreshed when auctions are added
+     *
+     * @param bidsIngester the bids ingester, null if each auction has its own BidsWatcher
+     */
+    public void setBidsIngester(@Nullable BidsIngester bidsIngester) {
+        this.bidsIngester = bidsIngester;
+    }
+
+    /**
+     * Sets the engine holding the state of auctions in memory, the auctions added evaluate bids against it
+     *
+     * @param auctionStateEngine the auction state engine, null to evaluate bids against the database
+     */
+    public void setAuctionStateEngine(@Nullable AuctionStateEngine auctionStateEngine) {
+        this.auctionStateEngine = auctionStateEngine;
+    }
+
+    /**
+     * Sets the scheduler working out the interval between polls of the auctions added
+     *
+     * @param pollScheduler the poll scheduler, null to poll every mirrorQueryFrequency
+     */
+    public void setPollScheduler(@Nullable PollScheduler pollScheduler) {
+        this.pollScheduler = pollScheduler;
+    }
+
+    /**
+     * Streams messages on the topic rather than polling the mirror node's REST api for them, the
+     * REST api is still used when running once and as a fallback when the stream can't be established
+     *
+     * @param topicMessageStream the transport to stream messages with, null to poll the REST api
+     */
+    public void setTopicMessageStream(@Nullable TopicMessageStream topicMessageStream) {
+        this.topicMessageStream = topicMessageStream;
+    }
+
+    /**
+     * Persists the consensus timestamp of the last message processed so that the subscription resumes
+     * from it after a restart
+     *
+     * @param mirrorCursorsRepository the repository to persist the timestamp to, null to start from the
+     *                                beginning of the topic every time
+     */
+    public void setMirrorCursorsRepository(@Nullable MirrorCursorsRepository mirrorCursorsRepository) {
+        this.mirrorCursorsRepository = mirrorCursorsRepository;
+    }
+
+    /**
+     * Processes the messages on the topic from the last processed message onwards, by polling the
+     * mirror node or streaming them if a TopicMessageStream is set
      */
     @Override
     public void run() {
@@ -113,99 +190,312 @@ public class TopicSubscriber implements Runnable{
             log.warn("topicId is null, exiting");
             return;
         }
-        @Var String nextTimestamp = "0.0";
-        String uri = "/api/v1/topics/".concat(this.topicId.toString()).concat("/messages");
-        ExecutorService executor = Executors.newFixedThreadPool(1);
+        nextTimestamp = startingTimestamp();
+        if (topicMessageStream == null || runOnce) {
+            poll();
+        } else {
+            stream(topicMessageStream);
+        }
+    }
+
+    /**
+     * Gets the timestamp to resume processing after
+     *
+     * @return String the consensus timestamp of the last message processed, "0.0" if none were
+     */
+    private String startingTimestamp() {
+        if (mirrorCursorsRepository != null) {
+            try {
+                String cursor = mirrorCursorsRepository.getCursor(cursorName());
+                if (! StringUtils.isEmpty(cursor)) {
+                    log.info("Resuming topic id {} after {}", topicId, cursor);
+                    return cursor;
+                }
+            } catch (SQLException e) {
+                log.error("unable to read topic resume point, starting from the beginning", e);
+            }
+        }
+        return "0.0";
+    }
+
+    private String cursorName() {
+        return CURSOR_PREFIX.concat(String.valueOf(topicId));
+    }
+
+    /**
+     * Queries the mirror node for messages on topic
+     * if messages are available, process them
+     * keep querying until no new messages are available
+     * pause
+     * loop
+     */
+    private void poll() {
         while (this.runThread) {
             try {
+                int messagesCount = queryMessages();
+                if (messagesCount == 0 && runOnce) {
+                    // no new messages, running once, exit
+                    this.runThread = false;
+                }
+            } catch (RuntimeException e) {
+                log.error(e, e);
+            }
+
+            if (this.runThread) {
+                // only sleep if necessary
+                Utils.sleep(pauseMillis());
+            }
+
+        }
+    }
+
+    /**
+     * Gets the pause before querying the mirror node again, backing off while a message fails to be processed
+     *
+     * @return int the pause in milliseconds
+     */
+    private int pauseMillis() {
+        if (failedAttempts == 0) {
+            return this.mirrorQueryFrequency;
+        }
+        long delay = (long) this.mirrorQueryFrequency << Math.min(failedAttempts - 1, 16);
+        return (int) Math.min(delay, MAX_RETRY_DELAY_MILLIS);
+    }
 
-                log.debug("Checking for messages on topic id {}", this.topicId.toString());
+    /**
+     * Queries the mirror node's REST api for the messages after the last one processed and processes them
+     *
+     * @return int the number of messages processed, 0 if the first message couldn't be processed
+     */
+    private int queryMessages() {
+        log.debug("Checking for messages on topic id {}", this.topicId);
 
-                Map<String, String> queryParameters = new HashMap<>();
-                queryParameters.put("timestamp", "gt:".concat(nextTimestamp));
-                queryParameters.put("order", "asc");
+        String uri = "/api/v1/topics/".concat(String.valueOf(this.topicId)).concat("/messages");
+        Map<String, String> queryParameters = new HashMap<>();
+        queryParameters.put("timestamp", "gt:".concat(nextTimestamp));
+        queryParameters.put("order", "asc");
 
-                Future<JsonObject> future = executor.submit(Utils.queryMirror(hederaClient, uri, queryParameters));
+        JsonObject response = hederaClient.mirrorClient().query(uri, queryParameters);
+        MirrorTopicMessages mirrorTopicMessages = response.mapTo(MirrorTopicMessages.class);
+        return handle(mirrorTopicMessages) ? mirrorTopicMessages.messages.size() : 0;
+    }
 
+    /**
+     * Subscribes to the topic and processes messages as they arrive
+     * if the subscription fails, resubscribe after the last message processed
+     * after several subscriptions in a row fail without delivering a message, catch up from the
+     * REST api before trying again
+     * if a message can't be processed, the subscription is cancelled and resubscribed after the last message
+     * processed once the retry delay has passed, so that the message is delivered again
+     *
+     * @param topicMessageStream the transport to stream messages with
+     */
+    private void stream(TopicMessageStream topicMessageStream) {
+        @Var int failedSubscriptions = 0;
+        while (this.runThread) {
+            if (failedSubscriptions >= STREAM_ATTEMPTS_BEFORE_FALLBACK) {
+                log.warn("Unable to stream messages on topic id {}, falling back to the mirror REST api", topicId);
                 try {
-                    JsonObject response = future.get();
-                    if (response != null) {
-                        MirrorTopicMessages mirrorTopicMessages = response.mapTo(MirrorTopicMessages.class);
-                        int messagesCount = mirrorTopicMessages.messages.size();
-                        if (messagesCount > 0) {
-                            nextTimestamp = mirrorTopicMessages.messages.get(messagesCount - 1).consensusTimestamp;
-                        }
-                        handle(mirrorTopicMessages);
+                    while (this.runThread && queryMessages() > 0) {
+                        log.debug("Caught up with messages on topic id {} to {}", topicId, nextTimestamp);
+                    }
+                } catch (RuntimeException e) {
+                    log.error(e, e);
+                }
+                failedSubscriptions = 0;
+            }
 
-                        if (messagesCount == 0 && runOnce) {
-                            // no new messages, running once, exit
-                            this.runThread = false;
+            log.debug("Subscribing to topic id {} after {}", topicId, nextTimestamp);
+            BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+            TopicMessageStream.Subscription subscription = topicMessageStream.subscribe(Objects.requireNonNull(topicId), nextTimestamp, received::add, received::add);
+            @Var boolean delivered = false;
+            try {
+                while (this.runThread) {
+                    @Nullable Object next = received.poll(this.mirrorQueryFrequency, TimeUnit.MILLISECONDS);
+                    if (next instanceof MirrorTopicMessage) {
+                        delivered = true;
+                        if (! handleStreamed((MirrorTopicMessage) next)) {
+                            break;
                         }
+                    } else if (next instanceof Throwable) {
+                        log.error("Subscription to topic id {} failed", topicId, next);
+                        break;
                     }
-                } catch (InterruptedException e) {
-                    log.error(e, e);
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    log.error(e, e);
                 }
-            } catch (RuntimeException e) {
+            } catch (InterruptedException e) {
                 log.error(e, e);
+                Thread.currentThread().interrupt();
+                this.runThread = false;
+            } finally {
+                subscription.cancel();
             }
 
+            failedSubscriptions = delivered ? 0 : failedSubscriptions + 1;
             if (this.runThread) {
-                // only sleep if necessary
-                Utils.sleep(this.mirrorQueryFrequency);
+                Utils.sleep(pauseMillis());
             }
+        }
+    }
 
+    /**
+     * Processes a message received from the stream unless it has already been processed, which may
+     * happen when the transport reconnects
+     *
+     * @param mirrorTopicMessage the message to process
+     * @return true if the message was processed or skipped, false if it has to be processed again
+     */
+    private boolean handleStreamed(MirrorTopicMessage mirrorTopicMessage) {
+        if (Utils.compareTimestamps(mirrorTopicMessage.consensusTimestamp, nextTimestamp) <= 0) {
+            log.debug("Skipping message at {} already processed", mirrorTopicMessage.consensusTimestamp);
+            return true;
+        }
+        MirrorTopicMessages mirrorTopicMessages = new MirrorTopicMessages();
+        mirrorTopicMessages.messages.add(mirrorTopicMessage);
+        return handle(mirrorTopicMessages);
+    }
+
+    /**
+     * Records the consensus timestamp messages have been processed up to
+     *
+     * @param consensusTimestamp the consensus timestamp of the last message processed
+     * @param persisted true if the timestamp was persisted along with the effects of the message
+     */
+    private void processedUpTo(String consensusTimestamp, boolean persisted) {
+        nextTimestamp = consensusTimestamp;
+        if (mirrorCursorsRepository != null && ! persisted) {
+            try {
+                mirrorCursorsRepository.setCursor(cursorName(), consensusTimestamp);
+            } catch (SQLException e) {
+                log.error("unable to persist topic resume point", e);
+            }
         }
-        executor.shutdown();
     }
 
     /**
      * Processes consensus messages
      * For each message, determines if the message is an auction or validator message then handle accordingly
+     * then records the message's consensus timestamp as processed. A message with invalid contents, or whose
+     * effects failed to apply for a reason which won't go away by trying again, is logged and skipped.
+     * Processing stops at a message which failed with a transient error (database or network), its consensus
+     * timestamp isn't recorded so that it's processed again, up to MAX_ATTEMPTS times after which it's skipped
 
      * @param mirrorTopicMessages consensus messages to process
+     * @return true if all the messages were processed or skipped
      */
-    public void handle(MirrorTopicMessages mirrorTopicMessages) {
+    public boolean handle(MirrorTopicMessages mirrorTopicMessages) {
         for (MirrorTopicMessage mirrorTopicMessage : mirrorTopicMessages.messages) {
             log.debug("Got HCS Message");
-            String mirrorMessageData = mirrorTopicMessage.message();
-            JsonObject messageJson = new JsonObject(mirrorMessageData);
-            // is it an auction message
-            Auction newAuction = new Auction().fromJson(messageJson);
-            if (! StringUtils.isEmpty(newAuction.getAuctionaccountid())) {
-                // it's an auction
-                handleAuction(newAuction, mirrorTopicMessage.consensusTimestamp);
-            } else {
-                if (messageJson.containsKey("validators")) {
-                    JsonArray validators = messageJson.getJsonArray("validators");
-                    handleValidators(validators);
+            @Var boolean persisted = false;
+            try {
+                persisted = handleMessage(mirrorTopicMessage);
+            } catch (DecodeException | IllegalArgumentException | ClassCastException e) {
+                log.warn("invalid consensus message contents at {}, skipping", mirrorTopicMessage.consensusTimestamp, e);
+            } catch (Exception e) {
+                if (! isTransient(e)) {
+                    log.error("unable to process consensus message at {}, skipping", mirrorTopicMessage.consensusTimestamp, e);
+                } else if (++failedAttempts < MAX_ATTEMPTS) {
+                    log.error("unable to process consensus message at {} (attempt {}), retrying", mirrorTopicMessage.consensusTimestamp, failedAttempts, e);
+                    return false;
                 } else {
-                    log.warn("invalid consensus message contents");
+                    log.error("unable to process consensus message at {} after {} attempts, skipping", mirrorTopicMessage.consensusTimestamp, failedAttempts, e);
                 }
             }
+            failedAttempts = 0;
+            processedUpTo(mirrorTopicMessage.consensusTimestamp, persisted);
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether processing a message failed for a reason which may go away by trying again, such as
+     * the database or the network being unavailable
+     *
+     * @param e the exception processing the message failed with
+     * @return true if the message should be processed again
+     */
+    static boolean isTransient(Exception e) {
+        @Var Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof SQLException || cause instanceof DataAccessException
+                    || cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+            if (cause instanceof PrecheckStatusException) {
+                Status status = ((PrecheckStatusException) cause).status;
+                return status == Status.BUSY || status == Status.PLATFORM_TRANSACTION_NOT_CREATED || status == Status.PLATFORM_NOT_ACTIVE;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Processes a consensus message
+     *
+     * @param mirrorTopicMessage the message to process
+     * @return true if the message's consensus timestamp was persisted along with its effects
+     * @throws IllegalArgumentException if the message's contents are invalid
+     * @throws Exception if the message's effects couldn't be applied
+     */
+    private boolean handleMessage(MirrorTopicMessage mirrorTopicMessage) throws Exception {
+        String mirrorMessageData = mirrorTopicMessage.message();
+        JsonObject messageJson = new JsonObject(mirrorMessageData);
+        // is it an auction message
+        Auction newAuction = new Auction().fromJson(messageJson);
+        if (! StringUtils.isEmpty(newAuction.getAuctionaccountid())) {
+            // it's an auction
+            return handleAuction(newAuction, mirrorTopicMessage.consensusTimestamp, transactionalCursorName());
+        } else {
+            if (messageJson.containsKey("validators")) {
+                JsonArray validators = messageJson.getJsonArray("validators");
+                return handleValidators(validators, mirrorTopicMessage.consensusTimestamp, transactionalCursorName());
+            } else {
+                log.warn("invalid consensus message contents");
+                return false;
+            }
         }
     }
 
+    /**
+     * Gets the name to persist the consensus timestamp of a message under along with its effects
+     *
+     * @return String the cursor name, empty if the timestamp isn't persisted
+     */
+    private String transactionalCursorName() {
+        return mirrorCursorsRepository == null ? "" : cursorName();
+    }
+
     /**
      * Processes validators consensus messages
      * If the provided array is valid and contains a valid add, delete or update operation, perform the necessary
      * operation against the database
      *
      * @param validators a json array of validator objects
+     * @throws Exception in the event of invalid validator objects or a database error
      */
-    public void handleValidators(JsonArray validators) {
+    public void handleValidators(JsonArray validators) throws Exception {
+        handleValidators(validators, "", "");
+    }
+
+    /**
+     * Processes validators consensus messages, persisting the message's consensus timestamp in the same
+     * transaction as the operations so that they aren't applied twice should the message be processed again
+     *
+     * @param validators a json array of validator objects
+     * @param consensusTimestamp the consensus timestamp of the message
+     * @param cursorName the name to persist the consensus timestamp under, empty not to persist it
+     * @return true if the consensus timestamp was persisted
+     * @throws IllegalArgumentException if the validator objects are invalid, no operation is applied
+     * @throws Exception in the event of a database error, no operation is applied
+     */
+    private boolean handleValidators(JsonArray validators, String consensusTimestamp, String cursorName) throws Exception {
         log.debug("consensus message for validators management");
-        if (validators != null) {
-            try {
-                validatorsRepository.manage(validators);
-            } catch (Exception e) {
-                log.error(e, e);
-            }
-        } else {
+        if (validators == null) {
             log.warn("invalid consensus message contents - validators is not an array");
+            return false;
         }
+        validatorsRepository.manage(validators, cursorName, consensusTimestamp);
+        return ! StringUtils.isEmpty(cursorName);
     }
 
     /**
@@ -228,129 +518,180 @@ public class TopicSubscriber implements Runnable{
      *
      * @param newAuction the auction to add to the database
      * @param consensusTimestamp the consensus timestamp of the transaction
+     * @throws Exception in the event of an invalid auction or if the auction couldn't be set up
      */
-    public void handleAuction(Auction newAuction, String consensusTimestamp) {
-        try {
-            Instant consensusTime = Utils.timestampToInstant(consensusTimestamp);
-            @Var String endTimeStamp = newAuction.getEndtimestamp().toLowerCase();
-
-            if (endTimeStamp.contains("m")) {
-                int timeDelta = Integer.parseInt(endTimeStamp.replace("m", ""));
-                endTimeStamp = String.valueOf(consensusTime.plus(timeDelta, ChronoUnit.MINUTES).getEpochSecond());
-            } else if (endTimeStamp.contains("h")) {
-                int timeDelta = Integer.parseInt(endTimeStamp.replace("h", ""));
-                endTimeStamp = String.valueOf(consensusTime.plus(timeDelta, ChronoUnit.HOURS).getEpochSecond());
-            } else if (endTimeStamp.contains("d")) {
-                int timeDelta = Integer.parseInt(endTimeStamp.replace("d", ""));
-                endTimeStamp = String.valueOf(consensusTime.plus(timeDelta, ChronoUnit.DAYS).getEpochSecond());
-            } else if (StringUtils.isEmpty(endTimeStamp)) {
-                // no end timestamp, use consensus timestamp + 2 days
-                endTimeStamp = String.valueOf(consensusTime.plus(2, ChronoUnit.DAYS).getEpochSecond());
-            }
+    public void handleAuction(Auction newAuction, String consensusTimestamp) throws Exception {
+        handleAuction(newAuction, consensusTimestamp, "");
+    }
 
-            newAuction.setEndtimestamp(endTimeStamp.concat(".000000000")); // add nanoseconds
-            newAuction.setWinningbid(0L);
-            newAuction.setProcessrefunds(false);
+    /**
+     * Processes auction consensus messages as above
+     *
+     * An auction which is already in the database and is no longer pending has been fully set up, its
+     * token has been transferred to the auction account, so no further lookups are made for it.
+     * If adding the auction is the message's last effect, the message's consensus timestamp is persisted in
+     * the same transaction. When the master key is set, the timestamp is only recorded after the token has
+     * been associated so that the association is retried if the message is processed again.
+     *
+     * @param newAuction the auction to add to the database
+     * @param consensusTimestamp the consensus timestamp of the transaction
+     * @param cursorName the name to persist the consensus timestamp under, empty not to persist it
+     * @return true if the consensus timestamp was persisted
+     * @throws IllegalArgumentException if the auction's end timestamp, token or account is invalid
+     * @throws Exception if the auction couldn't be added or its account associated with the token
+     */
+    private boolean handleAuction(Auction newAuction, String consensusTimestamp, String cursorName) throws Exception {
+        @Var boolean persisted = false;
+        Instant consensusTime = Utils.timestampToInstant(consensusTimestamp);
+        @Var String endTimeStamp = newAuction.getEndtimestamp().toLowerCase();
+
+        if (endTimeStamp.contains("m")) {
+            int timeDelta = Integer.parseInt(endTimeStamp.replace("m", ""));
+            endTimeStamp = String.valueOf(consensusTime.plus(timeDelta, ChronoUnit.MINUTES).getEpochSecond());
+        } else if (endTimeStamp.contains("h")) {
+            int timeDelta = Integer.parseInt(endTimeStamp.replace("h", ""));
+            endTimeStamp = String.valueOf(consensusTime.plus(timeDelta, ChronoUnit.HOURS).getEpochSecond());
+        } else if (endTimeStamp.contains("d")) {
+            int timeDelta = Integer.parseInt(endTimeStamp.replace("d", ""));
+            endTimeStamp = String.valueOf(consensusTime.plus(timeDelta, ChronoUnit.DAYS).getEpochSecond());
+        } else if (StringUtils.isEmpty(endTimeStamp)) {
+            // no end timestamp, use consensus timestamp + 2 days
+            endTimeStamp = String.valueOf(consensusTime.plus(2, ChronoUnit.DAYS).getEpochSecond());
+        }
 
-            @Var Auction auction;
-            try {
-                log.debug("Adding auction to database");
-                auction = auctionsRepository.getAuction(newAuction.getAuctionaccountid());
-                // auction doesn't exist, create it
-                if (auction == null) {
-                    // get token info
-                    Client client = hederaClient.client();
-                    try {
-                        log.debug("Getting token info");
-                        TokenInfo tokenInfo = new TokenInfoQuery()
-                                .setTokenId(TokenId.fromString(newAuction.getTokenid()))
-                                .execute(client);
-
-                        // store the IPFS url against the auction
-                        if (tokenInfo.symbol.contains("ipfs")) {
-                            // set token image data
-                            newAuction.setTokenmetadata(tokenInfo.symbol);
-                        }
-                    } catch (Exception e) {
-                        log.error("error getting token info", e);
-                        throw e;
-                    }
-                    // get auction account info
-                    log.debug("getting auction account info");
-                    AccountInfo accountInfo = new AccountInfoQuery()
-                            .setAccountId(AccountId.fromString(newAuction.getAuctionaccountid()))
-                            .execute(client);
+        newAuction.setEndtimestamp(endTimeStamp.concat(".000000000")); // add nanoseconds
+        newAuction.setWinningbid(0L);
+        newAuction.setProcessrefunds(false);
 
-                    // only process refunds for this auction if the auction's key contains the operator's public key
-                    newAuction.setProcessrefunds(accountInfo.key.toString().toUpperCase().contains(hederaClient.operatorPublicKey().toString().toUpperCase()));
+        log.debug("Adding auction to database");
+        @Var Auction auction = auctionsRepository.getAuction(newAuction.getAuctionaccountid());
+        if (auction != null && ! auction.isPending()) {
+            log.debug("Auction for token {} already set up", auction.getTokenid());
+            return false;
+        }
+        // auction doesn't exist, create it
+        if (auction == null) {
+            // get token info
+            Client client = hederaClient.client();
+            try {
+                log.debug("Getting token info");
+                TokenInfo tokenInfo = new TokenInfoQuery()
+                        .setTokenId(TokenId.fromString(newAuction.getTokenid()))
+                        .execute(client);
+
+                // store the IPFS url against the auction
+                if (tokenInfo.symbol.contains("ipfs")) {
+                    // set token image data
+                    newAuction.setTokenmetadata(tokenInfo.symbol);
+                }
+            } catch (PrecheckStatusException e) {
+                if (e.status == Status.INVALID_TOKEN_ID) {
+                    throw new IllegalArgumentException("token " + newAuction.getTokenid() + " doesn't exist", e);
+                }
+                throw e;
+            }
+            // get auction account info
+            log.debug("getting auction account info");
+            AccountInfo accountInfo;
+            try {
+                accountInfo = new AccountInfoQuery()
+                        .setAccountId(AccountId.fromString(newAuction.getAuctionaccountid()))
+                        .execute(client);
+            } catch (PrecheckStatusException e) {
+                if (e.status == Status.INVALID_ACCOUNT_ID) {
+                    throw new IllegalArgumentException("auction account " + newAuction.getAuctionaccountid() + " doesn't exist", e);
+                }
+                throw e;
+            }
 
-                    auction = auctionsRepository.add(newAuction);
+            // only process refunds for this auction if the auction's key contains the operator's public key
+            newAuction.setProcessrefunds(accountInfo.key.toString().toUpperCase().contains(hederaClient.operatorPublicKey().toString().toUpperCase()));
 
-                    if ((auction.getId() != 0)) {
-                        log.info("Auction for token {} added", newAuction.getTokenid());
-                    }
+            if (StringUtils.isEmpty(cursorName) || ! StringUtils.isEmpty(masterKey)) {
+                auction = auctionsRepository.add(newAuction);
+            } else {
+                auction = auctionsRepository.add(newAuction, cursorName, consensusTimestamp);
+                persisted = true;
+            }
 
-                    if (!skipReadinessWatcher) {
-                        auctionReadinessWatcher = new AuctionReadinessWatcher(hederaClient, auctionsRepository, auction, mirrorQueryFrequency, runOnce);
-                        if (this.runOnce) {
-                            // don't run as a thread
-                            auctionReadinessWatcher.run();
-                        } else {
-                            // Start a thread to watch this new auction for readiness
-                            Thread t = new Thread(auctionReadinessWatcher);
-                            t.start();
-                        }
-                    }
+            if ((auction.getId() != 0)) {
+                log.info("Auction for token {} added", newAuction.getTokenid());
+                if (bidsIngester != null) {
+                    bidsIngester.refresh();
+                }
+            }
 
+            if (!skipReadinessWatcher) {
+                auctionReadinessWatcher = new AuctionReadinessWatcher(hederaClient, auctionsRepository, auction, mirrorQueryFrequency, runOnce);
+                auctionReadinessWatcher.setBidsIngester(bidsIngester);
+                auctionReadinessWatcher.setAuctionStateEngine(auctionStateEngine);
+                auctionReadinessWatcher.setPollScheduler(pollScheduler);
+                if (this.runOnce) {
+                    // don't run as a thread
+                    auctionReadinessWatcher.run();
+                } else {
+                    // Start a thread to watch this new auction for readiness
+                    Thread t = new Thread(auctionReadinessWatcher);
+                    t.start();
                 }
+            }
 
-                // do we need to associate
-                // If refund key and master node, associate with the token
-                //TODO: Currently only available to the master node, this feature should eventually
-                // transition to use scheduled transactions
-                if (!StringUtils.isEmpty(masterKey)) {
-
-                    Client client = hederaClient.auctionClient(auction, PrivateKey.fromString(masterKey));
-
-                    AccountBalance accountBalance = new AccountBalanceQuery()
-                            .setAccountId(AccountId.fromString(auction.getAuctionaccountid()))
-                            .execute(client);
-
-                    Map<TokenId, Long> tokens = accountBalance.token;
-                    if (!tokens.containsKey(TokenId.fromString(auction.getTokenid()))) {
-                        // not associated yet, try association
-                        client.setMaxTransactionFee(Hbar.from(100));
-                        TokenAssociateTransaction tokenAssociateTransaction = new TokenAssociateTransaction();
-                        List<TokenId> tokenIds = new ArrayList<>();
-                        tokenIds.add(TokenId.fromString(auction.getTokenid()));
-                        tokenAssociateTransaction.setTokenIds(tokenIds);
-                        tokenAssociateTransaction.setTransactionMemo("Associate");
-                        tokenAssociateTransaction.setAccountId(AccountId.fromString(auction.getAuctionaccountid()));
-
-                        try {
-                            TransactionResponse response = tokenAssociateTransaction.execute(client);
-
-                            TransactionReceipt receipt = response.getReceipt(client);
-                            if (receipt.status != Status.SUCCESS) {
-                                log.error("Token association failed {}", receipt.status);
-                            } else {
-                                log.info("Scheduled transaction to associate token {} with auction account {}", auction.getTokenid(), auction.getAuctionaccountid());
-                            }
-                        } catch (PrecheckStatusException e) {
-                            if (e.status != Status.TOKEN_ALREADY_ASSOCIATED_TO_ACCOUNT) {
-                                log.error("Error during association", e);
-                            }
-                        }
+        }
+
+        // do we need to associate
+        // If refund key and master node, associate with the token
+        //TODO: Currently only available to the master node, this feature should eventually
+        // transition to use scheduled transactions
+        if (!StringUtils.isEmpty(masterKey)) {
+            associate(auction);
+        }
+        return persisted;
+    }
+
+    /**
+     * Associates an auction's account with the auction's token using the master key, unless already associated
+     * An association which reached consensus but failed is logged, the message isn't processed again for it
+     *
+     * @param auction the auction
+     * @throws Exception if the association couldn't be submitted
+     */
+    private void associate(Auction auction) throws Exception {
+        Client client = hederaClient.auctionClient(auction, PrivateKey.fromString(masterKey));
+        try {
+            AccountBalance accountBalance = new AccountBalanceQuery()
+                    .setAccountId(AccountId.fromString(auction.getAuctionaccountid()))
+                    .execute(client);
+
+            Map<TokenId, Long> tokens = accountBalance.token;
+            if (!tokens.containsKey(TokenId.fromString(auction.getTokenid()))) {
+                // not associated yet, try association
+                client.setMaxTransactionFee(Hbar.from(100));
+                TokenAssociateTransaction tokenAssociateTransaction = new TokenAssociateTransaction();
+                List<TokenId> tokenIds = new ArrayList<>();
+                tokenIds.add(TokenId.fromString(auction.getTokenid()));
+                tokenAssociateTransaction.setTokenIds(tokenIds);
+                tokenAssociateTransaction.setTransactionMemo("Associate");
+                tokenAssociateTransaction.setAccountId(AccountId.fromString(auction.getAuctionaccountid()));
+
+                try {
+                    TransactionResponse response = tokenAssociateTransaction.execute(client);
+
+                    TransactionReceipt receipt = response.getReceipt(client);
+                    if (receipt.status != Status.SUCCESS) {
+                        log.error("Token association failed {}", receipt.status);
+                    } else {
+                        log.info("Scheduled transaction to associate token {} with auction account {}", auction.getTokenid(), auction.getAuctionaccountid());
+                    }
+                } catch (ReceiptStatusException e) {
+                    log.error("Token association failed {}", e.receipt.status);
+                } catch (PrecheckStatusException e) {
+                    if (e.status != Status.TOKEN_ALREADY_ASSOCIATED_TO_ACCOUNT) {
+                        throw e;
                     }
-                    client.close();
                 }
-
-            } catch (SQLException e) {
-                log.error("unable to determine if auction already exists", e);
             }
-        } catch (Exception e) {
-            log.error(e, e);
+        } finally {
+            client.close();
         }
-
     }
 }
@@ -0,0 +1,22 @@
+-- converts a consensus timestamp in seconds.nanos format to nanoseconds since epoch
+-- returns NULL if the value isn't a valid consensus timestamp
+CREATE OR REPLACE FUNCTION consensus_timestamp_nanos(ts TEXT) RETURNS BIGINT AS $$
+    SELECT CASE
+        WHEN ts ~ '^[0-9]{1,10}(\.[0-9]{1,9})?$' THEN
+            CASE
+                WHEN split_part(ts, '.', 1)::BIGINT < 9223372036 THEN
+                    split_part(ts, '.', 1)::BIGINT * 1000000000
+                    + rpad(COALESCE(NULLIF(split_part(ts, '.', 2), ''), '0'), 9, '0')::BIGINT
+            END
+    END
+$$ LANGUAGE SQL IMMUTABLE STRICT;
+
+ALTER TABLE bids ADD timestampnanos BIGINT GENERATED ALWAYS AS (consensus_timestamp_nanos(timestamp)) STORED;
+
+ALTER TABLE auctions ADD lastconsensustimestampnanos BIGINT GENERATED ALWAYS AS (consensus_timestamp_nanos(lastconsensustimestamp)) STORED;
+ALTER TABLE auctions ADD winningtimestampnanos BIGINT GENERATED ALWAYS AS (consensus_timestamp_nanos(winningtimestamp)) STORED;
+ALTER TABLE auctions ADD endtimestampnanos BIGINT GENERATED ALWAYS AS (consensus_timestamp_nanos(endtimestamp)) STORED;
+ALTER TABLE auctions ADD starttimestampnanos BIGINT GENERATED ALWAYS AS (consensus_timestamp_nanos(starttimestamp)) STORED;
+
+CREATE INDEX bids_timestampnanos_index ON bids (timestampnanos);
+CREATE INDEX auctions_status_endtimestampnanos_index ON auctions (status, endtimestampnanos);
@@ -0,0 +1,2 @@
+CREATE INDEX bids_auctionid_timestamp_index ON bids (auctionid, timestampnanos, timestamp);
+CREATE INDEX bids_auctionid_bidderaccountid_timestamp_index ON bids (auctionid, bidderaccountid, timestampnanos, timestamp);
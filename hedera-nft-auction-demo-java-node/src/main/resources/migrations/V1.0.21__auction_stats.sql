@@ -0,0 +1,107 @@
+-- per auction bid statistics, maintained incrementally by a trigger on bids so that the statistics
+-- are always updated in the same transaction as the bids themselves
+CREATE TABLE auction_stats
+(
+    auctionId              INTEGER PRIMARY KEY references auctions ON DELETE CASCADE,
+    bidCount               INT8 NOT NULL DEFAULT 0,
+    bidderCount            INT8 NOT NULL DEFAULT 0,
+    belowReserveCount      INT8 NOT NULL DEFAULT 0,
+    refundsPending         INT8 NOT NULL DEFAULT 0,
+    refundsIssued          INT8 NOT NULL DEFAULT 0,
+    refundsRefunded        INT8 NOT NULL DEFAULT 0,
+    lastBidTimestamp       TEXT NOT NULL DEFAULT ''
+);
+
+ALTER TABLE auction_stats ADD lastbidtimestampnanos BIGINT GENERATED ALWAYS AS (consensus_timestamp_nanos(lastbidtimestamp)) STORED;
+
+CREATE INDEX auction_stats_belowreserve_index ON auction_stats (auctionid) WHERE belowreservecount > 0;
+
+-- true if timestamp a is later than timestamp b, numerically if both are valid consensus timestamps
+CREATE OR REPLACE FUNCTION consensus_timestamp_after(a TEXT, b TEXT) RETURNS BOOLEAN AS $$
+    SELECT CASE
+        WHEN b = '' THEN true
+        WHEN consensus_timestamp_nanos(a) IS NOT NULL AND consensus_timestamp_nanos(b) IS NOT NULL THEN
+            consensus_timestamp_nanos(a) > consensus_timestamp_nanos(b)
+        ELSE a > b
+    END
+$$ LANGUAGE SQL IMMUTABLE STRICT;
+
+-- adds (delta = 1) or removes (delta = -1) a bid's counters from its auction's statistics
+CREATE OR REPLACE FUNCTION auction_stats_apply(bid bids, delta INTEGER) RETURNS VOID AS $$
+BEGIN
+    UPDATE auction_stats SET
+        bidCount = bidCount + delta,
+        belowReserveCount = belowReserveCount + CASE WHEN bid.status = 'Bid below reserve' THEN delta ELSE 0 END,
+        refundsPending = refundsPending + CASE WHEN bid.refundStatus = 'PENDING' THEN delta ELSE 0 END,
+        refundsIssued = refundsIssued + CASE WHEN bid.refundStatus = 'ISSUED' THEN delta ELSE 0 END,
+        refundsRefunded = refundsRefunded + CASE WHEN bid.refundStatus = 'REFUNDED' THEN delta ELSE 0 END
+    WHERE auctionId = bid.auctionId;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_stats_bids_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.auctionId IS NULL THEN
+            RETURN NULL;
+        END IF;
+        INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+        PERFORM auction_stats_apply(NEW, 1);
+        UPDATE auction_stats SET
+            bidderCount = bidderCount + CASE WHEN EXISTS (
+                    SELECT 1 FROM bids
+                    WHERE bids.auctionId = NEW.auctionId
+                    AND bids.bidderAccountId = NEW.bidderAccountId
+                    AND bids.timestamp <> NEW.timestamp) THEN 0 ELSE 1 END,
+            lastBidTimestamp = CASE WHEN consensus_timestamp_after(NEW.timestamp, lastBidTimestamp) THEN NEW.timestamp ELSE lastBidTimestamp END
+        WHERE auctionId = NEW.auctionId;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.auctionId IS NOT DISTINCT FROM NEW.auctionId
+            AND OLD.status IS NOT DISTINCT FROM NEW.status
+            AND OLD.refundStatus IS NOT DISTINCT FROM NEW.refundStatus THEN
+            RETURN NULL;
+        END IF;
+        IF OLD.auctionId IS NOT NULL THEN
+            PERFORM auction_stats_apply(OLD, -1);
+        END IF;
+        IF NEW.auctionId IS NOT NULL THEN
+            INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+            PERFORM auction_stats_apply(NEW, 1);
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        IF OLD.auctionId IS NULL THEN
+            RETURN NULL;
+        END IF;
+        PERFORM auction_stats_apply(OLD, -1);
+        UPDATE auction_stats SET
+            bidderCount = bidderCount - CASE WHEN EXISTS (
+                    SELECT 1 FROM bids
+                    WHERE bids.auctionId = OLD.auctionId
+                    AND bids.bidderAccountId = OLD.bidderAccountId) THEN 0 ELSE 1 END,
+            lastBidTimestamp = CASE WHEN lastBidTimestamp <> OLD.timestamp THEN lastBidTimestamp ELSE COALESCE((
+                    SELECT bids.timestamp FROM bids
+                    WHERE bids.auctionId = OLD.auctionId
+                    ORDER BY bids.timestampnanos DESC NULLS LAST, bids.timestamp DESC
+                    LIMIT 1), '') END
+        WHERE auctionId = OLD.auctionId;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER auction_stats_bids AFTER INSERT OR UPDATE OR DELETE ON bids
+    FOR EACH ROW EXECUTE FUNCTION auction_stats_bids_trigger();
+
+-- seed the statistics from existing bids
+INSERT INTO auction_stats (auctionId, bidCount, bidderCount, belowReserveCount, refundsPending, refundsIssued, refundsRefunded, lastBidTimestamp)
+SELECT auctionId,
+       COUNT(*),
+       COUNT(DISTINCT bidderAccountId),
+       COUNT(*) FILTER (WHERE status = 'Bid below reserve'),
+       COUNT(*) FILTER (WHERE refundStatus = 'PENDING'),
+       COUNT(*) FILTER (WHERE refundStatus = 'ISSUED'),
+       COUNT(*) FILTER (WHERE refundStatus = 'REFUNDED'),
+       (array_agg(timestamp ORDER BY timestampnanos DESC NULLS LAST, timestamp DESC))[1]
+FROM bids
+WHERE auctionId IS NOT NULL
+GROUP BY auctionId;
@@ -0,0 +1,6 @@
+-- lease on a bid's refund, held by the refunder that set the bid to ISSUING
+-- a bid that is still ISSUING once its lease has expired may be claimed by another refunder
+ALTER TABLE bids ADD refundLeaseOwner TEXT DEFAULT '';
+ALTER TABLE bids ADD refundLeaseExpiry TIMESTAMPTZ DEFAULT NULL;
+
+CREATE INDEX bids_refund_queue_index ON bids (timestampnanos, timestamp) WHERE refundStatus IN ('PENDING', 'ISSUING');
@@ -0,0 +1,68 @@
+-- publishes a compact json event on the auction_changes channel whenever auctions, bids or validators change
+-- notifications are only delivered to listeners once the writing transaction commits, identical events
+-- raised within a transaction are delivered once
+
+CREATE OR REPLACE FUNCTION auction_changes_auctions_trigger() RETURNS TRIGGER AS $$
+DECLARE
+    changed auctions;
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD IS NOT DISTINCT FROM NEW THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    PERFORM pg_notify('auction_changes', json_build_object(
+        'table', TG_TABLE_NAME,
+        'op', TG_OP,
+        'auctionid', changed.id,
+        'status', changed.status)::TEXT);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_changes_bids_trigger() RETURNS TRIGGER AS $$
+DECLARE
+    changed bids;
+BEGIN
+    -- refund leases and other bookkeeping don't change what clients see of a bid
+    IF TG_OP = 'UPDATE'
+        AND OLD.status IS NOT DISTINCT FROM NEW.status
+        AND OLD.refundStatus IS NOT DISTINCT FROM NEW.refundStatus THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    PERFORM pg_notify('auction_changes', json_build_object(
+        'table', TG_TABLE_NAME,
+        'op', TG_OP,
+        'auctionid', changed.auctionId,
+        'timestamp', changed.timestamp,
+        'refundstatus', changed.refundStatus)::TEXT);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_changes_validators_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('auction_changes', json_build_object(
+        'table', TG_TABLE_NAME,
+        'op', TG_OP)::TEXT);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER auction_changes_auctions AFTER INSERT OR UPDATE OR DELETE ON auctions
+    FOR EACH ROW EXECUTE FUNCTION auction_changes_auctions_trigger();
+
+CREATE TRIGGER auction_changes_bids AFTER INSERT OR UPDATE OR DELETE ON bids
+    FOR EACH ROW EXECUTE FUNCTION auction_changes_bids_trigger();
+
+-- validators are replaced as a set, one event per statement is enough
+CREATE TRIGGER auction_changes_validators AFTER INSERT OR UPDATE OR DELETE ON validators
+    FOR EACH STATEMENT EXECUTE FUNCTION auction_changes_validators_trigger();
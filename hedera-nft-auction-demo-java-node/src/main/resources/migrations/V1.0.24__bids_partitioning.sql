@@ -0,0 +1,139 @@
+-- partitions bids into live bids and archived bids
+-- once an auction has ended and all its refunds are complete, its bids are moved to the archive partition
+-- (see BidsRepository.archiveSettledAuctions) so that queries on live bids don't scan settled auctions
+
+-- depends on the bids row type, recreated below
+DROP FUNCTION auction_stats_apply(bids, INTEGER);
+
+ALTER TABLE bids RENAME TO bids_unpartitioned;
+
+CREATE TABLE bids
+(
+    LIKE bids_unpartitioned INCLUDING DEFAULTS INCLUDING GENERATED,
+    archived               BOOLEAN NOT NULL DEFAULT false,
+    PRIMARY KEY (timestamp, archived)
+) PARTITION BY LIST (archived);
+
+CREATE TABLE bids_live PARTITION OF bids FOR VALUES IN (false);
+CREATE TABLE bids_archive PARTITION OF bids FOR VALUES IN (true);
+
+INSERT INTO bids (timestamp, auctionId, bidderAccountId, bidAmount, status, refundTxId, refundTxHash, transactionId, transactionHash, refundStatus, scheduleId, refundLeaseOwner, refundLeaseExpiry)
+SELECT timestamp, auctionId, bidderAccountId, bidAmount, status, refundTxId, refundTxHash, transactionId, transactionHash, refundStatus, scheduleId, refundLeaseOwner, refundLeaseExpiry
+FROM bids_unpartitioned;
+
+DROP TABLE bids_unpartitioned;
+
+ALTER TABLE bids ADD CONSTRAINT bids_auctionid_fkey FOREIGN KEY (auctionId) REFERENCES auctions;
+
+CREATE INDEX bids_transactionid_index ON bids (transactionid);
+CREATE INDEX bids_refundstatus_index ON bids (refundStatus);
+CREATE INDEX bids_timestampnanos_index ON bids (timestampnanos);
+CREATE INDEX bids_auctionid_timestamp_index ON bids (auctionid, timestampnanos, timestamp);
+CREATE INDEX bids_auctionid_bidderaccountid_timestamp_index ON bids (auctionid, bidderaccountid, timestampnanos, timestamp);
+CREATE INDEX bids_refund_queue_index ON bids (timestampnanos, timestamp) WHERE refundStatus IN ('PENDING', 'ISSUING');
+
+-- moving a bid to the archive partition fires a DELETE trigger for the live row and an INSERT trigger for the
+-- archived row, neither of which are changes to the bid
+CREATE OR REPLACE FUNCTION bids_archive_move(op TEXT, bid bids) RETURNS BOOLEAN AS $$
+    SELECT CASE
+        WHEN op = 'INSERT' THEN bid.archived
+        WHEN op = 'DELETE' THEN NOT bid.archived AND EXISTS (SELECT 1 FROM bids WHERE bids.timestamp = bid.timestamp AND bids.archived)
+        ELSE false
+    END
+$$ LANGUAGE SQL STABLE;
+
+CREATE OR REPLACE FUNCTION auction_stats_apply(bid bids, delta INTEGER) RETURNS VOID AS $$
+BEGIN
+    UPDATE auction_stats SET
+        bidCount = bidCount + delta,
+        belowReserveCount = belowReserveCount + CASE WHEN bid.status = 'Bid below reserve' THEN delta ELSE 0 END,
+        refundsPending = refundsPending + CASE WHEN bid.refundStatus = 'PENDING' THEN delta ELSE 0 END,
+        refundsIssued = refundsIssued + CASE WHEN bid.refundStatus = 'ISSUED' THEN delta ELSE 0 END,
+        refundsRefunded = refundsRefunded + CASE WHEN bid.refundStatus = 'REFUNDED' THEN delta ELSE 0 END
+    WHERE auctionId = bid.auctionId;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_stats_bids_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.auctionId IS NULL OR bids_archive_move(TG_OP, NEW) THEN
+            RETURN NULL;
+        END IF;
+        INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+        PERFORM auction_stats_apply(NEW, 1);
+        UPDATE auction_stats SET
+            bidderCount = bidderCount + CASE WHEN EXISTS (
+                    SELECT 1 FROM bids
+                    WHERE bids.auctionId = NEW.auctionId
+                    AND bids.bidderAccountId = NEW.bidderAccountId
+                    AND bids.timestamp <> NEW.timestamp) THEN 0 ELSE 1 END,
+            lastBidTimestamp = CASE WHEN consensus_timestamp_after(NEW.timestamp, lastBidTimestamp) THEN NEW.timestamp ELSE lastBidTimestamp END
+        WHERE auctionId = NEW.auctionId;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.auctionId IS NOT DISTINCT FROM NEW.auctionId
+            AND OLD.status IS NOT DISTINCT FROM NEW.status
+            AND OLD.refundStatus IS NOT DISTINCT FROM NEW.refundStatus THEN
+            RETURN NULL;
+        END IF;
+        IF OLD.auctionId IS NOT NULL THEN
+            PERFORM auction_stats_apply(OLD, -1);
+        END IF;
+        IF NEW.auctionId IS NOT NULL THEN
+            INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+            PERFORM auction_stats_apply(NEW, 1);
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        IF OLD.auctionId IS NULL OR bids_archive_move(TG_OP, OLD) THEN
+            RETURN NULL;
+        END IF;
+        PERFORM auction_stats_apply(OLD, -1);
+        UPDATE auction_stats SET
+            bidderCount = bidderCount - CASE WHEN EXISTS (
+                    SELECT 1 FROM bids
+                    WHERE bids.auctionId = OLD.auctionId
+                    AND bids.bidderAccountId = OLD.bidderAccountId) THEN 0 ELSE 1 END,
+            lastBidTimestamp = CASE WHEN lastBidTimestamp <> OLD.timestamp THEN lastBidTimestamp ELSE COALESCE((
+                    SELECT bids.timestamp FROM bids
+                    WHERE bids.auctionId = OLD.auctionId
+                    ORDER BY bids.timestampnanos DESC NULLS LAST, bids.timestamp DESC
+                    LIMIT 1), '') END
+        WHERE auctionId = OLD.auctionId;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_changes_bids_trigger() RETURNS TRIGGER AS $$
+DECLARE
+    changed bids;
+BEGIN
+    -- refund leases and other bookkeeping don't change what clients see of a bid
+    IF TG_OP = 'UPDATE'
+        AND OLD.status IS NOT DISTINCT FROM NEW.status
+        AND OLD.refundStatus IS NOT DISTINCT FROM NEW.refundStatus THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    IF bids_archive_move(TG_OP, changed) THEN
+        RETURN NULL;
+    END IF;
+    PERFORM pg_notify('auction_changes', json_build_object(
+        'table', TG_TABLE_NAME,
+        'op', TG_OP,
+        'auctionid', changed.auctionId,
+        'timestamp', changed.timestamp,
+        'refundstatus', changed.refundStatus)::TEXT);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER auction_stats_bids AFTER INSERT OR UPDATE OR DELETE ON bids
+    FOR EACH ROW EXECUTE FUNCTION auction_stats_bids_trigger();
+
+CREATE TRIGGER auction_changes_bids AFTER INSERT OR UPDATE OR DELETE ON bids
+    FOR EACH ROW EXECUTE FUNCTION auction_changes_bids_trigger();
@@ -0,0 +1,6 @@
+-- position reached by components following a mirror node stream, so that they resume where they left off after a restart
+CREATE TABLE mirror_cursors
+(
+    name                   TEXT PRIMARY KEY,
+    timestamp              TEXT NOT NULL DEFAULT ''
+);
@@ -0,0 +1,84 @@
+-- keys bids by their numeric consensus timestamp, V1.0.19 added the numeric column alongside the text timestamp
+-- which stayed the key and the tie breaker of the bids indexes
+-- the text timestamp is kept as the representation exchanged with the mirror node and the REST api, every bid's
+-- timestamp comes from the mirror node so it is a valid consensus timestamp
+
+-- V1.0.24 created the partitioned table while the unpartitioned table still held bids_pkey, so its key's name was chosen for it
+DO $$
+DECLARE
+    pkey TEXT;
+BEGIN
+    SELECT conname INTO STRICT pkey FROM pg_constraint WHERE conrelid = 'bids'::regclass AND contype = 'p';
+    EXECUTE format('ALTER TABLE bids DROP CONSTRAINT %I', pkey);
+END
+$$;
+
+-- the archived flag is the partition key, so it is part of the key
+ALTER TABLE bids ADD CONSTRAINT bids_pkey PRIMARY KEY (timestampnanos, archived);
+
+-- the key covers lookups by consensus timestamp
+DROP INDEX bids_timestampnanos_index;
+
+DROP INDEX bids_auctionid_timestamp_index;
+CREATE INDEX bids_auctionid_timestamp_index ON bids (auctionid, timestampnanos);
+
+DROP INDEX bids_auctionid_bidderaccountid_timestamp_index;
+CREATE INDEX bids_auctionid_bidderaccountid_timestamp_index ON bids (auctionid, bidderaccountid, timestampnanos);
+
+CREATE OR REPLACE FUNCTION bids_archive_move(op TEXT, bid bids) RETURNS BOOLEAN AS $$
+    SELECT CASE
+        WHEN op = 'INSERT' THEN bid.archived
+        WHEN op = 'DELETE' THEN NOT bid.archived AND EXISTS (SELECT 1 FROM bids WHERE bids.timestampnanos = bid.timestampnanos AND bids.archived)
+        ELSE false
+    END
+$$ LANGUAGE SQL STABLE;
+
+CREATE OR REPLACE FUNCTION auction_stats_bids_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.auctionId IS NULL OR bids_archive_move(TG_OP, NEW) THEN
+            RETURN NULL;
+        END IF;
+        INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+        PERFORM auction_stats_apply(NEW, 1);
+        UPDATE auction_stats SET
+            bidderCount = bidderCount + CASE WHEN EXISTS (
+                    SELECT 1 FROM bids
+                    WHERE bids.auctionId = NEW.auctionId
+                    AND bids.bidderAccountId = NEW.bidderAccountId
+                    AND bids.timestampnanos <> NEW.timestampnanos) THEN 0 ELSE 1 END,
+            lastBidTimestamp = CASE WHEN consensus_timestamp_after(NEW.timestamp, lastBidTimestamp) THEN NEW.timestamp ELSE lastBidTimestamp END
+        WHERE auctionId = NEW.auctionId;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.auctionId IS NOT DISTINCT FROM NEW.auctionId
+            AND OLD.status IS NOT DISTINCT FROM NEW.status
+            AND OLD.refundStatus IS NOT DISTINCT FROM NEW.refundStatus THEN
+            RETURN NULL;
+        END IF;
+        IF OLD.auctionId IS NOT NULL THEN
+            PERFORM auction_stats_apply(OLD, -1);
+        END IF;
+        IF NEW.auctionId IS NOT NULL THEN
+            INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+            PERFORM auction_stats_apply(NEW, 1);
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        IF OLD.auctionId IS NULL OR bids_archive_move(TG_OP, OLD) THEN
+            RETURN NULL;
+        END IF;
+        PERFORM auction_stats_apply(OLD, -1);
+        UPDATE auction_stats SET
+            bidderCount = bidderCount - CASE WHEN EXISTS (
+                    SELECT 1 FROM bids
+                    WHERE bids.auctionId = OLD.auctionId
+                    AND bids.bidderAccountId = OLD.bidderAccountId) THEN 0 ELSE 1 END,
+            lastBidTimestamp = CASE WHEN lastBidTimestamp <> OLD.timestamp THEN lastBidTimestamp ELSE COALESCE((
+                    SELECT bids.timestamp FROM bids
+                    WHERE bids.auctionId = OLD.auctionId
+                    ORDER BY bids.timestampnanos DESC
+                    LIMIT 1), '') END
+        WHERE auctionId = OLD.auctionId;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
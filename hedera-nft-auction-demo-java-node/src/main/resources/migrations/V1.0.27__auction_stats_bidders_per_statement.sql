@@ -0,0 +1,95 @@
+-- the number of distinct bidders is maintained per statement rather than per row, a row trigger of a multi row
+-- insert or delete sees all the rows of its statement and can't tell whether its bidder was already counted
+-- V1.0.21 counted bidders per row, the counts it left behind are recomputed from the bids
+
+CREATE OR REPLACE FUNCTION auction_stats_bids_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NEW.auctionId IS NULL OR bids_archive_move(TG_OP, NEW) THEN
+            RETURN NULL;
+        END IF;
+        INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+        PERFORM auction_stats_apply(NEW, 1);
+        UPDATE auction_stats SET
+            lastBidTimestamp = CASE WHEN consensus_timestamp_after(NEW.timestamp, lastBidTimestamp) THEN NEW.timestamp ELSE lastBidTimestamp END
+        WHERE auctionId = NEW.auctionId;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.auctionId IS NOT DISTINCT FROM NEW.auctionId
+            AND OLD.status IS NOT DISTINCT FROM NEW.status
+            AND OLD.refundStatus IS NOT DISTINCT FROM NEW.refundStatus THEN
+            RETURN NULL;
+        END IF;
+        IF OLD.auctionId IS NOT NULL THEN
+            PERFORM auction_stats_apply(OLD, -1);
+        END IF;
+        IF NEW.auctionId IS NOT NULL THEN
+            INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+            PERFORM auction_stats_apply(NEW, 1);
+        END IF;
+    ELSIF TG_OP = 'DELETE' THEN
+        IF OLD.auctionId IS NULL OR bids_archive_move(TG_OP, OLD) THEN
+            RETURN NULL;
+        END IF;
+        PERFORM auction_stats_apply(OLD, -1);
+        UPDATE auction_stats SET
+            lastBidTimestamp = CASE WHEN lastBidTimestamp <> OLD.timestamp THEN lastBidTimestamp ELSE COALESCE((
+                    SELECT bids.timestamp FROM bids
+                    WHERE bids.auctionId = OLD.auctionId
+                    ORDER BY bids.timestampnanos DESC
+                    LIMIT 1), '') END
+        WHERE auctionId = OLD.auctionId;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_stats_bidders_inserted_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE auction_stats SET bidderCount = bidderCount + added.bidders
+    FROM (
+        SELECT new_bids.auctionId, COUNT(DISTINCT new_bids.bidderAccountId) AS bidders
+        FROM new_bids
+        WHERE new_bids.auctionId IS NOT NULL
+        AND NOT EXISTS (
+            SELECT 1 FROM bids
+            WHERE bids.auctionId = new_bids.auctionId
+            AND bids.bidderAccountId = new_bids.bidderAccountId
+            AND bids.timestampnanos NOT IN (SELECT timestampnanos FROM new_bids))
+        GROUP BY new_bids.auctionId
+    ) added
+    WHERE auction_stats.auctionId = added.auctionId;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_stats_bidders_deleted_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE auction_stats SET bidderCount = bidderCount - removed.bidders
+    FROM (
+        SELECT old_bids.auctionId, COUNT(DISTINCT old_bids.bidderAccountId) AS bidders
+        FROM old_bids
+        WHERE old_bids.auctionId IS NOT NULL
+        AND NOT EXISTS (
+            SELECT 1 FROM bids
+            WHERE bids.auctionId = old_bids.auctionId
+            AND bids.bidderAccountId = old_bids.bidderAccountId)
+        GROUP BY old_bids.auctionId
+    ) removed
+    WHERE auction_stats.auctionId = removed.auctionId;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- statement level triggers fire after the row level ones, which create the auction's statistics
+-- moving a bid to the archive partition is an UPDATE statement, it doesn't fire statement level INSERT or DELETE triggers
+CREATE TRIGGER auction_stats_bidders_inserted AFTER INSERT ON bids
+    REFERENCING NEW TABLE AS new_bids
+    FOR EACH STATEMENT EXECUTE FUNCTION auction_stats_bidders_inserted_trigger();
+
+CREATE TRIGGER auction_stats_bidders_deleted AFTER DELETE ON bids
+    REFERENCING OLD TABLE AS old_bids
+    FOR EACH STATEMENT EXECUTE FUNCTION auction_stats_bidders_deleted_trigger();
+
+UPDATE auction_stats SET bidderCount = (
+    SELECT COUNT(DISTINCT bids.bidderAccountId) FROM bids
+    WHERE bids.auctionId = auction_stats.auctionId);
@@ -0,0 +1,3 @@
+-- the refund queue is claimed in numeric consensus timestamp order alone, V1.0.22 also carried the text timestamp
+DROP INDEX bids_refund_queue_index;
+CREATE INDEX bids_refund_queue_index ON bids (timestampnanos) WHERE refundStatus IN ('PENDING', 'ISSUING');
@@ -0,0 +1,188 @@
+-- repartitions bids into live bids and archived bids, keyed by (auctionid, timestampnanos)
+-- the live partition holds the bids which may still be written to, those of auctions which are running or have
+-- refunds outstanding, so that it and its indexes stay small however many auctions have been settled
+-- the archive partition is range partitioned on auction id, 100 auctions per partition. Once an auction has ended
+-- and all its refunds are complete, its bids are moved from the live partition to its archive partition
+-- (see BidsRepository.archiveSettledAuctions), which is created by the archiver ahead of the move rather than
+-- on the path of auction or bid inserts
+
+-- depend on the bids row type, recreated below with the bid's columns as parameters
+DROP FUNCTION bids_archive_move(TEXT, bids);
+DROP FUNCTION auction_stats_apply(bids, INTEGER);
+
+ALTER TABLE bids RENAME TO bids_unpartitioned;
+ALTER TABLE bids_live RENAME TO bids_unpartitioned_live;
+ALTER TABLE bids_archive RENAME TO bids_unpartitioned_archive;
+
+-- every bid is for an auction, the auction id is part of the primary key
+CREATE TABLE bids
+(
+    LIKE bids_unpartitioned INCLUDING DEFAULTS INCLUDING GENERATED
+) PARTITION BY LIST (archived);
+
+ALTER TABLE bids ALTER COLUMN auctionId SET NOT NULL;
+
+CREATE TABLE bids_live PARTITION OF bids FOR VALUES IN (false);
+
+CREATE TABLE bids_archive PARTITION OF bids FOR VALUES IN (true) PARTITION BY RANGE (auctionId);
+
+-- creates the archive partition for an auction's range of auction ids if it doesn't exist yet
+-- returns true if the partition was created
+CREATE OR REPLACE FUNCTION bids_archive_create_partition(partitionAuctionId INTEGER) RETURNS BOOLEAN AS $$
+DECLARE
+    lowerBound INTEGER := partitionAuctionId - partitionAuctionId % 100;
+    partitionName TEXT := 'bids_archive_' || lowerBound;
+BEGIN
+    IF to_regclass(partitionName) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF bids_archive FOR VALUES FROM (%s) TO (%s)',
+        partitionName, lowerBound, lowerBound + 100);
+    RETURN true;
+END
+$$ LANGUAGE plpgsql;
+
+-- the archive partitions of the existing auctions, further ones are created by the archiver as auctions settle
+SELECT bids_archive_create_partition(lowerBound) FROM (SELECT DISTINCT id - id % 100 AS lowerBound FROM auctions) ranges;
+
+INSERT INTO bids (timestamp, auctionId, bidderAccountId, bidAmount, status, refundTxId, refundTxHash, transactionId, transactionHash, refundStatus, scheduleId, refundLeaseOwner, refundLeaseExpiry, archived)
+SELECT timestamp, auctionId, bidderAccountId, bidAmount, status, refundTxId, refundTxHash, transactionId, transactionHash, refundStatus, scheduleId, refundLeaseOwner, refundLeaseExpiry, archived
+FROM bids_unpartitioned
+WHERE auctionId IS NOT NULL;
+
+-- also drops the triggers on the previous table, they're created again on the new table below
+DROP TABLE bids_unpartitioned;
+
+-- added once the previous table's primary key is gone so that it gets the name bids_pkey
+ALTER TABLE bids ADD PRIMARY KEY (auctionId, timestampnanos, archived);
+ALTER TABLE bids ADD CONSTRAINT bids_auctionid_fkey FOREIGN KEY (auctionId) REFERENCES auctions;
+
+CREATE INDEX bids_timestampnanos_index ON bids (timestampnanos);
+CREATE INDEX bids_transactionid_index ON bids (transactionid);
+CREATE INDEX bids_refundstatus_index ON bids (refundStatus);
+CREATE INDEX bids_auctionid_bidderaccountid_timestamp_index ON bids (auctionid, bidderaccountid, timestampnanos);
+CREATE INDEX bids_refund_queue_index ON bids (timestampnanos) WHERE refundStatus IN ('PENDING', 'ISSUING');
+
+-- a bid of a settled auction seen again is already archived, it isn't inserted again as a live bid
+-- generated columns aren't computed yet in a BEFORE trigger
+CREATE OR REPLACE FUNCTION bids_live_archived_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM bids_archive
+        WHERE bids_archive.auctionId = NEW.auctionId
+        AND bids_archive.timestampnanos = consensus_timestamp_nanos(NEW.timestamp)) THEN
+        RETURN NULL;
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bids_live_archived BEFORE INSERT ON bids_live
+    FOR EACH ROW EXECUTE FUNCTION bids_live_archived_trigger();
+
+-- moving a bid to the archive fires a DELETE trigger for the live row and an INSERT trigger for the archived row,
+-- neither of which are changes to the bid
+CREATE OR REPLACE FUNCTION bids_archive_move(op TEXT, bidAuctionId INTEGER, bidTimestampNanos BIGINT, bidArchived BOOLEAN) RETURNS BOOLEAN AS $$
+    SELECT CASE
+        WHEN op = 'INSERT' THEN bidArchived
+        WHEN op = 'DELETE' THEN NOT bidArchived AND EXISTS (
+            SELECT 1 FROM bids
+            WHERE bids.auctionId = bidAuctionId
+            AND bids.timestampnanos = bidTimestampNanos
+            AND bids.archived)
+        ELSE false
+    END
+$$ LANGUAGE SQL STABLE;
+
+-- adds (delta = 1) or removes (delta = -1) a bid's counters from its auction's statistics
+CREATE OR REPLACE FUNCTION auction_stats_apply(bidAuctionId INTEGER, bidStatus TEXT, bidRefundStatus TEXT, delta INTEGER) RETURNS VOID AS $$
+BEGIN
+    UPDATE auction_stats SET
+        bidCount = bidCount + delta,
+        belowReserveCount = belowReserveCount + CASE WHEN bidStatus = 'Bid below reserve' THEN delta ELSE 0 END,
+        refundsPending = refundsPending + CASE WHEN bidRefundStatus = 'PENDING' THEN delta ELSE 0 END,
+        refundsIssued = refundsIssued + CASE WHEN bidRefundStatus = 'ISSUED' THEN delta ELSE 0 END,
+        refundsRefunded = refundsRefunded + CASE WHEN bidRefundStatus = 'REFUNDED' THEN delta ELSE 0 END
+    WHERE auctionId = bidAuctionId;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_stats_bids_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF bids_archive_move(TG_OP, NEW.auctionId, NEW.timestampnanos, NEW.archived) THEN
+            RETURN NULL;
+        END IF;
+        INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+        PERFORM auction_stats_apply(NEW.auctionId, NEW.status, NEW.refundStatus, 1);
+        UPDATE auction_stats SET
+            lastBidTimestamp = CASE WHEN consensus_timestamp_after(NEW.timestamp, lastBidTimestamp) THEN NEW.timestamp ELSE lastBidTimestamp END
+        WHERE auctionId = NEW.auctionId;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.auctionId IS NOT DISTINCT FROM NEW.auctionId
+            AND OLD.status IS NOT DISTINCT FROM NEW.status
+            AND OLD.refundStatus IS NOT DISTINCT FROM NEW.refundStatus THEN
+            RETURN NULL;
+        END IF;
+        PERFORM auction_stats_apply(OLD.auctionId, OLD.status, OLD.refundStatus, -1);
+        INSERT INTO auction_stats (auctionId) VALUES (NEW.auctionId) ON CONFLICT DO NOTHING;
+        PERFORM auction_stats_apply(NEW.auctionId, NEW.status, NEW.refundStatus, 1);
+    ELSIF TG_OP = 'DELETE' THEN
+        IF bids_archive_move(TG_OP, OLD.auctionId, OLD.timestampnanos, OLD.archived) THEN
+            RETURN NULL;
+        END IF;
+        PERFORM auction_stats_apply(OLD.auctionId, OLD.status, OLD.refundStatus, -1);
+        UPDATE auction_stats SET
+            lastBidTimestamp = CASE WHEN lastBidTimestamp <> OLD.timestamp THEN lastBidTimestamp ELSE COALESCE((
+                    SELECT bids.timestamp FROM bids
+                    WHERE bids.auctionId = OLD.auctionId
+                    ORDER BY bids.timestampnanos DESC
+                    LIMIT 1), '') END
+        WHERE auctionId = OLD.auctionId;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION auction_changes_bids_trigger() RETURNS TRIGGER AS $$
+DECLARE
+    changed bids;
+BEGIN
+    -- refund leases and other bookkeeping don't change what clients see of a bid
+    IF TG_OP = 'UPDATE'
+        AND OLD.status IS NOT DISTINCT FROM NEW.status
+        AND OLD.refundStatus IS NOT DISTINCT FROM NEW.refundStatus THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    IF bids_archive_move(TG_OP, changed.auctionId, changed.timestampnanos, changed.archived) THEN
+        RETURN NULL;
+    END IF;
+    PERFORM pg_notify('auction_changes', json_build_object(
+        'table', TG_TABLE_NAME,
+        'op', TG_OP,
+        'auctionid', changed.auctionId,
+        'timestamp', changed.timestamp,
+        'refundstatus', changed.refundStatus)::TEXT);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER auction_stats_bids AFTER INSERT OR UPDATE OR DELETE ON bids
+    FOR EACH ROW EXECUTE FUNCTION auction_stats_bids_trigger();
+
+-- moving a bid to the archive is an UPDATE statement, it doesn't fire statement level INSERT or DELETE triggers
+CREATE TRIGGER auction_stats_bidders_inserted AFTER INSERT ON bids
+    REFERENCING NEW TABLE AS new_bids
+    FOR EACH STATEMENT EXECUTE FUNCTION auction_stats_bidders_inserted_trigger();
+
+CREATE TRIGGER auction_stats_bidders_deleted AFTER DELETE ON bids
+    REFERENCING OLD TABLE AS old_bids
+    FOR EACH STATEMENT EXECUTE FUNCTION auction_stats_bidders_deleted_trigger();
+
+CREATE TRIGGER auction_changes_bids AFTER INSERT OR UPDATE OR DELETE ON bids
+    FOR EACH ROW EXECUTE FUNCTION auction_changes_bids_trigger();
@@ -0,0 +1,161 @@
+package com.hedera.demo.auction.test.unit.app;
+
+import com.hedera.demo.auction.app.AccountFeed;
+import com.hedera.demo.auction.app.AccountFeedConsumer;
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionClassifier;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionEvent;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionKind;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountFeedTest {
+
+    private static final int TRANSACTION_COUNT = 5;
+    private static final int PAGE_SIZE = 2;
+
+    private final MirrorTransactionClassifier classifier = new MirrorTransactionClassifier("0.0.10", "0.0.20");
+    private Vertx vertx;
+    private MirrorClient mirrorClient;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /**
+     * Serves bids with consensus timestamps 1 to 5 for account 0.0.10, two to a page
+     */
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        vertx = Vertx.vertx();
+        HttpServer server = vertx.createHttpServer()
+                .requestHandler(request -> {
+                    requests.incrementAndGet();
+                    assertEquals("0.0.10", request.getParam("account.id"));
+                    long from = Long.parseLong(request.getParam("timestamp").replace("gt:", "").replace(".0", ""));
+                    JsonArray transactions = new JsonArray();
+                    for (long timestamp = from + 1; timestamp <= Math.min(from + PAGE_SIZE, TRANSACTION_COUNT); timestamp++) {
+                        transactions.add(new JsonObject()
+                                .put("consensus_timestamp", String.valueOf(timestamp))
+                                .put("transaction_id", "0.0.100-1617786650-796134000")
+                                .put("result", "SUCCESS"));
+                    }
+                    long last = from + transactions.size();
+                    JsonObject links = new JsonObject();
+                    links.put("next", last < TRANSACTION_COUNT ? "/api/v1/transactions?account.id=0.0.10&timestamp=gt:" + last : null);
+                    JsonObject body = new JsonObject().put("transactions", transactions).put("links", links);
+                    request.response().putHeader("content-type", "application/json").end(body.encode());
+                });
+        server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        mirrorClient = new MirrorClient(vertx, "localhost:" + server.actualPort(), false, 1);
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception {
+        mirrorClient.close();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testPagesQueriedOnceForAllConsumers() {
+        TestConsumer behind = new TestConsumer("0.0");
+        TestConsumer ahead = new TestConsumer("3");
+        TestConsumer idle = new TestConsumer("");
+        TestConsumer refunds = new TestConsumer("0.0", EnumSet.of(MirrorTransactionKind.REFUND));
+
+        AccountFeed accountFeed = new AccountFeed(mirrorClient, classifier);
+        accountFeed.register(behind);
+        accountFeed.register(ahead);
+        accountFeed.register(idle);
+        accountFeed.register(refunds);
+
+        while (accountFeed.poll()) {
+            assertTrue(requests.get() < 10);
+        }
+
+        assertEquals(List.of("1", "2", "3", "4", "5"), behind.received);
+        assertEquals(List.of("4", "5"), ahead.received);
+        assertTrue(idle.received.isEmpty());
+        assertEquals("5", behind.checkpoint);
+        assertEquals("5", ahead.checkpoint);
+        // none of the bids are refunds, the consumer's checkpoint still moves past them
+        assertTrue(refunds.received.isEmpty());
+        assertEquals("5", refunds.checkpoint);
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void testFailedConsumerStopsPaging() {
+        TestConsumer failing = new TestConsumer("0.0");
+        failing.fail = true;
+
+        AccountFeed accountFeed = new AccountFeed(mirrorClient, classifier);
+        accountFeed.register(failing);
+
+        assertFalse(accountFeed.poll());
+        assertEquals("0.0", failing.checkpoint);
+
+        failing.fail = false;
+        assertTrue(accountFeed.poll());
+        assertEquals("2", failing.checkpoint);
+    }
+
+    @Test
+    public void testNoConsumers() {
+        AccountFeed accountFeed = new AccountFeed(mirrorClient, classifier);
+        accountFeed.register(new TestConsumer(""));
+
+        assertFalse(accountFeed.poll());
+        assertEquals(0, requests.get());
+    }
+
+    private static class TestConsumer implements AccountFeedConsumer {
+        private String checkpoint;
+        private final Set<MirrorTransactionKind> kinds;
+        private boolean fail = false;
+        private final List<String> received = new ArrayList<>();
+
+        TestConsumer(String checkpoint) {
+            this(checkpoint, EnumSet.allOf(MirrorTransactionKind.class));
+        }
+
+        TestConsumer(String checkpoint, Set<MirrorTransactionKind> kinds) {
+            this.checkpoint = checkpoint;
+            this.kinds = kinds;
+        }
+
+        @Override
+        public Set<MirrorTransactionKind> kinds() {
+            return kinds;
+        }
+
+        @Override
+        public String checkpoint() {
+            return checkpoint;
+        }
+
+        @Override
+        public void handle(List<MirrorTransactionEvent> events, String upTo) throws Exception {
+            if (fail) {
+                throw new Exception("failed to handle transactions");
+            }
+            for (MirrorTransactionEvent event : events) {
+                received.add(event.consensusTimestamp());
+            }
+            checkpoint = upTo;
+        }
+    }
+}
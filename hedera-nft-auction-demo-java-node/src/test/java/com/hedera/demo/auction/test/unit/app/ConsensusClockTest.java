@@ -0,0 +1,111 @@
+package com.hedera.demo.auction.test.unit.app;
+
+import com.hedera.demo.auction.app.ConsensusClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConsensusClockTest {
+
+    private static final long REFRESH_MILLIS = 5000;
+
+    private final AtomicReference<String> mirrorTimestamp = new AtomicReference<>("");
+    private final AtomicInteger mirrorQueries = new AtomicInteger();
+    private final AtomicLong localNanos = new AtomicLong(123_000_000_000L);
+
+    private ConsensusClock consensusClock() {
+        return new ConsensusClock(() -> {
+            mirrorQueries.incrementAndGet();
+            return mirrorTimestamp.get();
+        }, REFRESH_MILLIS, localNanos::get);
+    }
+
+    private void advanceMillis(long millis) {
+        localNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void testInterpolation() {
+        ConsensusClock consensusClock = consensusClock();
+        assertEquals("", consensusClock.now());
+
+        assertFalse(consensusClock.refresh());
+        assertEquals("", consensusClock.now());
+
+        mirrorTimestamp.set("1617786661.000000000");
+        assertTrue(consensusClock.refresh());
+        assertEquals("1617786661.000000000", consensusClock.now());
+
+        // reading the clock doesn't query the mirror node
+        advanceMillis(1500);
+        assertEquals("1617786662.500000000", consensusClock.now());
+        assertEquals(2, mirrorQueries.get());
+
+        // interpolation stops two refresh periods after the last refresh
+        advanceMillis(60000);
+        assertEquals("1617786671.000000000", consensusClock.now());
+    }
+
+    @Test
+    public void testNeverGoesBackwards() {
+        ConsensusClock consensusClock = consensusClock();
+        mirrorTimestamp.set("1617786661.000000000");
+        consensusClock.refresh();
+        advanceMillis(3000);
+        assertEquals("1617786664.000000000", consensusClock.now());
+
+        // the mirror node is behind the interpolated time
+        mirrorTimestamp.set("1617786662.000000000");
+        consensusClock.refresh();
+        assertEquals("1617786664.000000000", consensusClock.now());
+        advanceMillis(3000);
+        assertEquals("1617786665.000000000", consensusClock.now());
+    }
+
+    @Test
+    public void testLastRefreshed() {
+        ConsensusClock consensusClock = consensusClock();
+        assertEquals("", consensusClock.lastRefreshed());
+
+        mirrorTimestamp.set("1617786661.000000000");
+        consensusClock.refresh();
+        advanceMillis(3000);
+        assertEquals("1617786664.000000000", consensusClock.now());
+        // not interpolated
+        assertEquals("1617786661.000000000", consensusClock.lastRefreshed());
+    }
+
+    @Test
+    public void testTimers() {
+        ConsensusClock consensusClock = consensusClock();
+        List<String> fired = new ArrayList<>();
+        consensusClock.runAfter("1617786663.000000000", () -> fired.add("second"));
+        consensusClock.runAfter("1617786662.000000000", () -> fired.add("first"));
+
+        // consensus time isn't known yet
+        consensusClock.runDueTimers();
+        assertTrue(fired.isEmpty());
+
+        mirrorTimestamp.set("1617786661.000000000");
+        consensusClock.refresh();
+        consensusClock.runDueTimers();
+        assertTrue(fired.isEmpty());
+
+        advanceMillis(1500);
+        consensusClock.runDueTimers();
+        assertEquals(List.of("first"), fired);
+
+        advanceMillis(1000);
+        consensusClock.runDueTimers();
+        assertEquals(List.of("first", "second"), fired);
+    }
+}
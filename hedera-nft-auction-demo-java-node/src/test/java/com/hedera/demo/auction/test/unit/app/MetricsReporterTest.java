@@ -0,0 +1,30 @@
+package com.hedera.demo.auction.test.unit.app;
+
+import com.hedera.demo.auction.app.MetricsReporter;
+import com.hedera.demo.auction.app.SqlConnectionPoolMetrics;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsReporterTest {
+
+    @Test
+    public void testReport() {
+        MetricsReporter metricsReporter = new MetricsReporter(MetricsReporter.DEFAULT_REPORT_FREQUENCY);
+        SqlConnectionPoolMetrics metrics = new SqlConnectionPoolMetrics();
+        metricsReporter.add("databasePool", metrics::toJson);
+        metricsReporter.add("failing", () -> {
+            throw new IllegalStateException("not available");
+        });
+
+        JsonObject report = metricsReporter.report();
+
+        assertTrue(report.containsKey("databasePool"));
+        assertEquals(0, report.getJsonObject("databasePool").getInteger("active"));
+        // a source which fails doesn't prevent the others from being reported
+        assertFalse(report.containsKey("failing"));
+    }
+}
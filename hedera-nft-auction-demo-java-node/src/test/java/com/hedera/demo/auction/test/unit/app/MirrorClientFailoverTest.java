@@ -0,0 +1,162 @@
+package com.hedera.demo.auction.test.unit.app;
+
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.MirrorEndpoint;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MirrorClientFailoverTest {
+
+    private Vertx vertx;
+
+    @BeforeEach
+    public void beforeEach() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testFailsOverToHealthyMirror() throws Exception {
+        StandInMirror failing = new StandInMirror("failing");
+        StandInMirror healthy = new StandInMirror("healthy");
+        failing.failures.set(100);
+        MirrorClient mirrorClient = new MirrorClient(vertx, List.of(failing.url(), healthy.url()), false, 3, 0);
+
+        JsonObject response = mirrorClient.query("/api/v1/transactions", Map.of());
+        assertEquals("healthy", response.getString("mirror"));
+        assertEquals(1, failing.requests.get());
+
+        // the failing mirror is ejected and no longer queried
+        for (int i = 0; i < 3; i++) {
+            assertEquals("healthy", mirrorClient.query("/api/v1/transactions", Map.of()).getString("mirror"));
+        }
+        assertEquals(1, failing.requests.get());
+        assertEquals(4, healthy.requests.get());
+
+        MirrorEndpoint failingEndpoint = mirrorClient.endpoints().get(0);
+        assertFalse(failingEndpoint.healthy());
+        assertEquals(1, failingEndpoint.errors());
+        assertTrue(mirrorClient.endpoints().get(1).healthy());
+        assertEquals(2, mirrorClient.endpointStats().size());
+        mirrorClient.close();
+    }
+
+    @Test
+    public void testPrefersFastestMirror() throws Exception {
+        StandInMirror slow = new StandInMirror("slow");
+        StandInMirror fast = new StandInMirror("fast");
+        slow.delayMillis.set(200);
+        warmUp(slow, fast);
+        MirrorClient mirrorClient = new MirrorClient(vertx, List.of(slow.url(), fast.url()), false, 1, 0);
+
+        for (int i = 0; i < 6; i++) {
+            mirrorClient.query("/api/v1/transactions", Map.of());
+        }
+        // each mirror is tried once before the fastest is preferred
+        assertEquals(1, slow.requests.get());
+        assertEquals(5, fast.requests.get());
+        assertEquals(6, mirrorClient.endpoints().get(0).requests() + mirrorClient.endpoints().get(1).requests());
+        assertTrue(mirrorClient.endpoints().get(0).averageLatencyMillis() > mirrorClient.endpoints().get(1).averageLatencyMillis());
+        mirrorClient.close();
+    }
+
+    @Test
+    public void testHedgesSlowQuery() throws Exception {
+        StandInMirror primary = new StandInMirror("primary");
+        StandInMirror secondary = new StandInMirror("secondary");
+        secondary.delayMillis.set(200);
+        warmUp(primary, secondary);
+        MirrorClient mirrorClient = new MirrorClient(vertx, List.of(primary.url(), secondary.url()), false, 1, 50);
+
+        // build up the primary's latency history
+        for (int i = 0; i < 12; i++) {
+            mirrorClient.query("/api/v1/transactions", Map.of());
+        }
+        assertEquals(1, secondary.requests.get());
+
+        primary.delayMillis.set(3000);
+        long start = System.nanoTime();
+        JsonObject response = mirrorClient.query("/api/v1/transactions", Map.of());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("secondary", response.getString("mirror"));
+        assertTrue(elapsedMillis < 2000, "hedged query took " + elapsedMillis + "ms");
+        assertEquals(1, mirrorClient.endpoints().get(1).hedges());
+        mirrorClient.close();
+    }
+
+    @Test
+    public void testEndpointStatistics() {
+        MirrorEndpoint endpoint = new MirrorEndpoint("localhost:5551");
+        assertEquals("http://localhost:5551", endpoint.url());
+        assertEquals(-1, endpoint.latencyPercentileNanos(50));
+        assertTrue(endpoint.healthy());
+        assertEquals(0, endpoint.toJson().getLong("requests"));
+    }
+
+    /**
+     * Queries the stand-ins once so that the client's first latency measurements aren't skewed by class
+     * loading, then resets their request counts
+     */
+    private void warmUp(StandInMirror... mirrors) {
+        for (StandInMirror mirror : mirrors) {
+            long delay = mirror.delayMillis.getAndSet(0);
+            MirrorClient warmUpClient = new MirrorClient(vertx, mirror.url(), false, 1);
+            warmUpClient.query("/api/v1/transactions", Map.of());
+            warmUpClient.close();
+            mirror.delayMillis.set(delay);
+            mirror.requests.set(0);
+        }
+    }
+
+    /**
+     * Local stand-in for a mirror node which can be made slow or to fail
+     */
+    private final class StandInMirror {
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicLong delayMillis = new AtomicLong();
+        private final HttpServer server;
+
+        StandInMirror(String name) throws Exception {
+            server = vertx.createHttpServer()
+                    .requestHandler(request -> {
+                        requests.incrementAndGet();
+                        if (failures.getAndDecrement() > 0) {
+                            request.response().setStatusCode(503).end();
+                            return;
+                        }
+                        String body = new JsonObject().put("mirror", name).encode();
+                        long delay = delayMillis.get();
+                        if (delay > 0) {
+                            vertx.setTimer(delay, id -> request.response().putHeader("content-type", "application/json").end(body));
+                        } else {
+                            request.response().putHeader("content-type", "application/json").end(body);
+                        }
+                    });
+            server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        }
+
+        String url() {
+            return "localhost:" + server.actualPort();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.hedera.demo.auction.test.unit.app;
+
+import com.hedera.demo.auction.app.MirrorClient;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MirrorClientTest {
+
+    private Vertx vertx;
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger failuresToReturn = new AtomicInteger();
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        vertx = Vertx.vertx();
+        server = vertx.createHttpServer()
+                .connectionHandler(connection -> connections.incrementAndGet())
+                .requestHandler(request -> {
+                    requests.incrementAndGet();
+                    if (failuresToReturn.getAndDecrement() > 0) {
+                        request.response().setStatusCode(503).end();
+                    } else {
+                        JsonObject body = new JsonObject()
+                                .put("path", request.path())
+                                .put("limit", request.getParam("limit"));
+                        request.response().putHeader("content-type", "application/json").end(body.encode());
+                    }
+                });
+        server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testUrls() {
+        MirrorClient hostOnly = new MirrorClient(vertx, "testnet.mirrornode.hedera.com", false, 1);
+        assertEquals("testnet.mirrornode.hedera.com", hostOnly.host());
+        assertEquals(80, hostOnly.port());
+        assertFalse(hostOnly.ssl());
+
+        MirrorClient hostAndPort = new MirrorClient(vertx, "localhost:5551", false, 1);
+        assertEquals("localhost", hostAndPort.host());
+        assertEquals(5551, hostAndPort.port());
+        assertFalse(hostAndPort.ssl());
+
+        MirrorClient https = new MirrorClient(vertx, "https://mainnet-public.mirrornode.hedera.com", false, 1);
+        assertEquals("mainnet-public.mirrornode.hedera.com", https.host());
+        assertEquals(443, https.port());
+        assertTrue(https.ssl());
+
+        assertThrows(IllegalArgumentException.class, () -> new MirrorClient(vertx, "http://", false, 1));
+    }
+
+    @Test
+    public void testQueryReusesConnection() {
+        MirrorClient mirrorClient = new MirrorClient(vertx, "localhost:" + server.actualPort(), false, 1);
+
+        for (int i = 0; i < 3; i++) {
+            JsonObject response = mirrorClient.query("/api/v1/transactions", Map.of("limit", "1"));
+            assertEquals("/api/v1/transactions", response.getString("path"));
+            assertEquals("1", response.getString("limit"));
+        }
+        assertEquals(3, requests.get());
+        assertEquals(1, connections.get());
+        mirrorClient.close();
+    }
+
+    @Test
+    public void testQueryRetries() {
+        MirrorClient mirrorClient = new MirrorClient(vertx, "localhost:" + server.actualPort(), false, 3);
+        failuresToReturn.set(2);
+
+        JsonObject response = mirrorClient.query("/api/v1/transactions", Map.of());
+        assertEquals("/api/v1/transactions", response.getString("path"));
+        assertEquals(3, requests.get());
+        mirrorClient.close();
+    }
+
+    @Test
+    public void testQueryGivesUp() throws Exception {
+        MirrorClient mirrorClient = new MirrorClient(vertx, "localhost:" + server.actualPort(), false, 2);
+        failuresToReturn.set(5);
+
+        assertTrue(mirrorClient.query("/api/v1/transactions", Map.of()).isEmpty());
+        assertEquals(2, requests.get());
+
+        assertTrue(mirrorClient.queryAsync("/api/v1/transactions", Map.of())
+                .toCompletionStage().toCompletableFuture()
+                .handle((response, error) -> error != null)
+                .get(5, TimeUnit.SECONDS));
+        mirrorClient.close();
+    }
+}
@@ -0,0 +1,100 @@
+package com.hedera.demo.auction.test.unit.app;
+
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.MirrorRequestBudget;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MirrorRequestBudgetTest {
+
+    private Vertx vertx;
+
+    @BeforeEach
+    public void beforeEach() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testHigherPriorityAdmittedFirst() {
+        MirrorRequestBudget budget = new MirrorRequestBudget(vertx, 0, 1, 1);
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        // occupies the only slot
+        budget.submit(MirrorClient.Priority.NORMAL, () -> started.add("first"));
+        budget.submit(MirrorClient.Priority.LOW, () -> { started.add("refund"); budget.release(); });
+        budget.submit(MirrorClient.Priority.NORMAL, () -> { started.add("topic"); budget.release(); });
+        budget.submit(MirrorClient.Priority.HIGH, () -> { started.add("bid"); budget.release(); });
+        assertEquals(List.of("first"), started);
+        assertEquals(3, budget.waiting());
+
+        budget.release();
+        assertEquals(List.of("first", "bid", "topic", "refund"), started);
+        assertEquals(0, budget.waiting());
+        assertEquals(0, budget.inFlight());
+    }
+
+    @Test
+    public void testRateLimited() throws Exception {
+        MirrorRequestBudget budget = new MirrorRequestBudget(vertx, 10, 2, 0);
+        CountDownLatch done = new CountDownLatch(5);
+        AtomicInteger started = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            budget.submit(MirrorClient.Priority.NORMAL, () -> {
+                started.incrementAndGet();
+                budget.release();
+                done.countDown();
+            });
+        }
+        // the burst is admitted at once, the rest at the budget's rate
+        assertEquals(2, started.get());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(5, budget.admitted());
+        assertTrue(budget.maxQueueMillis() >= 200, "max queue " + budget.maxQueueMillis());
+        assertTrue(budget.averageQueueMillis() > 0);
+    }
+
+    @Test
+    public void testHonorsRetryAfter() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = vertx.createHttpServer()
+                .requestHandler(request -> {
+                    if (requests.incrementAndGet() == 1) {
+                        request.response().setStatusCode(429).putHeader("Retry-After", "1").end();
+                    } else {
+                        request.response().putHeader("content-type", "application/json").end(new JsonObject().put("ok", true).encode());
+                    }
+                });
+        server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        MirrorClient mirrorClient = new MirrorClient(vertx, "localhost:" + server.actualPort(), false, 2);
+
+        long start = System.nanoTime();
+        JsonObject response = mirrorClient.query("/api/v1/transactions", Map.of());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(response.getBoolean("ok"));
+        assertEquals(2, requests.get());
+        assertTrue(elapsedMillis >= 900, "retried after " + elapsedMillis + "ms");
+        assertEquals(1, mirrorClient.budget().throttled());
+        mirrorClient.close();
+    }
+}
@@ -0,0 +1,69 @@
+package com.hedera.demo.auction.test.unit.app;
+
+import com.hedera.demo.auction.app.PollScheduler;
+import com.hedera.demo.auction.app.domain.Auction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PollSchedulerTest {
+
+    private static final long FLOOR = 500;
+    private static final long CEILING = 30000;
+    // 2021-04-07T09:11:01Z
+    private static final long NOW = 1617786661000L;
+
+    private static Auction auction(int id, String status, long endMillis) {
+        Auction auction = new Auction();
+        auction.setId(id);
+        auction.setStatus(status);
+        auction.setEndtimestamp(String.valueOf(endMillis / 1000).concat(".000000000"));
+        return auction;
+    }
+
+    @Test
+    public void testIntervalFollowsPhase() {
+        PollScheduler pollScheduler = new PollScheduler(FLOOR, CEILING);
+
+        // pending and finished auctions are polled at the ceiling
+        assertEquals(CEILING, pollScheduler.interval(auction(1, Auction.PENDING, NOW + 60000), NOW, 0));
+        assertEquals(CEILING, pollScheduler.interval(auction(1, Auction.CLOSED, NOW - 60000), NOW, 0));
+        assertEquals(CEILING, pollScheduler.interval(auction(1, Auction.ENDED, NOW - 60000), NOW, 0));
+
+        // an active auction is polled more often as it nears its end
+        assertEquals(CEILING, pollScheduler.interval(auction(1, Auction.ACTIVE, NOW + 7 * 24 * 3600 * 1000L), NOW, 0));
+        assertEquals(10000, pollScheduler.interval(auction(1, Auction.ACTIVE, NOW + 600000), NOW, 0));
+        assertEquals(FLOOR, pollScheduler.interval(auction(1, Auction.ACTIVE, NOW + 20000), NOW, 0));
+        assertEquals(FLOOR, pollScheduler.interval(auction(1, Auction.ACTIVE, NOW - 1000), NOW, 0));
+
+        // and more often while bids are arriving
+        assertEquals(5000, pollScheduler.interval(auction(1, Auction.ACTIVE, NOW + 600000), NOW, 1));
+        assertEquals(FLOOR, pollScheduler.interval(auction(1, Auction.ACTIVE, NOW + 600000), NOW, 100));
+    }
+
+    @Test
+    public void testQueueOrder() {
+        PollScheduler pollScheduler = new PollScheduler(FLOOR, CEILING);
+
+        assertTrue(pollScheduler.add(1, NOW + 2000));
+        assertTrue(pollScheduler.add(2, NOW + 1000));
+        assertFalse(pollScheduler.add(2, NOW));
+        assertEquals(2, pollScheduler.size());
+        assertEquals(NOW + 1000, pollScheduler.nextDueMillis());
+
+        assertNull(pollScheduler.takeDue(NOW));
+        assertEquals(2, pollScheduler.takeDue(NOW + 1000));
+        assertNull(pollScheduler.takeDue(NOW + 1000));
+        assertEquals(1, pollScheduler.takeDue(NOW + 5000));
+        assertEquals(Long.MAX_VALUE, pollScheduler.nextDueMillis());
+
+        // an active auction near its end comes round again before an idle one
+        pollScheduler.reschedule(auction(1, Auction.PENDING, NOW + 600000), NOW, 0);
+        pollScheduler.reschedule(auction(2, Auction.ACTIVE, NOW + 10000), NOW, 0);
+        assertEquals(NOW + FLOOR, pollScheduler.nextDueMillis());
+        assertEquals(2, pollScheduler.takeDue(NOW + FLOOR));
+    }
+}
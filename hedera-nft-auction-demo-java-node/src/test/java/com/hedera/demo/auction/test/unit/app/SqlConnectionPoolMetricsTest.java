@@ -0,0 +1,64 @@
+package com.hedera.demo.auction.test.unit.app;
+
+import com.hedera.demo.auction.app.SqlConnectionPoolMetrics;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SqlConnectionPoolMetricsTest {
+
+    private static class TestPoolStats extends PoolStats {
+        TestPoolStats() {
+            super(0);
+        }
+
+        @Override
+        protected void update() {
+            this.activeConnections = 3;
+            this.idleConnections = 2;
+            this.totalConnections = 5;
+            this.pendingThreads = 1;
+        }
+    }
+
+    @Test
+    public void testMetricsBeforePoolStart() {
+        SqlConnectionPoolMetrics metrics = new SqlConnectionPoolMetrics();
+
+        assertEquals(0, metrics.activeConnections());
+        assertEquals(0, metrics.idleConnections());
+        assertEquals(0, metrics.totalConnections());
+        assertEquals(0, metrics.pendingThreads());
+        assertEquals(0, metrics.acquisitions());
+        assertEquals(0, metrics.averageWaitMillis());
+    }
+
+    @Test
+    public void testMetrics() {
+        SqlConnectionPoolMetrics metrics = new SqlConnectionPoolMetrics();
+        IMetricsTracker tracker = metrics.create("test", new TestPoolStats());
+
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(4));
+        tracker.recordConnectionTimeout();
+
+        assertEquals(3, metrics.activeConnections());
+        assertEquals(2, metrics.idleConnections());
+        assertEquals(5, metrics.totalConnections());
+        assertEquals(1, metrics.pendingThreads());
+        assertEquals(2, metrics.acquisitions());
+        assertEquals(3, metrics.averageWaitMillis());
+        assertEquals(4, metrics.maxWaitMillis());
+        assertEquals(1, metrics.timeouts());
+
+        JsonObject json = metrics.toJson();
+        assertEquals(3, json.getInteger("active"));
+        assertEquals(2, json.getInteger("idle"));
+        assertEquals(1, json.getLong("timeouts"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.hedera.demo.auction.test.unit.backfill;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.BidsBackfill;
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BidsBackfillTest {
+
+    private static final long FIRST_SECONDS = 1000;
+    private static final long INTERVAL_SECONDS = 600;
+    private static final int TRANSACTION_COUNT = 60;
+
+    private Vertx vertx;
+    private HttpServer server;
+    private MirrorClient mirrorClient;
+    private final List<String> timestamps = new ArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        vertx = Vertx.vertx();
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            timestamps.add(Utils.nanosToTimestamp(TimeUnit.SECONDS.toNanos(FIRST_SECONDS + i * INTERVAL_SECONDS) + 1));
+        }
+        server = vertx.createHttpServer().requestHandler(this::transactions);
+        server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        mirrorClient = new MirrorClient(vertx, "localhost:" + server.actualPort(), false, 1);
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception {
+        mirrorClient.close();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testAppliesSlicesInOrder() throws Exception {
+        List<String> applied = new CopyOnWriteArrayList<>();
+        BidsBackfill backfill = new BidsBackfill(mirrorClient, (auctionId, transactions) -> {
+            for (MirrorTransaction transaction : transactions) {
+                applied.add(transaction.consensusTimestamp);
+            }
+        }, 4, 3600);
+
+        String upTo = timestamps.get(TRANSACTION_COUNT - 1);
+        assertEquals(upTo, backfill.submit(1, "0.0.1", "", upTo).get(10, TimeUnit.SECONDS));
+
+        // every transaction is applied once and in consensus order although later slices are fetched first
+        assertEquals(timestamps, applied);
+        assertEquals(1, backfill.auctionsCaughtUp());
+        assertTrue(backfill.slicesPlanned() > 1, "slices " + backfill.slicesPlanned());
+        assertEquals(backfill.slicesPlanned(), backfill.slicesApplied());
+        assertEquals(0, backfill.estimatedRemainingMillis());
+        assertEquals(1, backfill.toJson().getLong("auctionsSubmitted"));
+        backfill.stop();
+    }
+
+    @Test
+    public void testResumesAfterLastTimestamp() throws Exception {
+        List<String> applied = new CopyOnWriteArrayList<>();
+        BidsBackfill backfill = new BidsBackfill(mirrorClient, (auctionId, transactions) -> {
+            for (MirrorTransaction transaction : transactions) {
+                applied.add(transaction.consensusTimestamp);
+            }
+        }, 2, 3600);
+
+        backfill.submit(1, "0.0.1", timestamps.get(49), timestamps.get(54)).get(10, TimeUnit.SECONDS);
+        assertEquals(timestamps.subList(50, 55), applied);
+
+        // nothing to catch up with
+        applied.clear();
+        int before = requests.get();
+        backfill.submit(1, "0.0.1", timestamps.get(TRANSACTION_COUNT - 1), timestamps.get(TRANSACTION_COUNT - 1)).get(10, TimeUnit.SECONDS);
+        assertTrue(applied.isEmpty());
+        assertEquals(before + 1, requests.get());
+        assertEquals(2, backfill.auctionsCaughtUp());
+        backfill.stop();
+    }
+
+    @Test
+    public void testFailedApply() {
+        BidsBackfill backfill = new BidsBackfill(mirrorClient, (auctionId, transactions) -> {
+            throw new Exception("database unavailable");
+        }, 4, 3600);
+
+        CompletableFuture<String> caughtUp = backfill.submit(1, "0.0.1", "", timestamps.get(TRANSACTION_COUNT - 1));
+        assertThrows(ExecutionException.class, () -> caughtUp.get(10, TimeUnit.SECONDS));
+        assertEquals(1, backfill.auctionsFailed());
+        assertEquals(0, backfill.auctionsCaughtUp());
+        backfill.stop();
+    }
+
+    /**
+     * Stand-in for the mirror node's transactions endpoint, responses to queries for the first half of the
+     * history are delayed so that slices complete out of order
+     */
+    private void transactions(HttpServerRequest request) {
+        requests.incrementAndGet();
+        String after = request.getParam("timestamp").substring("gt:".length());
+        int limit = Integer.parseInt(request.getParam("limit"));
+
+        JsonArray transactions = new JsonArray();
+        @Var String last = "";
+        @Var int matching = 0;
+        for (String timestamp : timestamps) {
+            if (Utils.compareTimestamps(timestamp, after) > 0) {
+                matching++;
+                if (transactions.size() < limit) {
+                    transactions.add(new JsonObject()
+                            .put("consensus_timestamp", timestamp)
+                            .put("result", "SUCCESS")
+                            .put("transfers", new JsonArray()));
+                    last = timestamp;
+                }
+            }
+        }
+        JsonObject body = new JsonObject()
+                .put("transactions", transactions)
+                .put("links", new JsonObject().put("next", matching > transactions.size() ? "/api/v1/transactions?timestamp=gt:" + last : null));
+
+        long delay = Utils.compareTimestamps(after, timestamps.get(TRANSACTION_COUNT / 2)) < 0 ? 100 : 0;
+        if (delay > 0 && limit > 1) {
+            vertx.setTimer(delay, id -> request.response().putHeader("content-type", "application/json").end(body.encode()));
+        } else {
+            request.response().putHeader("content-type", "application/json").end(body.encode());
+        }
+    }
+}
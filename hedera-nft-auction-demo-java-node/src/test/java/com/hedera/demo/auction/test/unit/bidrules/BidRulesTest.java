@@ -0,0 +1,141 @@
+package com.hedera.demo.auction.test.unit.bidrules;
+
+import com.hedera.demo.auction.app.bidrules.BidDecision;
+import com.hedera.demo.auction.app.bidrules.BidEvent;
+import com.hedera.demo.auction.app.bidrules.BidRules;
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.domain.Bid;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BidRulesTest {
+
+    private static final BidRules.Winner NO_WINNER = new BidRules.Winner("", 0, "", "", "");
+
+    private static BidRules rules(boolean winnerCanBid) {
+        return new BidRules("10.0", "20.0", winnerCanBid, 10, 100);
+    }
+
+    private static BidEvent event(String timestamp, String payer, long amount) {
+        return new BidEvent(timestamp, payer, amount, payer.concat("-").concat(timestamp), "hash".concat(timestamp));
+    }
+
+    @Test
+    public void testFirstBidWinsWithoutRefund() {
+        BidRules.Outcome outcome = rules(false).evaluate(NO_WINNER, List.of(event("11.0", "0.0.1", 100)));
+
+        BidDecision decision = outcome.decisions().get(0);
+        assertEquals("", decision.status());
+        assertFalse(decision.refund());
+        assertTrue(decision.recorded());
+        assertTrue(outcome.priorBidTimestamps().isEmpty());
+        assertTrue(outcome.winnerChanged());
+        assertEquals("0.0.1", outcome.winner().account());
+        assertEquals(100, outcome.winner().bid());
+        assertEquals("11.0", outcome.winner().timestamp());
+    }
+
+    @Test
+    public void testRejections() {
+        BidRules.Winner winner = new BidRules.Winner("0.0.1", 200, "11.0", "tx", "hash");
+        List<BidEvent> events = List.of(
+                event("20.1", "0.0.2", 300),
+                event("10.0", "0.0.2", 300),
+                event("12.0", "0.0.1", 300),
+                event("12.1", "0.0.2", 205),
+                event("12.2", "0.0.2", 50),
+                event("12.3", "0.0.2", 150)
+        );
+        BidRules.Outcome outcome = rules(false).evaluate(winner, events);
+
+        List<String> statuses = List.of(Bid.AUCTION_CLOSED, Bid.AUCTION_NOT_STARTED, Bid.WINNER_CANT_BID, Bid.INCREASE_TOO_SMALL, Bid.BELOW_RESERVE, Bid.UNDER_BID);
+        for (int i = 0; i < statuses.size(); i++) {
+            BidDecision decision = outcome.decisions().get(i);
+            assertEquals(statuses.get(i), decision.status());
+            assertTrue(decision.refund());
+            assertEquals(Bid.REFUND_PENDING, decision.toBid(1).getRefundstatus());
+        }
+        assertFalse(outcome.winnerChanged());
+        assertEquals(winner, outcome.winner());
+        assertTrue(outcome.priorBidTimestamps().isEmpty());
+    }
+
+    @Test
+    public void testWinnerCanBid() {
+        BidRules.Winner winner = new BidRules.Winner("0.0.1", 200, "11.0", "tx", "hash");
+        BidRules.Outcome outcome = rules(true).evaluate(winner, List.of(event("12.0", "0.0.1", 300)));
+
+        assertEquals("", outcome.decisions().get(0).status());
+        assertEquals(List.of("11.0"), outcome.priorBidTimestamps());
+        assertEquals(300, outcome.winner().bid());
+    }
+
+    @Test
+    public void testOutbidInSameBatch() {
+        List<BidEvent> events = List.of(
+                event("11.0", "0.0.1", 100),
+                event("12.0", "0.0.2", 200),
+                event("13.0", "0.0.3", 300)
+        );
+        BidRules.Outcome outcome = rules(false).evaluate(NO_WINNER, events);
+
+        assertEquals(Bid.HIGHER_BID, outcome.decisions().get(0).status());
+        assertTrue(outcome.decisions().get(0).refund());
+        assertEquals(Bid.HIGHER_BID, outcome.decisions().get(1).status());
+        assertEquals("", outcome.decisions().get(2).status());
+        assertFalse(outcome.decisions().get(2).refund());
+        // the prior bids were all in this batch
+        assertTrue(outcome.priorBidTimestamps().isEmpty());
+        assertEquals("0.0.3", outcome.winner().account());
+    }
+
+    @Test
+    public void testZeroAmountNotRecorded() {
+        BidRules.Winner winner = new BidRules.Winner("0.0.1", 200, "11.0", "tx", "hash");
+        BidRules.Outcome outcome = rules(false).evaluate(winner, List.of(event("12.0", "0.0.2", 0)));
+
+        // a transaction without an amount isn't stored, but isn't checked against the amounts either
+        assertFalse(outcome.decisions().get(0).recorded());
+        assertEquals("", outcome.decisions().get(0).status());
+        assertEquals(List.of("11.0"), outcome.priorBidTimestamps());
+    }
+
+    @Test
+    public void testDuplicateTimestampRecordedOnce() {
+        List<BidEvent> events = List.of(
+                event("11.0", "0.0.1", 100),
+                event("11.0", "0.0.1", 100)
+        );
+        BidRules.Outcome outcome = rules(false).evaluate(NO_WINNER, events);
+
+        assertTrue(outcome.decisions().get(0).recorded());
+        assertFalse(outcome.decisions().get(1).recorded());
+    }
+
+    @Test
+    public void testAuctionNotChanged() {
+        Auction auction = new Auction();
+        auction.setStarttimestamp("10.0");
+        auction.setEndtimestamp("20.0");
+        auction.setReserve(0L);
+        auction.setMinimumbid(1L);
+
+        BidRules.Outcome outcome = BidRules.evaluate(auction, List.of(event("11.0", "0.0.1", 100)));
+
+        assertTrue(outcome.winnerChanged());
+        assertEquals("", auction.getWinningaccount());
+        assertEquals(0, auction.getWinningbid());
+
+        outcome.winner().applyTo(auction);
+        assertEquals("0.0.1", auction.getWinningaccount());
+        assertEquals(100, auction.getWinningbid());
+        assertEquals("11.0", auction.getWinningtimestamp());
+        assertEquals("0.0.1-11.0", auction.getWinningtxid());
+        assertEquals("hash11.0", auction.getWinningtxhash());
+    }
+}
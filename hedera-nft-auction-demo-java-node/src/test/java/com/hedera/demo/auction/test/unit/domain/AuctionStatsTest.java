@@ -0,0 +1,73 @@
+package com.hedera.demo.auction.test.unit.domain;
+
+import com.hedera.demo.auction.app.domain.AuctionStats;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AuctionStatsTest {
+    int auctionid = 1;
+    long bidcount = 10;
+    long biddercount = 3;
+    long belowreservecount = 2;
+    long refundspending = 4;
+    long refundsissued = 1;
+    long refundsrefunded = 5;
+    String lastbidtimestamp = "1628000000.000000010";
+
+    AuctionStats testAuctionStatsObject() {
+        AuctionStats auctionStats = new AuctionStats(auctionid);
+
+        auctionStats.setBidcount(bidcount);
+        auctionStats.setBiddercount(biddercount);
+        auctionStats.setBelowreservecount(belowreservecount);
+        auctionStats.setRefundspending(refundspending);
+        auctionStats.setRefundsissued(refundsissued);
+        auctionStats.setRefundsrefunded(refundsrefunded);
+        auctionStats.setLastbidtimestamp(lastbidtimestamp);
+
+        return auctionStats;
+    }
+
+    void verifyAuctionStatsContent(AuctionStats auctionStats) {
+        assertEquals(auctionid, auctionStats.getAuctionid());
+        assertEquals(bidcount, auctionStats.getBidcount());
+        assertEquals(biddercount, auctionStats.getBiddercount());
+        assertEquals(belowreservecount, auctionStats.getBelowreservecount());
+        assertEquals(refundspending, auctionStats.getRefundspending());
+        assertEquals(refundsissued, auctionStats.getRefundsissued());
+        assertEquals(refundsrefunded, auctionStats.getRefundsrefunded());
+        assertEquals(lastbidtimestamp, auctionStats.getLastbidtimestamp());
+    }
+
+    @Test
+    public void testAuctionStatsDefaults() {
+        AuctionStats auctionStats = new AuctionStats(auctionid);
+
+        assertEquals(auctionid, auctionStats.getAuctionid());
+        assertEquals(0L, auctionStats.getBidcount());
+        assertEquals(0L, auctionStats.getBelowreservecount());
+        assertEquals("", auctionStats.getLastbidtimestamp());
+    }
+
+    @Test
+    public void testAuctionStatsToJson() {
+        JsonObject json = testAuctionStatsObject().toJson();
+
+        assertEquals(auctionid, json.getInteger("auctionid"));
+        assertEquals(bidcount, json.getLong("bidcount"));
+        assertEquals(biddercount, json.getLong("biddercount"));
+        assertEquals(belowreservecount, json.getLong("belowreservecount"));
+        assertEquals(refundspending, json.getLong("refundspending"));
+        assertEquals(refundsissued, json.getLong("refundsissued"));
+        assertEquals(refundsrefunded, json.getLong("refundsrefunded"));
+        assertEquals(lastbidtimestamp, json.getString("lastbidtimestamp"));
+    }
+
+    @Test
+    public void testAuctionStatsFromJson() {
+        JsonObject json = testAuctionStatsObject().toJson();
+        verifyAuctionStatsContent(new AuctionStats(json));
+    }
+}
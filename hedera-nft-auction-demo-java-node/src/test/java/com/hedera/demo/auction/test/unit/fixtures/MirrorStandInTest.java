@@ -0,0 +1,189 @@
+package com.hedera.demo.auction.test.unit.fixtures;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.app.MirrorClient;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
+import com.hedera.demo.auction.fixtures.MirrorFixtures;
+import com.hedera.demo.auction.fixtures.MirrorRecorder;
+import com.hedera.demo.auction.fixtures.MirrorStandIn;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MirrorStandInTest {
+
+    private static final String AUCTION_ACCOUNT = "0.0.1000";
+    private static final String TOPIC = "0.0.2000";
+    private static final int TRANSACTION_COUNT = 250;
+
+    @TempDir
+    Path fixtureDirectory;
+
+    private Vertx vertx;
+    private MirrorFixtures fixtures;
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        vertx = Vertx.vertx();
+        fixtures = new MirrorFixtures(fixtureDirectory);
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            // every third transaction is a bid on the auction account
+            String account = i % 3 == 0 ? AUCTION_ACCOUNT : "0.0.".concat(String.valueOf(3000 + i));
+            fixtures.add(MirrorFixtures.Kind.TRANSACTIONS, new JsonObject()
+                    .put("consensus_timestamp", timestamp(i))
+                    .put("transaction_id", "0.0.5-" + i)
+                    .put("name", i % 5 == 0 ? "SCHEDULECREATE" : "CRYPTOTRANSFER")
+                    .put("entity_id", i % 5 == 0 ? "0.0.9" + i : null)
+                    .put("result", "SUCCESS")
+                    .put("transfers", new JsonArray().add(new JsonObject().put("account", account).put("amount", 100))));
+        }
+        for (int i = 0; i < 10; i++) {
+            fixtures.add(MirrorFixtures.Kind.TOPIC_MESSAGES, new JsonObject()
+                    .put("consensus_timestamp", timestamp(i * 10))
+                    .put("topic_id", TOPIC)
+                    .put("sequence_number", i + 1)
+                    .put("message", "e30="));
+        }
+        fixtures.add(MirrorFixtures.Kind.SCHEDULES, new JsonObject().put("schedule_id", "0.0.90").put("consensus_timestamp", timestamp(0)));
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        // a record added twice is kept once
+        assertFalse(fixtures.add(MirrorFixtures.Kind.TRANSACTIONS, fixtures.records(MirrorFixtures.Kind.TRANSACTIONS).get(0)));
+        fixtures.save();
+
+        MirrorFixtures loaded = MirrorFixtures.load(fixtureDirectory);
+        for (MirrorFixtures.Kind kind : MirrorFixtures.Kind.values()) {
+            assertEquals(fixtures.records(kind), loaded.records(kind));
+        }
+        assertEquals(TRANSACTION_COUNT, loaded.size(MirrorFixtures.Kind.TRANSACTIONS));
+    }
+
+    @Test
+    public void testPagination() throws Exception {
+        MirrorStandIn standIn = new MirrorStandIn(vertx, fixtures, 1);
+        MirrorClient mirrorClient = client(standIn);
+
+        // follows links.next in the same way as the node
+        List<String> timestamps = new ArrayList<>();
+        @Var String from = "0.0";
+        @Var int pages = 0;
+        while (true) {
+            Map<String, String> queryParameters = new HashMap<>();
+            queryParameters.put("account.id", AUCTION_ACCOUNT);
+            queryParameters.put("transactiontype", "CRYPTOTRANSFER");
+            queryParameters.put("order", "asc");
+            queryParameters.put("limit", "10");
+            queryParameters.put("timestamp", "gt:".concat(from));
+            MirrorTransactions page = mirrorClient.queryTransactions("/api/v1/transactions", queryParameters);
+            pages++;
+            page.transactions.forEach(transaction -> timestamps.add(transaction.consensusTimestamp));
+            String next = Utils.getTimestampFromMirrorLink(page.links.next);
+            if (next.isEmpty()) {
+                break;
+            }
+            from = next;
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            if (i % 3 == 0 && i % 5 != 0) {
+                expected.add(timestamp(i));
+            }
+        }
+        assertEquals(expected, timestamps);
+        assertEquals(expected.size() / 10 + 1, pages);
+
+        // the mirror node's default order is descending
+        JsonObject latest = mirrorClient.query("/api/v1/transactions", Map.of("limit", "1"));
+        assertEquals(timestamp(TRANSACTION_COUNT - 1), latest.getJsonArray("transactions").getJsonObject(0).getString("consensus_timestamp"));
+        assertTrue(latest.getJsonObject("links").getString("next").contains("timestamp=lt:" + timestamp(TRANSACTION_COUNT - 1)));
+        mirrorClient.close();
+        standIn.close();
+    }
+
+    @Test
+    public void testTopicMessagesAndSchedules() throws Exception {
+        MirrorStandIn standIn = new MirrorStandIn(vertx, fixtures, 1);
+        MirrorClient mirrorClient = client(standIn);
+
+        JsonObject messages = mirrorClient.query("/api/v1/topics/" + TOPIC + "/messages", Map.of("order", "asc", "timestamp", "gt:" + timestamp(50)));
+        assertEquals(4, messages.getJsonArray("messages").size());
+        assertNull(messages.getJsonObject("links").getString("next"));
+
+        assertEquals(timestamp(0), mirrorClient.query("/api/v1/schedules/0.0.90", Map.of()).getString("consensus_timestamp"));
+        assertTrue(mirrorClient.query("/api/v1/schedules/0.0.91", Map.of()).containsKey("_status"));
+        assertEquals(1, mirrorClient.query("/api/v1/transactions/0.0.5-7", Map.of()).getJsonArray("transactions").size());
+        mirrorClient.close();
+        standIn.close();
+    }
+
+    @Test
+    public void testInjectedErrorsAreRetried() throws Exception {
+        MirrorStandIn standIn = new MirrorStandIn(vertx, fixtures, 42).setErrors(0.3, 0).setLatency(1, 2);
+        MirrorClient mirrorClient = client(standIn);
+
+        for (int i = 0; i < 20; i++) {
+            JsonObject response = mirrorClient.query("/api/v1/transactions", Map.of("order", "asc", "limit", "5"));
+            assertEquals(5, response.getJsonArray("transactions").size());
+        }
+        assertTrue(standIn.injectedErrors() > 0);
+        assertEquals(20 + standIn.injectedErrors(), standIn.requests());
+        mirrorClient.close();
+        standIn.close();
+    }
+
+    @Test
+    public void testRecordFromStandIn(@TempDir Path recordingDirectory) throws Exception {
+        MirrorStandIn standIn = new MirrorStandIn(vertx, fixtures, 1);
+        MirrorClient mirrorClient = client(standIn);
+        MirrorFixtures recording = new MirrorFixtures(recordingDirectory);
+        MirrorRecorder recorder = new MirrorRecorder(mirrorClient, recording);
+
+        assertEquals(TRANSACTION_COUNT - 1, recorder.recordTransactions(timestamp(0), timestamp(TRANSACTION_COUNT - 1), null));
+        // only the account's first transaction wasn't already recorded
+        assertEquals(1, recorder.recordTransactions("0.0", timestamp(6), AUCTION_ACCOUNT));
+        assertEquals(10, recorder.recordTopicMessages(TOPIC, "0.0", timestamp(TRANSACTION_COUNT)));
+        assertEquals(1, recorder.recordSchedulesOfTransactions());
+        recording.save();
+
+        MirrorFixtures loaded = MirrorFixtures.load(recordingDirectory);
+        for (MirrorFixtures.Kind kind : MirrorFixtures.Kind.values()) {
+            assertEquals(fixtures.records(kind), loaded.records(kind));
+        }
+        mirrorClient.close();
+        standIn.close();
+    }
+
+    private MirrorClient client(MirrorStandIn standIn) throws Exception {
+        int port = standIn.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        return new MirrorClient(vertx, List.of("localhost:" + port), false, 10, 0);
+    }
+
+    private static String timestamp(int index) {
+        return Utils.nanosToTimestamp(TimeUnit.SECONDS.toNanos(1_600_000_000L + index * 30L) + index);
+    }
+}
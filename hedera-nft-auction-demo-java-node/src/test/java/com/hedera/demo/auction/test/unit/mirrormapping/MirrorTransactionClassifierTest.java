@@ -0,0 +1,136 @@
+package com.hedera.demo.auction.test.unit.mirrormapping;
+
+import com.hedera.demo.auction.app.domain.Bid;
+import com.hedera.demo.auction.app.mirrormapping.MemoPrefixMatcher;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTokenTransfer;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionClassifier;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionEvent;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionKind;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MirrorTransactionClassifierTest {
+
+    private static final String AUCTION_ACCOUNT = "0.0.10";
+    private static final String TOKEN = "0.0.20";
+
+    private final MirrorTransactionClassifier classifier = new MirrorTransactionClassifier(AUCTION_ACCOUNT, TOKEN);
+
+    private static MirrorTransaction transaction(String payer, String memo) {
+        MirrorTransaction transaction = new MirrorTransaction();
+        transaction.transactionId = payer.concat("-1617786650-796134000");
+        transaction.memo = Base64.getEncoder().encodeToString(memo.getBytes(StandardCharsets.UTF_8));
+        return transaction;
+    }
+
+    private static MirrorTokenTransfer tokenTransfer(String account, String tokenId, long amount) {
+        MirrorTokenTransfer tokenTransfer = new MirrorTokenTransfer();
+        tokenTransfer.account = account;
+        tokenTransfer.tokenId = tokenId;
+        tokenTransfer.amount = amount;
+        return tokenTransfer;
+    }
+
+    @Test
+    public void testPrefixMatcher() {
+        MemoPrefixMatcher<String> matcher = new MemoPrefixMatcher<>(Map.of("AUCTION", "short", "Auction refund", "long"));
+
+        assertEquals("short", matcher.match("auction"));
+        assertEquals("short", matcher.match("AUCTION refs"));
+        assertEquals("long", matcher.match("auction REFUND for tx"));
+        assertNull(matcher.match("auctio"));
+        assertNull(matcher.match(""));
+        assertNull(matcher.match("bid"));
+        assertNull(matcher.match("äuction"));
+        assertThrows(IllegalArgumentException.class, () -> new MemoPrefixMatcher<>(Map.of("", "empty")));
+        assertThrows(IllegalArgumentException.class, () -> new MemoPrefixMatcher<>(Map.of("enchère", "accent")));
+    }
+
+    @Test
+    public void testMemos() {
+        assertEquals(MirrorTransactionKind.IGNORED, MirrorTransactionClassifier.memoKind("CREATEAUCTION"));
+        assertEquals(MirrorTransactionKind.IGNORED, MirrorTransactionClassifier.memoKind("manage validators"));
+        assertEquals(MirrorTransactionKind.IGNORED, MirrorTransactionClassifier.memoKind("Auction refund"));
+        assertEquals(MirrorTransactionKind.REFUND, MirrorTransactionClassifier.memoKind(Bid.REFUND_MEMO_PREFIX.concat("0.0.5-1617786650-796134000")));
+        assertNull(MirrorTransactionClassifier.memoKind("my bid"));
+        assertNull(MirrorTransactionClassifier.memoKind(""));
+    }
+
+    @Test
+    public void testClassify() {
+        assertEquals(EnumSet.of(MirrorTransactionKind.BID), classifier.classify(transaction("0.0.100", "")).kinds());
+        assertEquals(EnumSet.of(MirrorTransactionKind.BID), classifier.classify(transaction("0.0.100", "my bid")).kinds());
+        assertEquals(EnumSet.of(MirrorTransactionKind.IGNORED), classifier.classify(transaction("0.0.100", "associate")).kinds());
+        assertEquals(EnumSet.of(MirrorTransactionKind.IGNORED), classifier.classify(transaction(AUCTION_ACCOUNT, "")).kinds());
+        assertEquals(EnumSet.of(MirrorTransactionKind.REFUND), classifier.classify(transaction(AUCTION_ACCOUNT, Bid.REFUND_MEMO_PREFIX.concat("0.0.5-1617786650-796134000"))).kinds());
+
+        MirrorTransaction readiness = transaction("0.0.100", "TRANSFERTOAUCTION");
+        readiness.tokenTransfers.add(tokenTransfer("0.0.100", TOKEN, -1));
+        readiness.tokenTransfers.add(tokenTransfer(AUCTION_ACCOUNT, TOKEN, 1));
+        MirrorTransactionEvent readinessEvent = classifier.classify(readiness);
+        assertTrue(readinessEvent.is(MirrorTransactionKind.READINESS_TRANSFER));
+        assertFalse(readinessEvent.is(MirrorTransactionKind.BID));
+
+        MirrorTransaction endTransfer = transaction(AUCTION_ACCOUNT, "TOKEN TRANSFER FROM AUCTION");
+        endTransfer.tokenTransfers.add(tokenTransfer(AUCTION_ACCOUNT, TOKEN, -1));
+        endTransfer.tokenTransfers.add(tokenTransfer("0.0.100", TOKEN, 1));
+        assertEquals(EnumSet.of(MirrorTransactionKind.END_TRANSFER, MirrorTransactionKind.IGNORED), classifier.classify(endTransfer).kinds());
+
+        // another auction's token isn't this auction's concern
+        MirrorTransaction otherToken = transaction("0.0.100", "");
+        otherToken.tokenTransfers.add(tokenTransfer(AUCTION_ACCOUNT, "0.0.21", 1));
+        assertEquals(EnumSet.of(MirrorTransactionKind.BID), classifier.classify(otherToken).kinds());
+    }
+
+    @Test
+    public void testBidWithTokenTransfer() {
+        // a bid which also sends the auction's token to the auction account
+        MirrorTransaction bidAndReadiness = transaction("0.0.100", "");
+        bidAndReadiness.tokenTransfers.add(tokenTransfer("0.0.100", TOKEN, -1));
+        bidAndReadiness.tokenTransfers.add(tokenTransfer(AUCTION_ACCOUNT, TOKEN, 1));
+        assertEquals(EnumSet.of(MirrorTransactionKind.BID, MirrorTransactionKind.READINESS_TRANSFER), classifier.classify(bidAndReadiness).kinds());
+
+        // a bid which also moves the auction's token elsewhere
+        MirrorTransaction bidAndTransfer = transaction("0.0.100", "my bid");
+        bidAndTransfer.tokenTransfers.add(tokenTransfer("0.0.100", TOKEN, -1));
+        bidAndTransfer.tokenTransfers.add(tokenTransfer("0.0.101", TOKEN, 1));
+        MirrorTransactionEvent event = classifier.classify(bidAndTransfer);
+        assertTrue(event.is(MirrorTransactionKind.BID));
+        assertTrue(event.is(MirrorTransactionKind.END_TRANSFER));
+        assertTrue(event.isAny(EnumSet.of(MirrorTransactionKind.BID, MirrorTransactionKind.REFUND)));
+        assertFalse(event.isAny(EnumSet.of(MirrorTransactionKind.REFUND, MirrorTransactionKind.IGNORED)));
+    }
+
+    @Test
+    public void testClassificationPerAuction() {
+        MirrorTransaction transaction = transaction("0.0.100", "");
+        assertEquals(EnumSet.of(MirrorTransactionKind.BID), classifier.classify(transaction).kinds());
+
+        // the same transaction seen from the payer's auction
+        MirrorTransactionClassifier payerAuction = new MirrorTransactionClassifier("0.0.100", TOKEN);
+        assertEquals(EnumSet.of(MirrorTransactionKind.IGNORED), payerAuction.classify(transaction).kinds());
+        assertEquals(EnumSet.of(MirrorTransactionKind.BID), classifier.classify(transaction).kinds());
+
+        // nothing is kept on the transaction, a changed memo is classified afresh
+        transaction.memo = Base64.getEncoder().encodeToString("FUNDACCOUNT".getBytes(StandardCharsets.UTF_8));
+        assertEquals(EnumSet.of(MirrorTransactionKind.IGNORED), classifier.classify(transaction).kinds());
+
+        List<MirrorTransactionEvent> events = classifier.classify(List.of(transaction("0.0.100", ""), transaction));
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).is(MirrorTransactionKind.BID));
+        assertSame(transaction, events.get(1).transaction());
+    }
+}
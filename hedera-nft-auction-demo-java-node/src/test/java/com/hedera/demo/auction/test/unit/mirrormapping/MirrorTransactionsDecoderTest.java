@@ -0,0 +1,85 @@
+package com.hedera.demo.auction.test.unit.mirrormapping;
+
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransaction;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactionsDecoder;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MirrorTransactionsDecoderTest extends AbstractMirrorMapping {
+
+    @Test
+    public void testDecodeMatchesDataBinding() throws IOException {
+        JsonObject page = loadJsonFile("hedera-mirror/hedera-mirror-transactions.json");
+        // add token transfers to one of the transactions
+        JsonObject tokenTransfer = new JsonObject().put("account", "0.0.20").put("token_id", "0.0.30").put("amount", 1);
+        page.getJsonArray("transactions").getJsonObject(0).put("token_transfers", new JsonArray().add(tokenTransfer));
+
+        MirrorTransactions expected = page.mapTo(MirrorTransactions.class);
+        MirrorTransactions decoded = MirrorTransactionsDecoder.decode(page.toBuffer());
+
+        assertEquals(expected.links.next, decoded.links.next);
+        assertEquals(expected.transactions.size(), decoded.transactions.size());
+        for (int i = 0; i < expected.transactions.size(); i++) {
+            MirrorTransaction expectedTransaction = expected.transactions.get(i);
+            MirrorTransaction decodedTransaction = decoded.transactions.get(i);
+            assertEquals(expectedTransaction.consensusTimestamp, decodedTransaction.consensusTimestamp);
+            assertEquals(expectedTransaction.memo, decodedTransaction.memo);
+            assertEquals(expectedTransaction.getMemoString(), decodedTransaction.getMemoString());
+            assertEquals(expectedTransaction.name, decodedTransaction.name);
+            assertEquals(expectedTransaction.result, decodedTransaction.result);
+            assertEquals(expectedTransaction.transactionHash, decodedTransaction.transactionHash);
+            assertEquals(expectedTransaction.getTransactionHashString(), decodedTransaction.getTransactionHashString());
+            assertEquals(expectedTransaction.transactionId, decodedTransaction.transactionId);
+
+            assertEquals(expectedTransaction.hbarTransfers.size(), decodedTransaction.hbarTransfers.size());
+            for (int j = 0; j < expectedTransaction.hbarTransfers.size(); j++) {
+                assertEquals(expectedTransaction.hbarTransfers.get(j).account, decodedTransaction.hbarTransfers.get(j).account);
+                assertEquals(expectedTransaction.hbarTransfers.get(j).amount, decodedTransaction.hbarTransfers.get(j).amount);
+            }
+            assertEquals(expectedTransaction.tokenTransfers.size(), decodedTransaction.tokenTransfers.size());
+            for (int j = 0; j < expectedTransaction.tokenTransfers.size(); j++) {
+                assertEquals(expectedTransaction.tokenTransfers.get(j).account, decodedTransaction.tokenTransfers.get(j).account);
+                assertEquals(expectedTransaction.tokenTransfers.get(j).tokenId, decodedTransaction.tokenTransfers.get(j).tokenId);
+                assertEquals(expectedTransaction.tokenTransfers.get(j).amount, decodedTransaction.tokenTransfers.get(j).amount);
+            }
+        }
+        assertEquals(1, decoded.transactions.get(0).tokenTransfers.size());
+    }
+
+    @Test
+    public void testDecodeNullsAndUnknownFields() throws IOException {
+        String json = "{\"transactions\":[{\"consensus_timestamp\":\"1.2\",\"memo_base64\":null,\"entity_id\":{\"nested\":[1,2]},"
+                + "\"transfers\":[{\"account\":\"0.0.10\",\"amount\":5,\"extra\":[]}]}],\"links\":{\"next\":null}}";
+
+        MirrorTransactions decoded = MirrorTransactionsDecoder.decode(Buffer.buffer(json));
+
+        assertEquals(1, decoded.transactions.size());
+        assertEquals("1.2", decoded.transactions.get(0).consensusTimestamp);
+        assertEquals("", decoded.transactions.get(0).memo);
+        assertEquals("", decoded.transactions.get(0).getMemoString());
+        assertEquals(1, decoded.transactions.get(0).hbarTransfers.size());
+        assertEquals(5, decoded.transactions.get(0).hbarTransfers.get(0).amount);
+        assertEquals("", decoded.links.next);
+    }
+
+    @Test
+    public void testDecodeEmptyPage() throws IOException {
+        MirrorTransactions decoded = MirrorTransactionsDecoder.decode(Buffer.buffer("{\"transactions\":[],\"links\":{\"next\":null}}"));
+        assertEquals(0, decoded.transactions.size());
+        assertEquals("", decoded.links.next);
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        assertThrows(IOException.class, () -> MirrorTransactionsDecoder.decode(Buffer.buffer("[]")));
+        assertThrows(IOException.class, () -> MirrorTransactionsDecoder.decode(Buffer.buffer("{\"transactions\":[{")));
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.api.Test;
 import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class UtilsTest {
     @Test
@@ -49,4 +51,36 @@ public class UtilsTest {
         linkTest = Utils.getTimestampFromMirrorLink(linklt);
         assertEquals("1598576703.187899009", linkTest);
     }
+
+    @Test
+    public void timestampToNanosTest() {
+        assertEquals(1598576703187899009L, Utils.timestampToNanos("1598576703.187899009"));
+        assertEquals(123001000000L, Utils.timestampToNanos("123.001"));
+        assertEquals(123000000000L, Utils.timestampToNanos("123"));
+        assertEquals(0L, Utils.timestampToNanos("0.0"));
+
+        assertThrows(NumberFormatException.class, () -> Utils.timestampToNanos(""));
+        assertThrows(NumberFormatException.class, () -> Utils.timestampToNanos("timestamp1"));
+        assertThrows(NumberFormatException.class, () -> Utils.timestampToNanos("-1.0"));
+        assertThrows(NumberFormatException.class, () -> Utils.timestampToNanos("1.0123456789"));
+        assertThrows(NumberFormatException.class, () -> Utils.timestampToNanos("1.2.3"));
+    }
+
+    @Test
+    public void nanosToTimestampTest() {
+        assertEquals("1598576703.187899009", Utils.nanosToTimestamp(1598576703187899009L));
+        assertEquals("123.001000000", Utils.nanosToTimestamp(Utils.timestampToNanos("123.001")));
+    }
+
+    @Test
+    public void compareTimestampsTest() {
+        // numeric comparison where the number of digits in the seconds differ
+        assertTrue(Utils.compareTimestamps("999999999.000000000", "1000000000.000000000") < 0);
+        assertTrue(Utils.compareTimestamps("1000000000.000000000", "999999999.000000000") > 0);
+        assertTrue(Utils.compareTimestamps("123.1", "123.100000000") == 0);
+        assertTrue(Utils.compareTimestamps("123.000000002", "123.1") < 0);
+        // non numeric values fall back to string comparison
+        assertTrue(Utils.compareTimestamps("123.1", "") > 0);
+        assertTrue(Utils.compareTimestamps("b", "a") > 0);
+    }
 }
@@ -102,7 +102,8 @@ public class AbstractIntegrationTest {
     }
 
     public String timestamp() {
-        return stringPlusIndex("timestamp");
+        // bids are keyed by their consensus timestamp, which must be a valid one
+        return String.valueOf(1617786661L + this.index).concat(".000000000");
     }
     String bidderaccountid() {
         return stringPlusIndex("bidderaccountid");
@@ -0,0 +1,181 @@
+package com.hedera.demo.auction.test.integration.bidsingester;
+
+import com.hedera.demo.auction.BidsIngester;
+import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.SqlConnectionManager;
+import com.hedera.demo.auction.app.Utils;
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.BidsRepository;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
+import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
+import com.hedera.demo.auction.test.integration.HederaJson;
+import com.hedera.hashgraph.sdk.AccountId;
+import com.hedera.hashgraph.sdk.PrivateKey;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.jooq.tools.StringUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BidsIngesterIntegrationTest extends AbstractIntegrationTest {
+
+    private static final int PAGE_SIZE = 2;
+    private static final String BIDDER = "0.0.100";
+    private static final String HEALTHY_ACCOUNT = "0.0.1001";
+    private static final String STUCK_ACCOUNT = "0.0.1002";
+
+    private PostgreSQLContainer postgres;
+    private AuctionsRepository auctionsRepository;
+    private BidsRepository bidsRepository;
+    private MirrorCursorsRepository mirrorCursorsRepository;
+    private Vertx vertx;
+    private HttpServer server;
+    private HederaClient hederaClient;
+    private BidsIngester bidsIngester;
+    private Auction healthyAuction;
+    private Auction stuckAuction;
+    // the transactions on the mirror node, in consensus order
+    private final List<JsonObject> transactions = new CopyOnWriteArrayList<>();
+    private volatile boolean stuck = true;
+
+    @BeforeAll
+    public void beforeAll() throws Exception {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer("postgres:12.6");
+        postgres.start();
+        migrate(postgres);
+        SqlConnectionManager connectionManager = new SqlConnectionManager(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        auctionsRepository = new AuctionsRepository(connectionManager);
+        bidsRepository = new BidsRepository(connectionManager);
+        mirrorCursorsRepository = new MirrorCursorsRepository(connectionManager);
+        this.postgres = postgres;
+
+        vertx = Vertx.vertx();
+        server = vertx.createHttpServer().requestHandler(this::transactions);
+        server.listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        hederaClient = new HederaClient(AccountId.fromString("0.0.2"), PrivateKey.generate(), "TESTNET", "HEDERA", "localhost:" + server.actualPort());
+    }
+
+    @AfterAll
+    public void afterAll() throws Exception {
+        hederaClient.mirrorClient().close();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        this.postgres.close();
+    }
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        healthyAuction = auctionsRepository.createComplete(activeAuction(1, HEALTHY_ACCOUNT));
+        stuckAuction = auctionsRepository.createComplete(activeAuction(2, STUCK_ACCOUNT));
+        mirrorCursorsRepository.setCursor(BidsIngester.CURSOR_NAME, "100.0");
+        bidsIngester = new BidsIngester(hederaClient, auctionsRepository, mirrorCursorsRepository, 100, /* runOnce= */false);
+    }
+
+    @AfterEach
+    public void afterEach() throws SQLException {
+        bidsIngester.stop();
+        transactions.clear();
+        stuck = true;
+        bidsRepository.deleteAllBids();
+        auctionsRepository.deleteAllAuctions();
+        mirrorCursorsRepository.deleteAllCursors();
+    }
+
+    @Test
+    public void testStuckAuctionDoesNotHoldBackOthers() throws Exception {
+        transaction("101.0", HEALTHY_ACCOUNT);
+        transaction("102.0", STUCK_ACCOUNT);
+        transaction("103.0", HEALTHY_ACCOUNT);
+        transaction("104.0", STUCK_ACCOUNT);
+
+        new Thread(bidsIngester).start();
+
+        // the stream and the auction which caught up move on, the auction which didn't isn't routed
+        await().atMost(30, TimeUnit.SECONDS).until(() -> "104.0".equals(mirrorCursorsRepository.getCursor(BidsIngester.CURSOR_NAME)));
+        await().atMost(10, TimeUnit.SECONDS).until(() -> "103.0".equals(lastConsensusTimestamp(healthyAuction)));
+        assertEquals("1.0", lastConsensusTimestamp(stuckAuction));
+
+        // once it catches up, the auction is caught up to the cursor then routed
+        stuck = false;
+        await().atMost(30, TimeUnit.SECONDS).until(() -> "104.0".equals(lastConsensusTimestamp(stuckAuction)));
+
+        transaction("105.0", HEALTHY_ACCOUNT);
+        transaction("106.0", STUCK_ACCOUNT);
+        await().atMost(30, TimeUnit.SECONDS).until(() -> "106.0".equals(mirrorCursorsRepository.getCursor(BidsIngester.CURSOR_NAME)));
+        await().atMost(10, TimeUnit.SECONDS).until(() -> "106.0".equals(lastConsensusTimestamp(stuckAuction)));
+        assertEquals("105.0", lastConsensusTimestamp(healthyAuction));
+    }
+
+    private Auction activeAuction(int index, String auctionAccountId) {
+        Auction auction = testAuctionObject(index);
+        auction.setAuctionaccountid(auctionAccountId);
+        auction.setStatus(Auction.ACTIVE);
+        auction.setStarttimestamp("1.0");
+        auction.setEndtimestamp("1000.0");
+        auction.setLastconsensustimestamp("1.0");
+        auction.setWinningbid(0L);
+        auction.setWinningtimestamp("");
+        return auction;
+    }
+
+    private String lastConsensusTimestamp(Auction auction) throws Exception {
+        return auctionsRepository.getAuction(auction.getId()).getLastconsensustimestamp();
+    }
+
+    private void transaction(String consensusTimestamp, String auctionAccountId) {
+        JsonObject transaction = HederaJson.transactionWithTransfers(BIDDER, auctionAccountId, 10);
+        transaction.put("consensus_timestamp", consensusTimestamp);
+        transactions.add(transaction);
+    }
+
+    /**
+     * Serves the transactions after the requested timestamp, an auction's account's transactions or a page of all
+     * transactions, the stuck auction's account's transactions can't be queried while it's stuck
+     */
+    private void transactions(HttpServerRequest request) {
+        String account = request.getParam("account.id");
+        if (STUCK_ACCOUNT.equals(account) && stuck) {
+            request.response().setStatusCode(500).end();
+            return;
+        }
+        String after = StringUtils.defaultIfEmpty(request.getParam("timestamp"), "gt:0.0").replace("gt:", "");
+        int limit = StringUtils.isEmpty(account) ? PAGE_SIZE : Integer.MAX_VALUE;
+        JsonArray page = new JsonArray();
+        for (JsonObject transaction : transactions) {
+            String consensusTimestamp = transaction.getString("consensus_timestamp");
+            if (Utils.compareTimestamps(consensusTimestamp, after) > 0 && page.size() < limit
+                    && (account == null || transaction.getJsonArray("transfers").getJsonObject(1).getString("account").equals(account))) {
+                page.add(transaction);
+            }
+        }
+        JsonObject links = new JsonObject();
+        if (page.size() == limit) {
+            String last = page.getJsonObject(page.size() - 1).getString("consensus_timestamp");
+            links.put("next", "/api/v1/transactions?transactiontype=CRYPTOTRANSFER&order=asc&timestamp=gt:".concat(last));
+        } else {
+            links.putNull("next");
+        }
+        request.response()
+                .putHeader("content-type", "application/json")
+                .end(new JsonObject().put("transactions", page).put("links", links).encode());
+    }
+}
@@ -0,0 +1,148 @@
+package com.hedera.demo.auction.test.integration.bidwatcher;
+
+import com.google.errorprone.annotations.Var;
+import com.hedera.demo.auction.AuctionStateEngine;
+import com.hedera.demo.auction.BidsWatcher;
+import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.SqlConnectionManager;
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.domain.Bid;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTransactions;
+import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.BidsRepository;
+import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
+import com.hedera.demo.auction.test.integration.HederaJson;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuctionStateEngineIntegrationTest extends AbstractIntegrationTest {
+
+    public AuctionStateEngineIntegrationTest() throws Exception {
+    }
+
+    private PostgreSQLContainer postgres;
+    private AuctionsRepository auctionsRepository;
+    private BidsRepository bidsRepository;
+    private final HederaClient hederaClient = new HederaClient();
+    private AuctionStateEngine auctionStateEngine;
+    private Auction auction;
+    private static final long bidAmount = 1000000000;
+    private static final String fromAccount = "0.0.100";
+
+    @BeforeAll
+    public void beforeAll() throws Exception {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer("postgres:12.6");
+        postgres.start();
+        migrate(postgres);
+        SqlConnectionManager connectionManager = new SqlConnectionManager(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        auctionsRepository = new AuctionsRepository(connectionManager);
+        bidsRepository = new BidsRepository(connectionManager);
+        this.postgres = postgres;
+    }
+
+    @AfterAll
+    public void afterAll() {
+        this.postgres.close();
+    }
+
+    @BeforeEach
+    public void beforeEach() throws Exception {
+        @Var Auction newAuction = testAuctionObject(1);
+        newAuction.setReserve(0L);
+        newAuction.setWinningbid(0L);
+        newAuction.setMinimumbid(1L);
+        newAuction = auctionsRepository.add(newAuction);
+        auctionsRepository.setActive(newAuction, newAuction.getTokenowneraccount(), "1");
+        auction = newAuction;
+
+        auctionStateEngine = new AuctionStateEngine(auctionsRepository, AuctionStateEngine.DEFAULT_BATCH_SIZE, AuctionStateEngine.DEFAULT_MAX_PENDING);
+        Thread auctionStateEngineThread = new Thread(auctionStateEngine);
+        auctionStateEngineThread.start();
+    }
+
+    @AfterEach
+    public void afterEach() throws SQLException {
+        auctionStateEngine.stop();
+        bidsRepository.deleteAllBids();
+        auctionsRepository.deleteAllAuctions();
+    }
+
+    @Test
+    public void testBidsWrittenBehind() throws Exception {
+        BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auction.getId(), 5000, /*runOnce= */false);
+        bidsWatcher.setAuctionStateEngine(auctionStateEngine);
+
+        // create a first bid and current winner (bidAmount -10)
+        JsonObject transaction1 = HederaJson.transactionWithTransfers(fromAccount, auction.getAuctionaccountid(), bidAmount - 10);
+        transaction1.put("consensus_timestamp", "2");
+        bidsWatcher.handleResponse(HederaJson.mirrorTransactions(transaction1).mapTo(MirrorTransactions.class));
+
+        // create a second bid and winner (bidAmount), evaluated against the first bid held in memory
+        JsonObject transaction2 = HederaJson.transactionWithTransfers("winner", auction.getAuctionaccountid(), bidAmount);
+        transaction2.put("consensus_timestamp", "3");
+        bidsWatcher.handleResponse(HederaJson.mirrorTransactions(transaction2).mapTo(MirrorTransactions.class));
+
+        assertEquals("winner", auctionStateEngine.auction(auction.getId()).getWinningaccount());
+        assertEquals(1, auctionStateEngine.loads());
+
+        auctionStateEngine.flush();
+        assertEquals(2, auctionStateEngine.pagesWritten());
+        assertEquals(0, auctionStateEngine.pending());
+
+        List<Bid> bids = bidsRepository.getBidsList();
+        assertEquals(2, bids.size());
+        assertEquals("Higher bid received", bids.get(0).getStatus());
+        assertEquals("", bids.get(1).getStatus());
+
+        Auction updatedAuction = auctionsRepository.getAuction(auction.getId());
+        assertEquals("winner", updatedAuction.getWinningaccount());
+        assertEquals(bidAmount, updatedAuction.getWinningbid());
+        assertEquals("3", updatedAuction.getLastconsensustimestamp());
+        bidsWatcher.stop();
+    }
+
+    @Test
+    public void testFlushAuctionWritesItsBids() throws Exception {
+        BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auction.getId(), 5000, /*runOnce= */false);
+        bidsWatcher.setAuctionStateEngine(auctionStateEngine);
+
+        JsonObject transaction = HederaJson.transactionWithTransfers("winner", auction.getAuctionaccountid(), bidAmount);
+        transaction.put("consensus_timestamp", "2");
+        bidsWatcher.handleResponse(HederaJson.mirrorTransactions(transaction).mapTo(MirrorTransactions.class));
+
+        // as done before the auction is closed or its token transferred
+        auctionStateEngine.flush(auction.getId());
+
+        Auction updatedAuction = auctionsRepository.getAuction(auction.getId());
+        assertEquals("winner", updatedAuction.getWinningaccount());
+        assertEquals(bidAmount, updatedAuction.getWinningbid());
+        bidsWatcher.stop();
+    }
+
+    @Test
+    public void testInvalidateReloads() throws Exception {
+        assertEquals("0.0", auctionStateEngine.auction(auction.getId()).getLastconsensustimestamp());
+
+        // updated in the database by another component, the state held is stale until invalidated
+        auctionsRepository.setLastConsensusTimestamp(auction.getId(), "z");
+        assertEquals("0.0", auctionStateEngine.auction(auction.getId()).getLastconsensustimestamp());
+
+        auctionStateEngine.invalidate(auction.getId());
+        assertEquals("z", auctionStateEngine.auction(auction.getId()).getLastconsensustimestamp());
+        assertEquals(2, auctionStateEngine.loads());
+    }
+}
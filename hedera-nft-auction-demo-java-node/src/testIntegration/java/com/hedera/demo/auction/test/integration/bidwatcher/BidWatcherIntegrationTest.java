@@ -114,6 +114,28 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
         assertEquals("2", updatedAuction.getLastconsensustimestamp());
     }
 
+    @Test
+    public void testHandleTransactionsSkipsProcessed() throws Exception {
+
+        auctionsRepository.setLastConsensusTimestamp(auction.getId(), "2");
+
+        JsonObject transaction2 = HederaJson.singleTransaction();
+        transaction2.put("consensus_timestamp", "2");
+        JsonObject transaction3 = HederaJson.singleTransaction();
+        transaction3.put("consensus_timestamp", "3");
+
+        @Var JsonObject response = HederaJson.mirrorTransactions(transaction2);
+        response = HederaJson.mirrorTransactions(transaction3, response);
+        MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
+        bidWatcher.handleTransactions(mirrorTransactions.transactions);
+        assertEquals("3", auctionsRepository.getAuction(auction.getId()).getLastconsensustimestamp());
+
+        // transactions already processed are skipped
+        auctionsRepository.setLastConsensusTimestamp(auction.getId(), "5");
+        bidWatcher.handleTransactions(mirrorTransactions.transactions);
+        assertEquals("5", auctionsRepository.getAuction(auction.getId()).getLastconsensustimestamp());
+    }
+
     @Test
     public void testBidFromAuctionAccountId() throws Exception {
 
@@ -179,10 +201,17 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
     @Test
     public void testPastEnd() throws Exception {
 
-        BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auction.getId(), 5000, /*runOnce= */false);
+        auctionsRepository.deleteAllAuctions();
+        @Var Auction endedAuction = testAuctionObject(1);
+        endedAuction.setWinningbid(0L);
+        endedAuction.setEndtimestamp("2");
+        endedAuction = auctionsRepository.add(endedAuction);
+        auctionsRepository.setActive(endedAuction, endedAuction.getTokenowneraccount(), "1");
+
+        BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, endedAuction.getId(), 5000, /*runOnce= */false);
 
-        JsonObject transaction = HederaJson.transactionWithTransfers(fromAccount, auction.getAuctionaccountid(), bidAmount );
-        transaction.put("consensus_timestamp", "z");
+        JsonObject transaction = HederaJson.transactionWithTransfers(fromAccount, endedAuction.getAuctionaccountid(), bidAmount );
+        transaction.put("consensus_timestamp", "3");
 
         JsonObject response = HederaJson.mirrorTransactions(transaction);
         MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
@@ -190,19 +219,19 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
 
         List<Bid> bids = bidsRepository.getBidsList();
         assertEquals(1, bids.size());
-        testBidValues("Auction is closed", bidAmount, auction, fromAccount, transaction, bids.get(0));
-        testUpdatedAuctionNotChanged(auction);
+        testBidValues("Auction is closed", bidAmount, endedAuction, fromAccount, transaction, bids.get(0));
+        testUpdatedAuctionNotChanged(endedAuction);
         bidsWatcher.stop();
     }
 
     @Test
     public void testBeforeStart() throws Exception {
 
-        auctionsRepository.setActive(auction, auction.getTokenowneraccount(), "z");
+        auctionsRepository.setActive(auction, auction.getTokenowneraccount(), "3");
         BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, auction.getId(), 5000, /*runOnce= */false);
 
         JsonObject transaction = HederaJson.transactionWithTransfers("0.0.100", auction.getAuctionaccountid(), bidAmount );
-        transaction.put("consensus_timestamp", "a");
+        transaction.put("consensus_timestamp", "1");
 
         JsonObject response = HederaJson.mirrorTransactions(transaction);
         MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
@@ -224,20 +253,20 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
         // if index below set to 0, winner can't bid
         @Var Auction winnerCantBidAuction = testAuctionObject(0);
         winnerCantBidAuction = auctionsRepository.add(winnerCantBidAuction);
-        auctionsRepository.setActive(winnerCantBidAuction, winnerCantBidAuction.getTokenowneraccount(), "a");
+        auctionsRepository.setActive(winnerCantBidAuction, winnerCantBidAuction.getTokenowneraccount(), "1");
 
         BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, winnerCantBidAuction.getId(), 5000, /*runOnce= */false);
 
         // create a first bid and current winner (bidAmount - 10)
         JsonObject transaction1 = HederaJson.transactionWithTransfers(fromAccount, winnerCantBidAuction.getAuctionaccountid(), bidAmount-10 );
-        transaction1.put("consensus_timestamp", "b");
+        transaction1.put("consensus_timestamp", "2");
         @Var JsonObject response = HederaJson.mirrorTransactions(transaction1);
         @Var MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
 
         // create a second bid for current winner (bidAmount)
         JsonObject transaction2 = HederaJson.transactionWithTransfers(fromAccount, winnerCantBidAuction.getAuctionaccountid(), bidAmount );
-        transaction2.put("consensus_timestamp", "c");
+        transaction2.put("consensus_timestamp", "3");
         response = HederaJson.mirrorTransactions(transaction2);
         mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
@@ -266,18 +295,18 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
         @Var Auction winnerCanBidAuction = testAuctionObject(1);
         winnerCanBidAuction.setMinimumbid(1L);
         winnerCanBidAuction = auctionsRepository.add(winnerCanBidAuction);
-        auctionsRepository.setActive(winnerCanBidAuction, winnerCanBidAuction.getTokenowneraccount(), "a");
+        auctionsRepository.setActive(winnerCanBidAuction, winnerCanBidAuction.getTokenowneraccount(), "1");
 
         BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, winnerCanBidAuction.getId(), 5000, /*runOnce= */false);
 
         // create a first bid and current winner (bidAmount - 10)
         JsonObject transaction1 = HederaJson.transactionWithTransfers(fromAccount, winnerCanBidAuction.getAuctionaccountid(), bidAmount-10 );
-        transaction1.put("consensus_timestamp", "b");
+        transaction1.put("consensus_timestamp", "2");
         @Var JsonObject response = HederaJson.mirrorTransactions(transaction1);
 
         // create a second bid for current winner (bidAmount)
         JsonObject transaction2 = HederaJson.transactionWithTransfers(fromAccount, winnerCanBidAuction.getAuctionaccountid(), bidAmount );
-        transaction2.put("consensus_timestamp", "c");
+        transaction2.put("consensus_timestamp", "3");
         response = HederaJson.mirrorTransactions(transaction2, response);
         MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
@@ -307,12 +336,12 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
         smallIncreaseAuction.setWinningbid(0L);
         smallIncreaseAuction.setMinimumbid(bidAmount * 2);
         smallIncreaseAuction = auctionsRepository.add(smallIncreaseAuction);
-        auctionsRepository.setActive(smallIncreaseAuction, smallIncreaseAuction.getTokenowneraccount(), "a");
+        auctionsRepository.setActive(smallIncreaseAuction, smallIncreaseAuction.getTokenowneraccount(), "1");
 
         BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository,  smallIncreaseAuction.getId(), 5000, /*runOnce= */false);
 
         JsonObject transaction = HederaJson.transactionWithTransfers(fromAccount, smallIncreaseAuction.getAuctionaccountid(), bidAmount);
-        transaction.put("consensus_timestamp", "b");
+        transaction.put("consensus_timestamp", "2");
         JsonObject response = HederaJson.mirrorTransactions(transaction);
         MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
@@ -337,19 +366,19 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
         smallIncreaseAuction.setWinningbid(0L);
         smallIncreaseAuction.setMinimumbid(100L);
         smallIncreaseAuction = auctionsRepository.add(smallIncreaseAuction);
-        auctionsRepository.setActive(smallIncreaseAuction, smallIncreaseAuction.getTokenowneraccount(), "a");
+        auctionsRepository.setActive(smallIncreaseAuction, smallIncreaseAuction.getTokenowneraccount(), "1");
 
         BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, smallIncreaseAuction.getId(), 5000, /*runOnce= */false);
 
         // create a first bid and current winner (bidAmount)
         JsonObject transaction1 = HederaJson.transactionWithTransfers(fromAccount, smallIncreaseAuction.getAuctionaccountid(), bidAmount );
-        transaction1.put("consensus_timestamp", "b");
+        transaction1.put("consensus_timestamp", "2");
         @Var JsonObject response = HederaJson.mirrorTransactions(transaction1);
         @Var MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
 
         JsonObject transaction2 = HederaJson.transactionWithTransfers(fromAccount, smallIncreaseAuction.getAuctionaccountid(), bidAmount + 10);
-        transaction2.put("consensus_timestamp", "c");
+        transaction2.put("consensus_timestamp", "3");
         response = HederaJson.mirrorTransactions(transaction2);
         mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
@@ -379,12 +408,12 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
         belowReserveAuction.setReserve(bidAmount * 2);
         belowReserveAuction.setWinningbid(0L);
         belowReserveAuction = auctionsRepository.add(belowReserveAuction);
-        auctionsRepository.setActive(belowReserveAuction, belowReserveAuction.getTokenowneraccount(), "a");
+        auctionsRepository.setActive(belowReserveAuction, belowReserveAuction.getTokenowneraccount(), "1");
 
         BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, belowReserveAuction.getId(), 5000, /*runOnce= */false);
 
         JsonObject transaction = HederaJson.transactionWithTransfers(fromAccount, belowReserveAuction.getAuctionaccountid(), bidAmount);
-        transaction.put("consensus_timestamp", "c");
+        transaction.put("consensus_timestamp", "3");
         JsonObject response = HederaJson.mirrorTransactions(transaction);
         MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
@@ -409,13 +438,13 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
         smallIncreaseAuction.setWinningbid(0L);
         smallIncreaseAuction.setMinimumbid(100L);
         smallIncreaseAuction = auctionsRepository.add(smallIncreaseAuction);
-        auctionsRepository.setActive(smallIncreaseAuction, smallIncreaseAuction.getTokenowneraccount(), "a");
+        auctionsRepository.setActive(smallIncreaseAuction, smallIncreaseAuction.getTokenowneraccount(), "1");
 
         BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, smallIncreaseAuction.getId(), 5000, /*runOnce= */false);
 
         // create a first bid and current winner (bidAmount)
         JsonObject transaction1 = HederaJson.transactionWithTransfers(fromAccount, smallIncreaseAuction.getAuctionaccountid(), bidAmount);
-        transaction1.put("consensus_timestamp", "b");
+        transaction1.put("consensus_timestamp", "2");
 
         @Var JsonObject response = HederaJson.mirrorTransactions(transaction1);
         @Var MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
@@ -423,7 +452,7 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
 
         // create a second bid (bidAmount-10)
         JsonObject transaction2 = HederaJson.transactionWithTransfers(fromAccount, smallIncreaseAuction.getAuctionaccountid(), bidAmount - 10);
-        transaction2.put("consensus_timestamp", "c");
+        transaction2.put("consensus_timestamp", "3");
         response = HederaJson.mirrorTransactions(transaction2);
         mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
@@ -454,20 +483,20 @@ class BidWatcherIntegrationTest extends AbstractIntegrationTest {
         priorBidUpdateAuction.setWinningbid(0L);
         priorBidUpdateAuction.setMinimumbid(1L);
         priorBidUpdateAuction = auctionsRepository.add(priorBidUpdateAuction);
-        auctionsRepository.setActive(priorBidUpdateAuction, priorBidUpdateAuction.getTokenowneraccount(), "a");
+        auctionsRepository.setActive(priorBidUpdateAuction, priorBidUpdateAuction.getTokenowneraccount(), "1");
 
         BidsWatcher bidsWatcher = new BidsWatcher(hederaClient, auctionsRepository, priorBidUpdateAuction.getId(), 5000, /*runOnce= */false);
 
         // create a first bid and current winner (bidAmount -10)
         JsonObject transaction1 = HederaJson.transactionWithTransfers(fromAccount, priorBidUpdateAuction.getAuctionaccountid(), bidAmount-10);
-        transaction1.put("consensus_timestamp", "b");
+        transaction1.put("consensus_timestamp", "2");
         @Var JsonObject response = HederaJson.mirrorTransactions(transaction1);
         @Var MirrorTransactions mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
 
         // create a second bid and winner (bidAmount)
         JsonObject transaction2 = HederaJson.transactionWithTransfers("winner", priorBidUpdateAuction.getAuctionaccountid(), bidAmount);
-        transaction2.put("consensus_timestamp", "c");
+        transaction2.put("consensus_timestamp", "3");
         response = HederaJson.mirrorTransactions(transaction2);
         mirrorTransactions = response.mapTo(MirrorTransactions.class);
         bidsWatcher.handleResponse(mirrorTransactions);
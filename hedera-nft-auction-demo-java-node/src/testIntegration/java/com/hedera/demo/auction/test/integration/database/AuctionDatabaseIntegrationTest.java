@@ -3,7 +3,11 @@ package com.hedera.demo.auction.test.integration.database;
 import com.google.errorprone.annotations.Var;
 import com.hedera.demo.auction.app.SqlConnectionManager;
 import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.domain.AuctionStats;
+import com.hedera.demo.auction.app.domain.Bid;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.BidsRepository;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
 import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -15,6 +19,7 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +38,8 @@ class AuctionDatabaseIntegrationTest extends AbstractIntegrationTest {
 
     private PostgreSQLContainer postgres;
     private AuctionsRepository auctionsRepository;
+    private BidsRepository bidsRepository;
+    private MirrorCursorsRepository mirrorCursorsRepository;
     private Auction auction;
 
     @BeforeAll
@@ -42,6 +49,8 @@ class AuctionDatabaseIntegrationTest extends AbstractIntegrationTest {
         migrate(postgres);
         SqlConnectionManager connectionManager = new SqlConnectionManager(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
         auctionsRepository = new AuctionsRepository(connectionManager);
+        bidsRepository = new BidsRepository(connectionManager);
+        mirrorCursorsRepository = new MirrorCursorsRepository(connectionManager);
         this.postgres = postgres;
     }
     @AfterAll
@@ -57,7 +66,9 @@ class AuctionDatabaseIntegrationTest extends AbstractIntegrationTest {
 
     @AfterEach
     public void afterEach() throws SQLException {
+        bidsRepository.deleteAllBids();
         auctionsRepository.deleteAllAuctions();
+        mirrorCursorsRepository.deleteAllCursors();
     }
 
     @Test
@@ -69,6 +80,22 @@ class AuctionDatabaseIntegrationTest extends AbstractIntegrationTest {
 
     }
 
+    @Test
+    public void addAuctionWithCursorTest() throws Exception {
+        @Var Auction newAuction = testAuctionObject(2);
+        newAuction = auctionsRepository.add(newAuction, "topic.0.0.1", "2.000000001");
+
+        assertNotEquals(0, newAuction.getId());
+        testNewAuction(newAuction, auctionsRepository.getAuction(newAuction.getId()));
+        assertEquals("2.000000001", mirrorCursorsRepository.getCursor("topic.0.0.1"));
+
+        // an auction already in the database isn't added again, the cursor still moves on
+        Auction duplicate = auctionsRepository.add(testAuctionObject(2), "topic.0.0.1", "2.000000002");
+        assertEquals(0, duplicate.getId());
+        assertEquals(2, auctionsRepository.getAuctionsList().size());
+        assertEquals("2.000000002", mirrorCursorsRepository.getCursor("topic.0.0.1"));
+    }
+
     @Test
     public void setAuctionActiveTest() throws Exception {
 
@@ -217,6 +244,28 @@ class AuctionDatabaseIntegrationTest extends AbstractIntegrationTest {
             assertEquals(testAuction.getCreateauctiontxid(), auctionToTest.getCreateauctiontxid());
         }
     }
+    @Test
+    public void forEachAuctionTest() throws SQLException {
+        int testCount = 5;
+
+        auctionsRepository.deleteAllAuctions();
+
+        for (int i=0; i < testCount; i++) {
+            auctionsRepository.createComplete(testAuctionObject(i));
+        }
+
+        List<Auction> auctions = new ArrayList<>();
+        auctionsRepository.forEachAuction(auctions::add);
+
+        assertEquals(testCount, auctions.size());
+        for (int i=0; i < testCount; i++) {
+            assertEquals(testAuctionObject(i).getTokenid(), auctions.get(i).getTokenid());
+            if (i > 0) {
+                assertTrue(auctions.get(i).getId() > auctions.get(i - 1).getId());
+            }
+        }
+    }
+
     @Test
     public void deleteAllAuctionsTest() throws SQLException {
         int testCount = 2;
@@ -333,4 +382,35 @@ class AuctionDatabaseIntegrationTest extends AbstractIntegrationTest {
         Auction testAuction = auctionsRepository.getAuction(auction.getId());
         assertEquals(Auction.PENDING, testAuction.getStatus());
     }
+
+    @Test
+    public void commitBidsStatsTest() throws Exception {
+        Bid bid1 = testBidObject(1, auction.getId());
+        Bid bid2 = testBidObject(2, auction.getId());
+        Bid bid3 = testBidObject(3, auction.getId());
+        bid3.setBidderaccountid(bid1.getBidderaccountid());
+
+        // a bidder's several bids in the same statement are one bidder
+        auctionsRepository.commitBids(auction, List.of(bid1, bid2, bid3), List.of(), bid3.getTimestamp());
+        @Var AuctionStats auctionStats = auctionsRepository.getAuctionStats(auction.getId());
+        assertEquals(3L, auctionStats.getBidcount());
+        assertEquals(2L, auctionStats.getBiddercount());
+        assertEquals(bid3.getTimestamp(), auctionStats.getLastbidtimestamp());
+
+        // a bidder who already bid in an earlier statement, and a bid which is already in the database
+        Bid bid4 = testBidObject(4, auction.getId());
+        bid4.setBidderaccountid(bid2.getBidderaccountid());
+        Bid bid5 = testBidObject(5, auction.getId());
+        auctionsRepository.commitBids(auction, List.of(bid1, bid4, bid5), List.of(), bid5.getTimestamp());
+        auctionStats = auctionsRepository.getAuctionStats(auction.getId());
+        assertEquals(5L, auctionStats.getBidcount());
+        assertEquals(3L, auctionStats.getBiddercount());
+
+        // all of a bidder's bids deleted in the same statement
+        bidsRepository.deleteAllBids();
+        auctionStats = auctionsRepository.getAuctionStats(auction.getId());
+        assertEquals(0L, auctionStats.getBidcount());
+        assertEquals(0L, auctionStats.getBiddercount());
+        assertEquals("", auctionStats.getLastbidtimestamp());
+    }
 }
@@ -7,6 +7,7 @@ import com.hedera.demo.auction.app.domain.Bid;
 import com.hedera.demo.auction.app.repository.AuctionsRepository;
 import com.hedera.demo.auction.app.repository.BidsRepository;
 import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
+import org.jooq.impl.DSL;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -30,7 +31,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 class BidDatabaseIntegrationTest extends AbstractIntegrationTest {
 
     private PostgreSQLContainer postgres;
+    private SqlConnectionManager connectionManager;
     private BidsRepository bidsRepository;
+    private AuctionsRepository auctionsRepository;
     private int auctionId;
     private Bid bid;
 
@@ -42,8 +45,8 @@ class BidDatabaseIntegrationTest extends AbstractIntegrationTest {
         PostgreSQLContainer<?> postgres = new PostgreSQLContainer("postgres:12.6");
         postgres.start();
         migrate(postgres);
-        SqlConnectionManager connectionManager = new SqlConnectionManager(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
-        AuctionsRepository auctionsRepository = new AuctionsRepository(connectionManager);
+        connectionManager = new SqlConnectionManager(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        auctionsRepository = new AuctionsRepository(connectionManager);
         bidsRepository = new BidsRepository(connectionManager);
         this.postgres = postgres;
 
@@ -175,6 +178,134 @@ public void setRefundError() throws SQLException {
 
     }
 
+    @Test
+    public void claimRefundsTest() throws Exception {
+        bidsRepository.deleteAllBids();
+        Auction auction = testAuctionObject(2);
+        auction.setProcessrefunds(true);
+        Auction refundingAuction = auctionsRepository.createComplete(auction);
+
+        for (int i=0; i < 3; i++) {
+            Bid bid = testBidObject(i, refundingAuction.getId());
+            bid.setRefundstatus(Bid.REFUND_PENDING);
+            bidsRepository.add(bid);
+        }
+        // bid for an auction that doesn't process refunds is never claimed
+        Bid otherBid = testBidObject(4, auctionId);
+        otherBid.setRefundstatus(Bid.REFUND_PENDING);
+        bidsRepository.add(otherBid);
+
+        List<Bid> firstClaim = bidsRepository.claimRefunds("refunder1", 2, 300);
+        assertEquals(2, firstClaim.size());
+        assertTrue(firstClaim.get(0).isRefundIssuing());
+
+        List<Bid> secondClaim = bidsRepository.claimRefunds("refunder2", 2, 300);
+        assertEquals(1, secondClaim.size());
+        assertFalse(firstClaim.stream().anyMatch(bid -> bid.getTimestamp().equals(secondClaim.get(0).getTimestamp())));
+
+        assertEquals(0, bidsRepository.claimRefunds("refunder3", 2, 300).size());
+        // bids leased to a refunder aren't outstanding
+        assertEquals(0, bidsRepository.getOustandingRefunds().size());
+    }
+
+    @Test
+    public void claimRefundsExpiredLeaseTest() throws Exception {
+        bidsRepository.deleteAllBids();
+        Auction auction = testAuctionObject(3);
+        auction.setProcessrefunds(true);
+        Auction refundingAuction = auctionsRepository.createComplete(auction);
+
+        Bid pendingBid = testBidObject(1, refundingAuction.getId());
+        pendingBid.setRefundstatus(Bid.REFUND_PENDING);
+        bidsRepository.add(pendingBid);
+
+        // lease expires immediately, as if the refunder had stopped before issuing the refund
+        assertEquals(1, bidsRepository.claimRefunds("refunder1", 1, 0).size());
+        List<Bid> reclaimed = bidsRepository.claimRefunds("refunder2", 1, 300);
+        assertEquals(1, reclaimed.size());
+        assertEquals(pendingBid.getTimestamp(), reclaimed.get(0).getTimestamp());
+
+        // the first refunder lost its lease
+        assertEquals(0, bidsRepository.extendRefundLeases("refunder1", List.of(pendingBid.getTimestamp()), 300));
+        assertFalse(bidsRepository.setRefundIssued(pendingBid.getTimestamp(), "refunder1TxId", "refunder1ScheduleId", "refunder1"));
+        assertFalse(bidsRepository.setRefundError(pendingBid.getTransactionid(), "refunder1"));
+        assertEquals(Bid.REFUND_ISSUING, bidsRepository.getBidForTimestamp(pendingBid.getTimestamp()).getRefundstatus());
+
+        assertEquals(1, bidsRepository.extendRefundLeases("refunder2", List.of(pendingBid.getTimestamp()), 300));
+        assertTrue(bidsRepository.setRefundIssued(pendingBid.getTimestamp(), "refunder2TxId", "refunder2ScheduleId", "refunder2"));
+        Bid issued = bidsRepository.getBidForTimestamp(pendingBid.getTimestamp());
+        assertEquals(Bid.REFUND_ISSUED, issued.getRefundstatus());
+        assertEquals("refunder2ScheduleId", issued.getScheduleId());
+    }
+
+    @Test
+    public void archiveSettledAuctionsTest() throws SQLException {
+        bidsRepository.deleteAllBids();
+        Auction settledAuction = auctionsRepository.createComplete(testAuctionObject(4));
+        Auction refundingAuction = auctionsRepository.createComplete(testAuctionObject(5));
+
+        List<Bid> settledBids = new ArrayList<>();
+        for (int i=0; i < 2; i++) {
+            Bid settledBid = testBidObject(i, settledAuction.getId());
+            settledBid.setRefundstatus(Bid.REFUND_REFUNDED);
+            bidsRepository.add(settledBid);
+            settledBids.add(settledBid);
+        }
+        Bid pendingBid = testBidObject(2, refundingAuction.getId());
+        pendingBid.setRefundstatus(Bid.REFUND_PENDING);
+        bidsRepository.add(pendingBid);
+
+        // neither auction has ended
+        assertEquals(0, bidsRepository.archiveSettledAuctions());
+
+        auctionsRepository.setEnded(settledAuction.getId());
+        auctionsRepository.setEnded(refundingAuction.getId());
+        // only the auction without refunds outstanding is archived
+        assertEquals(2, bidsRepository.archiveSettledAuctions());
+        assertEquals(0, bidsRepository.archiveSettledAuctions());
+        // its bids moved out of the live partition to the archive partition created for its range of auction ids
+        assertEquals(1, partitionCount("bids_live"));
+        assertEquals(2, partitionCount("bids_archive_" + (settledAuction.getId() - settledAuction.getId() % 100)));
+
+        // archived bids remain part of the auction's history and statistics
+        assertEquals(3, bidsRepository.getBidsList().size());
+        assertEquals(2, bidsRepository.getLastBids(settledAuction.getId(), 10).size());
+        assertEquals(2L, auctionsRepository.getAuctionStats(settledAuction.getId()).getBidcount());
+        assertEquals(1, bidsRepository.getBidsToRefund(refundingAuction.getId()).size());
+
+        // an archived bid seen again is already in the database
+        auctionsRepository.commitBids(settledAuction, settledBids, List.of(), settledBids.get(1).getTimestamp());
+        assertEquals(3, bidsRepository.getBidsList().size());
+        assertEquals(2L, auctionsRepository.getAuctionStats(settledAuction.getId()).getBidcount());
+
+        bidsRepository.setRefundIssuing(pendingBid.getTimestamp());
+        bidsRepository.setRefundIssued(pendingBid.getTimestamp(), "", "");
+        bidsRepository.setRefunded(pendingBid.getTransactionid(), "", "");
+        assertEquals(1, bidsRepository.archiveSettledAuctions());
+        assertEquals(0, bidsRepository.getBidsToRefund(refundingAuction.getId()).size());
+    }
+
+    private int partitionCount(String partition) throws SQLException {
+        return connectionManager.dsl().fetchCount(DSL.table(DSL.name(partition)));
+    }
+
+    @Test
+    public void forEachBidTest() throws SQLException {
+        bidsRepository.deleteAllBids();
+        for (int i=0; i < 5; i++) {
+            Bid bid = testBidObject(i, auctionId);
+            bidsRepository.add(bid);
+        }
+
+        List<Bid> bids = new ArrayList<>();
+        bidsRepository.forEachBid(bids::add);
+
+        assertEquals(5, bids.size());
+        for (int i=0; i < 5; i++) {
+            testNewBid(testBidObject(i, auctionId), bids.get(i));
+        }
+    }
+
     @Test
     public void deleteAllBidsTest() throws SQLException {
 
@@ -0,0 +1,120 @@
+package com.hedera.demo.auction.test.integration.database;
+
+import com.hedera.demo.auction.app.DatabaseChangeFeed;
+import com.hedera.demo.auction.app.SqlConnectionManager;
+import com.hedera.demo.auction.app.domain.Auction;
+import com.hedera.demo.auction.app.domain.Bid;
+import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.BidsRepository;
+import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(VertxExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DatabaseChangeFeedIntegrationTest extends AbstractIntegrationTest {
+
+    private PostgreSQLContainer postgres;
+    private SqlConnectionManager connectionManager;
+    private AuctionsRepository auctionsRepository;
+    private BidsRepository bidsRepository;
+    private Vertx vertx;
+
+    @BeforeAll
+    public void beforeAll() {
+        this.postgres = new PostgreSQLContainer("postgres:12.6");
+        this.postgres.start();
+        migrate(this.postgres);
+        this.vertx = Vertx.vertx();
+        this.connectionManager = new SqlConnectionManager(this.postgres.getJdbcUrl(), this.postgres.getUsername(), this.postgres.getPassword());
+        this.auctionsRepository = new AuctionsRepository(connectionManager);
+        this.bidsRepository = new BidsRepository(connectionManager);
+    }
+
+    @AfterAll
+    public void afterAll(VertxTestContext testContext) {
+        this.connectionManager.close();
+        this.vertx.close(testContext.completing());
+        this.postgres.close();
+    }
+
+    @AfterEach
+    public void afterEach() throws SQLException {
+        bidsRepository.deleteAllBids();
+        auctionsRepository.deleteAllAuctions();
+    }
+
+    @Test
+    public void bidChangePublishedTest(VertxTestContext testContext) throws SQLException {
+        Auction auction = auctionsRepository.createComplete(testAuctionObject(1));
+        Bid bid = testBidObject(1, auction.getId());
+
+        DatabaseChangeFeed changeFeed = new DatabaseChangeFeed(vertx, connectionManager);
+        MessageConsumer<JsonObject> consumer = vertx.eventBus().consumer(DatabaseChangeFeed.EVENT_BUS_ADDRESS);
+        consumer.handler(message -> testContext.verify(() -> {
+            JsonObject event = message.body();
+            if ("bids".equals(event.getString("table"))) {
+                assertEquals("INSERT", event.getString("op"));
+                assertEquals(auction.getId(), event.getInteger("auctionid"));
+                assertEquals(bid.getTimestamp(), event.getString("timestamp"));
+                changeFeed.close();
+                consumer.unregister();
+                testContext.completeNow();
+            }
+        }));
+
+        changeFeed.start()
+                .compose(v -> vertx.executeBlocking(promise -> {
+                    try {
+                        bidsRepository.add(bid);
+                        promise.complete();
+                    } catch (SQLException e) {
+                        promise.fail(e);
+                    }
+                }))
+                .onFailure(testContext::failNow);
+    }
+
+    @Test
+    public void auctionChangePublishedTest(VertxTestContext testContext) throws SQLException {
+        Auction auction = auctionsRepository.createComplete(testAuctionObject(1));
+
+        DatabaseChangeFeed changeFeed = new DatabaseChangeFeed(vertx, connectionManager);
+        MessageConsumer<JsonObject> consumer = vertx.eventBus().consumer(DatabaseChangeFeed.EVENT_BUS_ADDRESS);
+        consumer.handler(message -> testContext.verify(() -> {
+            JsonObject event = message.body();
+            assertEquals("auctions", event.getString("table"));
+            assertEquals("UPDATE", event.getString("op"));
+            assertEquals(auction.getId(), event.getInteger("auctionid"));
+            assertEquals(Auction.ENDED, event.getString("status"));
+            changeFeed.close();
+            consumer.unregister();
+            testContext.completeNow();
+        }));
+
+        changeFeed.start()
+                .compose(v -> vertx.executeBlocking(promise -> {
+                    try {
+                        auctionsRepository.setEnded(auction.getId());
+                        promise.complete();
+                    } catch (SQLException e) {
+                        promise.fail(e);
+                    }
+                }))
+                .onFailure(testContext::failNow);
+    }
+}
@@ -0,0 +1,63 @@
+package com.hedera.demo.auction.test.integration.database;
+
+import com.hedera.demo.auction.app.SqlConnectionManager;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
+import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MirrorCursorsDatabaseIntegrationTest extends AbstractIntegrationTest {
+
+    public MirrorCursorsDatabaseIntegrationTest() {
+    }
+
+    private PostgreSQLContainer postgres;
+    private MirrorCursorsRepository mirrorCursorsRepository;
+
+    @BeforeAll
+    public void beforeAll() {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer("postgres:12.6");
+        postgres.start();
+        migrate(postgres);
+        SqlConnectionManager connectionManager = new SqlConnectionManager(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        mirrorCursorsRepository = new MirrorCursorsRepository(connectionManager);
+        this.postgres = postgres;
+    }
+
+    @AfterAll
+    public void afterAll() {
+        this.postgres.close();
+    }
+
+    @AfterEach
+    public void afterEach() throws SQLException {
+        mirrorCursorsRepository.deleteAllCursors();
+    }
+
+    @Test
+    public void getMissingCursorTest() throws SQLException {
+        assertEquals("", mirrorCursorsRepository.getCursor("missing"));
+    }
+
+    @Test
+    public void setCursorTest() throws SQLException {
+        mirrorCursorsRepository.setCursor("bids", "1617786661.662353000");
+        assertEquals("1617786661.662353000", mirrorCursorsRepository.getCursor("bids"));
+
+        mirrorCursorsRepository.setCursor("bids", "1617786662.662353000");
+        assertEquals("1617786662.662353000", mirrorCursorsRepository.getCursor("bids"));
+
+        assertEquals("", mirrorCursorsRepository.getCursor("topic"));
+    }
+}
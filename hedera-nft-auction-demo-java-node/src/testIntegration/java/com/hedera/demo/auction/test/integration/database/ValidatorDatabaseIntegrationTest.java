@@ -3,6 +3,7 @@ package com.hedera.demo.auction.test.integration.database;
 import com.google.errorprone.annotations.Var;
 import com.hedera.demo.auction.app.SqlConnectionManager;
 import com.hedera.demo.auction.app.domain.Validator;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
 import com.hedera.demo.auction.app.repository.ValidatorsRepository;
 import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
 import com.hedera.hashgraph.sdk.PrivateKey;
@@ -21,6 +22,7 @@ import java.sql.SQLException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Testcontainers
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -31,6 +33,7 @@ class ValidatorDatabaseIntegrationTest extends AbstractIntegrationTest {
 
     private PostgreSQLContainer postgres;
     private ValidatorsRepository validatorsRepository;
+    private MirrorCursorsRepository mirrorCursorsRepository;
     private Validator validator;
 
     @BeforeAll
@@ -40,6 +43,7 @@ class ValidatorDatabaseIntegrationTest extends AbstractIntegrationTest {
         migrate(postgres);
         SqlConnectionManager connectionManager = new SqlConnectionManager(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
         validatorsRepository = new ValidatorsRepository(connectionManager);
+        mirrorCursorsRepository = new MirrorCursorsRepository(connectionManager);
         this.postgres = postgres;
     }
     @AfterAll
@@ -64,6 +68,7 @@ class ValidatorDatabaseIntegrationTest extends AbstractIntegrationTest {
     @AfterEach
     public void afterEach() throws SQLException {
         validatorsRepository.deleteAllValidators();
+        mirrorCursorsRepository.deleteAllCursors();
     }
 
     @Test
@@ -172,4 +177,44 @@ class ValidatorDatabaseIntegrationTest extends AbstractIntegrationTest {
         List<Validator> validators = validatorsRepository.getValidatorsList();
         assertEquals(1, validators.size());
     }
+
+    @Test
+    public void manageRecordsCursorTest() throws Exception {
+        JsonObject validatorJson = new JsonObject();
+        validatorJson.put("name", "name2");
+        validatorJson.put("url", "https://hedera.com");
+        validatorJson.put("publicKey", validator.getPublicKey());
+        validatorJson.put("operation", "add");
+        JsonArray validatorsJson = new JsonArray();
+        validatorsJson.add(validatorJson);
+
+        validatorsRepository.manage(validatorsJson, "topic.0.0.1", "2.000000001");
+
+        assertEquals(2, validatorsRepository.getValidatorsList().size());
+        assertEquals("2.000000001", mirrorCursorsRepository.getCursor("topic.0.0.1"));
+    }
+
+    @Test
+    public void failedManageDoesNotRecordCursorTest() throws SQLException {
+        @Var JsonObject validatorJson = new JsonObject();
+        validatorJson.put("name", "name2");
+        validatorJson.put("url", "https://hedera.com");
+        validatorJson.put("publicKey", validator.getPublicKey());
+        validatorJson.put("operation", "add");
+        JsonArray validatorsJson = new JsonArray();
+        validatorsJson.add(validatorJson);
+
+        // the second operation is a duplicate, rolling back the first
+        validatorJson = new JsonObject();
+        validatorJson.put("name", validator.getName());
+        validatorJson.put("url", validator.getUrl());
+        validatorJson.put("publicKey", validator.getPublicKey());
+        validatorJson.put("operation", "add");
+        validatorsJson.add(validatorJson);
+
+        assertThrows(Exception.class, () -> validatorsRepository.manage(validatorsJson, "topic.0.0.1", "2.000000001"));
+
+        assertEquals(1, validatorsRepository.getValidatorsList().size());
+        assertEquals("", mirrorCursorsRepository.getCursor("topic.0.0.1"));
+    }
 }
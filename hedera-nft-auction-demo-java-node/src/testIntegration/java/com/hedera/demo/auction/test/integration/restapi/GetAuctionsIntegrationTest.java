@@ -10,6 +10,7 @@ import com.hedera.demo.auction.app.repository.BidsRepository;
 import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.codec.BodyCodec;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
@@ -127,6 +128,51 @@ public class GetAuctionsIntegrationTest extends AbstractIntegrationTest {
                 })));
     }
 
+    @Test
+    public void getAuctionStats(VertxTestContext testContext) throws SQLException {
+        Auction auction = auctionsRepository.createComplete(testAuctionObject(1));
+
+        Bid bid1 = testBidObject(1, auction.getId());
+        bid1.setStatus(Bid.BELOW_RESERVE);
+        bidsRepository.add(bid1);
+        Bid bid2 = testBidObject(2, auction.getId());
+        bidsRepository.add(bid2);
+        bidsRepository.setRefunded(bid2.getTransactionid(), "refundtxid", "refundtxhash");
+        Bid bid3 = testBidObject(3, auction.getId());
+        bid3.setBidderaccountid(bid1.getBidderaccountid());
+        bid3.setRefundstatus(Bid.REFUND_PENDING);
+        bidsRepository.add(bid3);
+
+        webClient.get(9005, "localhost", "/v1/auctionstats/".concat(String.valueOf(auction.getId())))
+                .as(BodyCodec.jsonObject())
+                .send(testContext.succeeding(response -> testContext.verify(() -> {
+                    assertEquals(200, response.statusCode());
+                    JsonObject body = response.body();
+                    assertEquals(auction.getId(), body.getInteger("auctionid"));
+                    assertEquals(3L, body.getLong("bidcount"));
+                    assertEquals(2L, body.getLong("biddercount"));
+                    assertEquals(1L, body.getLong("belowreservecount"));
+                    assertEquals(1L, body.getLong("refundspending"));
+                    assertEquals(1L, body.getLong("refundsissued"));
+                    assertEquals(1L, body.getLong("refundsrefunded"));
+                    assertEquals(bid3.getTimestamp(), body.getString("lastbidtimestamp"));
+
+                    bidsRepository.deleteAllBids();
+                    auctionsRepository.deleteAllAuctions();
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    public void getAuctionStatsNotFound(VertxTestContext testContext) {
+        webClient.get(9005, "localhost", "/v1/auctionstats/999")
+                .as(BodyCodec.buffer())
+                .send(testContext.succeeding(response -> testContext.verify(() -> {
+                    assertEquals(404, response.statusCode());
+                    testContext.completeNow();
+                })));
+    }
+
   @Test
   public void getAuctionSold(VertxTestContext testContext) throws SQLException {
     // reserve met auction
@@ -90,6 +90,63 @@ public class GetBidsIntegrationTest extends AbstractIntegrationTest {
                 })));
     }
 
+    @Test
+    public void getBidsPagedTest(VertxTestContext testContext) throws SQLException {
+        Auction auction = testAuctionObject(1);
+        Auction newAuction1 = auctionsRepository.createComplete(auction);
+
+        Bid bid1 = testBidObject(1, newAuction1.getId());
+        bid1.setTimestamp("999999999.000000001");
+        bidsRepository.add(bid1);
+        Bid bid2 = testBidObject(2, newAuction1.getId());
+        bid2.setTimestamp("1000000000.000000002");
+        bidsRepository.add(bid2);
+        Bid bid3 = testBidObject(3, newAuction1.getId());
+        bid3.setTimestamp("1000000000.000000003");
+        bidsRepository.add(bid3);
+
+        String url = "/v1/bids/".concat(String.valueOf(newAuction1.getId()));
+        webClient.get(9005, "localhost", url.concat("?limit=2"))
+                .as(BodyCodec.buffer())
+                .send(testContext.succeeding(response -> testContext.verify(() -> {
+                    JsonArray firstPage = new JsonArray(response.body());
+                    assertEquals(2, firstPage.size());
+                    verifyBid(bid3, firstPage.getJsonObject(0));
+                    verifyBid(bid2, firstPage.getJsonObject(1));
+
+                    webClient.get(9005, "localhost", url.concat("?limit=2&before=").concat(bid2.getTimestamp()))
+                            .as(BodyCodec.buffer())
+                            .send(testContext.succeeding(nextResponse -> testContext.verify(() -> {
+                                JsonArray secondPage = new JsonArray(nextResponse.body());
+                                assertEquals(1, secondPage.size());
+                                verifyBid(bid1, secondPage.getJsonObject(0));
+
+                                webClient.get(9005, "localhost", url.concat("?limit=1&after=").concat(bid1.getTimestamp()))
+                                        .as(BodyCodec.buffer())
+                                        .send(testContext.succeeding(afterResponse -> testContext.verify(() -> {
+                                            JsonArray afterPage = new JsonArray(afterResponse.body());
+                                            assertEquals(1, afterPage.size());
+                                            verifyBid(bid2, afterPage.getJsonObject(0));
+
+                                            bidsRepository.deleteAllBids();
+                                            auctionsRepository.deleteAllAuctions();
+                                            testContext.completeNow();
+                                        })));
+                            })));
+                })));
+    }
+
+  @Test
+  public void getBidsInvalidCursor(VertxTestContext testContext) {
+    webClient.get(9005, "localhost", "/v1/bids/1?before=abc")
+            .as(BodyCodec.buffer())
+            .send(testContext.succeeding(response -> testContext.verify(() -> {
+              assertNull(response.body());
+              assertEquals(500, response.statusCode());
+              testContext.completeNow();
+            })));
+  }
+
   @Test
   public void getBidsInvalidAuctionId(VertxTestContext testContext) {
     webClient.get(9005, "localhost", "/v1/bids/abc")
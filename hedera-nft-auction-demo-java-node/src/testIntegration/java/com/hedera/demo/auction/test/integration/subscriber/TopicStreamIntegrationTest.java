@@ -0,0 +1,219 @@
+package com.hedera.demo.auction.test.integration.subscriber;
+
+import com.hedera.demo.auction.app.HederaClient;
+import com.hedera.demo.auction.app.SqlConnectionManager;
+import com.hedera.demo.auction.app.mirrormapping.MirrorTopicMessage;
+import com.hedera.demo.auction.app.repository.AuctionsRepository;
+import com.hedera.demo.auction.app.repository.MirrorCursorsRepository;
+import com.hedera.demo.auction.app.repository.ValidatorsRepository;
+import com.hedera.demo.auction.app.subscriber.TopicMessageStream;
+import com.hedera.demo.auction.app.subscriber.TopicSubscriber;
+import com.hedera.demo.auction.test.integration.AbstractIntegrationTest;
+import com.hedera.hashgraph.sdk.PrivateKey;
+import com.hedera.hashgraph.sdk.TopicId;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TopicStreamIntegrationTest extends AbstractIntegrationTest {
+
+    private PostgreSQLContainer postgres;
+    private AuctionsRepository auctionsRepository;
+    private ValidatorsRepository validatorsRepository;
+    private MirrorCursorsRepository mirrorCursorsRepository;
+    private final HederaClient hederaClient = new HederaClient();
+    private final static TopicId topicId = TopicId.fromString("0.0.1");
+    private final static String cursorName = TopicSubscriber.CURSOR_PREFIX.concat(topicId.toString());
+
+    private TopicSubscriber topicSubscriber;
+
+    public TopicStreamIntegrationTest() throws Exception {
+    }
+
+    @BeforeAll
+    public void beforeAll() {
+        this.postgres = new PostgreSQLContainer("postgres:12.6");
+        this.postgres.start();
+        migrate(this.postgres);
+        SqlConnectionManager connectionManager = new SqlConnectionManager(this.postgres.getJdbcUrl(), this.postgres.getUsername(), this.postgres.getPassword());
+        auctionsRepository = new AuctionsRepository(connectionManager);
+        validatorsRepository = new ValidatorsRepository(connectionManager);
+        mirrorCursorsRepository = new MirrorCursorsRepository(connectionManager);
+    }
+
+    @AfterAll
+    public void afterAll() {
+        this.postgres.close();
+    }
+
+    @AfterEach
+    public void afterEach() throws SQLException {
+        topicSubscriber.stop();
+        validatorsRepository.deleteAllValidators();
+        mirrorCursorsRepository.deleteAllCursors();
+    }
+
+    @Test
+    public void testStreamReconnectsAfterLastProcessed() throws Exception {
+        StandInTopicMessageStream stream = new StandInTopicMessageStream();
+        // the first connection fails after two messages
+        stream.script(List.of(validatorMessage("1.000000001", "validator1"), validatorMessage("1.000000002", "validator2")), true);
+        // the second redelivers the last message before a new one
+        stream.script(List.of(validatorMessage("1.000000002", "duplicate"), validatorMessage("1.000000003", "validator3")), false);
+
+        startSubscriber(stream);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> "1.000000003".equals(mirrorCursorsRepository.getCursor(cursorName)));
+
+        assertEquals(List.of("0.0", "1.000000002"), stream.subscribedAfter);
+        assertEquals(3, validatorsRepository.getValidatorsList().size());
+    }
+
+    @Test
+    public void testStreamResumesFromPersistedTimestamp() throws Exception {
+        mirrorCursorsRepository.setCursor(cursorName, "1.000000005");
+        StandInTopicMessageStream stream = new StandInTopicMessageStream();
+        stream.script(List.of(validatorMessage("1.000000006", "validator6")), false);
+
+        startSubscriber(stream);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> "1.000000006".equals(mirrorCursorsRepository.getCursor(cursorName)));
+
+        assertEquals(List.of("1.000000005"), stream.subscribedAfter);
+        assertEquals(1, validatorsRepository.getValidatorsList().size());
+    }
+
+    @Test
+    public void testStreamRetriesMessageWhichFailed() throws Exception {
+        StandInTopicMessageStream stream = new StandInTopicMessageStream();
+        MirrorTopicMessage invalid = validatorMessage("1.000000002", "invalid");
+        invalid.messageBase64 = Base64.getEncoder().encodeToString("{\"validators\":[{\"name\":\"\",\"operation\":\"add\"}]}".getBytes(StandardCharsets.UTF_8));
+        // the first message fails once, the subscription is cancelled before the invalid message is processed
+        stream.script(List.of(validatorMessage("1.000000001", "validator1"), invalid), false);
+        stream.script(List.of(validatorMessage("1.000000001", "validator1"), invalid, validatorMessage("1.000000003", "validator3")), false);
+
+        startSubscriber(stream, new FailingValidatorsRepository(validatorsRepository, "validator1", new SQLException("database unavailable"), 1));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> "1.000000003".equals(mirrorCursorsRepository.getCursor(cursorName)));
+
+        // resubscribed after the failed message, the invalid message is skipped
+        assertEquals(List.of("0.0", "0.0"), stream.subscribedAfter);
+        assertEquals(2, validatorsRepository.getValidatorsList().size());
+    }
+
+    @Test
+    public void testStreamSkipsMessageWhichFailsPermanently() throws Exception {
+        StandInTopicMessageStream stream = new StandInTopicMessageStream();
+        stream.script(List.of(validatorMessage("1.000000001", "validator1"), validatorMessage("1.000000002", "validator2")), false);
+
+        startSubscriber(stream, new FailingValidatorsRepository(validatorsRepository, "validator1", new IllegalStateException("not retryable"), Integer.MAX_VALUE));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> "1.000000002".equals(mirrorCursorsRepository.getCursor(cursorName)));
+
+        // the failed message isn't delivered again
+        assertEquals(List.of("0.0"), stream.subscribedAfter);
+        assertEquals(1, validatorsRepository.getValidatorsList().size());
+    }
+
+    private void startSubscriber(TopicMessageStream stream) {
+        startSubscriber(stream, validatorsRepository);
+    }
+
+    private void startSubscriber(TopicMessageStream stream, ValidatorsRepository validatorsRepository) {
+        topicSubscriber = new TopicSubscriber(hederaClient, auctionsRepository, validatorsRepository, topicId, 100, masterKey, /*runOnce= */ false);
+        topicSubscriber.setSkipReadinessWatcher();
+        topicSubscriber.setTopicMessageStream(stream);
+        topicSubscriber.setMirrorCursorsRepository(mirrorCursorsRepository);
+        Thread thread = new Thread(topicSubscriber);
+        thread.start();
+    }
+
+    private static MirrorTopicMessage validatorMessage(String consensusTimestamp, String name) {
+        JsonObject validator = new JsonObject();
+        validator.put("name", name);
+        validator.put("url", "https://hedera.com");
+        validator.put("publicKey", PrivateKey.generate().getPublicKey().toString());
+        validator.put("operation", "add");
+        JsonObject validatorJson = new JsonObject().put("validators", new JsonArray().add(validator));
+
+        MirrorTopicMessage mirrorTopicMessage = new MirrorTopicMessage();
+        mirrorTopicMessage.consensusTimestamp = consensusTimestamp;
+        mirrorTopicMessage.messageBase64 = Base64.getEncoder().encodeToString(validatorJson.encode().getBytes(StandardCharsets.UTF_8));
+        return mirrorTopicMessage;
+    }
+
+    /**
+     * Fails the first times a validator is added with the given exception
+     */
+    private static class FailingValidatorsRepository extends ValidatorsRepository {
+        private final ValidatorsRepository validatorsRepository;
+        private final String failingName;
+        private final Exception failure;
+        private int failures;
+
+        FailingValidatorsRepository(ValidatorsRepository validatorsRepository, String failingName, Exception failure, int failures) {
+            super(null);
+            this.validatorsRepository = validatorsRepository;
+            this.failingName = failingName;
+            this.failure = failure;
+            this.failures = failures;
+        }
+
+        @Override
+        public void manage(JsonArray validators, String cursorName, String cursorTimestamp) throws Exception {
+            if (failures > 0 && failingName.equals(validators.getJsonObject(0).getString("name"))) {
+                failures--;
+                throw failure;
+            }
+            validatorsRepository.manage(validators, cursorName, cursorTimestamp);
+        }
+    }
+
+    /**
+     * In-process stand-in for the mirror node's topic stream, each subscription delivers the next scripted
+     * messages then optionally fails
+     */
+    private static class StandInTopicMessageStream implements TopicMessageStream {
+        private final Deque<List<MirrorTopicMessage>> messages = new ArrayDeque<>();
+        private final Deque<Boolean> failures = new ArrayDeque<>();
+        private final List<String> subscribedAfter = new ArrayList<>();
+
+        void script(List<MirrorTopicMessage> subscriptionMessages, boolean fail) {
+            messages.add(subscriptionMessages);
+            failures.add(fail);
+        }
+
+        @Override
+        public synchronized Subscription subscribe(TopicId topicId, String afterTimestamp, Consumer<MirrorTopicMessage> onMessage, Consumer<Throwable> onError) {
+            subscribedAfter.add(afterTimestamp);
+            if (! messages.isEmpty()) {
+                messages.poll().forEach(onMessage);
+                if (failures.poll()) {
+                    onError.accept(new RuntimeException("connection lost"));
+                }
+            }
+            return () -> { };
+        }
+    }
+}